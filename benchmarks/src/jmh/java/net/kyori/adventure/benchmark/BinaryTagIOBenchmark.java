@@ -0,0 +1,152 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.benchmark;
+
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.nbt.BinaryTagIO;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for binary NBT reading and writing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BinaryTagIOBenchmark {
+  @Param({"bigtest", "inventory"})
+  public String fixture;
+
+  private CompoundBinaryTag tag;
+  private byte[] bytes;
+  private byte[] compressed;
+  private ByteBuffer direct;
+
+  @Setup
+  public void setup() throws IOException {
+    this.tag = this.fixture.equals("inventory") ? Fixtures.inventory(36) : Fixtures.bigTest();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writeOutputStream(this.tag, output);
+    this.bytes = output.toByteArray();
+    output.reset();
+    BinaryTagIO.writeCompressedOutputStream(this.tag, output);
+    this.compressed = output.toByteArray();
+    this.direct = ByteBuffer.allocateDirect(this.bytes.length);
+    this.direct.put(this.bytes).flip();
+  }
+
+  @Benchmark
+  public CompoundBinaryTag readDataInput() throws IOException {
+    return BinaryTagIO.readDataInput(new DataInputStream(new ByteArrayInputStream(this.bytes)));
+  }
+
+  @Benchmark
+  public CompoundBinaryTag readByteArrayDataInput() throws IOException {
+    final ByteArrayDataInput input = ByteStreams.newDataInput(this.bytes);
+    return BinaryTagIO.readDataInput(input);
+  }
+
+  @Benchmark
+  public CompoundBinaryTag readByteBuffer() throws IOException {
+    return BinaryTagIO.readByteBuffer(ByteBuffer.wrap(this.bytes));
+  }
+
+  @Benchmark
+  public CompoundBinaryTag readDirectByteBuffer() throws IOException {
+    return BinaryTagIO.readByteBuffer(this.direct.duplicate());
+  }
+
+  @Benchmark
+  public CompoundBinaryTag readCompressedInputStream() throws IOException {
+    return BinaryTagIO.readCompressedInputStream(new ByteArrayInputStream(this.compressed));
+  }
+
+  @Benchmark
+  public CompoundBinaryTag readLazyByteArray() throws IOException {
+    return BinaryTagIO.readLazyByteArray(this.bytes);
+  }
+
+  @Benchmark
+  public ByteBuffer roundTripByteBuffer() throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(this.bytes.length);
+    BinaryTagIO.writeByteBuffer(BinaryTagIO.readByteBuffer(ByteBuffer.wrap(this.bytes)), buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public ByteBuffer roundTripLazy() throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(this.bytes.length);
+    BinaryTagIO.writeByteBuffer(BinaryTagIO.readLazyByteArray(this.bytes), buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public byte[] writeDataOutput() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(this.bytes.length);
+    BinaryTagIO.writeDataOutput(this.tag, new DataOutputStream(output));
+    return output.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] writeByteArrayDataOutput() throws IOException {
+    final ByteArrayDataOutput output = ByteStreams.newDataOutput(this.bytes.length);
+    BinaryTagIO.writeDataOutput(this.tag, output);
+    return output.toByteArray();
+  }
+
+  @Benchmark
+  public byte[] writeByteArray() throws IOException {
+    return BinaryTagIO.writeByteArray(this.tag);
+  }
+
+  @Benchmark
+  public ByteBuffer writeByteBuffer() throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(this.bytes.length);
+    BinaryTagIO.writeByteBuffer(this.tag, buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public byte[] writeCompressedOutputStream() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(this.compressed.length);
+    BinaryTagIO.writeCompressedOutputStream(this.tag, output);
+    return output.toByteArray();
+  }
+}
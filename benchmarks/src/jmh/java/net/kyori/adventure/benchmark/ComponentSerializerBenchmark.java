@@ -0,0 +1,90 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.text.serializer.plain.PlainComponentSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the gson, legacy and plain component serializers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComponentSerializerBenchmark {
+  @Param({"chat", "deep"})
+  public String fixture;
+
+  private Component component;
+  private String json;
+  private String legacy;
+
+  @Setup
+  public void setup() {
+    this.component = this.fixture.equals("deep") ? Fixtures.deepTree(4, 4) : Fixtures.chatMessage();
+    this.json = GsonComponentSerializer.gson().serialize(this.component);
+    this.legacy = LegacyComponentSerializer.legacy().serialize(this.component);
+  }
+
+  @Benchmark
+  public String gsonSerialize() {
+    return GsonComponentSerializer.gson().serialize(this.component);
+  }
+
+  @Benchmark
+  public Component gsonDeserialize() {
+    return GsonComponentSerializer.gson().deserialize(this.json);
+  }
+
+  @Benchmark
+  public String gsonDownsamplingSerialize() {
+    return GsonComponentSerializer.colorDownsamplingGson().serialize(this.component);
+  }
+
+  @Benchmark
+  public String legacySerialize() {
+    return LegacyComponentSerializer.legacy().serialize(this.component);
+  }
+
+  @Benchmark
+  public Component legacyDeserialize() {
+    return LegacyComponentSerializer.legacy().deserialize(this.legacy);
+  }
+
+  @Benchmark
+  public String plainSerialize() {
+    return PlainComponentSerializer.plain().serialize(this.component);
+  }
+}
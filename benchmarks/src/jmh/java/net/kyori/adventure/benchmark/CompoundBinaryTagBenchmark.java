@@ -0,0 +1,96 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.nbt.BinaryTagTypes;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.ListBinaryTag;
+import net.kyori.adventure.nbt.StringBinaryTag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for modifying compound and list tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompoundBinaryTagBenchmark {
+  @Param({"8", "200"})
+  public int size;
+
+  private String[] keys;
+  private CompoundBinaryTag compound;
+  private ListBinaryTag list;
+
+  @Setup
+  public void setup() {
+    this.keys = new String[this.size];
+    final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder();
+    final ListBinaryTag.Builder<StringBinaryTag> list = ListBinaryTag.builder(BinaryTagTypes.STRING);
+    for(int i = 0; i < this.size; i++) {
+      this.keys[i] = "key" + i;
+      builder.putInt(this.keys[i], i);
+      list.add(StringBinaryTag.of(this.keys[i]));
+    }
+    this.compound = builder.build();
+    this.list = list.build();
+  }
+
+  @Benchmark
+  public CompoundBinaryTag chainedPut() {
+    CompoundBinaryTag tag = CompoundBinaryTag.empty();
+    for(int i = 0; i < this.keys.length; i++) {
+      tag = tag.putInt(this.keys[i], i);
+    }
+    return tag;
+  }
+
+  @Benchmark
+  public CompoundBinaryTag put() {
+    return this.compound.putInt(this.keys[this.keys.length / 2], -1);
+  }
+
+  @Benchmark
+  public CompoundBinaryTag remove() {
+    return this.compound.remove(this.keys[this.keys.length / 2]);
+  }
+
+  @Benchmark
+  public ListBinaryTag listAdd() {
+    return this.list.add(StringBinaryTag.of("added"));
+  }
+
+  @Benchmark
+  public ListBinaryTag listSet() {
+    return this.list.set(this.size / 2, StringBinaryTag.of("set"), null);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.nbt.BinaryTagIO;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.Compression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for compressed binary NBT reading and writing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompressionBenchmark {
+  @Param({"none", "gzip", "zlib", "lz4"})
+  public String compression;
+
+  private Compression codec;
+  private CompoundBinaryTag tag;
+  private byte[] compressed;
+
+  @Setup
+  public void setup() throws IOException {
+    this.codec = codec(this.compression);
+    this.tag = Fixtures.inventory(36);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    BinaryTagIO.writeCompressedOutputStream(this.tag, output, this.codec);
+    this.compressed = output.toByteArray();
+  }
+
+  @Benchmark
+  public CompoundBinaryTag read() throws IOException {
+    return BinaryTagIO.readCompressedInputStream(new ByteArrayInputStream(this.compressed), this.codec);
+  }
+
+  @Benchmark
+  public byte[] write() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(this.compressed.length);
+    BinaryTagIO.writeCompressedOutputStream(this.tag, output, this.codec);
+    return output.toByteArray();
+  }
+
+  private static Compression codec(final String name) {
+    switch(name) {
+      case "gzip": return Compression.gzip();
+      case "zlib": return Compression.zlib();
+      case "lz4": return Compression.lz4();
+      default: return Compression.none();
+    }
+  }
+}
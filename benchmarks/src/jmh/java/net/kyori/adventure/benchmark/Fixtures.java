@@ -0,0 +1,172 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.benchmark;
+
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.nbt.BinaryTagTypes;
+import net.kyori.adventure.nbt.ByteArrayBinaryTag;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.ListBinaryTag;
+import net.kyori.adventure.nbt.LongBinaryTag;
+import net.kyori.adventure.nbt.api.BinaryTagHolder;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.KeybindComponent;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+/**
+ * Shared fixtures for benchmarks.
+ */
+/* package */ final class Fixtures {
+  private Fixtures() {
+  }
+
+  /**
+   * A chat line as typically broadcast by a server: a prefix, a name with hover and click events, and a message.
+   *
+   * @return a component
+   */
+  /* package */ static Component chatMessage() {
+    return TextComponent.builder()
+      .append(TextComponent.builder("[").color(NamedTextColor.DARK_GRAY).build())
+      .append(TextComponent.builder("Admin").color(TextColor.of(0xff5555)).decoration(TextDecoration.BOLD, true).build())
+      .append(TextComponent.builder("] ").color(NamedTextColor.DARK_GRAY).build())
+      .append(TextComponent.builder("kashike")
+        .color(NamedTextColor.GOLD)
+        .hoverEvent(HoverEvent.showText(TextComponent.builder("Click to message ")
+          .color(NamedTextColor.GRAY)
+          .append(TextComponent.of("kashike", NamedTextColor.GOLD))
+          .append(TextComponent.newline())
+          .append(TranslatableComponent.of("multiplayer.player.joined", TextComponent.of("kashike")))
+          .build()))
+        .clickEvent(ClickEvent.suggestCommand("/msg kashike "))
+        .insertion("kashike")
+        .build())
+      .append(TextComponent.of(": ", NamedTextColor.DARK_GRAY))
+      .append(TextComponent.builder("Press ")
+        .color(NamedTextColor.WHITE)
+        .append(KeybindComponent.of("key.jump", NamedTextColor.LIGHT_PURPLE))
+        .append(TextComponent.of(" to look at my "))
+        .append(TextComponent.builder("[Diamond Sword]")
+          .color(NamedTextColor.AQUA)
+          .hoverEvent(HoverEvent.showItem(new HoverEvent.ShowItem(Key.of("diamond_sword"), 1, BinaryTagHolder.of("{Damage:0,Enchantments:[{id:\"minecraft:sharpness\",lvl:5s}]}"))))
+          .build())
+        .append(TextComponent.of("!", NamedTextColor.RED, TextDecoration.ITALIC))
+        .build())
+      .build();
+  }
+
+  /**
+   * A component with a deep and wide tree of {@code extra} children.
+   *
+   * @param depth the depth of the tree
+   * @param width the number of children at each level
+   * @return a component
+   */
+  /* package */ static Component deepTree(final int depth, final int width) {
+    final TextComponent.Builder builder = TextComponent.builder("depth " + depth)
+      .color(NamedTextColor.values().get(depth % NamedTextColor.values().size()))
+      .hoverEvent(HoverEvent.showText(TextComponent.of("level " + depth, NamedTextColor.GRAY)));
+    if(depth > 0) {
+      for(int i = 0; i < width; i++) {
+        builder.append(deepTree(depth - 1, width));
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * A compound with the same structure as the well-known {@code bigtest.nbt} file.
+   *
+   * @return a compound tag
+   */
+  /* package */ static CompoundBinaryTag bigTest() {
+    final byte[] bytes = new byte[1000];
+    for(int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) ((i * i * 255 + i * 7) % 100);
+    }
+    return CompoundBinaryTag.builder()
+      .put("nested compound test", CompoundBinaryTag.builder()
+        .put("egg", CompoundBinaryTag.builder().putString("name", "Eggbert").putFloat("value", 0.5f).build())
+        .put("ham", CompoundBinaryTag.builder().putString("name", "Hampus").putFloat("value", 0.75f).build())
+        .build())
+      .putInt("intTest", Integer.MAX_VALUE)
+      .putByte("byteTest", Byte.MAX_VALUE)
+      .putString("stringTest", "HELLO WORLD THIS IS A TEST STRING ÅÄÖ!")
+      .put("listTest (long)", ListBinaryTag.builder(BinaryTagTypes.LONG)
+        .add(LongBinaryTag.of(11))
+        .add(LongBinaryTag.of(12))
+        .add(LongBinaryTag.of(13))
+        .add(LongBinaryTag.of(14))
+        .add(LongBinaryTag.of(15))
+        .build())
+      .putDouble("doubleTest", 0.4931287132182315d)
+      .putFloat("floatTest", 0.49823147f)
+      .putLong("longTest", Long.MAX_VALUE)
+      .put("listTest (compound)", ListBinaryTag.builder(BinaryTagTypes.COMPOUND)
+        .add(CompoundBinaryTag.builder().putLong("created-on", 1264099775885L).putString("name", "Compound tag #0").build())
+        .add(CompoundBinaryTag.builder().putLong("created-on", 1264099775885L).putString("name", "Compound tag #1").build())
+        .build())
+      .put("byteArrayTest (the first 1000 values of (n*n*255+n*7)%100, starting with n=0 (0, 62, 34, 16, 8, ...))", ByteArrayBinaryTag.of(bytes))
+      .putShort("shortTest", Short.MAX_VALUE)
+      .build();
+  }
+
+  /**
+   * A compound resembling a player inventory: a list of item stacks with nested tags.
+   *
+   * @param stacks the number of item stacks
+   * @return a compound tag
+   */
+  /* package */ static CompoundBinaryTag inventory(final int stacks) {
+    final ListBinaryTag.Builder<CompoundBinaryTag> items = ListBinaryTag.builder(BinaryTagTypes.COMPOUND);
+    for(int i = 0; i < stacks; i++) {
+      items.add(CompoundBinaryTag.builder()
+        .putByte("Slot", (byte) i)
+        .putString("id", "minecraft:diamond_sword")
+        .putByte("Count", (byte) 1)
+        .put("tag", CompoundBinaryTag.builder()
+          .putInt("Damage", i)
+          .put("Enchantments", ListBinaryTag.builder(BinaryTagTypes.COMPOUND)
+            .add(CompoundBinaryTag.builder().putString("id", "minecraft:sharpness").putShort("lvl", (short) 5).build())
+            .add(CompoundBinaryTag.builder().putString("id", "minecraft:unbreaking").putShort("lvl", (short) 3).build())
+            .build())
+          .put("display", CompoundBinaryTag.builder()
+            .putString("Name", "{\"text\":\"Sword #" + i + "\",\"color\":\"aqua\"}")
+            .build())
+          .build())
+        .build());
+    }
+    return CompoundBinaryTag.builder()
+      .putString("Dimension", "minecraft:overworld")
+      .putIntArray("UUID", new int[]{1, 2, 3, 4})
+      .put("Inventory", items.build())
+      .build();
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reads and writes whole files with an {@link AsynchronousFileChannel}, without blocking the calling thread.
+ */
+/* package */ final class AsyncFiles {
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  private AsyncFiles() {
+  }
+
+  /**
+   * Reads every byte of {@code path}.
+   *
+   * @param path the path
+   * @return a future completing with the bytes
+   */
+  /* package */ static CompletableFuture<ByteBuffer> read(final Path path) {
+    final CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+    final AsynchronousFileChannel channel;
+    final ByteBuffer buffer;
+    try {
+      channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ);
+      final long size = channel.size();
+      if(size > MAX_ARRAY_SIZE) {
+        close(channel);
+        throw new IOException("File of " + size + " bytes is too large to read: " + path);
+      }
+      buffer = ByteBuffer.allocate((int) size);
+    } catch(final IOException e) {
+      future.completeExceptionally(e);
+      return future;
+    }
+    channel.read(buffer, 0, null, new CompletionHandler<Integer, Void>() {
+      @Override
+      public void completed(final Integer read, final Void attachment) {
+        if(read != -1 && buffer.hasRemaining()) {
+          channel.read(buffer, buffer.position(), null, this);
+          return;
+        }
+        try {
+          channel.close();
+        } catch(final IOException e) {
+          future.completeExceptionally(e);
+          return;
+        }
+        buffer.flip();
+        future.complete(buffer);
+      }
+
+      @Override
+      public void failed(final Throwable exception, final Void attachment) {
+        close(channel);
+        future.completeExceptionally(exception);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Replaces the contents of {@code path} with the remaining bytes of {@code buffer}.
+   *
+   * @param path the path
+   * @param buffer the bytes
+   * @return a future completing once every byte has been written
+   */
+  /* package */ static CompletableFuture<Void> write(final Path path, final ByteBuffer buffer) {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    final AsynchronousFileChannel channel;
+    try {
+      channel = AsynchronousFileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    } catch(final IOException e) {
+      future.completeExceptionally(e);
+      return future;
+    }
+    final int start = buffer.position();
+    channel.write(buffer, 0, null, new CompletionHandler<Integer, Void>() {
+      @Override
+      public void completed(final Integer written, final Void attachment) {
+        if(buffer.hasRemaining()) {
+          channel.write(buffer, buffer.position() - start, null, this);
+          return;
+        }
+        try {
+          channel.close();
+        } catch(final IOException e) {
+          future.completeExceptionally(e);
+          return;
+        }
+        future.complete(null);
+      }
+
+      @Override
+      public void failed(final Throwable exception, final Void attachment) {
+        close(channel);
+        future.completeExceptionally(exception);
+      }
+    });
+    return future;
+  }
+
+  private static void close(final AsynchronousFileChannel channel) {
+    try {
+      channel.close();
+    } catch(final IOException ignored) {
+      // the original failure is more useful
+    }
+  }
+}
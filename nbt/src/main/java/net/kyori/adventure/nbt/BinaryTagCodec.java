@@ -0,0 +1,315 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Reads and writes tags by switching on their type id.
+ *
+ * <p>Nested tags are read and written here directly instead of through each element's
+ * {@link BinaryTagType}, so compounds and lists do not make a virtual call per element.</p>
+ */
+/* package */ final class BinaryTagCodec {
+  private static final int[] WIDTHS = {0, 1, 2, 4, 8, 4, 8}; // of the fixed width types, by id
+
+  private BinaryTagCodec() {
+  }
+
+  /**
+   * Reads a tag of type {@code id}.
+   *
+   * @param id the type id
+   * @param input the input
+   * @return the tag
+   * @throws IOException if an exception was encountered while reading
+   */
+  static @NonNull BinaryTag read(final byte id, final @NonNull DataInput input) throws IOException {
+    switch(id) {
+      case 0: return EndBinaryTag.get();
+      case 1: return ByteBinaryTag.of(input.readByte());
+      case 2: return ShortBinaryTag.of(input.readShort());
+      case 3: return IntBinaryTag.of(input.readInt());
+      case 4: return LongBinaryTag.of(input.readLong());
+      case 5: return FloatBinaryTag.of(input.readFloat());
+      case 6: return DoubleBinaryTag.of(input.readDouble());
+      case 7: return readByteArray(input);
+      case 8: return StringBinaryTag.of(ModifiedUtf8.read(input));
+      case 9: return readList(input);
+      case 10: return readCompound(input);
+      case 11: return readIntArray(input);
+      case 12: return readLongArray(input);
+      default: throw new IllegalArgumentException(String.valueOf(id));
+    }
+  }
+
+  /**
+   * Writes the payload of {@code tag}.
+   *
+   * @param id the type id of {@code tag}
+   * @param tag the tag
+   * @param output the output
+   * @throws IOException if an exception was encountered while writing
+   */
+  static void write(final byte id, final @NonNull BinaryTag tag, final @NonNull DataOutput output) throws IOException {
+    switch(id) {
+      case 0:
+        return; // nothing to write
+      case 1:
+        output.writeByte(((ByteBinaryTag) tag).value());
+        return;
+      case 2:
+        output.writeShort(((ShortBinaryTag) tag).value());
+        return;
+      case 3:
+        output.writeInt(((IntBinaryTag) tag).value());
+        return;
+      case 4:
+        output.writeLong(((LongBinaryTag) tag).value());
+        return;
+      case 5:
+        output.writeFloat(((FloatBinaryTag) tag).value());
+        return;
+      case 6:
+        output.writeDouble(((DoubleBinaryTag) tag).value());
+        return;
+      case 7:
+        writeByteArray((ByteArrayBinaryTag) tag, output);
+        return;
+      case 8:
+        ModifiedUtf8.write(output, ((StringBinaryTag) tag).value());
+        return;
+      case 9:
+        writeList((ListBinaryTag) tag, output);
+        return;
+      case 10:
+        writeCompound((CompoundBinaryTag) tag, output);
+        return;
+      case 11:
+        writeIntArray((IntArrayBinaryTag) tag, output);
+        return;
+      case 12:
+        writeLongArray((LongArrayBinaryTag) tag, output);
+        return;
+      default:
+        BinaryTagType.write(tag.type(), tag, output);
+    }
+  }
+
+  /**
+   * Gets the number of bytes {@link #write(byte, BinaryTag, DataOutput)} writes for a tag of type {@code id}.
+   *
+   * @param id the type id
+   * @param tag the tag
+   * @return the size in bytes
+   */
+  static long size(final byte id, final @NonNull BinaryTag tag) {
+    switch(id) {
+      case 7: return 4L + ByteArrayBinaryTagImpl.value((ByteArrayBinaryTag) tag).length;
+      case 8: return 2L + ModifiedUtf8.length(((StringBinaryTag) tag).value());
+      case 9: return ListBinaryTagImpl.size((ListBinaryTag) tag);
+      case 10: return CompoundBinaryTagImpl.size((CompoundBinaryTag) tag);
+      case 11: return 4L + IntArrayBinaryTagImpl.value((IntArrayBinaryTag) tag).length * 4L;
+      case 12: return 4L + LongArrayBinaryTagImpl.value((LongArrayBinaryTag) tag).length * 8L;
+      default:
+        if(id >= 0 && id < WIDTHS.length) return WIDTHS[id];
+        throw new IllegalArgumentException(String.valueOf(id));
+    }
+  }
+
+  /**
+   * Gets the number of bytes a tag of type {@code id} takes up, if it is the same for every tag of that type.
+   *
+   * @param id the type id
+   * @return the size in bytes, or {@code -1} if it varies
+   */
+  static int width(final byte id) {
+    return id >= 0 && id < WIDTHS.length ? WIDTHS[id] : -1;
+  }
+
+  // computes the size of a list, which callers cache
+  static long listSize(final @NonNull ListBinaryTag tag) {
+    final byte id = tag.listType().id();
+    final int width = width(id);
+    if(width >= 0) return 5L + (long) tag.size() * width;
+    long size = 5;
+    for(final BinaryTag item : tag) {
+      size += size(id, item);
+    }
+    return size;
+  }
+
+  // computes the size of a compound, which callers cache
+  static long compoundSize(final @NonNull CompoundBinaryTag tag) {
+    long size = 1; // end tag
+    final TagMap tags = CompoundBinaryTagImpl.tags(tag);
+    if(tags != null) {
+      for(final TagMap.EntryIterator it = tags.entryIterator(); it.hasNext(); it.skip()) {
+        size += entrySize(it.key(), it.value());
+      }
+    } else {
+      for(final Map.Entry<String, ? extends BinaryTag> entry : tag) {
+        final BinaryTag value = entry.getValue();
+        if(value != null) {
+          size += entrySize(entry.getKey(), value);
+        }
+      }
+    }
+    return size;
+  }
+
+  private static long entrySize(final String key, final BinaryTag value) {
+    final byte id = value.type().id();
+    return id == 0 ? 1 : 3 + ModifiedUtf8.length(key) + size(id, value);
+  }
+
+  static @NonNull ByteArrayBinaryTag readByteArray(final @NonNull DataInput input) throws IOException {
+    final int length = input.readInt();
+    LimitedDataInput.length(input, length, 1);
+    final byte[] value = new byte[length];
+    input.readFully(value);
+    return ByteArrayBinaryTag.of(value);
+  }
+
+  static void writeByteArray(final @NonNull ByteArrayBinaryTag tag, final @NonNull DataOutput output) throws IOException {
+    final byte[] value = ByteArrayBinaryTagImpl.value(tag);
+    output.writeInt(value.length);
+    output.write(value);
+  }
+
+  static @NonNull ListBinaryTag readList(final @NonNull DataInput input) throws IOException {
+    final byte id = input.readByte();
+    final BinaryTagType<? extends BinaryTag> type = BinaryTagType.of(id);
+    final int length = input.readInt();
+    if(type == BinaryTagTypes.END) {
+      // empty lists are written with an element type of end
+      if(length > 0) throw new IOException(String.format("Cannot read a %s of %d %s elements", BinaryTagTypes.LIST, length, BinaryTagTypes.END));
+      return ListBinaryTag.empty();
+    }
+    // every element takes at least one byte, even compounds and lists
+    LimitedDataInput.length(input, length, Math.max(1, width(id)));
+    final PrimitiveTagList primitives = PrimitiveTagList.read(type, length, input);
+    if(primitives != null) {
+      return new ListBinaryTagImpl(type, primitives);
+    }
+    LimitedDataInput.enter(input);
+    final List<BinaryTag> tags = new ArrayList<>(length);
+    for(int i = 0; i < length; i++) {
+      tags.add(read(id, input));
+    }
+    LimitedDataInput.exit(input);
+    return new ListBinaryTagImpl(type, tags);
+  }
+
+  static void writeList(final @NonNull ListBinaryTag tag, final @NonNull DataOutput output) throws IOException {
+    output.writeByte(tag.listType().id());
+    final int size = tag.size();
+    output.writeInt(size);
+    final PrimitiveTagList primitives = ListBinaryTagImpl.primitives(tag);
+    if(primitives != null) {
+      primitives.write(output);
+      return;
+    }
+    for(final BinaryTag item : tag) {
+      write(item.type().id(), item, output);
+    }
+  }
+
+  static @NonNull CompoundBinaryTag readCompound(final @NonNull DataInput input) throws IOException {
+    LimitedDataInput.enter(input);
+    final TagMap.Accumulator tags = new TagMap.Accumulator();
+    byte id;
+    while((id = input.readByte()) != 0) {
+      final String key = KeyPool.intern(ModifiedUtf8.read(input));
+      tags.add(key, read(id, input));
+    }
+    LimitedDataInput.exit(input);
+    return new CompoundBinaryTagImpl(tags.build());
+  }
+
+  static void writeCompound(final @NonNull CompoundBinaryTag tag, final @NonNull DataOutput output) throws IOException {
+    final EncodedCompound encoded = CompoundBinaryTagImpl.encoded(tag);
+    if(encoded != null) {
+      encoded.write(output);
+      return;
+    }
+    final TagMap tags = CompoundBinaryTagImpl.tags(tag);
+    if(tags != null) {
+      for(final TagMap.EntryIterator it = tags.entryIterator(); it.hasNext(); it.skip()) {
+        writeEntry(it.key(), it.value(), output);
+      }
+    } else {
+      for(final Map.Entry<String, ? extends BinaryTag> entry : tag) {
+        final BinaryTag value = entry.getValue();
+        if(value != null) {
+          writeEntry(entry.getKey(), value, output);
+        }
+      }
+    }
+    output.writeByte(0);
+  }
+
+  private static void writeEntry(final String key, final BinaryTag value, final DataOutput output) throws IOException {
+    final byte id = value.type().id();
+    output.writeByte(id);
+    if(id != 0) {
+      ModifiedUtf8.write(output, key);
+      write(id, value, output);
+    }
+  }
+
+  static @NonNull IntArrayBinaryTag readIntArray(final @NonNull DataInput input) throws IOException {
+    final int length = input.readInt();
+    LimitedDataInput.length(input, length, 4);
+    final int[] value = new int[length];
+    ByteBufferDataInput.readFully(input, value);
+    return IntArrayBinaryTag.of(value);
+  }
+
+  static void writeIntArray(final @NonNull IntArrayBinaryTag tag, final @NonNull DataOutput output) throws IOException {
+    final int[] value = IntArrayBinaryTagImpl.value(tag);
+    output.writeInt(value.length);
+    ByteBufferDataOutput.write(output, value);
+  }
+
+  static @NonNull LongArrayBinaryTag readLongArray(final @NonNull DataInput input) throws IOException {
+    final int length = input.readInt();
+    LimitedDataInput.length(input, length, 8);
+    final long[] value = new long[length];
+    ByteBufferDataInput.readFully(input, value);
+    return LongArrayBinaryTag.of(value);
+  }
+
+  static void writeLongArray(final @NonNull LongArrayBinaryTag tag, final @NonNull DataOutput output) throws IOException {
+    final long[] value = LongArrayBinaryTagImpl.value(tag);
+    output.writeInt(value.length);
+    ByteBufferDataOutput.write(output, value);
+  }
+}
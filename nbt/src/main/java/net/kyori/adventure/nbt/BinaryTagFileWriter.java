@@ -0,0 +1,170 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Writes compound tags to files in the background, without blocking the calling thread.
+ *
+ * <p>At most one write to each path is in progress at a time. A tag written to a path which is still waiting to be
+ * written replaces the waiting tag, so a path saved repeatedly is only written with its latest tag, and every caller
+ * waiting on that path is notified once it has been written.</p>
+ *
+ * <p>The number of writes in progress is limited, with further writes waiting their turn, so a burst of saves
+ * cannot hold every encoded tag in memory at once.</p>
+ *
+ * <p>A writer is safe to use from multiple threads.</p>
+ */
+public final class BinaryTagFileWriter {
+  private final Compression compression;
+  private final Executor executor;
+  private final int maxInFlight;
+  private final Map<Path, Entry> entries = new HashMap<>();
+  private final Queue<Path> ready = new ArrayDeque<>();
+  private int inFlight;
+
+  private BinaryTagFileWriter(final Compression compression, final Executor executor, final int maxInFlight) {
+    this.compression = compression;
+    this.executor = executor;
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Creates a writer.
+   *
+   * @param compression the compression, such as {@link Compression#none()} or {@link Compression#gzip()}
+   * @param executor the executor to encode and compress on
+   * @param maxInFlight the maximum number of writes in progress at once
+   * @return a writer
+   * @throws IllegalArgumentException if {@code maxInFlight} is less than {@code 1}
+   */
+  public static @NonNull BinaryTagFileWriter create(final @NonNull Compression compression, final @NonNull Executor executor, final int maxInFlight) {
+    if(maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+    return new BinaryTagFileWriter(compression, executor, maxInFlight);
+  }
+
+  /**
+   * Writes {@code tag} to {@code path}, replacing any tag still waiting to be written there.
+   *
+   * <p>If the tag cannot be encoded or written, the future completes exceptionally with the cause.</p>
+   *
+   * @param path the path
+   * @param tag the compound tag
+   * @return a future completing once {@code tag}, or a tag written to {@code path} after it, has been written
+   */
+  public @NonNull CompletableFuture<Void> write(final @NonNull Path path, final @NonNull CompoundBinaryTag tag) {
+    final CompletableFuture<Void> future;
+    synchronized(this) {
+      Entry entry = this.entries.get(path);
+      if(entry == null) {
+        entry = new Entry();
+        this.entries.put(path, entry);
+      }
+      if(entry.waiting == null) {
+        entry.waiting = new CompletableFuture<>();
+        if(entry.writing == null) this.ready.add(path);
+      }
+      entry.tag = tag;
+      future = entry.waiting;
+    }
+    this.drain();
+    return future;
+  }
+
+  /**
+   * Gets a future completing once every write requested so far has finished, whether or not it succeeded.
+   *
+   * @return a future
+   */
+  public @NonNull CompletableFuture<Void> flush() {
+    final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    synchronized(this) {
+      for(final Entry entry : this.entries.values()) {
+        if(entry.writing != null) futures.add(entry.writing);
+        if(entry.waiting != null) futures.add(entry.waiting);
+      }
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).handle((result, exception) -> null);
+  }
+
+  // starts as many waiting writes as there is room for
+  private void drain() {
+    while(true) {
+      final Path path;
+      final CompoundBinaryTag tag;
+      final CompletableFuture<Void> future;
+      synchronized(this) {
+        if(this.inFlight >= this.maxInFlight || this.ready.isEmpty()) return;
+        path = this.ready.remove();
+        final Entry entry = this.entries.get(path);
+        tag = entry.tag;
+        future = entry.waiting;
+        entry.tag = null;
+        entry.waiting = null;
+        entry.writing = future;
+        this.inFlight++;
+      }
+      BinaryTagIO.writeCompressedPathAsync(tag, path, this.compression, this.executor).whenComplete((result, exception) -> {
+        this.finish(path);
+        if(exception != null) {
+          future.completeExceptionally(exception);
+        } else {
+          future.complete(null);
+        }
+      });
+    }
+  }
+
+  private void finish(final Path path) {
+    synchronized(this) {
+      this.inFlight--;
+      final Entry entry = this.entries.get(path);
+      entry.writing = null;
+      if(entry.waiting != null) {
+        this.ready.add(path);
+      } else {
+        this.entries.remove(path);
+      }
+    }
+    this.drain();
+  }
+
+  private static final class Entry {
+    @Nullable CompoundBinaryTag tag;
+    // the future of the tag waiting to be written, and of the write in progress
+    @Nullable CompletableFuture<Void> waiting;
+    @Nullable CompletableFuture<Void> writing;
+  }
+}
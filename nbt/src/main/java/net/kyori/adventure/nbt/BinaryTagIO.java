@@ -25,6 +25,8 @@ package net.kyori.adventure.nbt;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
@@ -32,15 +34,25 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 import static net.kyori.adventure.nbt.IOStreamUtil.closeShield;
 
 public final class BinaryTagIO {
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
   private BinaryTagIO() {
   }
 
@@ -72,6 +84,19 @@ public final class BinaryTagIO {
     return readDataInput(new DataInputStream(closeShield(input)));
   }
 
+  /**
+   * Reads a compound tag from an input stream, failing once the tag goes over {@code limits}. The stream is not
+   * closed afterwards.
+   *
+   * @param input the input stream
+   * @param limits the limits
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag, or the tag is over the limits
+   */
+  public static @NonNull CompoundBinaryTag readInputStream(final @NonNull InputStream input, final @NonNull BinaryTagLimits limits) throws IOException {
+    return readDataInput(new DataInputStream(closeShield(input)), limits);
+  }
+
   /**
    * Reads a compound tag from {@code path} using GZIP decompression.
    *
@@ -80,9 +105,120 @@ public final class BinaryTagIO {
    * @throws IOException if an exception was encountered while reading a compound tag
    */
   public static @NonNull CompoundBinaryTag readCompressedPath(final @NonNull Path path) throws IOException {
+    return readCompressedPath(path, Compression.gzip());
+  }
+
+  /**
+   * Reads a compound tag from {@code path} using {@code compression}.
+   *
+   * @param path the path
+   * @param compression the compression
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag
+   */
+  public static @NonNull CompoundBinaryTag readCompressedPath(final @NonNull Path path, final @NonNull Compression compression) throws IOException {
     try(final InputStream is = Files.newInputStream(path)) {
-      return readCompressedInputStream(is);
+      return readCompressedInputStream(is, compression);
+    }
+  }
+
+  /**
+   * Reads a compound tag from {@code path} without blocking, decoding it on {@code executor}.
+   *
+   * <p>The file is read with an {@link java.nio.channels.AsynchronousFileChannel}. If it cannot be read or decoded,
+   * the future completes exceptionally with the cause.</p>
+   *
+   * @param path the path
+   * @param executor the executor to decode on
+   * @return a future compound tag
+   */
+  public static @NonNull CompletableFuture<CompoundBinaryTag> readPathAsync(final @NonNull Path path, final @NonNull Executor executor) {
+    return readCompressedPathAsync(path, Compression.none(), executor);
+  }
+
+  /**
+   * Reads a compound tag from {@code path} using GZIP decompression without blocking, decompressing and decoding it
+   * on {@code executor}.
+   *
+   * @param path the path
+   * @param executor the executor to decompress and decode on
+   * @return a future compound tag
+   * @see #readPathAsync(Path, Executor)
+   */
+  public static @NonNull CompletableFuture<CompoundBinaryTag> readCompressedPathAsync(final @NonNull Path path, final @NonNull Executor executor) {
+    return readCompressedPathAsync(path, Compression.gzip(), executor);
+  }
+
+  /**
+   * Reads a compound tag from {@code path} using {@code compression} without blocking, decompressing and decoding it
+   * on {@code executor}.
+   *
+   * @param path the path
+   * @param compression the compression
+   * @param executor the executor to decompress and decode on
+   * @return a future compound tag
+   * @see #readPathAsync(Path, Executor)
+   */
+  public static @NonNull CompletableFuture<CompoundBinaryTag> readCompressedPathAsync(final @NonNull Path path, final @NonNull Compression compression, final @NonNull Executor executor) {
+    return AsyncFiles.read(path).thenApplyAsync(buffer -> {
+      try {
+        if(compression == Compression.none()) return readByteBuffer(buffer);
+        return readCompressedInputStream(new ByteArrayInputStream(buffer.array(), 0, buffer.limit()), compression);
+      } catch(final IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+  /**
+   * Reads compound tags from each of {@code paths}, decoding them in parallel on {@code executor}.
+   *
+   * <p>The returned list holds a future for each of {@code paths}, in the same order, including any path given more than
+   * once. Each future completes independently, so results may be consumed in order, or as they complete. A future whose path could not be read completes exceptionally with
+   * a {@link CompletionException} wrapping the cause, without affecting the other paths.</p>
+   *
+   * @param paths the paths
+   * @param executor the executor to decode on, such as a {@link java.util.concurrent.ForkJoinPool}
+   * @return the future compound tags
+   */
+  public static @NonNull List<CompletableFuture<CompoundBinaryTag>> readPaths(final @NonNull Collection<? extends Path> paths, final @NonNull Executor executor) {
+    final List<CompletableFuture<CompoundBinaryTag>> results = new ArrayList<>(paths.size());
+    for(final Path path : paths) {
+      results.add(supplyAsync(() -> readPath(path), executor));
+    }
+    return results;
+  }
+
+  /**
+   * Reads compound tags from each of {@code paths} using GZIP decompression, decoding them in parallel on {@code executor}.
+   *
+   * <p>The returned list holds a future for each of {@code paths}, in the same order, including any path given more than
+   * once. Each future completes independently, so results may be consumed in order, or as they complete. A future whose path could not be read completes exceptionally with
+   * a {@link CompletionException} wrapping the cause, without affecting the other paths.</p>
+   *
+   * @param paths the paths
+   * @param executor the executor to decode on, such as a {@link java.util.concurrent.ForkJoinPool}
+   * @return the future compound tags
+   */
+  public static @NonNull List<CompletableFuture<CompoundBinaryTag>> readCompressedPaths(final @NonNull Collection<? extends Path> paths, final @NonNull Executor executor) {
+    return readCompressedPaths(paths, Compression.gzip(), executor);
+  }
+
+  /**
+   * Reads compound tags from each of {@code paths} using {@code compression}, decoding them in parallel on {@code executor}.
+   *
+   * @param paths the paths
+   * @param compression the compression
+   * @param executor the executor to decode on, such as a {@link java.util.concurrent.ForkJoinPool}
+   * @return the future compound tags
+   * @see #readCompressedPaths(Collection, Executor)
+   */
+  public static @NonNull List<CompletableFuture<CompoundBinaryTag>> readCompressedPaths(final @NonNull Collection<? extends Path> paths, final @NonNull Compression compression, final @NonNull Executor executor) {
+    final List<CompletableFuture<CompoundBinaryTag>> results = new ArrayList<>(paths.size());
+    for(final Path path : paths) {
+      results.add(supplyAsync(() -> readCompressedPath(path, compression), executor));
     }
+    return results;
   }
 
   /**
@@ -93,11 +229,135 @@ public final class BinaryTagIO {
    * @throws IOException if an exception was encountered while reading a compound tag
    */
   public static @NonNull CompoundBinaryTag readCompressedInputStream(final @NonNull InputStream input) throws IOException {
-    try(final DataInputStream dis = new DataInputStream(new BufferedInputStream(new GZIPInputStream(closeShield(input))))) {
+    return readCompressedInputStream(input, Compression.gzip());
+  }
+
+  /**
+   * Reads a compound tag from an input stream using {@code compression}. The stream is not closed afterwards.
+   *
+   * @param input the input stream
+   * @param compression the compression
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag
+   */
+  public static @NonNull CompoundBinaryTag readCompressedInputStream(final @NonNull InputStream input, final @NonNull Compression compression) throws IOException {
+    try(final DataInputStream dis = new DataInputStream(new BufferedInputStream(compression.decompress(closeShield(input))))) {
       return readDataInput(dis);
     }
   }
 
+  /**
+   * Reads a compound tag from an input stream using {@code compression}, failing once the tag goes over
+   * {@code limits}. The stream is not closed afterwards.
+   *
+   * <p>The limits apply to the decompressed bytes.</p>
+   *
+   * @param input the input stream
+   * @param compression the compression
+   * @param limits the limits
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag, or the tag is over the limits
+   */
+  public static @NonNull CompoundBinaryTag readCompressedInputStream(final @NonNull InputStream input, final @NonNull Compression compression, final @NonNull BinaryTagLimits limits) throws IOException {
+    try(final DataInputStream dis = new DataInputStream(new BufferedInputStream(compression.decompress(closeShield(input))))) {
+      return readDataInput(dis, limits);
+    }
+  }
+
+  /**
+   * Reads a compound tag from {@code bytes}, deferring decoding until the tag is read.
+   *
+   * <p>The structure of the tag is checked up front, but each compound is only decoded when one of its entries is
+   * first read. A compound that is never changed is written back out by copying its bytes, so tags that are read and
+   * then written again unchanged cost little more than a copy. The array is not copied, and must not be modified
+   * afterwards.</p>
+   *
+   * <p>Strings are decoded along with the compound holding them, so a malformed string is reported then as an
+   * {@link java.io.UncheckedIOException}.</p>
+   *
+   * @param bytes the bytes
+   * @return the compound tag
+   * @throws IOException if the bytes do not hold a well-formed compound tag
+   */
+  public static @NonNull CompoundBinaryTag readLazyByteArray(final byte@NonNull[] bytes) throws IOException {
+    return EncodedCompound.read(bytes);
+  }
+
+  /**
+   * Reads a compound tag from the remaining bytes of an input stream, deferring decoding until the tag is read. The
+   * stream is not closed afterwards.
+   *
+   * @param input the input stream
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag
+   * @see #readLazyByteArray(byte[])
+   */
+  public static @NonNull CompoundBinaryTag readLazyInputStream(final @NonNull InputStream input) throws IOException {
+    return EncodedCompound.read(IOStreamUtil.readAllBytes(input));
+  }
+
+  /**
+   * Reads a compound tag from an input stream using GZIP decompression, deferring decoding until the tag is read.
+   * The stream is not closed afterwards.
+   *
+   * @param input the input stream
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag
+   * @see #readLazyByteArray(byte[])
+   */
+  public static @NonNull CompoundBinaryTag readLazyCompressedInputStream(final @NonNull InputStream input) throws IOException {
+    return readLazyCompressedInputStream(input, Compression.gzip());
+  }
+
+  /**
+   * Reads a compound tag from an input stream using {@code compression}, deferring decoding until the tag is read.
+   * The stream is not closed afterwards.
+   *
+   * @param input the input stream
+   * @param compression the compression
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag
+   * @see #readLazyByteArray(byte[])
+   */
+  public static @NonNull CompoundBinaryTag readLazyCompressedInputStream(final @NonNull InputStream input, final @NonNull Compression compression) throws IOException {
+    try(final InputStream is = compression.decompress(closeShield(input))) {
+      return EncodedCompound.read(IOStreamUtil.readAllBytes(is));
+    }
+  }
+
+  /**
+   * Reads a compound tag from {@code buffer}.
+   *
+   * <p>Reading starts at the buffer's position, which is advanced past the compound tag. The byte order
+   * of the buffer is ignored, as binary tags are always big-endian.</p>
+   *
+   * @param buffer the buffer
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag
+   */
+  public static @NonNull CompoundBinaryTag readByteBuffer(final @NonNull ByteBuffer buffer) throws IOException {
+    final ByteBuffer view = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    final CompoundBinaryTag tag = readDataInput(new ByteBufferDataInput(view));
+    buffer.position(buffer.position() + view.position());
+    return tag;
+  }
+
+  /**
+   * Reads a compound tag from {@code buffer}, failing once the tag goes over {@code limits}.
+   *
+   * @param buffer the buffer
+   * @param limits the limits
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag, or the tag is over the limits
+   * @see #readByteBuffer(ByteBuffer)
+   */
+  public static @NonNull CompoundBinaryTag readByteBuffer(final @NonNull ByteBuffer buffer, final @NonNull BinaryTagLimits limits) throws IOException {
+    final ByteBuffer view = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    final CompoundBinaryTag tag = readDataInput(new ByteBufferDataInput(view), limits);
+    buffer.position(buffer.position() + view.position());
+    return tag;
+  }
+
   /**
    * Reads a compound tag from {@code input}.
    *
@@ -106,12 +366,28 @@ public final class BinaryTagIO {
    * @throws IOException if an exception was encountered while reading a compound tag
    */
   public static @NonNull CompoundBinaryTag readDataInput(final @NonNull DataInput input) throws IOException {
-    final BinaryTagType<? extends BinaryTag> type = BinaryTagType.of(input.readByte());
-    if(type != BinaryTagTypes.COMPOUND) {
-      throw new IOException(String.format("Expected root tag to be a %s, was %s", BinaryTagTypes.COMPOUND, type));
+    final byte id = input.readByte();
+    if(id != BinaryTagTypes.COMPOUND.id()) {
+      throw new IOException(String.format("Expected root tag to be a %s, was %s", BinaryTagTypes.COMPOUND, BinaryTagType.of(id)));
     }
     input.skipBytes(input.readUnsignedShort()); // read empty name
-    return BinaryTagTypes.COMPOUND.read(input);
+    return BinaryTagCodec.readCompound(input);
+  }
+
+  /**
+   * Reads a compound tag from {@code input}, failing once the tag goes over {@code limits}.
+   *
+   * <p>Lengths are checked against the limits before anything is allocated for them, so this is suitable for
+   * reading tags from untrusted sources.</p>
+   *
+   * @param input the input
+   * @param limits the limits
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag, or the tag is over the limits
+   */
+  public static @NonNull CompoundBinaryTag readDataInput(final @NonNull DataInput input, final @NonNull BinaryTagLimits limits) throws IOException {
+    if(limits == BinaryTagLimits.unlimited()) return readDataInput(input);
+    return readDataInput(new LimitedDataInput(input, limits));
   }
 
   /**
@@ -146,7 +422,125 @@ public final class BinaryTagIO {
    * @throws IOException if an exception was encountered while writing the compound tag
    */
   public static void writeCompressedPath(final @NonNull CompoundBinaryTag tag, final @NonNull Path path) throws IOException {
-    writeCompressedOutputStream(tag, Files.newOutputStream(path));
+    writeCompressedPath(tag, path, Compression.gzip());
+  }
+
+  /**
+   * Writes a compound tag to {@code path} using {@code compression}.
+   *
+   * @param tag the compound tag
+   * @param path the path
+   * @param compression the compression
+   * @throws IOException if an exception was encountered while writing the compound tag
+   */
+  public static void writeCompressedPath(final @NonNull CompoundBinaryTag tag, final @NonNull Path path, final @NonNull Compression compression) throws IOException {
+    try(final OutputStream os = Files.newOutputStream(path)) {
+      writeCompressedOutputStream(tag, os, compression);
+    }
+  }
+
+  /**
+   * Writes a compound tag to {@code path} without blocking, encoding it on {@code executor}.
+   *
+   * <p>The file is written with an {@link java.nio.channels.AsynchronousFileChannel}. If the tag cannot be encoded or
+   * written, the future completes exceptionally with the cause. To coalesce repeated writes to the same path, or to
+   * limit the number of writes in progress, use a {@link BinaryTagFileWriter}.</p>
+   *
+   * @param tag the compound tag
+   * @param path the path
+   * @param executor the executor to encode on
+   * @return a future completing once the tag has been written
+   */
+  public static @NonNull CompletableFuture<Void> writePathAsync(final @NonNull CompoundBinaryTag tag, final @NonNull Path path, final @NonNull Executor executor) {
+    return writeCompressedPathAsync(tag, path, Compression.none(), executor);
+  }
+
+  /**
+   * Writes a compound tag to {@code path} using GZIP compression without blocking, encoding and compressing it on
+   * {@code executor}.
+   *
+   * @param tag the compound tag
+   * @param path the path
+   * @param executor the executor to encode and compress on
+   * @return a future completing once the tag has been written
+   * @see #writePathAsync(CompoundBinaryTag, Path, Executor)
+   */
+  public static @NonNull CompletableFuture<Void> writeCompressedPathAsync(final @NonNull CompoundBinaryTag tag, final @NonNull Path path, final @NonNull Executor executor) {
+    return writeCompressedPathAsync(tag, path, Compression.gzip(), executor);
+  }
+
+  /**
+   * Writes a compound tag to {@code path} using {@code compression} without blocking, encoding and compressing it on
+   * {@code executor}.
+   *
+   * @param tag the compound tag
+   * @param path the path
+   * @param compression the compression
+   * @param executor the executor to encode and compress on
+   * @return a future completing once the tag has been written
+   * @see #writePathAsync(CompoundBinaryTag, Path, Executor)
+   */
+  public static @NonNull CompletableFuture<Void> writeCompressedPathAsync(final @NonNull CompoundBinaryTag tag, final @NonNull Path path, final @NonNull Compression compression, final @NonNull Executor executor) {
+    return supplyAsync(() -> encode(tag, compression), executor).thenCompose(buffer -> AsyncFiles.write(path, buffer));
+  }
+
+  /**
+   * Writes each compound tag in {@code tags} to its path, encoding them in parallel on {@code executor}.
+   *
+   * <p>The returned map iterates in the same order as {@code tags}. A future whose tag could not be written completes
+   * exceptionally with a {@link CompletionException} wrapping the cause, without affecting the other paths.</p>
+   *
+   * @param tags a map of path to compound tag
+   * @param executor the executor to encode on, such as a {@link java.util.concurrent.ForkJoinPool}
+   * @return a map of path to a future completing once the tag has been written
+   */
+  public static @NonNull Map<Path, CompletableFuture<Void>> writePaths(final @NonNull Map<? extends Path, ? extends CompoundBinaryTag> tags, final @NonNull Executor executor) {
+    final Map<Path, CompletableFuture<Void>> results = new LinkedHashMap<>(mapCapacity(tags.size()));
+    for(final Map.Entry<? extends Path, ? extends CompoundBinaryTag> entry : tags.entrySet()) {
+      final Path path = entry.getKey();
+      final CompoundBinaryTag tag = entry.getValue();
+      results.put(path, supplyAsync(() -> {
+        writePath(tag, path);
+        return null;
+      }, executor));
+    }
+    return results;
+  }
+
+  /**
+   * Writes each compound tag in {@code tags} to its path using GZIP compression, encoding them in parallel on {@code executor}.
+   *
+   * <p>The returned map iterates in the same order as {@code tags}. A future whose tag could not be written completes
+   * exceptionally with a {@link CompletionException} wrapping the cause, without affecting the other paths.</p>
+   *
+   * @param tags a map of path to compound tag
+   * @param executor the executor to encode on, such as a {@link java.util.concurrent.ForkJoinPool}
+   * @return a map of path to a future completing once the tag has been written
+   */
+  public static @NonNull Map<Path, CompletableFuture<Void>> writeCompressedPaths(final @NonNull Map<? extends Path, ? extends CompoundBinaryTag> tags, final @NonNull Executor executor) {
+    return writeCompressedPaths(tags, Compression.gzip(), executor);
+  }
+
+  /**
+   * Writes each compound tag in {@code tags} to its path using {@code compression}, encoding them in parallel on {@code executor}.
+   *
+   * @param tags a map of path to compound tag
+   * @param compression the compression
+   * @param executor the executor to encode on, such as a {@link java.util.concurrent.ForkJoinPool}
+   * @return a map of path to a future completing once the tag has been written
+   * @see #writeCompressedPaths(Map, Executor)
+   */
+  public static @NonNull Map<Path, CompletableFuture<Void>> writeCompressedPaths(final @NonNull Map<? extends Path, ? extends CompoundBinaryTag> tags, final @NonNull Compression compression, final @NonNull Executor executor) {
+    final Map<Path, CompletableFuture<Void>> results = new LinkedHashMap<>(mapCapacity(tags.size()));
+    for(final Map.Entry<? extends Path, ? extends CompoundBinaryTag> entry : tags.entrySet()) {
+      final Path path = entry.getKey();
+      final CompoundBinaryTag tag = entry.getValue();
+      results.put(path, supplyAsync(() -> {
+        writeCompressedPath(tag, path, compression);
+        return null;
+      }, executor));
+    }
+    return results;
   }
 
   /**
@@ -157,11 +551,71 @@ public final class BinaryTagIO {
    * @throws IOException if an exception was encountered while writing the compound tag
    */
   public static void writeCompressedOutputStream(final @NonNull CompoundBinaryTag tag, final @NonNull OutputStream output) throws IOException {
-    try(final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(closeShield(output))))) {
+    writeCompressedOutputStream(tag, output, Compression.gzip());
+  }
+
+  /**
+   * Writes a compound tag to an output stream using {@code compression}. The output stream is not closed afterwards.
+   *
+   * @param tag the compound tag
+   * @param output the output stream
+   * @param compression the compression
+   * @throws IOException if an exception was encountered while writing the compound tag
+   */
+  public static void writeCompressedOutputStream(final @NonNull CompoundBinaryTag tag, final @NonNull OutputStream output, final @NonNull Compression compression) throws IOException {
+    try(final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(compression.compress(closeShield(output))))) {
       writeDataOutput(tag, dos);
     }
   }
 
+  /**
+   * Writes a compound tag to {@code buffer}.
+   *
+   * <p>Writing starts at the buffer's position, which is advanced past the compound tag. The byte order
+   * of the buffer is ignored, as binary tags are always big-endian.</p>
+   *
+   * @param tag the compound tag
+   * @param buffer the buffer
+   * @throws IOException if an exception was encountered while writing the compound tag
+   * @throws java.nio.BufferOverflowException if there is insufficient space remaining in {@code buffer}
+   */
+  public static void writeByteBuffer(final @NonNull CompoundBinaryTag tag, final @NonNull ByteBuffer buffer) throws IOException {
+    final ByteBuffer view = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    writeDataOutput(tag, new ByteBufferDataOutput(view));
+    buffer.position(buffer.position() + view.position());
+  }
+
+  /**
+   * Gets the number of bytes writing {@code tag} produces, without writing it.
+   *
+   * <p>The sizes of compound and list tags are remembered, so sizing a tag again, or a changed copy of it, only
+   * visits the tags that are new.</p>
+   *
+   * @param tag the compound tag
+   * @return the size in bytes
+   */
+  public static long sizeOf(final @NonNull CompoundBinaryTag tag) {
+    return 3 + CompoundBinaryTagImpl.size(tag); // type id and empty name
+  }
+
+  /**
+   * Writes a compound tag to a new byte array of exactly the size required.
+   *
+   * @param tag the compound tag
+   * @return the bytes
+   * @throws IOException if an exception was encountered while writing the compound tag, or it is too large for an array
+   * @see #sizeOf(CompoundBinaryTag)
+   */
+  public static byte@NonNull[] writeByteArray(final @NonNull CompoundBinaryTag tag) throws IOException {
+    final long size = sizeOf(tag);
+    if(size > MAX_ARRAY_SIZE) {
+      throw new IOException("Compound tag of " + size + " bytes is too large for an array");
+    }
+    final byte[] bytes = new byte[(int) size];
+    writeDataOutput(tag, new ByteBufferDataOutput(ByteBuffer.wrap(bytes)));
+    return bytes;
+  }
+
   /**
    * Writes a compound tag to {@code output}.
    *
@@ -172,6 +626,33 @@ public final class BinaryTagIO {
   public static void writeDataOutput(final @NonNull CompoundBinaryTag tag, final @NonNull DataOutput output) throws IOException {
     output.writeByte(BinaryTagTypes.COMPOUND.id());
     output.writeUTF(""); // write empty name
-    BinaryTagTypes.COMPOUND.write(tag, output);
+    BinaryTagCodec.writeCompound(tag, output);
+  }
+
+  // the bytes writeCompressedOutputStream would write
+  /* package */ static ByteBuffer encode(final CompoundBinaryTag tag, final Compression compression) throws IOException {
+    if(compression == Compression.none()) return ByteBuffer.wrap(writeByteArray(tag));
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    writeCompressedOutputStream(tag, output, compression);
+    return ByteBuffer.wrap(output.toByteArray());
+  }
+
+  private static <T> CompletableFuture<T> supplyAsync(final IOSupplier<T> supplier, final Executor executor) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return supplier.get();
+      } catch(final IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+  private static int mapCapacity(final int size) {
+    return size < 3 ? size + 1 : (int) (size / 0.75f + 1f);
+  }
+
+  @FunctionalInterface
+  private interface IOSupplier<T> {
+    T get() throws IOException;
   }
 }
@@ -0,0 +1,110 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Canonicalizes equal tags to a single instance.
+ *
+ * <p>Tags are immutable, so equal tags can be shared freely. Interning a tag interns every tag it contains, so
+ * equal compounds and lists within different tags share a single tree, and interned tags can be compared by
+ * identity. Tags can be interned as they are read, for example with
+ * {@code interner.intern(BinaryTagIO.readInputStream(input))}, or as they are built with
+ * {@link CompoundBinaryTag.Builder#build(BinaryTagInterner)}.</p>
+ *
+ * <p>The interner only holds on to tags weakly, so tags which are no longer used elsewhere are still collected.
+ * An interner is safe to use from multiple threads.</p>
+ */
+public final class BinaryTagInterner {
+  private final Map<BinaryTag, WeakReference<BinaryTag>> tags = new WeakHashMap<>();
+
+  private BinaryTagInterner() {
+  }
+
+  /**
+   * Creates an interner.
+   *
+   * @return an interner
+   */
+  public static @NonNull BinaryTagInterner create() {
+    return new BinaryTagInterner();
+  }
+
+  /**
+   * Gets the canonical instance of {@code tag}.
+   *
+   * @param tag the tag
+   * @param <T> the tag type
+   * @return a tag equal to {@code tag}, which may be {@code tag} itself
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends BinaryTag> @NonNull T intern(final @NonNull T tag) {
+    // a tag equal to one already interned needs no further work, as everything within that tag is interned too
+    final BinaryTag existing = this.get(tag);
+    if(existing != null) return (T) existing;
+    return (T) this.put(this.internContents(tag));
+  }
+
+  private BinaryTag internContents(final BinaryTag tag) {
+    if(tag instanceof CompoundBinaryTag) {
+      CompoundBinaryTag compound = (CompoundBinaryTag) tag;
+      for(final Map.Entry<String, ? extends BinaryTag> entry : (CompoundBinaryTag) tag) {
+        final BinaryTag value = entry.getValue();
+        final BinaryTag interned = this.intern(value);
+        if(interned != value) {
+          compound = compound.put(entry.getKey(), interned);
+        }
+      }
+      return compound;
+    } else if(tag instanceof ListBinaryTag && ListBinaryTagImpl.primitives((ListBinaryTag) tag) == null) {
+      ListBinaryTag list = (ListBinaryTag) tag;
+      for(int i = 0, size = list.size(); i < size; i++) {
+        final BinaryTag value = list.get(i);
+        final BinaryTag interned = this.intern(value);
+        if(interned != value) {
+          list = list.set(i, interned, null);
+        }
+      }
+      return list;
+    }
+    return tag; // has no tags within it
+  }
+
+  private synchronized BinaryTag get(final BinaryTag tag) {
+    final WeakReference<BinaryTag> reference = this.tags.get(tag);
+    return reference != null ? reference.get() : null;
+  }
+
+  private synchronized BinaryTag put(final BinaryTag tag) {
+    // another thread may have interned an equal tag in the meantime
+    final BinaryTag existing = this.get(tag);
+    if(existing != null) return existing;
+    this.tags.put(tag, new WeakReference<>(tag));
+    return tag;
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Limits on the binary tags that may be read, for reading untrusted data.
+ *
+ * <p>Every limit is checked before the memory it guards is allocated, so a tag claiming an enormous array or list
+ * fails as soon as its length is read, rather than after the allocation.</p>
+ *
+ * @see BinaryTagIO#readDataInput(java.io.DataInput, BinaryTagLimits)
+ */
+public final class BinaryTagLimits {
+  private static final BinaryTagLimits UNLIMITED = new BinaryTagLimits(new Builder());
+
+  /**
+   * Gets limits which allow any tag to be read.
+   *
+   * @return the limits
+   */
+  public static @NonNull BinaryTagLimits unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * Create a new builder, starting with no limits.
+   *
+   * @return a builder
+   */
+  public static @NonNull Builder builder() {
+    return new Builder();
+  }
+
+  private final long maxBytes;
+  private final int maxDepth;
+  private final int maxLength;
+
+  private BinaryTagLimits(final @NonNull Builder builder) {
+    this.maxBytes = builder.maxBytes;
+    this.maxDepth = builder.maxDepth;
+    this.maxLength = builder.maxLength;
+  }
+
+  /**
+   * Gets the maximum number of bytes that may be read.
+   *
+   * @return the maximum number of bytes
+   */
+  public long maxBytes() {
+    return this.maxBytes;
+  }
+
+  /**
+   * Gets the maximum depth of nested compound and list tags. The root compound tag is at depth {@code 1}.
+   *
+   * @return the maximum depth
+   */
+  public int maxDepth() {
+    return this.maxDepth;
+  }
+
+  /**
+   * Gets the maximum number of elements in a list or array tag.
+   *
+   * @return the maximum length
+   */
+  public int maxLength() {
+    return this.maxLength;
+  }
+
+  /**
+   * Builder for binary tag limits.
+   */
+  public static final class Builder {
+    private long maxBytes = Long.MAX_VALUE;
+    private int maxDepth = Integer.MAX_VALUE;
+    private int maxLength = Integer.MAX_VALUE;
+
+    /* package */ Builder() {
+    }
+
+    /**
+     * Set the maximum number of bytes that may be read, including those of the root tag's type and name.
+     *
+     * @param maxBytes the maximum number of bytes
+     * @return this builder
+     * @throws IllegalArgumentException if {@code maxBytes} is negative
+     */
+    public @NonNull Builder maxBytes(final long maxBytes) {
+      if(maxBytes < 0) throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+      this.maxBytes = maxBytes;
+      return this;
+    }
+
+    /**
+     * Set the maximum depth of nested compound and list tags. The root compound tag is at depth {@code 1}.
+     *
+     * @param maxDepth the maximum depth
+     * @return this builder
+     * @throws IllegalArgumentException if {@code maxDepth} is less than {@code 1}
+     */
+    public @NonNull Builder maxDepth(final int maxDepth) {
+      if(maxDepth < 1) throw new IllegalArgumentException("maxDepth must be at least 1: " + maxDepth);
+      this.maxDepth = maxDepth;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of elements in a list or array tag.
+     *
+     * @param maxLength the maximum length
+     * @return this builder
+     * @throws IllegalArgumentException if {@code maxLength} is negative
+     */
+    public @NonNull Builder maxLength(final int maxLength) {
+      if(maxLength < 0) throw new IllegalArgumentException("maxLength must not be negative: " + maxLength);
+      this.maxLength = maxLength;
+      return this;
+    }
+
+    /**
+     * Create new limits from this builder.
+     *
+     * @return the limits
+     */
+    public @NonNull BinaryTagLimits build() {
+      return new BinaryTagLimits(this);
+    }
+  }
+}
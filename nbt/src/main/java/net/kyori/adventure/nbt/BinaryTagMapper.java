@@ -0,0 +1,893 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Maps objects of a class to and from compound tags.
+ *
+ * <p>Each non-static, non-transient field, including those of superclasses, is mapped to the key of the same name.
+ * Fields may be of any primitive type other than {@code char}, their boxed types, {@code String}, {@code byte[]},
+ * {@code int[]}, {@code long[]}, an enum, a {@link BinaryTag}, a {@code List} of any of these, or another class which
+ * can itself be mapped. Booleans are mapped to byte tags, and enums to string tags holding their names. Fields which
+ * are {@code null} are left out.</p>
+ *
+ * <p>Mapped classes must have a constructor taking no arguments, which may be private. When an object is read, keys
+ * without a matching field are ignored, and fields without a matching key keep the value the constructor gave them.</p>
+ *
+ * <p>The fields of a class are looked up once, when its mapper is first requested, and accessed through method
+ * handles from then on. {@link #write(Object, DataOutput)} and {@link #read(DataInput)} encode and decode objects
+ * directly, without building a compound tag in between.</p>
+ *
+ * @param <T> the mapped type
+ */
+public final class BinaryTagMapper<T> {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final ClassValue<BinaryTagMapper<?>> MAPPERS = new ClassValue<BinaryTagMapper<?>>() {
+    @Override
+    protected BinaryTagMapper<?> computeValue(final Class<?> type) {
+      return new BinaryTagMapper<>(type);
+    }
+  };
+
+  private final Class<T> type;
+  private final MethodHandle constructor;
+  private final Property[] properties;
+  private final Map<String, Property> keys;
+
+  private BinaryTagMapper(final Class<T> type) {
+    if(type.isInterface() || type.isArray() || type.isPrimitive() || type.isEnum() || Modifier.isAbstract(type.getModifiers())) {
+      throw new IllegalArgumentException("Cannot map " + type.getName() + ", as it cannot be constructed");
+    }
+    this.type = type;
+    try {
+      final Constructor<T> constructor = type.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      this.constructor = LOOKUP.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+    } catch(final NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalArgumentException("Cannot map " + type.getName() + ", as it does not have an accessible constructor taking no arguments", e);
+    }
+    // superclass fields first
+    final Deque<Class<?>> hierarchy = new ArrayDeque<>();
+    for(Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+      hierarchy.push(c);
+    }
+    final List<Property> properties = new ArrayList<>();
+    this.keys = new HashMap<>();
+    for(final Class<?> c : hierarchy) {
+      for(final Field field : c.getDeclaredFields()) {
+        final int modifiers = field.getModifiers();
+        if(Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) continue;
+        final Property property = property(field);
+        if(this.keys.put(property.key, property) != null) {
+          throw new IllegalArgumentException("Cannot map " + type.getName() + ", as more than one field is named " + property.key);
+        }
+        properties.add(property);
+      }
+    }
+    this.properties = properties.toArray(new Property[0]);
+  }
+
+  /**
+   * Gets the mapper for {@code type}.
+   *
+   * @param type the class to map
+   * @param <T> the mapped type
+   * @return the mapper
+   * @throws IllegalArgumentException if {@code type} cannot be mapped
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> @NonNull BinaryTagMapper<T> of(final @NonNull Class<T> type) {
+    return (BinaryTagMapper<T>) MAPPERS.get(type);
+  }
+
+  /**
+   * Gets the mapped class.
+   *
+   * @return the mapped class
+   */
+  public @NonNull Class<T> type() {
+    return this.type;
+  }
+
+  /**
+   * Creates a compound tag holding the fields of {@code value}.
+   *
+   * @param value the object
+   * @return a compound tag
+   * @throws IllegalArgumentException if a mapped list holds {@code null}
+   */
+  public @NonNull CompoundBinaryTag toTag(final @NonNull T value) {
+    try {
+      return this.toCompound(value);
+    } catch(final Throwable t) {
+      throw unchecked(t);
+    }
+  }
+
+  /**
+   * Creates an object with fields from {@code tag}.
+   *
+   * @param tag the compound tag
+   * @return the object
+   * @throws IllegalArgumentException if a tag cannot be converted to the type of its field
+   */
+  public @NonNull T fromTag(final @NonNull CompoundBinaryTag tag) {
+    try {
+      return this.type.cast(this.fromCompound(tag));
+    } catch(final Throwable t) {
+      throw unchecked(t);
+    }
+  }
+
+  /**
+   * Writes {@code value} to {@code output} as a compound tag, in the format of
+   * {@link BinaryTagIO#writeDataOutput(CompoundBinaryTag, DataOutput)}.
+   *
+   * @param value the object
+   * @param output the output
+   * @throws IOException if an exception was encountered while writing
+   * @throws IllegalArgumentException if a mapped list holds {@code null}, or tags of more than one type
+   */
+  public void write(final @NonNull T value, final @NonNull DataOutput output) throws IOException {
+    output.writeByte(BinaryTagTypes.COMPOUND.id());
+    output.writeUTF(""); // write empty name
+    try {
+      this.writeCompound(value, output);
+    } catch(final Throwable t) {
+      throw checked(t);
+    }
+  }
+
+  /**
+   * Reads an object from a compound tag in {@code input}, in the format of
+   * {@link BinaryTagIO#readDataInput(DataInput)}.
+   *
+   * @param input the input
+   * @return the object
+   * @throws IOException if an exception was encountered while reading, or if a tag cannot be converted to the type
+   *     of its field
+   */
+  public @NonNull T read(final @NonNull DataInput input) throws IOException {
+    final byte id = input.readByte();
+    if(id != BinaryTagTypes.COMPOUND.id()) {
+      throw new IOException(String.format("Expected root tag to be a %s, was %s", BinaryTagTypes.COMPOUND, BinaryTagType.of(id)));
+    }
+    input.skipBytes(input.readUnsignedShort()); // read empty name
+    try {
+      return this.type.cast(this.readCompound(input, 1));
+    } catch(final ConversionException e) {
+      throw new IOException(e.getMessage(), e); // malformed input
+    } catch(final Throwable t) {
+      throw checked(t);
+    }
+  }
+
+  private CompoundBinaryTag toCompound(final Object value) throws Throwable {
+    final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder();
+    for(final Property property : this.properties) {
+      try {
+        property.put(value, builder);
+      } catch(final ConversionException e) {
+        throw e.at(property.key);
+      }
+    }
+    return builder.build();
+  }
+
+  private Object fromCompound(final CompoundBinaryTag tag) throws Throwable {
+    final Object instance = this.constructor.invokeExact();
+    for(final Property property : this.properties) {
+      final BinaryTag value = tag.get(property.key);
+      if(value != null) {
+        try {
+          property.set(instance, value);
+        } catch(final ConversionException e) {
+          throw e.at(property.key);
+        }
+      }
+    }
+    return instance;
+  }
+
+  private void writeCompound(final Object value, final DataOutput output) throws Throwable {
+    for(final Property property : this.properties) {
+      try {
+        property.write(value, output);
+      } catch(final ConversionException e) {
+        throw e.at(property.key);
+      }
+    }
+    output.writeByte(BinaryTagTypes.END.id());
+  }
+
+  private Object readCompound(final DataInput input, final int depth) throws Throwable {
+    LimitedDataInput.enter(input, depth);
+    final Object instance = this.constructor.invokeExact();
+    byte id;
+    while((id = input.readByte()) != BinaryTagTypes.END.id()) {
+      final Property property = this.keys.get(ModifiedUtf8.read(input));
+      if(property != null) {
+        try {
+          property.read(instance, id, input, depth + 1);
+        } catch(final ConversionException e) {
+          throw e.at(property.key);
+        }
+      } else {
+        BinaryTagStreamReader.skip(id, input, depth + 1);
+      }
+    }
+    LimitedDataInput.exit(input);
+    return instance;
+  }
+
+  private static RuntimeException unchecked(final Throwable t) {
+    if(t instanceof RuntimeException) return (RuntimeException) t;
+    if(t instanceof Error) throw (Error) t;
+    return new IllegalStateException(t);
+  }
+
+  private static IOException checked(final Throwable t) {
+    if(t instanceof IOException) return (IOException) t;
+    throw unchecked(t);
+  }
+
+  private static Property property(final Field field) {
+    final MethodHandle getter;
+    final MethodHandle setter;
+    try {
+      field.setAccessible(true);
+      getter = LOOKUP.unreflectGetter(field);
+      setter = LOOKUP.unreflectSetter(field);
+    } catch(final IllegalAccessException | RuntimeException e) {
+      throw new IllegalArgumentException("Cannot access field " + field, e);
+    }
+    final Class<?> type = field.getType();
+    if(type.isPrimitive()) {
+      return new PrimitiveProperty(
+        field.getName(),
+        type,
+        getter.asType(MethodType.methodType(type, Object.class)),
+        setter.asType(MethodType.methodType(void.class, Object.class, type))
+      );
+    }
+    return new ObjectProperty(
+      field.getName(),
+      codec(field.getGenericType()),
+      getter.asType(MethodType.methodType(Object.class, Object.class)),
+      setter.asType(MethodType.methodType(void.class, Object.class, Object.class))
+    );
+  }
+
+  private static Codec codec(final Type type) {
+    if(type instanceof Class<?>) {
+      final Class<?> c = (Class<?>) type;
+      if(c == String.class) return StringCodec.INSTANCE;
+      if(c == byte[].class || c == int[].class || c == long[].class) return new ArrayCodec(c);
+      if(BoxedCodec.id(c) != -1) return new BoxedCodec(c);
+      if(c.isEnum()) return new EnumCodec(c);
+      if(BinaryTag.class.isAssignableFrom(c)) return new TagCodec(c);
+      if(!c.isPrimitive() && !c.isArray() && !Iterable.class.isAssignableFrom(c) && !Map.class.isAssignableFrom(c)) return new ObjectCodec(c);
+    } else if(type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == List.class) {
+      return new ListCodec(codec(((ParameterizedType) type).getActualTypeArguments()[0]));
+    }
+    throw new IllegalArgumentException("Cannot map values of type " + type.getTypeName());
+  }
+
+  private static ConversionException mismatch(final Object expected, final BinaryTag tag) {
+    return new ConversionException("expected " + (expected instanceof Class<?> ? ((Class<?>) expected).getName() : expected) + ", was " + tag.type());
+  }
+
+  // a value which cannot be converted, with the path of keys and indices leading to it
+  private static final class ConversionException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+    private final String path;
+    private final String reason;
+
+    ConversionException(final String reason) {
+      this("", reason, null);
+    }
+
+    private ConversionException(final String path, final String reason, final @Nullable Throwable cause) {
+      super(path.isEmpty() ? reason : "Cannot convert " + path + ": " + reason, cause);
+      this.path = path;
+      this.reason = reason;
+    }
+
+    // this exception, at a key or an index ("[n]") one level further out
+    ConversionException at(final String segment) {
+      final String path = this.path.isEmpty() || this.path.charAt(0) == Tokens.ARRAY_BEGIN ? segment + this.path : segment + '.' + this.path;
+      return new ConversionException(path, this.reason, this);
+    }
+  }
+
+  private abstract static class Property {
+    final String key;
+
+    Property(final String key) {
+      this.key = key;
+    }
+
+    abstract void put(final Object instance, final CompoundBinaryTag.Builder builder) throws Throwable;
+
+    abstract void set(final Object instance, final BinaryTag tag) throws Throwable;
+
+    // writes the whole entry, including type and key
+    abstract void write(final Object instance, final DataOutput output) throws Throwable;
+
+    // reads a value of type id at depth, counted from 1 for the root compound
+    abstract void read(final Object instance, final byte id, final DataInput input, final int depth) throws Throwable;
+  }
+
+  private static final class PrimitiveProperty extends Property {
+    private final Class<?> type;
+    private final byte id;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    PrimitiveProperty(final String key, final Class<?> type, final MethodHandle getter, final MethodHandle setter) {
+      super(key);
+      this.type = type;
+      this.id = BoxedCodec.id(type);
+      if(this.id == -1) throw new IllegalArgumentException("Cannot map values of type " + type.getName());
+      this.getter = getter;
+      this.setter = setter;
+    }
+
+    @Override
+    void put(final Object instance, final CompoundBinaryTag.Builder builder) throws Throwable {
+      final Class<?> type = this.type;
+      if(type == int.class) builder.putInt(this.key, (int) this.getter.invokeExact(instance));
+      else if(type == long.class) builder.putLong(this.key, (long) this.getter.invokeExact(instance));
+      else if(type == double.class) builder.putDouble(this.key, (double) this.getter.invokeExact(instance));
+      else if(type == float.class) builder.putFloat(this.key, (float) this.getter.invokeExact(instance));
+      else if(type == boolean.class) builder.putByte(this.key, (boolean) this.getter.invokeExact(instance) ? (byte) 1 : 0);
+      else if(type == byte.class) builder.putByte(this.key, (byte) this.getter.invokeExact(instance));
+      else builder.putShort(this.key, (short) this.getter.invokeExact(instance));
+    }
+
+    @Override
+    void set(final Object instance, final BinaryTag tag) throws Throwable {
+      if(!(tag instanceof NumberBinaryTag)) throw mismatch(this.type, tag);
+      final NumberBinaryTag number = (NumberBinaryTag) tag;
+      final Class<?> type = this.type;
+      if(type == int.class) this.setter.invokeExact(instance, number.intValue());
+      else if(type == long.class) this.setter.invokeExact(instance, number.longValue());
+      else if(type == double.class) this.setter.invokeExact(instance, number.doubleValue());
+      else if(type == float.class) this.setter.invokeExact(instance, number.floatValue());
+      else if(type == boolean.class) this.setter.invokeExact(instance, number.byteValue() != 0);
+      else if(type == byte.class) this.setter.invokeExact(instance, number.byteValue());
+      else this.setter.invokeExact(instance, number.shortValue());
+    }
+
+    @Override
+    void write(final Object instance, final DataOutput output) throws Throwable {
+      output.writeByte(this.id);
+      ModifiedUtf8.write(output, this.key);
+      final Class<?> type = this.type;
+      if(type == int.class) output.writeInt((int) this.getter.invokeExact(instance));
+      else if(type == long.class) output.writeLong((long) this.getter.invokeExact(instance));
+      else if(type == double.class) output.writeDouble((double) this.getter.invokeExact(instance));
+      else if(type == float.class) output.writeFloat((float) this.getter.invokeExact(instance));
+      else if(type == boolean.class) output.writeByte((boolean) this.getter.invokeExact(instance) ? 1 : 0);
+      else if(type == byte.class) output.writeByte((byte) this.getter.invokeExact(instance));
+      else output.writeShort((short) this.getter.invokeExact(instance));
+    }
+
+    @Override
+    void read(final Object instance, final byte id, final DataInput input, final int depth) throws Throwable {
+      if(id != this.id) {
+        this.set(instance, BinaryTagCodec.read(id, input));
+        return;
+      }
+      final Class<?> type = this.type;
+      if(type == int.class) this.setter.invokeExact(instance, input.readInt());
+      else if(type == long.class) this.setter.invokeExact(instance, input.readLong());
+      else if(type == double.class) this.setter.invokeExact(instance, input.readDouble());
+      else if(type == float.class) this.setter.invokeExact(instance, input.readFloat());
+      else if(type == boolean.class) this.setter.invokeExact(instance, input.readByte() != 0);
+      else if(type == byte.class) this.setter.invokeExact(instance, input.readByte());
+      else this.setter.invokeExact(instance, input.readShort());
+    }
+  }
+
+  private static final class ObjectProperty extends Property {
+    private final Codec codec;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    ObjectProperty(final String key, final Codec codec, final MethodHandle getter, final MethodHandle setter) {
+      super(key);
+      this.codec = codec;
+      this.getter = getter;
+      this.setter = setter;
+    }
+
+    @Override
+    void put(final Object instance, final CompoundBinaryTag.Builder builder) throws Throwable {
+      final Object value = this.getter.invokeExact(instance);
+      if(value != null) {
+        builder.put(this.key, this.codec.toTag(value));
+      }
+    }
+
+    @Override
+    void set(final Object instance, final BinaryTag tag) throws Throwable {
+      this.setter.invokeExact(instance, this.codec.fromTag(tag));
+    }
+
+    @Override
+    void write(final Object instance, final DataOutput output) throws Throwable {
+      final Object value = this.getter.invokeExact(instance);
+      if(value != null) {
+        output.writeByte(this.codec.id(value));
+        ModifiedUtf8.write(output, this.key);
+        this.codec.write(value, output);
+      }
+    }
+
+    @Override
+    void read(final Object instance, final byte id, final DataInput input, final int depth) throws Throwable {
+      this.setter.invokeExact(instance, this.codec.read(id, input, depth));
+    }
+  }
+
+  // converts values of one type, which are never null
+  private abstract static class Codec {
+    abstract byte id(final Object value);
+
+    abstract BinaryTag toTag(final Object value) throws Throwable;
+
+    abstract Object fromTag(final BinaryTag tag) throws Throwable;
+
+    // writes the value, without its type
+    abstract void write(final Object value, final DataOutput output) throws Throwable;
+
+    // reads a value of type id at depth, converting it from a tag if it is not of the expected type
+    Object read(final byte id, final DataInput input, final int depth) throws Throwable {
+      return this.fromTag(BinaryTagCodec.read(id, input));
+    }
+  }
+
+  private static final class StringCodec extends Codec {
+    static final StringCodec INSTANCE = new StringCodec();
+
+    @Override
+    byte id(final Object value) {
+      return BinaryTagTypes.STRING.id();
+    }
+
+    @Override
+    BinaryTag toTag(final Object value) {
+      return StringBinaryTag.of((String) value);
+    }
+
+    @Override
+    Object fromTag(final BinaryTag tag) {
+      if(!(tag instanceof StringBinaryTag)) throw mismatch(String.class, tag);
+      return ((StringBinaryTag) tag).value();
+    }
+
+    @Override
+    void write(final Object value, final DataOutput output) throws IOException {
+      ModifiedUtf8.write(output, (String) value);
+    }
+
+    @Override
+    Object read(final byte id, final DataInput input, final int depth) throws Throwable {
+      if(id == BinaryTagTypes.STRING.id()) return ModifiedUtf8.read(input);
+      return super.read(id, input, depth);
+    }
+  }
+
+  private static final class ArrayCodec extends Codec {
+    private final byte id;
+
+    ArrayCodec(final Class<?> type) {
+      this.id = type == byte[].class ? BinaryTagTypes.BYTE_ARRAY.id() : type == int[].class ? BinaryTagTypes.INT_ARRAY.id() : BinaryTagTypes.LONG_ARRAY.id();
+    }
+
+    @Override
+    byte id(final Object value) {
+      return this.id;
+    }
+
+    @Override
+    BinaryTag toTag(final Object value) {
+      switch(this.id) {
+        case 7: return ByteArrayBinaryTag.of((byte[]) value);
+        case 11: return IntArrayBinaryTag.of((int[]) value);
+        default: return LongArrayBinaryTag.of((long[]) value);
+      }
+    }
+
+    @Override
+    Object fromTag(final BinaryTag tag) {
+      if(tag.type().id() != this.id) throw mismatch(BinaryTagType.of(this.id), tag);
+      switch(this.id) {
+        case 7: return ((ByteArrayBinaryTag) tag).value();
+        case 11: return ((IntArrayBinaryTag) tag).value();
+        default: return ((LongArrayBinaryTag) tag).value();
+      }
+    }
+
+    @Override
+    void write(final Object value, final DataOutput output) throws IOException {
+      switch(this.id) {
+        case 7:
+          output.writeInt(((byte[]) value).length);
+          output.write((byte[]) value);
+          return;
+        case 11:
+          output.writeInt(((int[]) value).length);
+          ByteBufferDataOutput.write(output, (int[]) value);
+          return;
+        default:
+          output.writeInt(((long[]) value).length);
+          ByteBufferDataOutput.write(output, (long[]) value);
+      }
+    }
+
+    @Override
+    Object read(final byte id, final DataInput input, final int depth) throws Throwable {
+      if(id != this.id) return super.read(id, input, depth);
+      // the codec's own readers check lengths, and hand over their arrays without copying
+      switch(id) {
+        case 7: return ByteArrayBinaryTagImpl.value(BinaryTagCodec.readByteArray(input));
+        case 11: return IntArrayBinaryTagImpl.value(BinaryTagCodec.readIntArray(input));
+        default: return LongArrayBinaryTagImpl.value(BinaryTagCodec.readLongArray(input));
+      }
+    }
+  }
+
+  private static final class BoxedCodec extends Codec {
+    private final Class<?> type;
+    private final byte id;
+
+    BoxedCodec(final Class<?> type) {
+      this.type = type;
+      this.id = id(type);
+    }
+
+    // the tag type of a primitive or boxed type, or -1 if it is neither
+    static byte id(final Class<?> type) {
+      if(type == Integer.class || type == int.class) return BinaryTagTypes.INT.id();
+      if(type == Long.class || type == long.class) return BinaryTagTypes.LONG.id();
+      if(type == Double.class || type == double.class) return BinaryTagTypes.DOUBLE.id();
+      if(type == Float.class || type == float.class) return BinaryTagTypes.FLOAT.id();
+      if(type == Boolean.class || type == boolean.class || type == Byte.class || type == byte.class) return BinaryTagTypes.BYTE.id();
+      if(type == Short.class || type == short.class) return BinaryTagTypes.SHORT.id();
+      return -1;
+    }
+
+    @Override
+    byte id(final Object value) {
+      return this.id;
+    }
+
+    @Override
+    BinaryTag toTag(final Object value) {
+      if(value instanceof Boolean) return ByteBinaryTag.of((Boolean) value ? (byte) 1 : 0);
+      final Number number = (Number) value;
+      switch(this.id) {
+        case 1: return ByteBinaryTag.of(number.byteValue());
+        case 2: return ShortBinaryTag.of(number.shortValue());
+        case 3: return IntBinaryTag.of(number.intValue());
+        case 4: return LongBinaryTag.of(number.longValue());
+        case 5: return FloatBinaryTag.of(number.floatValue());
+        default: return DoubleBinaryTag.of(number.doubleValue());
+      }
+    }
+
+    @Override
+    Object fromTag(final BinaryTag tag) {
+      if(!(tag instanceof NumberBinaryTag)) throw mismatch(this.type, tag);
+      final NumberBinaryTag number = (NumberBinaryTag) tag;
+      if(this.type == Boolean.class) return number.byteValue() != 0;
+      switch(this.id) {
+        case 1: return number.byteValue();
+        case 2: return number.shortValue();
+        case 3: return number.intValue();
+        case 4: return number.longValue();
+        case 5: return number.floatValue();
+        default: return number.doubleValue();
+      }
+    }
+
+    @Override
+    void write(final Object value, final DataOutput output) throws IOException {
+      if(value instanceof Boolean) {
+        output.writeByte((Boolean) value ? 1 : 0);
+        return;
+      }
+      final Number number = (Number) value;
+      switch(this.id) {
+        case 1:
+          output.writeByte(number.byteValue());
+          return;
+        case 2:
+          output.writeShort(number.shortValue());
+          return;
+        case 3:
+          output.writeInt(number.intValue());
+          return;
+        case 4:
+          output.writeLong(number.longValue());
+          return;
+        case 5:
+          output.writeFloat(number.floatValue());
+          return;
+        default:
+          output.writeDouble(number.doubleValue());
+      }
+    }
+
+    @Override
+    Object read(final byte id, final DataInput input, final int depth) throws Throwable {
+      if(id != this.id) return super.read(id, input, depth);
+      switch(id) {
+        case 1:
+          final byte value = input.readByte();
+          return this.type == Boolean.class ? (Object) (value != 0) : (Object) value;
+        case 2: return input.readShort();
+        case 3: return input.readInt();
+        case 4: return input.readLong();
+        case 5: return input.readFloat();
+        default: return input.readDouble();
+      }
+    }
+  }
+
+  private static final class EnumCodec extends Codec {
+    private final Class<?> type;
+
+    EnumCodec(final Class<?> type) {
+      this.type = type;
+    }
+
+    @Override
+    byte id(final Object value) {
+      return BinaryTagTypes.STRING.id();
+    }
+
+    @Override
+    BinaryTag toTag(final Object value) {
+      return StringBinaryTag.of(((Enum<?>) value).name());
+    }
+
+    @Override
+    Object fromTag(final BinaryTag tag) {
+      return this.valueOf((String) StringCodec.INSTANCE.fromTag(tag));
+    }
+
+    @Override
+    void write(final Object value, final DataOutput output) throws IOException {
+      ModifiedUtf8.write(output, ((Enum<?>) value).name());
+    }
+
+    @Override
+    Object read(final byte id, final DataInput input, final int depth) throws Throwable {
+      return this.valueOf((String) StringCodec.INSTANCE.read(id, input, depth));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object valueOf(final String name) {
+      try {
+        return Enum.valueOf((Class) this.type, name);
+      } catch(final IllegalArgumentException e) {
+        throw new ConversionException("no constant " + name + " in " + this.type.getName());
+      }
+    }
+  }
+
+  private static final class TagCodec extends Codec {
+    private final Class<?> type;
+
+    TagCodec(final Class<?> type) {
+      this.type = type;
+    }
+
+    @Override
+    byte id(final Object value) {
+      return ((BinaryTag) value).type().id();
+    }
+
+    @Override
+    BinaryTag toTag(final Object value) {
+      return (BinaryTag) value;
+    }
+
+    @Override
+    Object fromTag(final BinaryTag tag) {
+      if(!this.type.isInstance(tag)) throw mismatch(this.type, tag);
+      return tag;
+    }
+
+    @Override
+    void write(final Object value, final DataOutput output) throws IOException {
+      final BinaryTag tag = (BinaryTag) value;
+      BinaryTagCodec.write(tag.type().id(), tag, output);
+    }
+  }
+
+  private static final class ObjectCodec extends Codec {
+    private final Class<?> type;
+    private BinaryTagMapper<?> mapper;
+
+    ObjectCodec(final Class<?> type) {
+      this.type = type;
+    }
+
+    // looked up on first use, as a class may hold fields of its own type
+    private BinaryTagMapper<?> mapper() {
+      BinaryTagMapper<?> mapper = this.mapper;
+      if(mapper == null) {
+        mapper = of(this.type);
+        this.mapper = mapper;
+      }
+      return mapper;
+    }
+
+    @Override
+    byte id(final Object value) {
+      return BinaryTagTypes.COMPOUND.id();
+    }
+
+    @Override
+    BinaryTag toTag(final Object value) throws Throwable {
+      return this.mapper().toCompound(value);
+    }
+
+    @Override
+    Object fromTag(final BinaryTag tag) throws Throwable {
+      if(!(tag instanceof CompoundBinaryTag)) throw mismatch(this.type, tag);
+      return this.mapper().fromCompound((CompoundBinaryTag) tag);
+    }
+
+    @Override
+    void write(final Object value, final DataOutput output) throws Throwable {
+      this.mapper().writeCompound(value, output);
+    }
+
+    @Override
+    Object read(final byte id, final DataInput input, final int depth) throws Throwable {
+      if(id != BinaryTagTypes.COMPOUND.id()) return super.read(id, input, depth);
+      return this.mapper().readCompound(input, depth);
+    }
+  }
+
+  private static final class ListCodec extends Codec {
+    private final Codec element;
+
+    ListCodec(final Codec element) {
+      this.element = element;
+    }
+
+    private static Object element(final List<?> list, final int index) {
+      final Object element = list.get(index);
+      if(element == null) throw new ConversionException("lists cannot hold null, found at index " + index);
+      return element;
+    }
+
+    @Override
+    byte id(final Object value) {
+      return BinaryTagTypes.LIST.id();
+    }
+
+    @Override
+    BinaryTag toTag(final Object value) throws Throwable {
+      final ListBinaryTag.Builder<BinaryTag> builder = ListBinaryTag.builder();
+      final List<?> list = (List<?>) value;
+      for(int i = 0, size = list.size(); i < size; i++) {
+        try {
+          builder.add(this.element.toTag(element(list, i)));
+        } catch(final ConversionException e) {
+          throw e.at("[" + i + "]");
+        }
+      }
+      return builder.build();
+    }
+
+    @Override
+    Object fromTag(final BinaryTag tag) throws Throwable {
+      if(!(tag instanceof ListBinaryTag)) throw mismatch(List.class, tag);
+      final ListBinaryTag list = (ListBinaryTag) tag;
+      final List<Object> values = new ArrayList<>(list.size());
+      for(int i = 0, size = list.size(); i < size; i++) {
+        try {
+          values.add(this.element.fromTag(list.get(i)));
+        } catch(final ConversionException e) {
+          throw e.at("[" + i + "]");
+        }
+      }
+      return values;
+    }
+
+    @Override
+    void write(final Object value, final DataOutput output) throws Throwable {
+      final List<?> list = (List<?>) value;
+      final int size = list.size();
+      if(size == 0) {
+        output.writeByte(BinaryTagTypes.END.id());
+        output.writeInt(0);
+        return;
+      }
+      final byte id = this.element.id(element(list, 0));
+      output.writeByte(id);
+      output.writeInt(size);
+      for(int i = 0; i < size; i++) {
+        final Object element = element(list, i);
+        if(this.element.id(element) != id) {
+          throw new ConversionException("cannot write a list of mixed tag types, " + BinaryTagType.of(id) + " and " + BinaryTagType.of(this.element.id(element)));
+        }
+        try {
+          this.element.write(element, output);
+        } catch(final ConversionException e) {
+          throw e.at("[" + i + "]");
+        }
+      }
+    }
+
+    @Override
+    Object read(final byte id, final DataInput input, final int depth) throws Throwable {
+      if(id != BinaryTagTypes.LIST.id()) return super.read(id, input, depth);
+      final byte elementId = input.readByte();
+      final int size = input.readInt();
+      LimitedDataInput.length(input, size, 1);
+      if(elementId == BinaryTagTypes.END.id() && size > 0) {
+        throw new IOException(String.format("Cannot read a %s of %d %s elements", BinaryTagTypes.LIST, size, BinaryTagTypes.END));
+      }
+      LimitedDataInput.enter(input, depth);
+      final List<Object> values = new ArrayList<>(size);
+      for(int i = 0; i < size; i++) {
+        try {
+          values.add(this.element.read(elementId, input, depth + 1));
+        } catch(final ConversionException e) {
+          throw e.at("[" + i + "]");
+        }
+      }
+      LimitedDataInput.exit(input);
+      return values;
+    }
+  }
+}
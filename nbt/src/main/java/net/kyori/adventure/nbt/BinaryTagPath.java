@@ -0,0 +1,451 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A compiled path to tags within a compound tag, in the syntax used by commands and NBT components.
+ *
+ * <p>A path is made up of nodes separated by {@code .}:</p>
+ * <ul>
+ *   <li>{@code key} selects the value of {@code key} in a compound. Keys may be quoted with {@code "} or {@code '}.</li>
+ *   <li>{@code key{filter}} selects the value of {@code key} if it is a compound matching {@code filter}.</li>
+ *   <li>{@code [n]} selects element {@code n} of a list, counting back from the end if {@code n} is negative.</li>
+ *   <li>{@code []} selects every element of a list.</li>
+ *   <li>{@code [{filter}]} selects every element of a list which is a compound matching {@code filter}.</li>
+ *   <li>{@code {filter}}, as the first node only, selects the root if it matches {@code filter}.</li>
+ * </ul>
+ *
+ * <p>A tag matches a filter if it has every key the filter has, with a value matching the filter's. A list matches
+ * a list filter if each element of the filter matches some element of the list. Other tags match if they are equal.</p>
+ *
+ * <p>Paths are parsed once, so a path can be compiled ahead of time and evaluated against any number of tags.
+ * Setting and removing tags only copies the compounds and lists leading to the tags changed.</p>
+ */
+public final class BinaryTagPath {
+  private final String path;
+  private final Node[] nodes;
+
+  private BinaryTagPath(final String path, final Node[] nodes) {
+    this.path = path;
+    this.nodes = nodes;
+  }
+
+  /**
+   * Compiles a path.
+   *
+   * @param path the path
+   * @return a compiled path
+   * @throws IllegalArgumentException if the path is malformed
+   */
+  public static @NonNull BinaryTagPath compile(final @NonNull String path) {
+    final CharBuffer buffer = new CharBuffer(path);
+    final TagStringReader reader = new TagStringReader(buffer);
+    final List<Node> nodes = new ArrayList<>();
+    try {
+      while(buffer.hasMore()) {
+        nodes.add(parseNode(buffer, reader, nodes.isEmpty()));
+        if(buffer.hasMore()) {
+          final char next = buffer.peek();
+          if(next != Tokens.ARRAY_BEGIN && next != Tokens.COMPOUND_BEGIN) buffer.expect('.');
+        }
+      }
+    } catch(final StringTagParseException e) {
+      throw new IllegalArgumentException("Invalid path '" + path + "': " + e.getMessage(), e);
+    }
+    if(nodes.isEmpty()) throw new IllegalArgumentException("Empty path");
+    return new BinaryTagPath(path, nodes.toArray(new Node[0]));
+  }
+
+  /**
+   * Gets every tag this path selects within {@code root}.
+   *
+   * @param root the tag to evaluate against
+   * @return the selected tags, in order
+   */
+  public @NonNull List<BinaryTag> get(final @NonNull BinaryTag root) {
+    List<BinaryTag> matches = Collections.singletonList(root);
+    for(final Node node : this.nodes) {
+      final List<BinaryTag> next = new ArrayList<>(matches.size());
+      for(int i = 0, size = matches.size(); i < size; i++) {
+        node.get(matches.get(i), next);
+      }
+      if(next.isEmpty()) return Collections.emptyList();
+      matches = next;
+    }
+    return matches;
+  }
+
+  /**
+   * Gets the first tag this path selects within {@code root}.
+   *
+   * @param root the tag to evaluate against
+   * @return the first selected tag, or {@code null} if there is none
+   */
+  public @Nullable BinaryTag first(final @NonNull BinaryTag root) {
+    return this.first(root, 0);
+  }
+
+  private @Nullable BinaryTag first(final BinaryTag tag, final int depth) {
+    if(depth == this.nodes.length) return tag;
+    final List<BinaryTag> matches = new ArrayList<>(1);
+    this.nodes[depth].get(tag, matches);
+    for(int i = 0, size = matches.size(); i < size; i++) {
+      final BinaryTag match = this.first(matches.get(i), depth + 1);
+      if(match != null) return match;
+    }
+    return null;
+  }
+
+  /**
+   * Sets every tag this path selects within {@code root} to {@code value}.
+   *
+   * <p>Compounds leading up to a key which do not exist yet are created.</p>
+   *
+   * @param root the tag to change
+   * @param value the value to set
+   * @return the changed tag, or {@code root} if nothing was selected
+   * @throws IllegalArgumentException if this path selects the root itself, or {@code value} does not fit a list it
+   *     would be set in
+   */
+  public @NonNull CompoundBinaryTag set(final @NonNull CompoundBinaryTag root, final @NonNull BinaryTag value) {
+    return (CompoundBinaryTag) this.update(root, 0, value);
+  }
+
+  /**
+   * Removes every tag this path selects within {@code root}.
+   *
+   * @param root the tag to change
+   * @return the changed tag, or {@code root} if nothing was selected
+   * @throws IllegalArgumentException if this path selects the root itself
+   */
+  public @NonNull CompoundBinaryTag remove(final @NonNull CompoundBinaryTag root) {
+    return (CompoundBinaryTag) this.update(root, 0, null);
+  }
+
+  // sets the tags selected from nodes[depth] onwards within tag to value, or removes them if value is null
+  private BinaryTag update(final BinaryTag tag, final int depth, final @Nullable BinaryTag value) {
+    return this.nodes[depth].update(this, tag, depth, value);
+  }
+
+  // the tag below nodes[depth], with the rest of the path applied, or the tag itself if nothing changed
+  private @Nullable BinaryTag updateChild(final @Nullable BinaryTag child, final int depth, final @Nullable BinaryTag value) {
+    if(depth + 1 == this.nodes.length) return value;
+    BinaryTag from = child;
+    if(from == null) {
+      if(value == null) return null;
+      from = this.nodes[depth + 1].create();
+      if(from == null) return null;
+    }
+    final BinaryTag to = this.update(from, depth + 1, value);
+    return to == from && child == null ? null : to;
+  }
+
+  @Override
+  public boolean equals(final Object that) {
+    return this == that || (that instanceof BinaryTagPath && this.path.equals(((BinaryTagPath) that).path));
+  }
+
+  @Override
+  public int hashCode() {
+    return this.path.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return this.path;
+  }
+
+  private static Node parseNode(final CharBuffer buffer, final TagStringReader reader, final boolean first) throws StringTagParseException {
+    final char c = buffer.peek();
+    if(c == Tokens.COMPOUND_BEGIN) {
+      if(!first) throw buffer.makeError("A compound filter must follow a key");
+      return new RootFilter(reader.compound());
+    } else if(c == Tokens.ARRAY_BEGIN) {
+      buffer.take();
+      final char next = buffer.peek();
+      final Node node;
+      if(next == Tokens.COMPOUND_BEGIN) {
+        node = new ElementFilter(reader.compound());
+      } else if(next == Tokens.ARRAY_END) {
+        node = AllElements.INSTANCE;
+      } else {
+        node = new Element(parseIndex(buffer));
+      }
+      buffer.expect(Tokens.ARRAY_END);
+      return node;
+    }
+    final String key;
+    if(c == Tokens.DOUBLE_QUOTE || c == Tokens.SINGLE_QUOTE) {
+      key = buffer.takeUntil(buffer.take());
+    } else {
+      final int start = buffer.position();
+      while(buffer.hasMore() && keyCharacter(buffer.peek())) buffer.take();
+      if(buffer.position() == start) throw buffer.makeError("Expected a key");
+      key = buffer.substring(start, buffer.position());
+    }
+    if(buffer.hasMore() && buffer.peek() == Tokens.COMPOUND_BEGIN) {
+      return new KeyFilter(key, reader.compound());
+    }
+    return new Key(key);
+  }
+
+  private static int parseIndex(final CharBuffer buffer) throws StringTagParseException {
+    final int start = buffer.position();
+    if(buffer.peek() == '-') buffer.take();
+    while(buffer.hasMore() && buffer.peek() >= '0' && buffer.peek() <= '9') buffer.take();
+    try {
+      return Integer.parseInt(buffer.substring(start, buffer.position()));
+    } catch(final NumberFormatException e) {
+      throw buffer.makeError("Expected a list index");
+    }
+  }
+
+  private static boolean keyCharacter(final char c) {
+    return c != '.' && c != Tokens.ARRAY_BEGIN && c != Tokens.ARRAY_END && c != Tokens.COMPOUND_BEGIN && c != Tokens.COMPOUND_END
+      && c != Tokens.DOUBLE_QUOTE && c != Tokens.SINGLE_QUOTE && !Character.isWhitespace(c);
+  }
+
+  private static boolean matches(final BinaryTag filter, final @Nullable BinaryTag tag) {
+    if(filter == tag) return true;
+    if(filter instanceof CompoundBinaryTag) {
+      if(!(tag instanceof CompoundBinaryTag)) return false;
+      for(final Map.Entry<String, ? extends BinaryTag> entry : (CompoundBinaryTag) filter) {
+        if(!matches(entry.getValue(), ((CompoundBinaryTag) tag).get(entry.getKey()))) return false;
+      }
+      return true;
+    } else if(filter instanceof ListBinaryTag && tag instanceof ListBinaryTag) {
+      final ListBinaryTag filters = (ListBinaryTag) filter;
+      final ListBinaryTag list = (ListBinaryTag) tag;
+      if(filters.size() == 0) return list.size() == 0;
+      for(final BinaryTag element : filters) {
+        if(!contains(list, element)) return false;
+      }
+      return true;
+    }
+    return filter.equals(tag);
+  }
+
+  private static boolean contains(final ListBinaryTag list, final BinaryTag filter) {
+    for(final BinaryTag element : list) {
+      if(matches(filter, element)) return true;
+    }
+    return false;
+  }
+
+  private static ListBinaryTag withElement(final ListBinaryTag list, final int index, final BinaryTag value) {
+    final BinaryTagType<? extends BinaryTag> type = list.listType();
+    if(type != BinaryTagTypes.END && value.type() != type) {
+      throw new IllegalArgumentException("Cannot set a " + value.type() + " in a list of " + type);
+    }
+    return list.set(index, value, null);
+  }
+
+  private abstract static class Node {
+    // adds the tags this node selects within tag to matches
+    abstract void get(final BinaryTag tag, final List<BinaryTag> matches);
+
+    abstract BinaryTag update(final BinaryTagPath path, final BinaryTag tag, final int depth, final @Nullable BinaryTag value);
+
+    // a new tag for this node to select within, when setting a path which does not exist yet
+    @Nullable BinaryTag create() {
+      return null;
+    }
+  }
+
+  private static final class Key extends Node {
+    private final String key;
+
+    Key(final String key) {
+      this.key = key;
+    }
+
+    @Override
+    void get(final BinaryTag tag, final List<BinaryTag> matches) {
+      if(tag instanceof CompoundBinaryTag) {
+        final BinaryTag child = ((CompoundBinaryTag) tag).get(this.key);
+        if(child != null) matches.add(child);
+      }
+    }
+
+    @Override
+    BinaryTag update(final BinaryTagPath path, final BinaryTag tag, final int depth, final @Nullable BinaryTag value) {
+      if(!(tag instanceof CompoundBinaryTag)) return tag;
+      final CompoundBinaryTag compound = (CompoundBinaryTag) tag;
+      final BinaryTag child = compound.get(this.key);
+      final BinaryTag updated = path.updateChild(child, depth, value);
+      if(updated == child) return tag;
+      return updated == null ? compound.remove(this.key) : compound.put(this.key, updated);
+    }
+
+    @Override
+    @Nullable BinaryTag create() {
+      return CompoundBinaryTag.empty();
+    }
+  }
+
+  private static final class KeyFilter extends Node {
+    private final String key;
+    private final CompoundBinaryTag filter;
+
+    KeyFilter(final String key, final CompoundBinaryTag filter) {
+      this.key = key;
+      this.filter = filter;
+    }
+
+    @Override
+    void get(final BinaryTag tag, final List<BinaryTag> matches) {
+      if(tag instanceof CompoundBinaryTag) {
+        final BinaryTag child = ((CompoundBinaryTag) tag).get(this.key);
+        if(matches(this.filter, child)) matches.add(child);
+      }
+    }
+
+    @Override
+    BinaryTag update(final BinaryTagPath path, final BinaryTag tag, final int depth, final @Nullable BinaryTag value) {
+      if(!(tag instanceof CompoundBinaryTag)) return tag;
+      final CompoundBinaryTag compound = (CompoundBinaryTag) tag;
+      final BinaryTag child = compound.get(this.key);
+      if(child == null) {
+        // a compound leading to a tag being set is created matching the filter
+        if(value == null || depth + 1 == path.nodes.length) return tag;
+        return compound.put(this.key, path.update(this.filter, depth + 1, value));
+      }
+      if(!matches(this.filter, child)) return tag;
+      final BinaryTag updated = path.updateChild(child, depth, value);
+      if(updated == child) return tag;
+      return updated == null ? compound.remove(this.key) : compound.put(this.key, updated);
+    }
+
+    @Override
+    @Nullable BinaryTag create() {
+      return CompoundBinaryTag.empty();
+    }
+  }
+
+  private static final class Element extends Node {
+    private final int index;
+
+    Element(final int index) {
+      this.index = index;
+    }
+
+    private int index(final ListBinaryTag list) {
+      final int index = this.index < 0 ? list.size() + this.index : this.index;
+      return index >= 0 && index < list.size() ? index : -1;
+    }
+
+    @Override
+    void get(final BinaryTag tag, final List<BinaryTag> matches) {
+      if(tag instanceof ListBinaryTag) {
+        final int index = this.index((ListBinaryTag) tag);
+        if(index != -1) matches.add(((ListBinaryTag) tag).get(index));
+      }
+    }
+
+    @Override
+    BinaryTag update(final BinaryTagPath path, final BinaryTag tag, final int depth, final @Nullable BinaryTag value) {
+      if(!(tag instanceof ListBinaryTag)) return tag;
+      final ListBinaryTag list = (ListBinaryTag) tag;
+      final int index = this.index(list);
+      if(index == -1) return tag;
+      final BinaryTag child = list.get(index);
+      final BinaryTag updated = path.updateChild(child, depth, value);
+      if(updated == child) return tag;
+      return updated == null ? list.remove(index, null) : withElement(list, index, updated);
+    }
+  }
+
+  private static class AllElements extends Node {
+    static final AllElements INSTANCE = new AllElements();
+
+    boolean selects(final BinaryTag element) {
+      return true;
+    }
+
+    @Override
+    void get(final BinaryTag tag, final List<BinaryTag> matches) {
+      if(tag instanceof ListBinaryTag) {
+        for(final BinaryTag element : (ListBinaryTag) tag) {
+          if(this.selects(element)) matches.add(element);
+        }
+      }
+    }
+
+    @Override
+    BinaryTag update(final BinaryTagPath path, final BinaryTag tag, final int depth, final @Nullable BinaryTag value) {
+      if(!(tag instanceof ListBinaryTag)) return tag;
+      ListBinaryTag list = (ListBinaryTag) tag;
+      // backwards, so removing an element does not move those still to visit
+      for(int i = list.size() - 1; i >= 0; i--) {
+        final BinaryTag child = list.get(i);
+        if(!this.selects(child)) continue;
+        final BinaryTag updated = path.updateChild(child, depth, value);
+        if(updated != child) {
+          list = updated == null ? list.remove(i, null) : withElement(list, i, updated);
+        }
+      }
+      return list;
+    }
+  }
+
+  private static final class ElementFilter extends AllElements {
+    private final CompoundBinaryTag filter;
+
+    ElementFilter(final CompoundBinaryTag filter) {
+      this.filter = filter;
+    }
+
+    @Override
+    boolean selects(final BinaryTag element) {
+      return matches(this.filter, element);
+    }
+  }
+
+  private static final class RootFilter extends Node {
+    private final CompoundBinaryTag filter;
+
+    RootFilter(final CompoundBinaryTag filter) {
+      this.filter = filter;
+    }
+
+    @Override
+    void get(final BinaryTag tag, final List<BinaryTag> matches) {
+      if(matches(this.filter, tag)) matches.add(tag);
+    }
+
+    @Override
+    BinaryTag update(final BinaryTagPath path, final BinaryTag tag, final int depth, final @Nullable BinaryTag value) {
+      if(depth + 1 == path.nodes.length) throw new IllegalArgumentException("Cannot set or remove the root tag");
+      if(!matches(this.filter, tag)) return tag;
+      return path.update(tag, depth + 1, value);
+    }
+  }
+}
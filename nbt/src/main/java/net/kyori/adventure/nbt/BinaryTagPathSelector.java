@@ -0,0 +1,240 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Reads only selected parts of a binary compound tag, skipping everything else without decoding it.
+ *
+ * <p>Paths are made up of compound keys separated by {@code .}, each optionally followed by one or more
+ * list selectors - {@code [*]} for every element, or {@code [n]} for the element at index {@code n}.
+ * Keys containing special characters may be wrapped in double quotes. For example, {@code Level.Sections[*].Palette}
+ * selects the palette of every section.</p>
+ *
+ * <p>The result has the same shape as the input, pruned to the selected paths. Compounds containing no selected
+ * values are omitted. Selected list elements are always kept, even when nothing within them was found, but
+ * unselected elements are removed, so elements do not keep their original indices: selecting {@code Items[1]} gives
+ * a list holding only that element, at index 0.</p>
+ */
+public final class BinaryTagPathSelector {
+  private final Node root;
+
+  private BinaryTagPathSelector(final Node root) {
+    this.root = root;
+  }
+
+  /**
+   * Creates a selector.
+   *
+   * @param paths the paths to select
+   * @return a selector
+   * @throws IllegalArgumentException if a path is malformed
+   */
+  public static @NonNull BinaryTagPathSelector of(final @NonNull String@NonNull... paths) {
+    final Node root = new Node();
+    for(final String path : paths) {
+      parse(root, path);
+    }
+    root.resolve();
+    return new BinaryTagPathSelector(root);
+  }
+
+  /**
+   * Reads the selected parts of a compound tag from {@code input}.
+   *
+   * @param input the input
+   * @return the compound tag
+   * @throws IOException if an exception was encountered while reading a compound tag
+   */
+  public @NonNull CompoundBinaryTag read(final @NonNull DataInput input) throws IOException {
+    final BinaryTagStreamReader reader = BinaryTagStreamReader.of(input);
+    reader.next(); // root
+    final CompoundBinaryTag tag = compound(reader, this.root);
+    return tag != null ? tag : CompoundBinaryTag.empty();
+  }
+
+  private static @Nullable CompoundBinaryTag compound(final BinaryTagStreamReader reader, final Node node) throws IOException {
+    CompoundBinaryTag.Builder builder = null;
+    while(reader.next() == BinaryTagStreamReader.Event.KEY) {
+      final Node child = node.keys == null ? null : node.keys.get(reader.key());
+      if(child == null) {
+        reader.skip();
+        continue;
+      }
+      final String key = reader.key();
+      final BinaryTag tag = value(reader, child);
+      if(tag != null) {
+        if(builder == null) builder = CompoundBinaryTag.builder();
+        builder.put(key, tag);
+      }
+    }
+    return builder == null ? null : builder.build();
+  }
+
+  private static @Nullable BinaryTag value(final BinaryTagStreamReader reader, final Node node) throws IOException {
+    if(node.terminal) return reader.readTag();
+    final BinaryTagStreamReader.Event event = reader.next();
+    if(event == BinaryTagStreamReader.Event.BEGIN_COMPOUND) {
+      return compound(reader, node);
+    } else if(event == BinaryTagStreamReader.Event.BEGIN_LIST) {
+      return list(reader, node);
+    }
+    reader.skip(); // cannot descend into a scalar
+    return null;
+  }
+
+  private static @Nullable ListBinaryTag list(final BinaryTagStreamReader reader, final Node node) throws IOException {
+    if(node.any == null && node.indices == null) {
+      reader.skip();
+      return null;
+    }
+    final ListBinaryTag.Builder<BinaryTag> builder = ListBinaryTag.builder();
+    int index = 0;
+    BinaryTagStreamReader.Event event;
+    while((event = reader.next()) != BinaryTagStreamReader.Event.END_LIST) {
+      final Node child = node.indices != null && node.indices.containsKey(index) ? node.indices.get(index) : node.any;
+      index++;
+      if(child == null) {
+        reader.skip();
+      } else if(child.terminal) {
+        builder.add(reader.readTag());
+      } else if(event == BinaryTagStreamReader.Event.BEGIN_COMPOUND) {
+        final CompoundBinaryTag tag = compound(reader, child);
+        builder.add(tag != null ? tag : CompoundBinaryTag.empty());
+      } else if(event == BinaryTagStreamReader.Event.BEGIN_LIST) {
+        final ListBinaryTag tag = list(reader, child);
+        builder.add(tag != null ? tag : ListBinaryTag.empty());
+      } else {
+        reader.skip(); // cannot descend into a scalar
+      }
+    }
+    final ListBinaryTag tag = builder.build();
+    return tag.size() == 0 ? null : tag;
+  }
+
+  private static void parse(final Node root, final String path) {
+    Node node = root;
+    int i = 0;
+    final int length = path.length();
+    while(true) {
+      // key
+      final StringBuilder key = new StringBuilder();
+      if(i < length && path.charAt(i) == Tokens.DOUBLE_QUOTE) {
+        final int end = path.indexOf(Tokens.DOUBLE_QUOTE, i + 1);
+        if(end == -1) throw new IllegalArgumentException("Unterminated quoted key in path '" + path + "'");
+        key.append(path, i + 1, end);
+        i = end + 1;
+      } else {
+        while(i < length && path.charAt(i) != '.' && path.charAt(i) != Tokens.ARRAY_BEGIN) {
+          key.append(path.charAt(i++));
+        }
+        if(key.length() == 0) throw new IllegalArgumentException("Empty key in path '" + path + "'");
+      }
+      node = node.key(key.toString());
+      // list selectors
+      while(i < length && path.charAt(i) == Tokens.ARRAY_BEGIN) {
+        final int end = path.indexOf(Tokens.ARRAY_END, i);
+        if(end == -1) throw new IllegalArgumentException("Unterminated list selector in path '" + path + "'");
+        final String selector = path.substring(i + 1, end);
+        if(selector.equals("*")) {
+          node = node.any();
+        } else {
+          try {
+            node = node.index(Integer.parseInt(selector));
+          } catch(final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid list selector '" + selector + "' in path '" + path + "'");
+          }
+        }
+        i = end + 1;
+      }
+      if(i == length) break;
+      if(path.charAt(i) != '.') throw new IllegalArgumentException("Unexpected '" + path.charAt(i) + "' in path '" + path + "'");
+      i++;
+    }
+    node.terminal = true;
+  }
+
+  private static final class Node {
+    boolean terminal;
+    @Nullable Map<String, Node> keys;
+    @Nullable Node any;
+    @Nullable Map<Integer, Node> indices;
+
+    /* package */ Node key(final String key) {
+      if(this.keys == null) this.keys = new HashMap<>();
+      return this.keys.computeIfAbsent(key, k -> new Node());
+    }
+
+    /* package */ Node any() {
+      if(this.any == null) this.any = new Node();
+      return this.any;
+    }
+
+    /* package */ Node index(final int index) {
+      if(index < 0) throw new IllegalArgumentException("Negative list index " + index);
+      if(this.indices == null) this.indices = new HashMap<>();
+      return this.indices.computeIfAbsent(index, i -> new Node());
+    }
+
+    // adds everything other selects to this node, copying rather than sharing its children
+    /* package */ void merge(final Node other) {
+      this.terminal |= other.terminal;
+      if(other.keys != null) {
+        for(final Map.Entry<String, Node> entry : other.keys.entrySet()) {
+          this.key(entry.getKey()).merge(entry.getValue());
+        }
+      }
+      if(other.any != null) {
+        this.any().merge(other.any);
+      }
+      if(other.indices != null) {
+        for(final Map.Entry<Integer, Node> entry : other.indices.entrySet()) {
+          this.index(entry.getKey()).merge(entry.getValue());
+        }
+      }
+    }
+
+    // an element selected by index is also selected by [*], so it must select at least as much
+    /* package */ void resolve() {
+      if(this.any != null && this.indices != null) {
+        for(final Node index : this.indices.values()) {
+          index.merge(this.any);
+        }
+      }
+      if(this.keys != null) {
+        for(final Node key : this.keys.values()) key.resolve();
+      }
+      if(this.any != null) this.any.resolve();
+      if(this.indices != null) {
+        for(final Node index : this.indices.values()) index.resolve();
+      }
+    }
+  }
+}
@@ -0,0 +1,559 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A pull-style reader over binary NBT which does not construct a tag tree.
+ *
+ * <p>Each call to {@link #next()} advances the reader to the next {@link Event event}. Values
+ * are only decoded when requested through one of the value accessors - a value which is not
+ * requested is skipped over without being decoded.</p>
+ *
+ * <pre>
+ * final BinaryTagStreamReader reader = BinaryTagStreamReader.of(input);
+ * BinaryTagStreamReader.Event event;
+ * while((event = reader.next()) != BinaryTagStreamReader.Event.END) {
+ *   if(event == BinaryTagStreamReader.Event.KEY &amp;&amp; reader.depth() == 1 &amp;&amp; reader.key().equals("DataVersion")) {
+ *     reader.next();
+ *     dataVersion = reader.intValue();
+ *   }
+ * }
+ * </pre>
+ */
+public final class BinaryTagStreamReader {
+  private static final byte COMPOUND_FRAME = -1;
+  private final DataInput input;
+  private byte[] frameTypes = new byte[8];
+  private int[] frameRemaining = new int[8];
+  private int depth;
+  private @Nullable Event event;
+  private @Nullable BinaryTagType<? extends BinaryTag> type;
+  private @Nullable String key;
+  private int listSize;
+  private boolean pending;
+
+  static {
+    BinaryTagTypes.COMPOUND.id(); // initialize tag types
+  }
+
+  private BinaryTagStreamReader(final DataInput input) {
+    this.input = input;
+  }
+
+  /**
+   * Creates a stream reader reading a named root compound tag from {@code input}.
+   *
+   * @param input the input
+   * @return a stream reader
+   */
+  public static @NonNull BinaryTagStreamReader of(final @NonNull DataInput input) {
+    return new BinaryTagStreamReader(input);
+  }
+
+  /**
+   * Advances to the next event.
+   *
+   * <p>If the current event is a {@link Event#VALUE value} that has not been read, the value is skipped. A
+   * {@link Event#KEY key} is always followed by the event for its value - use {@link #skip()} to skip it instead.</p>
+   *
+   * @return the next event
+   * @throws IOException if an exception was encountered while reading
+   */
+  public @NonNull Event next() throws IOException {
+    if(this.pending) {
+      skip(this.type.id(), this.input, this.depth + 1);
+      this.pending = false;
+    }
+    if(this.event == null) {
+      final BinaryTagType<? extends BinaryTag> type = BinaryTagType.of(this.input.readByte());
+      if(type != BinaryTagTypes.COMPOUND) {
+        throw new IOException(String.format("Expected root tag to be a %s, was %s", BinaryTagTypes.COMPOUND, type));
+      }
+      this.key = ModifiedUtf8.read(this.input);
+      return this.value(type);
+    } else if(this.event == Event.KEY) {
+      return this.value(this.type);
+    } else if(this.depth == 0) {
+      this.type = null;
+      this.key = null;
+      return this.event = Event.END;
+    }
+    final int frame = this.depth - 1;
+    if(this.frameTypes[frame] == COMPOUND_FRAME) {
+      final BinaryTagType<? extends BinaryTag> type = BinaryTagType.of(this.input.readByte());
+      if(type == BinaryTagTypes.END) {
+        this.depth--;
+        this.type = BinaryTagTypes.COMPOUND;
+        this.key = null;
+        return this.event = Event.END_COMPOUND;
+      }
+      this.type = type;
+      this.key = KeyPool.intern(ModifiedUtf8.read(this.input));
+      return this.event = Event.KEY;
+    } else if(this.frameRemaining[frame] == 0) {
+      this.depth--;
+      this.type = BinaryTagTypes.LIST;
+      this.key = null;
+      return this.event = Event.END_LIST;
+    }
+    this.frameRemaining[frame]--;
+    this.key = null;
+    return this.value(BinaryTagType.of(this.frameTypes[frame]));
+  }
+
+  private Event value(final BinaryTagType<? extends BinaryTag> type) throws IOException {
+    this.type = type;
+    this.pending = false;
+    if(type == BinaryTagTypes.COMPOUND) {
+      this.push(COMPOUND_FRAME, 0);
+      return this.event = Event.BEGIN_COMPOUND;
+    } else if(type == BinaryTagTypes.LIST) {
+      final byte elementType = this.input.readByte();
+      this.listSize = listLength(elementType, this.input);
+      this.push(elementType, this.listSize);
+      return this.event = Event.BEGIN_LIST;
+    }
+    this.pending = true;
+    return this.event = Event.VALUE;
+  }
+
+  private void push(final byte type, final int remaining) {
+    if(this.depth == this.frameTypes.length) {
+      this.frameTypes = Arrays.copyOf(this.frameTypes, this.depth * 2);
+      this.frameRemaining = Arrays.copyOf(this.frameRemaining, this.depth * 2);
+    }
+    this.frameTypes[this.depth] = type;
+    this.frameRemaining[this.depth] = remaining;
+    this.depth++;
+  }
+
+  /**
+   * Gets the current event.
+   *
+   * @return the current event, or {@code null} if {@link #next()} has not yet been called
+   */
+  public @Nullable Event event() {
+    return this.event;
+  }
+
+  /**
+   * Gets the type of the current value.
+   *
+   * <p>For a {@link Event#KEY key} event this is the type of the value which follows.</p>
+   *
+   * @return the type, or {@code null} if there is no current value
+   */
+  public @Nullable BinaryTagType<? extends BinaryTag> type() {
+    return this.type;
+  }
+
+  /**
+   * Gets the key of the current compound entry.
+   *
+   * <p>The key remains available for the value which follows a {@link Event#KEY key} event. Elements of a list
+   * have no key. The root compound's key is its name, which is usually empty.</p>
+   *
+   * @return the key, or {@code null}
+   */
+  public @Nullable String key() {
+    return this.key;
+  }
+
+  /**
+   * Gets the number of containers the reader is currently inside of.
+   *
+   * <p>The root compound is at depth {@code 1}.</p>
+   *
+   * @return the depth
+   */
+  public int depth() {
+    return this.depth;
+  }
+
+  /**
+   * Gets the type of the elements in the current list.
+   *
+   * @return the element type
+   * @throws IllegalStateException if the current event is not {@link Event#BEGIN_LIST}
+   */
+  public @NonNull BinaryTagType<? extends BinaryTag> listType() {
+    this.expectEvent(Event.BEGIN_LIST);
+    return BinaryTagType.of(this.frameTypes[this.depth - 1]);
+  }
+
+  /**
+   * Gets the number of elements in the current list.
+   *
+   * @return the size
+   * @throws IllegalStateException if the current event is not {@link Event#BEGIN_LIST}
+   */
+  public int listSize() {
+    this.expectEvent(Event.BEGIN_LIST);
+    return this.listSize;
+  }
+
+  /**
+   * Reads the current value as a {@code byte}.
+   *
+   * @return the value
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the current value is not an unread {@link BinaryTagTypes#BYTE byte}
+   */
+  public byte byteValue() throws IOException {
+    this.consume(BinaryTagTypes.BYTE);
+    return this.input.readByte();
+  }
+
+  /**
+   * Reads the current value as a {@code short}.
+   *
+   * @return the value
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the current value is not an unread {@link BinaryTagTypes#SHORT short}
+   */
+  public short shortValue() throws IOException {
+    this.consume(BinaryTagTypes.SHORT);
+    return this.input.readShort();
+  }
+
+  /**
+   * Reads the current value as an {@code int}.
+   *
+   * @return the value
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the current value is not an unread {@link BinaryTagTypes#INT int}
+   */
+  public int intValue() throws IOException {
+    this.consume(BinaryTagTypes.INT);
+    return this.input.readInt();
+  }
+
+  /**
+   * Reads the current value as a {@code long}.
+   *
+   * @return the value
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the current value is not an unread {@link BinaryTagTypes#LONG long}
+   */
+  public long longValue() throws IOException {
+    this.consume(BinaryTagTypes.LONG);
+    return this.input.readLong();
+  }
+
+  /**
+   * Reads the current value as a {@code float}.
+   *
+   * @return the value
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the current value is not an unread {@link BinaryTagTypes#FLOAT float}
+   */
+  public float floatValue() throws IOException {
+    this.consume(BinaryTagTypes.FLOAT);
+    return this.input.readFloat();
+  }
+
+  /**
+   * Reads the current value as a {@code double}.
+   *
+   * @return the value
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the current value is not an unread {@link BinaryTagTypes#DOUBLE double}
+   */
+  public double doubleValue() throws IOException {
+    this.consume(BinaryTagTypes.DOUBLE);
+    return this.input.readDouble();
+  }
+
+  /**
+   * Reads the current value as a {@link String}.
+   *
+   * @return the value
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the current value is not an unread {@link BinaryTagTypes#STRING string}
+   */
+  public @NonNull String stringValue() throws IOException {
+    this.consume(BinaryTagTypes.STRING);
+    return ModifiedUtf8.read(this.input);
+  }
+
+  /**
+   * Reads the current value as an array of bytes.
+   *
+   * @return the value
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the current value is not an unread {@link BinaryTagTypes#BYTE_ARRAY byte array}
+   */
+  public byte@NonNull[] byteArrayValue() throws IOException {
+    this.consume(BinaryTagTypes.BYTE_ARRAY);
+    final byte[] value = new byte[length(this.input, 1)];
+    this.input.readFully(value);
+    return value;
+  }
+
+  /**
+   * Reads the current value as an array of ints.
+   *
+   * @return the value
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the current value is not an unread {@link BinaryTagTypes#INT_ARRAY int array}
+   */
+  public int@NonNull[] intArrayValue() throws IOException {
+    this.consume(BinaryTagTypes.INT_ARRAY);
+    final int[] value = new int[length(this.input, 4)];
+    ByteBufferDataInput.readFully(this.input, value);
+    return value;
+  }
+
+  /**
+   * Reads the current value as an array of longs.
+   *
+   * @return the value
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the current value is not an unread {@link BinaryTagTypes#LONG_ARRAY long array}
+   */
+  public long@NonNull[] longArrayValue() throws IOException {
+    this.consume(BinaryTagTypes.LONG_ARRAY);
+    final long[] value = new long[length(this.input, 8)];
+    ByteBufferDataInput.readFully(this.input, value);
+    return value;
+  }
+
+  /**
+   * Reads the current value, compound or list as a tag.
+   *
+   * <p>When positioned on {@link Event#BEGIN_COMPOUND} or {@link Event#BEGIN_LIST}, the remainder of the
+   * container is read and the reader is left as if the matching end event had just been returned. When
+   * positioned on a {@link Event#KEY key}, the value following it is read.</p>
+   *
+   * @return the tag
+   * @throws IOException if an exception was encountered while reading
+   * @throws IllegalStateException if the reader is not positioned on a value
+   */
+  public @NonNull BinaryTag readTag() throws IOException {
+    if(this.event == Event.KEY) {
+      this.value(this.type);
+    }
+    if(this.event == Event.VALUE) {
+      this.consume(this.type);
+      return BinaryTagCodec.read(this.type.id(), this.input);
+    } else if(this.event == Event.BEGIN_COMPOUND) {
+      final CompoundBinaryTag tag = BinaryTagCodec.readCompound(this.input);
+      this.depth--;
+      this.event = Event.END_COMPOUND;
+      return tag;
+    } else if(this.event == Event.BEGIN_LIST) {
+      final BinaryTagType<? extends BinaryTag> type = BinaryTagType.of(this.frameTypes[this.depth - 1]);
+      final int size = this.frameRemaining[this.depth - 1];
+      this.depth--;
+      this.event = Event.END_LIST;
+      if(size == 0 && type == BinaryTagTypes.END) return ListBinaryTag.empty();
+      final PrimitiveTagList primitives = PrimitiveTagList.read(type, size, this.input);
+      if(primitives != null) return new ListBinaryTagImpl(type, primitives);
+      final List<BinaryTag> tags = new ArrayList<>(size);
+      for(int i = 0; i < size; i++) {
+        tags.add(BinaryTagCodec.read(type.id(), this.input));
+      }
+      return ListBinaryTag.of(type, tags);
+    }
+    throw new IllegalStateException("Cannot read a tag at " + this.event);
+  }
+
+  /**
+   * Skips the current value, compound or list.
+   *
+   * <p>When positioned on {@link Event#BEGIN_COMPOUND} or {@link Event#BEGIN_LIST}, the remainder of the
+   * container is skipped and the reader is left as if the matching end event had just been returned. When
+   * positioned on a {@link Event#KEY key}, the value following it is skipped.</p>
+   *
+   * @throws IOException if an exception was encountered while reading
+   */
+  public void skip() throws IOException {
+    if(this.event == Event.KEY || (this.event == Event.VALUE && this.pending)) {
+      skip(this.type.id(), this.input, this.depth + 1);
+      this.pending = false;
+      this.event = Event.VALUE;
+    } else if(this.event == Event.BEGIN_COMPOUND) {
+      skipCompound(this.input, this.depth);
+      this.depth--;
+      this.event = Event.END_COMPOUND;
+    } else if(this.event == Event.BEGIN_LIST) {
+      skipElements(this.frameTypes[this.depth - 1], this.frameRemaining[this.depth - 1], this.input, this.depth + 1);
+      this.depth--;
+      this.event = Event.END_LIST;
+    }
+  }
+
+  private void consume(final BinaryTagType<? extends BinaryTag> type) {
+    if(this.event != Event.VALUE || !this.pending) {
+      throw new IllegalStateException("No unread value at " + this.event);
+    }
+    if(this.type != type) {
+      throw new IllegalStateException(String.format("Expected value of type %s, was %s", type, this.type));
+    }
+    this.pending = false;
+  }
+
+  private void expectEvent(final Event event) {
+    if(this.event != event) {
+      throw new IllegalStateException(String.format("Expected %s, was %s", event, this.event));
+    }
+  }
+
+  // skips a tag at depth, counted from 1 for the root compound
+  /* package */ static void skip(final byte type, final DataInput input, final int depth) throws IOException {
+    skipElements(type, 1, input, depth);
+  }
+
+  private static void skipCompound(final DataInput input, final int depth) throws IOException {
+    LimitedDataInput.enter(input, depth);
+    byte type;
+    while((type = input.readByte()) != 0) { // END
+      skipFully(input, input.readUnsignedShort()); // key
+      skipElements(type, 1, input, depth + 1);
+    }
+    LimitedDataInput.exit(input);
+  }
+
+  private static void skipElements(final byte type, final int count, final DataInput input, final int depth) throws IOException {
+    switch(type) {
+      case 0: // END
+        break;
+      case 1: // BYTE
+        skipFully(input, count);
+        break;
+      case 2: // SHORT
+        skipFully(input, 2L * count);
+        break;
+      case 3: // INT
+      case 5: // FLOAT
+        skipFully(input, 4L * count);
+        break;
+      case 4: // LONG
+      case 6: // DOUBLE
+        skipFully(input, 8L * count);
+        break;
+      case 7: // BYTE_ARRAY
+        for(int i = 0; i < count; i++) skipFully(input, length(input, 1));
+        break;
+      case 8: // STRING
+        for(int i = 0; i < count; i++) skipFully(input, input.readUnsignedShort());
+        break;
+      case 9: // LIST
+        for(int i = 0; i < count; i++) {
+          LimitedDataInput.enter(input, depth);
+          final byte elementType = input.readByte();
+          skipElements(elementType, listLength(elementType, input), input, depth + 1);
+          LimitedDataInput.exit(input);
+        }
+        break;
+      case 10: // COMPOUND
+        for(int i = 0; i < count; i++) skipCompound(input, depth);
+        break;
+      case 11: // INT_ARRAY
+        for(int i = 0; i < count; i++) skipFully(input, 4L * length(input, 4));
+        break;
+      case 12: // LONG_ARRAY
+        for(int i = 0; i < count; i++) skipFully(input, 8L * length(input, 8));
+        break;
+      default:
+        throw new IOException("Unknown tag type " + type);
+    }
+  }
+
+  // reads the length of an array, checking it before anything is allocated
+  private static int length(final DataInput input, final int width) throws IOException {
+    final int length = input.readInt();
+    LimitedDataInput.length(input, length, width);
+    return length;
+  }
+
+  // reads the length of a list of elements of type, checking it before any are read
+  private static int listLength(final byte type, final DataInput input) throws IOException {
+    final int length = input.readInt();
+    if(type == 0 && length > 0) { // END
+      // empty lists are written with an element type of end
+      throw new IOException(String.format("Cannot read a %s of %d %s elements", BinaryTagTypes.LIST, length, BinaryTagTypes.END));
+    }
+    // every element takes at least one byte, even compounds and lists
+    LimitedDataInput.length(input, length, Math.max(1, BinaryTagCodec.width(type)));
+    return length;
+  }
+
+  private static void skipFully(final DataInput input, long length) throws IOException {
+    if(length < 0) {
+      throw new IOException("Negative length " + length);
+    }
+    while(length > 0) {
+      final int skipped = input.skipBytes((int) Math.min(length, Integer.MAX_VALUE));
+      if(skipped > 0) {
+        length -= skipped;
+      } else {
+        input.readByte(); // skipBytes may make no progress without being at the end - force a read to find out
+        length--;
+      }
+    }
+  }
+
+  /**
+   * An event produced by a {@link BinaryTagStreamReader}.
+   */
+  public enum Event {
+    /**
+     * The start of a compound. Its entries follow, each introduced by a {@link #KEY key}.
+     */
+    BEGIN_COMPOUND,
+    /**
+     * The key of a compound entry. The entry's value follows.
+     */
+    KEY,
+    /**
+     * A value which is neither a compound nor a list.
+     */
+    VALUE,
+    /**
+     * The end of a compound.
+     */
+    END_COMPOUND,
+    /**
+     * The start of a list. Its elements follow.
+     */
+    BEGIN_LIST,
+    /**
+     * The end of a list.
+     */
+    END_LIST,
+    /**
+     * The end of the document.
+     */
+    END;
+  }
+}
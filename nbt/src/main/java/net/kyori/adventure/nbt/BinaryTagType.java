@@ -26,8 +26,6 @@ package net.kyori.adventure.nbt;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Predicate;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -38,7 +36,8 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  * @param <T> the tag type
  */
 public abstract class BinaryTagType<T extends BinaryTag> implements Predicate<BinaryTagType<? extends BinaryTag>> {
-  private static final List<BinaryTagType<? extends BinaryTag>> TYPES = new ArrayList<>();
+  // indexed by id
+  private static final BinaryTagType<?>[] TYPES = new BinaryTagType<?>[13];
 
   /**
    * Gets the id.
@@ -73,13 +72,9 @@ public abstract class BinaryTagType<T extends BinaryTag> implements Predicate<Bi
   }
 
   /* package */ static @NonNull BinaryTagType<? extends BinaryTag> of(final byte id) {
-    for(int i = 0; i < TYPES.size(); i++) {
-      final BinaryTagType<? extends BinaryTag> type = TYPES.get(i);
-      if(type.id() == id) {
-        return type;
-      }
-    }
-    throw new IllegalArgumentException(String.valueOf(id));
+    final BinaryTagType<? extends BinaryTag> type = id >= 0 && id < TYPES.length ? TYPES[id] : null;
+    if(type == null) throw new IllegalArgumentException(String.valueOf(id));
+    return type;
   }
 
   /* package */ static <T extends BinaryTag> @NonNull BinaryTagType<T> register(final Class<T> type, final byte id, final Reader<T> reader, final @Nullable Writer<T> writer) {
@@ -91,7 +86,7 @@ public abstract class BinaryTagType<T extends BinaryTag> implements Predicate<Bi
   }
 
   private static <T extends BinaryTag, Y extends BinaryTagType<T>> Y register(final Y type) {
-    TYPES.add(type);
+    TYPES[type.id()] = type;
     return type;
   }
 
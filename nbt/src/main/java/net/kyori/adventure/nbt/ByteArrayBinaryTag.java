@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.nio.ByteBuffer;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 /**
@@ -52,4 +53,36 @@ public interface ByteArrayBinaryTag extends BinaryTag {
    * @return the value
    */
   byte@NonNull[] value();
+
+  /**
+   * Gets the number of elements in the value.
+   *
+   * @return the number of elements
+   */
+  int size();
+
+  /**
+   * Gets the element at {@code index}, without copying the value.
+   *
+   * @param index the index
+   * @return the element
+   * @throws IndexOutOfBoundsException if {@code index} is out of bounds
+   */
+  byte get(final int index);
+
+  /**
+   * Gets a read-only view of the value, without copying it.
+   *
+   * @return a read-only buffer
+   */
+  @NonNull ByteBuffer buffer();
+
+  /**
+   * Copies the value into {@code destination}, starting at {@code offset}.
+   *
+   * @param destination the array to copy into
+   * @param offset the index in {@code destination} to copy the first element to
+   * @throws IndexOutOfBoundsException if the value does not fit in {@code destination} at {@code offset}
+   */
+  void copyInto(final byte@NonNull[] destination, final int offset);
 }
@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.stream.Stream;
 import net.kyori.examination.ExaminableProperty;
@@ -41,6 +42,26 @@ import org.checkerframework.checker.nullness.qual.Nullable;
     return Arrays.copyOf(this.value, this.value.length);
   }
 
+  @Override
+  public int size() {
+    return this.value.length;
+  }
+
+  @Override
+  public byte get(final int index) {
+    return this.value[index];
+  }
+
+  @Override
+  public @NonNull ByteBuffer buffer() {
+    return ByteBuffer.wrap(this.value).asReadOnlyBuffer();
+  }
+
+  @Override
+  public void copyInto(final byte@NonNull[] destination, final int offset) {
+    System.arraycopy(this.value, 0, destination, offset, this.value.length);
+  }
+
   // to avoid copying array internally
   /* package */ static byte[] value(final ByteArrayBinaryTag tag) {
     return (tag instanceof ByteArrayBinaryTagImpl) ? ((ByteArrayBinaryTagImpl) tag).value : tag.value();
@@ -0,0 +1,168 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DataInput} reading directly from a big-endian {@link ByteBuffer}.
+ *
+ * <p>Array tags are copied in bulk through {@link java.nio.IntBuffer} and {@link java.nio.LongBuffer} views.</p>
+ */
+/* package */ final class ByteBufferDataInput implements DataInput {
+  private final ByteBuffer buffer;
+
+  /* package */ ByteBufferDataInput(final ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /* package */ static void readFully(final DataInput input, final int[] value) throws IOException {
+    // limits are checked for the whole array up front, so the underlying input can be read in bulk
+    final DataInput source = LimitedDataInput.unwrap(input, value.length * 4L);
+    if(source instanceof ByteBufferDataInput) {
+      final ByteBuffer buffer = ((ByteBufferDataInput) source).require(value.length * 4L);
+      buffer.asIntBuffer().get(value);
+      buffer.position(buffer.position() + value.length * 4);
+    } else {
+      for(int i = 0; i < value.length; i++) {
+        value[i] = source.readInt();
+      }
+    }
+  }
+
+  /* package */ static void readFully(final DataInput input, final long[] value) throws IOException {
+    // limits are checked for the whole array up front, so the underlying input can be read in bulk
+    final DataInput source = LimitedDataInput.unwrap(input, value.length * 8L);
+    if(source instanceof ByteBufferDataInput) {
+      final ByteBuffer buffer = ((ByteBufferDataInput) source).require(value.length * 8L);
+      buffer.asLongBuffer().get(value);
+      buffer.position(buffer.position() + value.length * 8);
+    } else {
+      for(int i = 0; i < value.length; i++) {
+        value[i] = source.readLong();
+      }
+    }
+  }
+
+  /* package */ ByteBuffer require(final long length) throws EOFException {
+    if(this.buffer.remaining() < length) {
+      throw new EOFException("Expected " + length + " bytes, but only " + this.buffer.remaining() + " remain");
+    }
+    return this.buffer;
+  }
+
+  @Override
+  public void readFully(final byte[] b) throws IOException {
+    this.readFully(b, 0, b.length);
+  }
+
+  @Override
+  public void readFully(final byte[] b, final int off, final int len) throws IOException {
+    this.require(len).get(b, off, len);
+  }
+
+  @Override
+  public int skipBytes(final int n) {
+    final int skipped = Math.max(0, Math.min(n, this.buffer.remaining()));
+    this.buffer.position(this.buffer.position() + skipped);
+    return skipped;
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    return this.readByte() != 0;
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    return this.require(1).get();
+  }
+
+  @Override
+  public int readUnsignedByte() throws IOException {
+    return this.readByte() & 0xff;
+  }
+
+  @Override
+  public short readShort() throws IOException {
+    return this.require(2).getShort();
+  }
+
+  @Override
+  public int readUnsignedShort() throws IOException {
+    return this.readShort() & 0xffff;
+  }
+
+  @Override
+  public char readChar() throws IOException {
+    return this.require(2).getChar();
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    return this.require(4).getInt();
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    return this.require(8).getLong();
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    return this.require(4).getFloat();
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    return this.require(8).getDouble();
+  }
+
+  @Override
+  public String readLine() {
+    if(!this.buffer.hasRemaining()) return null;
+    // as DataInputStream does, each byte is a character and a line ends at \n, \r or \r\n
+    final StringBuilder line = new StringBuilder();
+    while(this.buffer.hasRemaining()) {
+      final char c = (char) (this.buffer.get() & 0xff);
+      if(c == '\n') break;
+      if(c == '\r') {
+        if(this.buffer.hasRemaining() && this.buffer.get(this.buffer.position()) == '\n') {
+          this.buffer.get();
+        }
+        break;
+      }
+      line.append(c);
+    }
+    return line.toString();
+  }
+
+  @Override
+  public String readUTF() throws IOException {
+    return ModifiedUtf8.read(this);
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DataOutput} writing directly to a big-endian {@link ByteBuffer}.
+ *
+ * <p>Array tags are copied in bulk through {@link java.nio.IntBuffer} and {@link java.nio.LongBuffer} views.</p>
+ */
+/* package */ final class ByteBufferDataOutput implements DataOutput {
+  private final ByteBuffer buffer;
+
+  /* package */ ByteBufferDataOutput(final ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /* package */ static void write(final DataOutput output, final int[] value) throws IOException {
+    write(output, value, value.length);
+  }
+
+  // writes the first length elements of value
+  /* package */ static void write(final DataOutput output, final int[] value, final int length) throws IOException {
+    if(output instanceof ByteBufferDataOutput) {
+      final ByteBuffer buffer = ((ByteBufferDataOutput) output).buffer;
+      buffer.asIntBuffer().put(value, 0, length);
+      buffer.position(buffer.position() + length * 4);
+    } else {
+      for(int i = 0; i < length; i++) {
+        output.writeInt(value[i]);
+      }
+    }
+  }
+
+  /* package */ static void write(final DataOutput output, final long[] value) throws IOException {
+    write(output, value, value.length);
+  }
+
+  // writes the first length elements of value
+  /* package */ static void write(final DataOutput output, final long[] value, final int length) throws IOException {
+    if(output instanceof ByteBufferDataOutput) {
+      final ByteBuffer buffer = ((ByteBufferDataOutput) output).buffer;
+      buffer.asLongBuffer().put(value, 0, length);
+      buffer.position(buffer.position() + length * 8);
+    } else {
+      for(int i = 0; i < length; i++) {
+        output.writeLong(value[i]);
+      }
+    }
+  }
+
+  @Override
+  public void write(final int b) {
+    this.buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(final byte[] b) {
+    this.buffer.put(b);
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) {
+    this.buffer.put(b, off, len);
+  }
+
+  @Override
+  public void writeBoolean(final boolean v) {
+    this.buffer.put((byte) (v ? 1 : 0));
+  }
+
+  @Override
+  public void writeByte(final int v) {
+    this.buffer.put((byte) v);
+  }
+
+  @Override
+  public void writeShort(final int v) {
+    this.buffer.putShort((short) v);
+  }
+
+  @Override
+  public void writeChar(final int v) {
+    this.buffer.putChar((char) v);
+  }
+
+  @Override
+  public void writeInt(final int v) {
+    this.buffer.putInt(v);
+  }
+
+  @Override
+  public void writeLong(final long v) {
+    this.buffer.putLong(v);
+  }
+
+  @Override
+  public void writeFloat(final float v) {
+    this.buffer.putFloat(v);
+  }
+
+  @Override
+  public void writeDouble(final double v) {
+    this.buffer.putDouble(v);
+  }
+
+  @Override
+  public void writeBytes(final String s) {
+    for(int i = 0, length = s.length(); i < length; i++) {
+      this.buffer.put((byte) s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeChars(final String s) {
+    for(int i = 0, length = s.length(); i < length; i++) {
+      this.buffer.putChar(s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeUTF(final String s) throws IOException {
+    final int start = this.buffer.position();
+    this.buffer.putShort((short) 0); // length is written once known - putShort also checks there is room for it
+    for(int i = 0, length = s.length(); i < length; i++) {
+      final char c = s.charAt(i);
+      if(c >= 0x0001 && c <= 0x007f) {
+        this.buffer.put((byte) c);
+      } else if(c > 0x07ff) {
+        this.buffer.put((byte) (0xe0 | ((c >> 12) & 0x0f)));
+        this.buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+        this.buffer.put((byte) (0x80 | (c & 0x3f)));
+      } else {
+        this.buffer.put((byte) (0xc0 | ((c >> 6) & 0x1f)));
+        this.buffer.put((byte) (0x80 | (c & 0x3f)));
+      }
+    }
+    final int length = this.buffer.position() - start - 2;
+    if(length > 0xffff) {
+      this.buffer.position(start);
+      throw new UTFDataFormatException("Encoded string too long: " + length + " bytes");
+    }
+    this.buffer.putShort(start, (short) length);
+  }
+}
@@ -23,37 +23,75 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
 /**
  * A character buffer designed to be inspected by a parser
  */
 /* package */ final class CharBuffer {
-  private final CharSequence sequence;
+  private static final int READ_SIZE = 1024;
+  private final char[] chars;
+  private final int offset;
+  private final int limit;
   private int index;
 
   CharBuffer(final CharSequence sequence) {
-    this.sequence = sequence;
+    this(sequence.toString().toCharArray(), 0, sequence.length());
+  }
+
+  CharBuffer(final char[] chars, final int offset, final int length) {
+    if(offset < 0 || length < 0 || offset + length > chars.length) {
+      throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", array length " + chars.length);
+    }
+    this.chars = chars;
+    this.offset = offset;
+    this.limit = offset + length;
+    this.index = offset;
+  }
+
+  /**
+   * Reads all remaining characters from {@code reader} into a buffer.
+   *
+   * @param reader the reader
+   * @return a buffer
+   * @throws IOException if an exception was encountered while reading
+   */
+  static CharBuffer read(final Reader reader) throws IOException {
+    char[] chars = new char[READ_SIZE];
+    int length = 0;
+    int read;
+    while((read = reader.read(chars, length, chars.length - length)) != -1) {
+      length += read;
+      if(length == chars.length) {
+        chars = Arrays.copyOf(chars, length << 1);
+      }
+    }
+    return new CharBuffer(chars, 0, length);
   }
 
   /**
    * Get the character at the current position
    *
-   * @return The current character
+   * @return The current character, or {@link Tokens#EOF} at the end of the buffer
    */
   public char peek() {
-    return this.sequence.charAt(this.index);
+    return this.index < this.limit ? this.chars[this.index] : Tokens.EOF;
   }
 
   public char peek(final int offset) {
-    return this.sequence.charAt(this.index + offset);
+    final int index = this.index + offset;
+    return index < this.limit ? this.chars[index] : Tokens.EOF;
   }
 
   /**
    * Get the current character and advance
    *
-   * @return current character
+   * @return current character, or {@link Tokens#EOF} at the end of the buffer
    */
   public char take() {
-    return this.sequence.charAt(this.index++);
+    return this.index < this.limit ? this.chars[this.index++] : Tokens.EOF;
   }
 
   public boolean advance() {
@@ -62,33 +100,74 @@ package net.kyori.adventure.nbt;
   }
 
   public boolean hasMore() {
-    return this.index < this.sequence.length();
+    return this.index < this.limit;
+  }
+
+  /* package */ int position() {
+    return this.index;
+  }
+
+  /* package */ void position(final int index) {
+    this.index = index;
+  }
+
+  /* package */ int limit() {
+    return this.limit;
+  }
+
+  /* package */ char charAt(final int index) {
+    return this.chars[index];
+  }
+
+  /* package */ String substring(final int start, final int end) {
+    return new String(this.chars, start, end - start);
   }
 
   /**
-   * Search for the provided token, and advance the reader index past the {@code until} character.
+   * Search for the provided token, skipping escaped characters.
    *
    * @param until Case-insensitive token
-   * @return the string starting at the current position (inclusive) and going until the location of {@code until}, exclusive
+   * @return the index of {@code until}
+   * @throws StringTagParseException if there is no occurrence of {@code until}
    */
-  public CharSequence takeUntil(char until) throws StringTagParseException {
+  /* package */ int find(char until) throws StringTagParseException {
     until = Character.toLowerCase(until);
-    int endIdx = -1;
-    for(int idx = this.index; idx < this.sequence.length(); ++idx) {
-      if(this.sequence.charAt(idx) == Tokens.ESCAPE_MARKER) {
-        idx++;
-      } else if(Character.toLowerCase(this.sequence.charAt(idx)) == until) {
-        endIdx = idx;
-        break;
+    for(int i = this.index; i < this.limit; i++) {
+      final char c = this.chars[i];
+      if(c == Tokens.ESCAPE_MARKER) {
+        i++;
+      } else if(c == until || Character.toLowerCase(c) == until) {
+        return i;
       }
     }
-    if(endIdx == -1) {
-      throw this.makeError("No occurrence of " + until + " was found");
-    }
+    throw this.makeError("No occurrence of " + until + " was found");
+  }
 
-    final CharSequence result = this.sequence.subSequence(this.index, endIdx);
-    this.index = endIdx + 1;
-    return result;
+  /**
+   * Search for the provided token, and advance the reader index past the {@code until} character.
+   *
+   * <p>Each escape marker in the result is removed, and the character following it is kept as-is.</p>
+   *
+   * @param until Case-insensitive token
+   * @return the string starting at the current position (inclusive) and going until the location of {@code until}, exclusive
+   * @throws StringTagParseException if there is no occurrence of {@code until}
+   */
+  public String takeUntil(final char until) throws StringTagParseException {
+    final int start = this.index;
+    final int end = this.find(until);
+    this.index = end + 1;
+    int escape = start;
+    while(escape < end && this.chars[escape] != Tokens.ESCAPE_MARKER) escape++;
+    if(escape == end) { // nothing to unescape
+      return new String(this.chars, start, end - start);
+    }
+    final StringBuilder builder = new StringBuilder(end - start);
+    builder.append(this.chars, start, escape - start);
+    for(int i = escape; i < end; i++) {
+      if(this.chars[i] == Tokens.ESCAPE_MARKER) i++;
+      builder.append(this.chars[i]);
+    }
+    return builder.toString();
   }
 
   /**
@@ -113,11 +192,11 @@ package net.kyori.adventure.nbt;
   }
 
   public CharBuffer skipWhitespace() {
-    while(this.hasMore() && Character.isWhitespace(this.peek())) this.advance();
+    while(this.index < this.limit && Character.isWhitespace(this.chars[this.index])) this.index++;
     return this;
   }
 
   public StringTagParseException makeError(final String message) {
-    return new StringTagParseException(message, this.sequence, this.index);
+    return new StringTagParseException(message, java.nio.CharBuffer.wrap(this.chars, this.offset, this.limit - this.offset), this.index - this.offset);
   }
 }
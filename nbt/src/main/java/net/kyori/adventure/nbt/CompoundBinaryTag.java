@@ -345,5 +345,16 @@ public interface CompoundBinaryTag extends BinaryTag, CompoundTagSetter<Compound
      * @return a compound tag
      */
     @NonNull CompoundBinaryTag build();
+
+    /**
+     * Builds, then interns the result.
+     *
+     * @param interner the interner
+     * @return a compound tag
+     * @see BinaryTagInterner#intern(BinaryTag)
+     */
+    default @NonNull CompoundBinaryTag build(final @NonNull BinaryTagInterner interner) {
+      return interner.intern(this.build());
+    }
   }
 }
@@ -0,0 +1,423 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The changes that turn one compound tag into another.
+ *
+ * <p>Keys which were added or removed are recorded as such. Changed compounds are compared recursively, and changed
+ * lists of the same element type are compared element by element, so a delta only holds the tags that differ.</p>
+ *
+ * <p>A delta can be written out and read back in with {@link #write(DataOutput)} and {@link #read(DataInput)}, and
+ * is usually much smaller than the compound it was computed from.</p>
+ */
+public final class CompoundBinaryTagDelta {
+  private static final CompoundBinaryTagDelta EMPTY = new CompoundBinaryTagDelta(Collections.emptySet(), Collections.emptyMap());
+  // operations in the binary encoding
+  private static final byte END = 0;
+  private static final byte REMOVE = 1;
+  private static final byte SET = 2;
+  private static final byte COMPOUND = 3;
+  private static final byte LIST = 4;
+
+  private final Set<String> removed;
+  private final Map<String, Change> changes;
+
+  private CompoundBinaryTagDelta(final Set<String> removed, final Map<String, Change> changes) {
+    this.removed = removed;
+    this.changes = changes;
+  }
+
+  /**
+   * Gets a delta which changes nothing.
+   *
+   * @return a delta
+   */
+  public static @NonNull CompoundBinaryTagDelta empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Computes the changes that turn {@code base} into {@code target}.
+   *
+   * @param base the tag to start from
+   * @param target the tag to end up with
+   * @return a delta
+   */
+  public static @NonNull CompoundBinaryTagDelta between(final @NonNull CompoundBinaryTag base, final @NonNull CompoundBinaryTag target) {
+    if(base == target) return EMPTY;
+    final Set<String> removed = new LinkedHashSet<>();
+    for(final String key : base.keySet()) {
+      if(target.get(key) == null) {
+        removed.add(key);
+      }
+    }
+    final Map<String, Change> changes = new LinkedHashMap<>();
+    for(final Map.Entry<String, ? extends BinaryTag> entry : target) {
+      final BinaryTag to = entry.getValue();
+      final Change change = change(base.get(entry.getKey()), to);
+      if(change != null) {
+        changes.put(entry.getKey(), change);
+      }
+    }
+    return removed.isEmpty() && changes.isEmpty() ? EMPTY : new CompoundBinaryTagDelta(removed, changes);
+  }
+
+  /**
+   * Reads a delta written by {@link #write(DataOutput)}.
+   *
+   * @param input the input
+   * @return a delta
+   * @throws IOException if an exception was encountered while reading a delta
+   */
+  public static @NonNull CompoundBinaryTagDelta read(final @NonNull DataInput input) throws IOException {
+    return read(input, 1);
+  }
+
+  private static CompoundBinaryTagDelta read(final DataInput input, final int depth) throws IOException {
+    LimitedDataInput.enter(input, depth);
+    final Set<String> removed = new LinkedHashSet<>();
+    final Map<String, Change> changes = new LinkedHashMap<>();
+    byte op;
+    while((op = input.readByte()) != END) {
+      final String key = ModifiedUtf8.read(input);
+      if(op == REMOVE) {
+        changes.remove(key);
+        removed.add(key);
+      } else {
+        removed.remove(key);
+        changes.put(key, readChange(op, input, depth));
+      }
+    }
+    LimitedDataInput.exit(input);
+    return removed.isEmpty() && changes.isEmpty() ? EMPTY : new CompoundBinaryTagDelta(removed, changes);
+  }
+
+  /**
+   * Gets if this delta changes nothing.
+   *
+   * @return {@code true} if this delta is empty
+   */
+  public boolean isEmpty() {
+    return this.removed.isEmpty() && this.changes.isEmpty();
+  }
+
+  /**
+   * Applies this delta to {@code base}.
+   *
+   * <p>Applying a delta to the tag it was computed from gives the tag it was computed to.</p>
+   *
+   * @param base the tag to change
+   * @return the changed tag
+   * @throws IllegalArgumentException if {@code base} does not have the compounds or lists this delta changes, or of the element types it changes
+   */
+  public @NonNull CompoundBinaryTag apply(final @NonNull CompoundBinaryTag base) {
+    CompoundBinaryTag tag = base;
+    for(final String key : this.removed) {
+      tag = tag.remove(key);
+    }
+    for(final Map.Entry<String, Change> entry : this.changes.entrySet()) {
+      final String key = entry.getKey();
+      tag = tag.put(key, entry.getValue().apply(key, tag.get(key)));
+    }
+    return tag;
+  }
+
+  /**
+   * Writes this delta to {@code output}.
+   *
+   * @param output the output
+   * @throws IOException if an exception was encountered while writing a delta
+   */
+  public void write(final @NonNull DataOutput output) throws IOException {
+    for(final String key : this.removed) {
+      output.writeByte(REMOVE);
+      ModifiedUtf8.write(output, key);
+    }
+    for(final Map.Entry<String, Change> entry : this.changes.entrySet()) {
+      final Change change = entry.getValue();
+      output.writeByte(change.op());
+      ModifiedUtf8.write(output, entry.getKey());
+      change.write(output);
+    }
+    output.writeByte(END);
+  }
+
+  @Override
+  public boolean equals(final Object that) {
+    if(this == that) return true;
+    if(!(that instanceof CompoundBinaryTagDelta)) return false;
+    final CompoundBinaryTagDelta other = (CompoundBinaryTagDelta) that;
+    return this.removed.equals(other.removed) && this.changes.equals(other.changes);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * this.removed.hashCode() + this.changes.hashCode();
+  }
+
+  // the change from one tag to another, or null if they are equal
+  private static @Nullable Change change(final @Nullable BinaryTag from, final @NonNull BinaryTag to) {
+    if(from == null) return new Put(to);
+    if(from == to || from.equals(to)) return null;
+    if(from instanceof CompoundBinaryTag && to instanceof CompoundBinaryTag) {
+      final CompoundBinaryTagDelta delta = between((CompoundBinaryTag) from, (CompoundBinaryTag) to);
+      return delta.isEmpty() ? null : new Compound(delta);
+    }
+    if(from instanceof ListBinaryTag && to instanceof ListBinaryTag) {
+      final ListBinaryTag fromList = (ListBinaryTag) from;
+      final ListBinaryTag toList = (ListBinaryTag) to;
+      // lists of different types, or becoming empty, have nothing in common
+      if(fromList.listType() == toList.listType() && toList.size() > 0) {
+        return ListDelta.between(fromList, toList);
+      }
+    }
+    return new Put(to);
+  }
+
+  private static Change readChange(final byte op, final DataInput input, final int depth) throws IOException {
+    switch(op) {
+      case SET: return new Put(BinaryTagCodec.read(input.readByte(), input));
+      case COMPOUND: return new Compound(read(input, depth + 1));
+      case LIST: return ListDelta.read(input, depth + 1);
+      default: throw new IOException("Unknown delta operation " + op);
+    }
+  }
+
+  private abstract static class Change {
+    abstract byte op();
+
+    abstract BinaryTag apply(final Object at, final @Nullable BinaryTag base);
+
+    abstract void write(final DataOutput output) throws IOException;
+  }
+
+  private static final class Put extends Change {
+    private final BinaryTag tag;
+
+    Put(final BinaryTag tag) {
+      this.tag = tag;
+    }
+
+    @Override
+    byte op() {
+      return SET;
+    }
+
+    @Override
+    BinaryTag apply(final Object at, final @Nullable BinaryTag base) {
+      return this.tag;
+    }
+
+    @Override
+    void write(final DataOutput output) throws IOException {
+      final byte id = this.tag.type().id();
+      output.writeByte(id);
+      BinaryTagCodec.write(id, this.tag, output);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      return this == that || (that instanceof Put && this.tag.equals(((Put) that).tag));
+    }
+
+    @Override
+    public int hashCode() {
+      return this.tag.hashCode();
+    }
+  }
+
+  private static final class Compound extends Change {
+    private final CompoundBinaryTagDelta delta;
+
+    Compound(final CompoundBinaryTagDelta delta) {
+      this.delta = delta;
+    }
+
+    @Override
+    byte op() {
+      return COMPOUND;
+    }
+
+    @Override
+    BinaryTag apply(final Object at, final @Nullable BinaryTag base) {
+      if(!(base instanceof CompoundBinaryTag)) {
+        throw new IllegalArgumentException("Expected a " + BinaryTagTypes.COMPOUND + " at " + at + ", was " + base);
+      }
+      return this.delta.apply((CompoundBinaryTag) base);
+    }
+
+    @Override
+    void write(final DataOutput output) throws IOException {
+      this.delta.write(output);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      return this == that || (that instanceof Compound && this.delta.equals(((Compound) that).delta));
+    }
+
+    @Override
+    public int hashCode() {
+      return this.delta.hashCode();
+    }
+  }
+
+  // a list of the same element type, resized to size, with the elements at indices changed - indices are ascending
+  private static final class ListDelta extends Change {
+    private final int size;
+    private final int[] indices;
+    private final Change[] changes;
+
+    ListDelta(final int size, final int[] indices, final Change[] changes) {
+      this.size = size;
+      this.indices = indices;
+      this.changes = changes;
+    }
+
+    static ListDelta between(final ListBinaryTag base, final ListBinaryTag target) {
+      final int size = target.size();
+      int[] indices = new int[Math.min(size, 8)];
+      Change[] changes = new Change[indices.length];
+      int count = 0;
+      for(int i = 0; i < size; i++) {
+        final Change change = change(i < base.size() ? base.get(i) : null, target.get(i));
+        if(change != null) {
+          if(count == indices.length) {
+            indices = Arrays.copyOf(indices, count * 2);
+            changes = Arrays.copyOf(changes, count * 2);
+          }
+          indices[count] = i;
+          changes[count++] = change;
+        }
+      }
+      return new ListDelta(size, Arrays.copyOf(indices, count), Arrays.copyOf(changes, count));
+    }
+
+    static ListDelta read(final DataInput input, final int depth) throws IOException {
+      LimitedDataInput.enter(input, depth);
+      final int size = input.readInt();
+      if(size <= 0) throw new IOException("Cannot resize a list to " + size + " elements");
+      final List<Integer> indices = new ArrayList<>();
+      final List<Change> changes = new ArrayList<>();
+      byte op;
+      int previous = -1;
+      while((op = input.readByte()) != END) {
+        final int index = input.readInt();
+        if(index < 0 || index >= size) throw new IOException("Index " + index + " is outside of a list of " + size + " elements");
+        if(index <= previous) throw new IOException("Index " + index + " follows index " + previous);
+        previous = index;
+        indices.add(index);
+        changes.add(readChange(op, input, depth));
+      }
+      LimitedDataInput.exit(input);
+      final int[] array = new int[indices.size()];
+      for(int i = 0; i < array.length; i++) {
+        array[i] = indices.get(i);
+      }
+      return new ListDelta(size, array, changes.toArray(new Change[0]));
+    }
+
+    @Override
+    byte op() {
+      return LIST;
+    }
+
+    @Override
+    BinaryTag apply(final Object at, final @Nullable BinaryTag base) {
+      if(!(base instanceof ListBinaryTag)) {
+        throw new IllegalArgumentException("Expected a " + BinaryTagTypes.LIST + " at " + at + ", was " + base);
+      }
+      final ListBinaryTag list = (ListBinaryTag) base;
+      if(this.size > list.size()) {
+        // every new element must be given by a change - as indices are ascending and distinct, counting them is enough
+        int added = 0;
+        for(int i = this.indices.length - 1; i >= 0 && this.indices[i] >= list.size(); i--) {
+          added++;
+        }
+        if(added != this.size - list.size()) {
+          throw new IllegalArgumentException("Cannot grow the list at " + at + " from " + list.size() + " to " + this.size + " elements with " + added + " new elements");
+        }
+      }
+      final BinaryTag[] tags = new BinaryTag[this.size];
+      for(int i = 0, length = Math.min(this.size, list.size()); i < length; i++) {
+        tags[i] = list.get(i);
+      }
+      // an empty list may have no element type yet, so takes that of its first new element
+      BinaryTagType<? extends BinaryTag> type = list.listType();
+      for(int i = 0; i < this.indices.length; i++) {
+        final int index = this.indices[i];
+        final BinaryTag tag = this.changes[i].apply(index, tags[index]);
+        ListBinaryTagImpl.noAddEnd(tag);
+        if(type == BinaryTagTypes.END) {
+          type = tag.type();
+        } else {
+          ListBinaryTagImpl.mustBeSameType(tag, type);
+        }
+        tags[index] = tag;
+      }
+      return ListBinaryTag.of(type, Arrays.asList(tags));
+    }
+
+    @Override
+    void write(final DataOutput output) throws IOException {
+      output.writeInt(this.size);
+      for(int i = 0; i < this.indices.length; i++) {
+        final Change change = this.changes[i];
+        output.writeByte(change.op());
+        output.writeInt(this.indices[i]);
+        change.write(output);
+      }
+      output.writeByte(END);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      if(this == that) return true;
+      if(!(that instanceof ListDelta)) return false;
+      final ListDelta other = (ListDelta) that;
+      return this.size == other.size && Arrays.equals(this.indices, other.indices) && Arrays.equals(this.changes, other.changes);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.size, Arrays.hashCode(this.indices), Arrays.hashCode(this.changes));
+    }
+  }
+}
@@ -24,7 +24,6 @@
 package net.kyori.adventure.nbt;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -37,39 +36,82 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import static java.util.Objects.requireNonNull;
 
 /* package */ final class CompoundBinaryTagImpl implements CompoundBinaryTag {
-  static final CompoundBinaryTag EMPTY = new CompoundBinaryTagImpl(Collections.emptyMap());
-  private final Map<String, BinaryTag> tags;
-  private final int hashCode;
+  static final CompoundBinaryTag EMPTY = new CompoundBinaryTagImpl(TagMap.EMPTY);
+  // exactly one of these is set
+  private final @Nullable TagMap tags;
+  private final @Nullable EncodedCompound encoded;
+  private long size; // computed lazily
 
   /* package */ CompoundBinaryTagImpl(final Map<String, BinaryTag> tags) {
-    this.tags = Collections.unmodifiableMap(tags);
-    this.hashCode = tags.hashCode();
+    this.tags = TagMap.copyOf(tags);
+    this.encoded = null;
+  }
+
+  /* package */ CompoundBinaryTagImpl(final EncodedCompound encoded) {
+    this.tags = null;
+    this.encoded = encoded;
+  }
+
+  // to iterate the entries without allocating them
+  /* package */ static @Nullable TagMap tags(final CompoundBinaryTag tag) {
+    return tag instanceof CompoundBinaryTagImpl ? ((CompoundBinaryTagImpl) tag).tags() : null;
+  }
+
+  // to write the entries without decoding them
+  /* package */ static @Nullable EncodedCompound encoded(final CompoundBinaryTag tag) {
+    return tag instanceof CompoundBinaryTagImpl ? ((CompoundBinaryTagImpl) tag).encoded : null;
+  }
+
+  /* package */ static long size(final CompoundBinaryTag tag) {
+    if(!(tag instanceof CompoundBinaryTagImpl)) return BinaryTagCodec.compoundSize(tag);
+    final CompoundBinaryTagImpl impl = (CompoundBinaryTagImpl) tag;
+    long size = impl.size;
+    if(size == 0) {
+      size = impl.encoded != null ? impl.encoded.size() : BinaryTagCodec.compoundSize(impl);
+      impl.size = size;
+    }
+    return size;
+  }
+
+  private TagMap tags() {
+    return this.tags != null ? this.tags : this.encoded.tags();
   }
 
   public boolean contains(final @NonNull String key, final @NonNull BinaryTagType<?> type) {
-    final /* @Nullable */ BinaryTag tag = this.tags.get(key);
+    final /* @Nullable */ BinaryTag tag = this.tags().get(key);
     return tag != null && type.test(tag.type());
   }
 
   @Override
   public @NonNull Set<String> keySet() {
-    return Collections.unmodifiableSet(this.tags.keySet());
+    return Collections.unmodifiableSet(this.tags().keySet());
   }
 
   @Override
   public @Nullable BinaryTag get(final String key) {
-    return this.tags.get(key);
+    return this.tags().get(key);
   }
 
   @Override
   public @NonNull CompoundBinaryTag put(final @NonNull String key, @NonNull final BinaryTag tag) {
-    return this.edit(map -> map.put(key, tag));
+    final TagMap tags = this.tags().with(key, tag);
+    return tags == this.tags() ? this : new CompoundBinaryTagImpl(tags);
+  }
+
+  @Override
+  public @NonNull CompoundBinaryTag remove(final @NonNull String key, final @Nullable Consumer<BinaryTag> removedConsumer) {
+    final BinaryTag tag = this.tags().get(key);
+    if(tag == null) return this;
+    if(removedConsumer != null) {
+      removedConsumer.accept(tag);
+    }
+    return new CompoundBinaryTagImpl(this.tags().without(key));
   }
 
   @Override
   public byte getByte(final @NonNull String key, final byte defaultValue) {
     if(this.contains(key, BinaryTagTypes.BYTE)) {
-      return ((NumberBinaryTag) this.tags.get(key)).byteValue();
+      return ((NumberBinaryTag) this.tags().get(key)).byteValue();
     }
     return defaultValue;
   }
@@ -77,7 +119,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public short getShort(final @NonNull String key, final short defaultValue) {
     if(this.contains(key, BinaryTagTypes.SHORT)) {
-      return ((NumberBinaryTag) this.tags.get(key)).shortValue();
+      return ((NumberBinaryTag) this.tags().get(key)).shortValue();
     }
     return defaultValue;
   }
@@ -85,7 +127,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public int getInt(final @NonNull String key, final int defaultValue) {
     if(this.contains(key, BinaryTagTypes.INT)) {
-      return ((NumberBinaryTag) this.tags.get(key)).intValue();
+      return ((NumberBinaryTag) this.tags().get(key)).intValue();
     }
     return defaultValue;
   }
@@ -93,7 +135,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public long getLong(final @NonNull String key, final long defaultValue) {
     if(this.contains(key, BinaryTagTypes.LONG)) {
-      return ((NumberBinaryTag) this.tags.get(key)).longValue();
+      return ((NumberBinaryTag) this.tags().get(key)).longValue();
     }
     return defaultValue;
   }
@@ -101,7 +143,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public float getFloat(final @NonNull String key, final float defaultValue) {
     if(this.contains(key, BinaryTagTypes.FLOAT)) {
-      return ((NumberBinaryTag) this.tags.get(key)).floatValue();
+      return ((NumberBinaryTag) this.tags().get(key)).floatValue();
     }
     return defaultValue;
   }
@@ -109,7 +151,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public double getDouble(final @NonNull String key, final double defaultValue) {
     if(this.contains(key, BinaryTagTypes.DOUBLE)) {
-      return ((NumberBinaryTag) this.tags.get(key)).doubleValue();
+      return ((NumberBinaryTag) this.tags().get(key)).doubleValue();
     }
     return defaultValue;
   }
@@ -117,7 +159,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public byte@NonNull[] getByteArray(final @NonNull String key) {
     if(this.contains(key, BinaryTagTypes.BYTE_ARRAY)) {
-      return ((ByteArrayBinaryTag) this.tags.get(key)).value();
+      return ((ByteArrayBinaryTag) this.tags().get(key)).value();
     }
     return new byte[0];
   }
@@ -125,7 +167,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public byte@NonNull[] getByteArray(final @NonNull String key, final byte@NonNull[] defaultValue) {
     if(this.contains(key, BinaryTagTypes.BYTE_ARRAY)) {
-      return ((ByteArrayBinaryTag) this.tags.get(key)).value();
+      return ((ByteArrayBinaryTag) this.tags().get(key)).value();
     }
     return defaultValue;
   }
@@ -133,7 +175,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public @NonNull String getString(final @NonNull String key, final @NonNull String defaultValue) {
     if(this.contains(key, BinaryTagTypes.STRING)) {
-      return ((StringBinaryTag) this.tags.get(key)).value();
+      return ((StringBinaryTag) this.tags().get(key)).value();
     }
     return defaultValue;
   }
@@ -141,7 +183,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public @NonNull ListBinaryTag getList(final @NonNull String key, final @NonNull ListBinaryTag defaultValue) {
     if(this.contains(key, BinaryTagTypes.LIST)) {
-      return (ListBinaryTag) this.tags.get(key);
+      return (ListBinaryTag) this.tags().get(key);
     }
     return defaultValue;
   }
@@ -149,7 +191,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public @NonNull ListBinaryTag getList(final @NonNull String key, final @NonNull BinaryTagType<? extends BinaryTag> expectedType, final @NonNull ListBinaryTag defaultValue) {
     if(this.contains(key, BinaryTagTypes.LIST)) {
-      final ListBinaryTag tag = (ListBinaryTag) this.tags.get(key);
+      final ListBinaryTag tag = (ListBinaryTag) this.tags().get(key);
       if(expectedType.test(tag.listType())) {
         return tag;
       }
@@ -160,7 +202,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public @NonNull CompoundBinaryTag getCompound(final @NonNull String key, final @NonNull CompoundBinaryTag defaultValue) {
     if(this.contains(key, BinaryTagTypes.COMPOUND)) {
-      return (CompoundBinaryTag) this.tags.get(key);
+      return (CompoundBinaryTag) this.tags().get(key);
     }
     return defaultValue;
   }
@@ -168,7 +210,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public int@NonNull[] getIntArray(final @NonNull String key) {
     if(this.contains(key, BinaryTagTypes.INT_ARRAY)) {
-      return ((IntArrayBinaryTag) this.tags.get(key)).value();
+      return ((IntArrayBinaryTag) this.tags().get(key)).value();
     }
     return new int[0];
   }
@@ -176,7 +218,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public int@NonNull[] getIntArray(final @NonNull String key, final int@NonNull[] defaultValue) {
     if(this.contains(key, BinaryTagTypes.INT_ARRAY)) {
-      return ((IntArrayBinaryTag) this.tags.get(key)).value();
+      return ((IntArrayBinaryTag) this.tags().get(key)).value();
     }
     return defaultValue;
   }
@@ -184,7 +226,7 @@ import static java.util.Objects.requireNonNull;
   @Override
   public long@NonNull[] getLongArray(final @NonNull String key) {
     if(this.contains(key, BinaryTagTypes.LONG_ARRAY)) {
-      return ((LongArrayBinaryTag) this.tags.get(key)).value();
+      return ((LongArrayBinaryTag) this.tags().get(key)).value();
     }
     return new long[0];
   }
@@ -192,40 +234,34 @@ import static java.util.Objects.requireNonNull;
   @Override
   public long@NonNull[] getLongArray(final @NonNull String key, final long@NonNull[] defaultValue) {
     if(this.contains(key, BinaryTagTypes.LONG_ARRAY)) {
-      return ((LongArrayBinaryTag) this.tags.get(key)).value();
+      return ((LongArrayBinaryTag) this.tags().get(key)).value();
     }
     return defaultValue;
   }
 
-  private CompoundBinaryTag edit(final Consumer<Map<String, BinaryTag>> consumer) {
-    final Map<String, BinaryTag> tags = new HashMap<>(this.tags);
-    consumer.accept(tags);
-    return new CompoundBinaryTagImpl(tags);
-  }
-
   @Override
   public boolean equals(final Object that) {
-    return this == that || (that instanceof CompoundBinaryTagImpl && this.tags.equals(((CompoundBinaryTagImpl) that).tags));
+    return this == that || (that instanceof CompoundBinaryTagImpl && this.tags().equals(((CompoundBinaryTagImpl) that).tags()));
   }
 
   @Override
   public int hashCode() {
-    return this.hashCode;
+    return this.tags().hashCode();
   }
 
   @Override
   public @NonNull Stream<? extends ExaminableProperty> examinableProperties() {
-    return Stream.of(ExaminableProperty.of("tags", this.tags));
+    return Stream.of(ExaminableProperty.of("tags", this.tags()));
   }
 
   @Override
   @SuppressWarnings({"unchecked", "rawtypes"})
   public @NonNull Iterator<Map.Entry<String, ? extends BinaryTag>> iterator() {
-    return (Iterator) this.tags.entrySet().iterator();
+    return (Iterator) this.tags().entrySet().iterator();
   }
 
   @Override
   public void forEach(final @NonNull Consumer<? super Map.Entry<String, ? extends BinaryTag>> action) {
-    this.tags.entrySet().forEach(requireNonNull(action, "action"));
+    this.tags().entrySet().forEach(requireNonNull(action, "action"));
   }
 }
@@ -23,10 +23,12 @@
  */
 package net.kyori.adventure.nbt;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /* package */ final class CompoundTagBuilder implements CompoundBinaryTag.Builder {
   private @MonotonicNonNull Map<String, BinaryTag> tags;
@@ -34,15 +36,26 @@ import org.checkerframework.checker.nullness.qual.NonNull;
   @Override
   public CompoundBinaryTag.@NonNull Builder put(final @NonNull String key, @NonNull final BinaryTag tag) {
     if(this.tags == null) {
-      this.tags = new HashMap<>();
+      this.tags = new LinkedHashMap<>();
     }
     this.tags.put(key, tag);
     return this;
   }
 
+  @Override
+  public CompoundBinaryTag.@NonNull Builder remove(final @NonNull String key, final @Nullable Consumer<BinaryTag> removedConsumer) {
+    if(this.tags != null) {
+      final BinaryTag tag = this.tags.remove(key);
+      if(tag != null && removedConsumer != null) {
+        removedConsumer.accept(tag);
+      }
+    }
+    return this;
+  }
+
   @Override
   public @NonNull CompoundBinaryTag build() {
-    if(this.tags == null) return CompoundBinaryTag.empty();
-    return new CompoundBinaryTagImpl(new HashMap<>(this.tags));
+    if(this.tags == null || this.tags.isEmpty()) return CompoundBinaryTag.empty();
+    return new CompoundBinaryTagImpl(TagMap.copyOf(this.tags));
   }
 }
@@ -23,7 +23,9 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.util.function.Consumer;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Common methods between {@link CompoundBinaryTag} and {@link CompoundBinaryTag.Builder}.
@@ -40,6 +42,25 @@ public interface CompoundTagSetter<R> {
    */
   @NonNull R put(final @NonNull String key, final @NonNull BinaryTag tag);
 
+  /**
+   * Removes a tag.
+   *
+   * @param key the key
+   * @return a compound tag
+   */
+  default @NonNull R remove(final @NonNull String key) {
+    return this.remove(key, null);
+  }
+
+  /**
+   * Removes a tag, optionally providing {@code removedConsumer} with the tag previously at {@code key}.
+   *
+   * @param key the key
+   * @param removedConsumer a consumer which receives the tag being removed, if there was a tag at {@code key}
+   * @return a compound tag
+   */
+  @NonNull R remove(final @NonNull String key, final @Nullable Consumer<BinaryTag> removedConsumer);
+
   /**
    * Inserts a byte.
    *
@@ -0,0 +1,145 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A compression format for binary tags.
+ *
+ * <p>The {@code zlib} based formats reuse their {@link java.util.zip.Inflater} and {@link Deflater}
+ * instances: each thread keeps one of each around, which is borrowed when a stream is opened and
+ * returned when the stream is closed. Streams should therefore always be closed.</p>
+ */
+public interface Compression {
+  /**
+   * Gets a compression that does not compress.
+   *
+   * @return the compression
+   */
+  static @NonNull Compression none() {
+    return Compressions.NONE;
+  }
+
+  /**
+   * Gets the GZIP compression, as used for files such as {@code level.dat}.
+   *
+   * @return the compression
+   */
+  static @NonNull Compression gzip() {
+    return Compressions.GZIP;
+  }
+
+  /**
+   * Gets the GZIP compression, compressing at {@code level}.
+   *
+   * @param level the compression level, from {@code 0} to {@code 9}, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @return the compression
+   * @throws IllegalArgumentException if {@code level} is not a valid compression level
+   */
+  static @NonNull Compression gzip(final int level) {
+    return new Compressions.Zip(Compressions.Format.GZIP, level);
+  }
+
+  /**
+   * Gets the zlib compression, as used for region files and network packets.
+   *
+   * @return the compression
+   */
+  static @NonNull Compression zlib() {
+    return Compressions.ZLIB;
+  }
+
+  /**
+   * Gets the zlib compression, compressing at {@code level}.
+   *
+   * @param level the compression level, from {@code 0} to {@code 9}, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @return the compression
+   * @throws IllegalArgumentException if {@code level} is not a valid compression level
+   */
+  static @NonNull Compression zlib(final int level) {
+    return new Compressions.Zip(Compressions.Format.ZLIB, level);
+  }
+
+  /**
+   * Gets the raw deflate compression, without any header or checksum.
+   *
+   * @return the compression
+   */
+  static @NonNull Compression deflate() {
+    return Compressions.DEFLATE;
+  }
+
+  /**
+   * Gets the raw deflate compression, compressing at {@code level}.
+   *
+   * @param level the compression level, from {@code 0} to {@code 9}, or {@link Deflater#DEFAULT_COMPRESSION}
+   * @return the compression
+   * @throws IllegalArgumentException if {@code level} is not a valid compression level
+   */
+  static @NonNull Compression deflate(final int level) {
+    return new Compressions.Zip(Compressions.Format.DEFLATE, level);
+  }
+
+  /**
+   * Gets a fast compression implemented in pure Java.
+   *
+   * <p>Data is split into blocks of up to 64 KiB, each compressed using the LZ4 block format. Each block
+   * is preceded by its uncompressed and stored lengths as big-endian integers, with the high bit of the
+   * stored length set if the block is stored uncompressed, and the stream ends with an uncompressed length
+   * of {@code 0}. This trades compression ratio for speed, and is not compatible with the LZ4 frame format.</p>
+   *
+   * @return the compression
+   */
+  static @NonNull Compression lz4() {
+    return Lz4Compression.INSTANCE;
+  }
+
+  /**
+   * Wraps {@code input} to decompress data read from it.
+   *
+   * <p>Closing the returned stream closes {@code input}.</p>
+   *
+   * @param input the input stream
+   * @return the decompressing input stream
+   * @throws IOException if an exception was encountered while reading a header
+   */
+  @NonNull InputStream decompress(final @NonNull InputStream input) throws IOException;
+
+  /**
+   * Wraps {@code output} to compress data written to it.
+   *
+   * <p>The compressed data is only complete once the returned stream is closed. Closing the returned
+   * stream closes {@code output}.</p>
+   *
+   * @param output the output stream
+   * @return the compressing output stream
+   * @throws IOException if an exception was encountered while writing a header
+   */
+  @NonNull OutputStream compress(final @NonNull OutputStream output) throws IOException;
+}
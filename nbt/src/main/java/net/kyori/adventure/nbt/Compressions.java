@@ -0,0 +1,349 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/* package */ final class Compressions {
+  private static final int BUFFER_SIZE = 8192;
+  private static final Pool<Inflater> INFLATERS = new Pool<>(Inflater::new, Inflater::reset, Inflater::end);
+  private static final Pool<Inflater> RAW_INFLATERS = new Pool<>(() -> new Inflater(true), Inflater::reset, Inflater::end);
+  private static final Pool<Deflater> DEFLATERS = new Pool<>(Deflater::new, Deflater::reset, Deflater::end);
+  private static final Pool<Deflater> RAW_DEFLATERS = new Pool<>(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true), Deflater::reset, Deflater::end);
+  /* package */ static final Compression NONE = new Compression() {
+    @Override
+    public @NonNull InputStream decompress(final @NonNull InputStream input) {
+      return input;
+    }
+
+    @Override
+    public @NonNull OutputStream compress(final @NonNull OutputStream output) {
+      return new FilterOutputStream(output) {
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+          this.out.write(b, off, len);
+        }
+      };
+    }
+
+    @Override
+    public String toString() {
+      return "none";
+    }
+  };
+  /* package */ static final Compression GZIP = new Zip(Format.GZIP, Deflater.DEFAULT_COMPRESSION);
+  /* package */ static final Compression ZLIB = new Zip(Format.ZLIB, Deflater.DEFAULT_COMPRESSION);
+  /* package */ static final Compression DEFLATE = new Zip(Format.DEFLATE, Deflater.DEFAULT_COMPRESSION);
+
+  private Compressions() {
+  }
+
+  /* package */ enum Format {
+    GZIP,
+    ZLIB,
+    DEFLATE;
+  }
+
+  /* package */ static final class Zip implements Compression {
+    private final Format format;
+    private final int level;
+
+    /* package */ Zip(final Format format, final int level) {
+      if(level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+        throw new IllegalArgumentException("Invalid compression level " + level);
+      }
+      this.format = format;
+      this.level = level;
+    }
+
+    @Override
+    public @NonNull InputStream decompress(final @NonNull InputStream input) throws IOException {
+      switch(this.format) {
+        case GZIP: return new GzipInputStream(input);
+        case ZLIB: return new PooledInflaterInputStream(input, INFLATERS);
+        default: return new PooledInflaterInputStream(input, RAW_INFLATERS);
+      }
+    }
+
+    @Override
+    public @NonNull OutputStream compress(final @NonNull OutputStream output) throws IOException {
+      switch(this.format) {
+        case GZIP: return new GzipOutputStream(output, this.level);
+        case ZLIB: return new PooledDeflaterOutputStream(output, DEFLATERS, this.level);
+        default: return new PooledDeflaterOutputStream(output, RAW_DEFLATERS, this.level);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return this.format.name().toLowerCase(Locale.ROOT) + "(level=" + this.level + ")";
+    }
+  }
+
+  /**
+   * Holds a single instance per thread, which is handed out by {@link #acquire()} and taken back by
+   * {@link #release(Object)}. An instance is never shared by two open streams, even on the same thread.
+   */
+  /* package */ static final class Pool<T> {
+    private final ThreadLocal<T> cached = new ThreadLocal<>();
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+    private final Consumer<T> dispose;
+
+    /* package */ Pool(final Supplier<T> factory, final Consumer<T> reset, final Consumer<T> dispose) {
+      this.factory = factory;
+      this.reset = reset;
+      this.dispose = dispose;
+    }
+
+    /* package */ T acquire() {
+      final T value = this.cached.get();
+      if(value != null) {
+        this.cached.set(null);
+        return value;
+      }
+      return this.factory.get();
+    }
+
+    /* package */ void release(final T value) {
+      if(this.cached.get() == null) {
+        this.reset.accept(value);
+        this.cached.set(value);
+      } else {
+        this.dispose.accept(value);
+      }
+    }
+  }
+
+  private static Deflater deflater(final Pool<Deflater> pool, final int level) {
+    final Deflater deflater = pool.acquire();
+    deflater.setLevel(level);
+    return deflater;
+  }
+
+  private static class PooledInflaterInputStream extends InflaterInputStream {
+    private final Pool<Inflater> pool;
+    private boolean released;
+
+    /* package */ PooledInflaterInputStream(final InputStream input, final Pool<Inflater> pool) {
+      super(input, pool.acquire(), BUFFER_SIZE);
+      this.pool = pool;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if(!this.released) {
+        this.released = true;
+        try {
+          super.close();
+        } finally {
+          this.pool.release(this.inf);
+        }
+      }
+    }
+  }
+
+  private static class PooledDeflaterOutputStream extends DeflaterOutputStream {
+    private final Pool<Deflater> pool;
+    private boolean released;
+
+    /* package */ PooledDeflaterOutputStream(final OutputStream output, final Pool<Deflater> pool, final int level) {
+      super(output, deflater(pool, level), BUFFER_SIZE);
+      this.pool = pool;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if(!this.released) {
+        this.released = true;
+        try {
+          super.close();
+        } finally {
+          this.pool.release(this.def);
+        }
+      }
+    }
+  }
+
+  /**
+   * A GZIP input stream that borrows its inflater.
+   *
+   * <p>Only the first member of the stream is read.</p>
+   */
+  private static final class GzipInputStream extends PooledInflaterInputStream {
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private final CRC32 crc = new CRC32();
+    private boolean eos;
+
+    /* package */ GzipInputStream(final InputStream input) throws IOException {
+      super(input, RAW_INFLATERS);
+      try {
+        this.readHeader();
+      } catch(final IOException e) {
+        this.close();
+        throw e;
+      }
+    }
+
+    private void readHeader() throws IOException {
+      final CheckedInputStream input = new CheckedInputStream(this.in, this.crc);
+      if(readUnsignedShortLE(input) != 0x8b1f) {
+        throw new ZipException("Not in GZIP format");
+      }
+      if(readUnsignedByte(input) != 8) {
+        throw new ZipException("Unsupported compression method");
+      }
+      final int flags = readUnsignedByte(input);
+      skipFully(input, 6); // modification time, extra flags, operating system
+      if((flags & FEXTRA) != 0) {
+        skipFully(input, readUnsignedShortLE(input));
+      }
+      if((flags & FNAME) != 0) {
+        skipString(input);
+      }
+      if((flags & FCOMMENT) != 0) {
+        skipString(input);
+      }
+      if((flags & FHCRC) != 0) {
+        final int expected = (int) this.crc.getValue() & 0xffff;
+        if(readUnsignedShortLE(input) != expected) {
+          throw new ZipException("Corrupt GZIP header");
+        }
+      }
+      this.crc.reset();
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if(this.eos) return -1;
+      final int read = super.read(b, off, len);
+      if(read == -1) {
+        this.readTrailer();
+        this.eos = true;
+      } else {
+        this.crc.update(b, off, read);
+      }
+      return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return this.eos ? 0 : super.available();
+    }
+
+    private void readTrailer() throws IOException {
+      final int remaining = this.inf.getRemaining();
+      final InputStream input = remaining > 0 ? new SequenceInputStream(new ByteArrayInputStream(this.buf, this.len - remaining, remaining), this.in) : this.in;
+      final long crc = readUnsignedIntLE(input);
+      final long size = readUnsignedIntLE(input);
+      if(crc != this.crc.getValue() || size != (this.inf.getBytesWritten() & 0xffffffffL)) {
+        throw new ZipException("Corrupt GZIP trailer");
+      }
+    }
+  }
+
+  /**
+   * A GZIP output stream that borrows its deflater.
+   */
+  private static final class GzipOutputStream extends PooledDeflaterOutputStream {
+    private static final byte[] HEADER = new byte[]{0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0};
+    private final CRC32 crc = new CRC32();
+
+    /* package */ GzipOutputStream(final OutputStream output, final int level) throws IOException {
+      super(output, RAW_DEFLATERS, level);
+      output.write(HEADER);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      super.write(b, off, len);
+      this.crc.update(b, off, len);
+    }
+
+    @Override
+    public void finish() throws IOException {
+      if(!this.def.finished()) {
+        super.finish();
+        final byte[] trailer = new byte[8];
+        writeIntLE(trailer, 0, (int) this.crc.getValue());
+        writeIntLE(trailer, 4, (int) this.def.getBytesRead());
+        this.out.write(trailer);
+      }
+    }
+  }
+
+  private static int readUnsignedByte(final InputStream input) throws IOException {
+    final int b = input.read();
+    if(b < 0) throw new EOFException();
+    return b;
+  }
+
+  private static int readUnsignedShortLE(final InputStream input) throws IOException {
+    return readUnsignedByte(input) | readUnsignedByte(input) << 8;
+  }
+
+  private static long readUnsignedIntLE(final InputStream input) throws IOException {
+    return (long) readUnsignedShortLE(input) | (long) readUnsignedShortLE(input) << 16;
+  }
+
+  private static void writeIntLE(final byte[] bytes, final int offset, final int value) {
+    bytes[offset] = (byte) value;
+    bytes[offset + 1] = (byte) (value >>> 8);
+    bytes[offset + 2] = (byte) (value >>> 16);
+    bytes[offset + 3] = (byte) (value >>> 24);
+  }
+
+  private static void skipString(final InputStream input) throws IOException {
+    int b;
+    do {
+      b = readUnsignedByte(input);
+    } while(b != 0);
+  }
+
+  private static void skipFully(final InputStream input, final int length) throws IOException {
+    for(int i = 0; i < length; i++) {
+      readUnsignedByte(input);
+    }
+  }
+}
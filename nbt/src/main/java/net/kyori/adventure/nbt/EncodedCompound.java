@@ -0,0 +1,201 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The encoded entries of a compound tag, decoded when the compound is first read.
+ *
+ * <p>The bytes run from the first entry up to and including the end tag closing the compound. Compound tags
+ * are immutable, so while a compound is backed by these bytes they are written back out verbatim.</p>
+ *
+ * <p>Decoding is shallow: nested compounds, including those inside lists, stay encoded until they are read.</p>
+ */
+/* package */ final class EncodedCompound {
+  private final byte[] data;
+  private final int start;
+  private final int end;
+  private @Nullable TagMap tags;
+
+  private EncodedCompound(final byte[] data, final int start, final int end) {
+    this.data = data;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Checks the structure of the root compound tag in {@code data}, without decoding it.
+   *
+   * @param data the data, which is not copied
+   * @return the compound tag
+   * @throws IOException if the data does not hold a well-formed compound tag
+   */
+  /* package */ static CompoundBinaryTag read(final byte[] data) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.wrap(data);
+    final byte id = buffer.get(require(buffer, 0, 3) - 3);
+    if(id != BinaryTagTypes.COMPOUND.id()) {
+      throw new IOException(String.format("Expected root tag to be a %s, was %s", BinaryTagTypes.COMPOUND, BinaryTagType.of(id)));
+    }
+    final int start = require(buffer, 3, buffer.getShort(1) & 0xffff); // skip empty name
+    return new CompoundBinaryTagImpl(new EncodedCompound(data, start, skip(buffer, id, start, 1)));
+  }
+
+  /**
+   * Gets the decoded entries.
+   *
+   * @return the entries
+   * @throws UncheckedIOException if a string could not be decoded
+   */
+  /* package */ TagMap tags() {
+    TagMap tags = this.tags;
+    if(tags == null) {
+      // TagMap is immutable apart from cached values, so it may be published without synchronization
+      this.tags = tags = this.decode();
+    }
+    return tags;
+  }
+
+  /* package */ int size() {
+    return this.end - this.start;
+  }
+
+  /* package */ void write(final DataOutput output) throws IOException {
+    output.write(this.data, this.start, this.end - this.start);
+  }
+
+  private TagMap decode() {
+    final ByteBuffer buffer = ByteBuffer.wrap(this.data, this.start, this.end - this.start);
+    final DataInput input = new ByteBufferDataInput(buffer);
+    final TagMap.Accumulator tags = new TagMap.Accumulator();
+    try {
+      byte id;
+      while((id = input.readByte()) != 0) {
+        final String key = KeyPool.intern(ModifiedUtf8.read(input));
+        tags.add(key, this.read(id, buffer, input));
+      }
+    } catch(final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return tags.build();
+  }
+
+  private BinaryTag read(final byte id, final ByteBuffer buffer, final DataInput input) throws IOException {
+    final int position = buffer.position();
+    if(id == BinaryTagTypes.COMPOUND.id()) {
+      final int end = skip(buffer, id, position, 1); // already checked as part of this compound
+      buffer.position(end);
+      return new CompoundBinaryTagImpl(new EncodedCompound(this.data, position, end));
+    } else if(id == BinaryTagTypes.LIST.id()) {
+      final byte elementId = buffer.get();
+      if(elementId == BinaryTagTypes.COMPOUND.id() || elementId == BinaryTagTypes.LIST.id()) {
+        final int length = buffer.getInt();
+        final List<BinaryTag> tags = new ArrayList<>(length);
+        for(int i = 0; i < length; i++) {
+          tags.add(this.read(elementId, buffer, input));
+        }
+        return new ListBinaryTagImpl(BinaryTagType.of(elementId), tags);
+      }
+      buffer.position(position);
+    }
+    return BinaryTagCodec.read(id, input);
+  }
+
+  /**
+   * Finds the end of a tag, checking that it lies within the buffer.
+   *
+   * @param buffer the buffer
+   * @param id the type id of the tag
+   * @param position the position of the tag's payload
+   * @param depth the depth of the tag, from {@code 1} for the root tag
+   * @return the position after the tag
+   * @throws IOException if the tag is truncated, malformed or nested too deeply
+   */
+  private static int skip(final ByteBuffer buffer, final byte id, int position, final int depth) throws IOException {
+    if((id == BinaryTagTypes.LIST.id() || id == BinaryTagTypes.COMPOUND.id()) && depth > LimitedDataInput.MAX_DEPTH) {
+      throw new IOException("Depth " + depth + " is over the limit of " + LimitedDataInput.MAX_DEPTH);
+    }
+    switch(id) {
+      case 1: return require(buffer, position, 1);
+      case 2: return require(buffer, position, 2);
+      case 3: return require(buffer, position, 4);
+      case 4: return require(buffer, position, 8);
+      case 5: return require(buffer, position, 4);
+      case 6: return require(buffer, position, 8);
+      case 7: return require(buffer, position + 4, length(buffer, position));
+      case 8: return require(buffer, position + 2, buffer.getShort(require(buffer, position, 2) - 2) & 0xffff);
+      case 9: {
+        final byte elementId = buffer.get(require(buffer, position, 1) - 1);
+        final int length = length(buffer, position + 1);
+        position += 5;
+        if(elementId == 0) {
+          // empty lists are written with an element type of end
+          if(length > 0) throw new IOException(String.format("Cannot read a %s of %d %s elements", BinaryTagTypes.LIST, length, BinaryTagTypes.END));
+          return position;
+        }
+        final int width = BinaryTagCodec.width(elementId);
+        if(width > 0) {
+          return require(buffer, position, (long) length * width);
+        }
+        for(int i = 0; i < length; i++) {
+          position = skip(buffer, elementId, position, depth + 1);
+        }
+        return position;
+      }
+      case 10: {
+        byte entryId;
+        while((entryId = buffer.get(require(buffer, position, 1) - 1)) != 0) {
+          position = skip(buffer, entryId, skip(buffer, BinaryTagTypes.STRING.id(), position + 1, depth + 1), depth + 1);
+        }
+        return position + 1;
+      }
+      case 11: return require(buffer, position + 4, length(buffer, position) * 4L);
+      case 12: return require(buffer, position + 4, length(buffer, position) * 8L);
+      default: throw new IOException("Unknown tag type " + id);
+    }
+  }
+
+  private static int length(final ByteBuffer buffer, final int position) throws IOException {
+    final int length = buffer.getInt(require(buffer, position, 4) - 4);
+    if(length < 0) {
+      throw new IOException("Negative length " + length + " at " + position);
+    }
+    return length;
+  }
+
+  private static int require(final ByteBuffer buffer, final int position, final long length) throws EOFException {
+    if(buffer.limit() - position < length) {
+      throw new EOFException("Expected " + length + " bytes at " + position + ", but only " + Math.max(0, buffer.limit() - position) + " remain");
+    }
+    return (int) (position + length);
+  }
+}
@@ -26,6 +26,8 @@ package net.kyori.adventure.nbt;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /* package */ final class IOStreamUtil {
   private IOStreamUtil() {
@@ -68,4 +70,47 @@ import java.io.OutputStream;
       }
     };
   }
+
+  /* package */ static byte[] readAllBytes(final InputStream stream) throws IOException {
+    byte[] bytes = new byte[8192];
+    int length = 0;
+    int read;
+    while((read = stream.read(bytes, length, bytes.length - length)) != -1) {
+      length += read;
+      if(length == bytes.length) {
+        bytes = Arrays.copyOf(bytes, length << 1);
+      }
+    }
+    return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+  }
+
+  /* package */ static InputStream inputStream(final ByteBuffer buffer) {
+    return new InputStream() {
+      @Override
+      public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) {
+        if(len == 0) return 0;
+        if(!buffer.hasRemaining()) return -1;
+        final int read = Math.min(len, buffer.remaining());
+        buffer.get(b, off, read);
+        return read;
+      }
+
+      @Override
+      public long skip(final long n) {
+        final int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+      }
+
+      @Override
+      public int available() {
+        return buffer.remaining();
+      }
+    };
+  }
 }
@@ -23,7 +23,10 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import net.kyori.examination.ExaminableProperty;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -41,6 +44,36 @@ import org.checkerframework.checker.nullness.qual.Nullable;
     return Arrays.copyOf(this.value, this.value.length);
   }
 
+  @Override
+  public int size() {
+    return this.value.length;
+  }
+
+  @Override
+  public int get(final int index) {
+    return this.value[index];
+  }
+
+  @Override
+  public PrimitiveIterator.@NonNull OfInt iterator() {
+    return Arrays.stream(this.value).iterator();
+  }
+
+  @Override
+  public @NonNull IntStream stream() {
+    return Arrays.stream(this.value);
+  }
+
+  @Override
+  public @NonNull IntBuffer buffer() {
+    return IntBuffer.wrap(this.value).asReadOnlyBuffer();
+  }
+
+  @Override
+  public void copyInto(final int@NonNull[] destination, final int offset) {
+    System.arraycopy(this.value, 0, destination, offset, this.value.length);
+  }
+
   // to avoid copying array internally
   /* package */ static int[] value(final IntArrayBinaryTag tag) {
     return (tag instanceof IntArrayBinaryTagImpl) ? ((IntArrayBinaryTagImpl) tag).value : tag.value();
@@ -0,0 +1,59 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A pool of compound keys, so that the same key read from many compounds is held as one string.
+ *
+ * <p>The pool is a fixed-size lossy cache, like the string cache in {@link ModifiedUtf8}: each key hashes to a
+ * slot, which holds the last key pooled into it. Long keys are never pooled. Unlike {@link String#intern()},
+ * untrusted input cannot grow it, and because slots are overwritten it cannot fill it up for good either, so keys
+ * that keep recurring stay pooled.</p>
+ */
+/* package */ final class KeyPool {
+  private static final int SIZE = 4096; // must be a power of two
+  private static final int MAX_LENGTH = 64;
+  private static final String[] KEYS = new String[SIZE];
+
+  private KeyPool() {
+  }
+
+  /**
+   * Gets the pooled instance of {@code key}.
+   *
+   * @param key the key
+   * @return the pooled key, or {@code key} if it cannot be pooled
+   */
+  static @NonNull String intern(final @NonNull String key) {
+    if(key.length() > MAX_LENGTH) return key;
+    final int hash = key.hashCode();
+    final int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+    final String pooled = KEYS[slot];
+    if(pooled != null && pooled.equals(key)) return pooled;
+    KEYS[slot] = key;
+    return key;
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * A {@link DataInput} enforcing {@link BinaryTagLimits} on the tags read through it.
+ *
+ * <p>Bytes are counted as they are read. The tag readers check lengths and depth through the static methods here,
+ * which do nothing for other inputs, so reading without limits pays only for an {@code instanceof} check.</p>
+ */
+/* package */ final class LimitedDataInput implements DataInput {
+  /**
+   * The deepest that readers tracking their own depth will nest, whatever the input - as deep as vanilla reads.
+   */
+  /* package */ static final int MAX_DEPTH = 512;
+
+  private final DataInput input;
+  private final BinaryTagLimits limits;
+  private long bytes;
+  private int depth;
+
+  /* package */ LimitedDataInput(final DataInput input, final BinaryTagLimits limits) {
+    this.input = input;
+    this.limits = limits;
+  }
+
+  /**
+   * Checks the length of a list or array before it is allocated.
+   *
+   * @param input the input
+   * @param length the number of elements
+   * @param width the smallest number of bytes each element takes
+   * @throws IOException if the length is over the limits
+   */
+  /* package */ static void length(final DataInput input, final int length, final int width) throws IOException {
+    if(length < 0) {
+      throw new IOException("Negative length " + length);
+    }
+    if(input instanceof LimitedDataInput) {
+      final LimitedDataInput limited = (LimitedDataInput) input;
+      if(length > limited.limits.maxLength()) {
+        throw new IOException("Length " + length + " is over the limit of " + limited.limits.maxLength());
+      }
+      limited.require((long) length * width);
+    }
+  }
+
+  /**
+   * Enters a compound or list tag.
+   *
+   * @param input the input
+   * @throws IOException if the tag is nested too deeply
+   */
+  /* package */ static void enter(final DataInput input) throws IOException {
+    if(input instanceof LimitedDataInput) {
+      final LimitedDataInput limited = (LimitedDataInput) input;
+      if(++limited.depth > limited.limits.maxDepth()) {
+        throw new IOException("Depth " + limited.depth + " is over the limit of " + limited.limits.maxDepth());
+      }
+    }
+  }
+
+  /**
+   * Enters a compound or list tag at a depth tracked by the caller, which is checked even for other inputs.
+   *
+   * @param input the input
+   * @param depth the depth of the tag, from {@code 1} for the root tag
+   * @throws IOException if the tag is nested too deeply
+   */
+  /* package */ static void enter(final DataInput input, final int depth) throws IOException {
+    if(depth > MAX_DEPTH) {
+      throw new IOException("Depth " + depth + " is over the limit of " + MAX_DEPTH);
+    }
+    enter(input);
+  }
+
+  /**
+   * Leaves a compound or list tag.
+   *
+   * @param input the input
+   */
+  /* package */ static void exit(final DataInput input) {
+    if(input instanceof LimitedDataInput) {
+      ((LimitedDataInput) input).depth--;
+    }
+  }
+
+  /**
+   * Gets the input this reads from, for reading elements in bulk once they have been accounted for.
+   *
+   * @param input the input
+   * @param bytes the number of bytes about to be read
+   * @return the underlying input
+   * @throws IOException if the bytes are over the limit
+   */
+  /* package */ static DataInput unwrap(final DataInput input, final long bytes) throws IOException {
+    if(input instanceof LimitedDataInput) {
+      final LimitedDataInput limited = (LimitedDataInput) input;
+      limited.count(bytes);
+      return limited.input;
+    }
+    return input;
+  }
+
+  private void require(final long bytes) throws IOException {
+    if(bytes > this.limits.maxBytes() - this.bytes) {
+      throw new IOException("Reading " + bytes + " more bytes after " + this.bytes + " is over the limit of " + this.limits.maxBytes());
+    }
+  }
+
+  private void count(final long bytes) throws IOException {
+    this.require(bytes);
+    this.bytes += bytes;
+  }
+
+  @Override
+  public void readFully(final byte[] b) throws IOException {
+    this.readFully(b, 0, b.length);
+  }
+
+  @Override
+  public void readFully(final byte[] b, final int off, final int len) throws IOException {
+    this.count(len);
+    this.input.readFully(b, off, len);
+  }
+
+  @Override
+  public int skipBytes(final int n) throws IOException {
+    this.require(n);
+    final int skipped = this.input.skipBytes(n);
+    this.bytes += skipped;
+    return skipped;
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    this.count(1);
+    return this.input.readBoolean();
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    this.count(1);
+    return this.input.readByte();
+  }
+
+  @Override
+  public int readUnsignedByte() throws IOException {
+    this.count(1);
+    return this.input.readUnsignedByte();
+  }
+
+  @Override
+  public short readShort() throws IOException {
+    this.count(2);
+    return this.input.readShort();
+  }
+
+  @Override
+  public int readUnsignedShort() throws IOException {
+    this.count(2);
+    return this.input.readUnsignedShort();
+  }
+
+  @Override
+  public char readChar() throws IOException {
+    this.count(2);
+    return this.input.readChar();
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    this.count(4);
+    return this.input.readInt();
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    this.count(8);
+    return this.input.readLong();
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    this.count(4);
+    return this.input.readFloat();
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    this.count(8);
+    return this.input.readDouble();
+  }
+
+  @Override
+  public String readLine() throws IOException {
+    final String line = this.input.readLine();
+    if(line != null) {
+      // the terminator is not known, so counted as a single byte
+      this.count(line.length() + 1L);
+    }
+    return line;
+  }
+
+  @Override
+  public String readUTF() throws IOException {
+    return ModifiedUtf8.read(this);
+  }
+}
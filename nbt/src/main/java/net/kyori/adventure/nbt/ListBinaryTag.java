@@ -418,5 +418,16 @@ public interface ListBinaryTag extends ListTagSetter<ListBinaryTag, BinaryTag>,
      * @return a list tag
      */
     @NonNull ListBinaryTag build();
+
+    /**
+     * Builds, then interns the result.
+     *
+     * @param interner the interner
+     * @return a list tag
+     * @see BinaryTagInterner#intern(BinaryTag)
+     */
+    default @NonNull ListBinaryTag build(final @NonNull BinaryTagInterner interner) {
+      return interner.intern(this.build());
+    }
   }
 }
@@ -23,7 +23,6 @@
  */
 package net.kyori.adventure.nbt;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -40,12 +39,32 @@ import org.checkerframework.checker.nullness.qual.Nullable;
   /* package */ static final ListBinaryTag EMPTY = new ListBinaryTagImpl(BinaryTagTypes.END, Collections.emptyList());
   private final List<? extends BinaryTag> tags;
   private final BinaryTagType<? extends BinaryTag> type;
-  private final int hashCode;
+  private int hashCode;
+  private long size; // computed lazily
 
   /* package */ ListBinaryTagImpl(final BinaryTagType<? extends BinaryTag> type, final List<? extends BinaryTag> tags) {
-    this.tags = tags;
+    this.tags = PrimitiveTagList.pack(type, tags);
     this.type = type;
-    this.hashCode = tags.hashCode();
+  }
+
+  // to write numeric elements without boxing them
+  /* package */ static @Nullable PrimitiveTagList primitives(final ListBinaryTag tag) {
+    if(tag instanceof ListBinaryTagImpl) {
+      final List<? extends BinaryTag> tags = ((ListBinaryTagImpl) tag).tags;
+      if(tags instanceof PrimitiveTagList) return (PrimitiveTagList) tags;
+    }
+    return null;
+  }
+
+  /* package */ static long size(final ListBinaryTag tag) {
+    if(!(tag instanceof ListBinaryTagImpl)) return BinaryTagCodec.listSize(tag);
+    final ListBinaryTagImpl impl = (ListBinaryTagImpl) tag;
+    long size = impl.size;
+    if(size == 0) {
+      size = BinaryTagCodec.listSize(impl);
+      impl.size = size;
+    }
+    return size;
   }
 
   @Override
@@ -63,35 +82,85 @@ import org.checkerframework.checker.nullness.qual.Nullable;
     return this.tags.get(index);
   }
 
+  @Override
+  public byte getByte(final @NonNegative int index, final byte defaultValue) {
+    if(this.tags instanceof PrimitiveTagList.Bytes) return ((PrimitiveTagList.Bytes) this.tags).value(index);
+    return ListBinaryTag.super.getByte(index, defaultValue);
+  }
+
+  @Override
+  public short getShort(final @NonNegative int index, final short defaultValue) {
+    if(this.tags instanceof PrimitiveTagList.Shorts) return ((PrimitiveTagList.Shorts) this.tags).value(index);
+    return ListBinaryTag.super.getShort(index, defaultValue);
+  }
+
+  @Override
+  public int getInt(final @NonNegative int index, final int defaultValue) {
+    if(this.tags instanceof PrimitiveTagList.Ints) return ((PrimitiveTagList.Ints) this.tags).value(index);
+    return ListBinaryTag.super.getInt(index, defaultValue);
+  }
+
+  @Override
+  public long getLong(final @NonNegative int index, final long defaultValue) {
+    if(this.tags instanceof PrimitiveTagList.Longs) return ((PrimitiveTagList.Longs) this.tags).value(index);
+    return ListBinaryTag.super.getLong(index, defaultValue);
+  }
+
+  @Override
+  public float getFloat(final @NonNegative int index, final float defaultValue) {
+    if(this.tags instanceof PrimitiveTagList.Floats) return ((PrimitiveTagList.Floats) this.tags).value(index);
+    return ListBinaryTag.super.getFloat(index, defaultValue);
+  }
+
+  @Override
+  public double getDouble(final @NonNegative int index, final double defaultValue) {
+    if(this.tags instanceof PrimitiveTagList.Doubles) return ((PrimitiveTagList.Doubles) this.tags).value(index);
+    return ListBinaryTag.super.getDouble(index, defaultValue);
+  }
+
   @Override
   public @NonNull ListBinaryTag set(final int index, final @NonNull BinaryTag newTag, final @Nullable Consumer<BinaryTag> removedConsumer) {
-    return this.edit(tags -> {
-      final BinaryTag oldTag = tags.set(index, newTag);
-      if(removedConsumer != null) {
-        removedConsumer.accept(oldTag);
-      }
-    }, newTag.type());
+    final BinaryTag oldTag = this.tags.get(index);
+    final List<? extends BinaryTag> tags;
+    if(this.tags instanceof PrimitiveTagList && newTag.type() == this.type) {
+      tags = ((PrimitiveTagList) this.tags).with(index, newTag);
+    } else {
+      tags = TagVector.copyOf(this.tags).with(index, newTag);
+    }
+    if(removedConsumer != null) {
+      removedConsumer.accept(oldTag);
+    }
+    return this.edit(tags, newTag.type());
   }
 
   @Override
   public @NonNull ListBinaryTag remove(final int index, final @Nullable Consumer<BinaryTag> removedConsumer) {
-    return this.edit(tags -> {
-      final BinaryTag tag = tags.remove(index);
-      if(removedConsumer != null) {
-        removedConsumer.accept(tag);
-      }
-    }, null);
+    final BinaryTag tag = this.tags.get(index);
+    final List<? extends BinaryTag> tags;
+    if(this.tags instanceof PrimitiveTagList) {
+      tags = ((PrimitiveTagList) this.tags).minus(index);
+    } else {
+      tags = TagVector.copyOf(this.tags).minus(index);
+    }
+    if(removedConsumer != null) {
+      removedConsumer.accept(tag);
+    }
+    return this.edit(tags, null);
   }
 
   @Override
   public @NonNull ListBinaryTag add(final BinaryTag tag) {
-    return this.edit(tags -> {
-      noAddEnd(tag);
-      if(this.type != BinaryTagTypes.END) {
-        mustBeSameType(tag, this.type);
-      }
-      tags.add(tag);
-    }, tag.type());
+    noAddEnd(tag);
+    if(this.type != BinaryTagTypes.END) {
+      mustBeSameType(tag, this.type);
+    }
+    final List<? extends BinaryTag> tags;
+    if(this.tags instanceof PrimitiveTagList) {
+      tags = ((PrimitiveTagList) this.tags).plus(tag);
+    } else {
+      tags = TagVector.copyOf(this.tags).plus(tag);
+    }
+    return this.edit(tags, tag.type());
   }
 
   // An end tag cannot be an element in a list tag
@@ -108,9 +177,8 @@ import org.checkerframework.checker.nullness.qual.Nullable;
     }
   }
 
-  private ListBinaryTag edit(final Consumer<List<BinaryTag>> consumer, final @Nullable BinaryTagType<? extends BinaryTag> maybeType) {
-    final List<BinaryTag> tags = new ArrayList<>(this.tags);
-    consumer.accept(tags);
+  // numeric elements stay in a primitive array, and any other elements are shared with this list where possible
+  private ListBinaryTag edit(final List<? extends BinaryTag> tags, final @Nullable BinaryTagType<? extends BinaryTag> maybeType) {
     BinaryTagType<? extends BinaryTag> type = this.type;
     // set the type if it has not yet been set
     if(maybeType != null && type == BinaryTagTypes.END) {
@@ -157,7 +225,13 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
   @Override
   public int hashCode() {
-    return this.hashCode;
+    int hashCode = this.hashCode;
+    if(hashCode == 0) {
+      // computed lazily, so edits do not have to visit every element
+      hashCode = this.tags.hashCode();
+      this.hashCode = hashCode;
+    }
+    return hashCode;
   }
 
   @Override
@@ -59,6 +59,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
   @Override
   public @NonNull ListBinaryTag build() {
     if(this.tags == null) return ListBinaryTag.empty();
-    return new ListBinaryTagImpl(this.type, new ArrayList<>(this.tags));
+    final List<? extends BinaryTag> tags = PrimitiveTagList.pack(this.type, this.tags);
+    return new ListBinaryTagImpl(this.type, tags == this.tags ? new ArrayList<>(this.tags) : tags);
   }
 }
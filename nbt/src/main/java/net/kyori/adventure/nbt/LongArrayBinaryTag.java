@@ -23,6 +23,9 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.nio.LongBuffer;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 /**
@@ -52,4 +55,50 @@ public interface LongArrayBinaryTag extends BinaryTag {
    * @return the value
    */
   long@NonNull[] value();
+
+  /**
+   * Gets the number of elements in the value.
+   *
+   * @return the number of elements
+   */
+  int size();
+
+  /**
+   * Gets the element at {@code index}, without copying the value.
+   *
+   * @param index the index
+   * @return the element
+   * @throws IndexOutOfBoundsException if {@code index} is out of bounds
+   */
+  long get(final int index);
+
+  /**
+   * Gets an iterator over the elements of the value, without copying it.
+   *
+   * @return an iterator
+   */
+  PrimitiveIterator.@NonNull OfLong iterator();
+
+  /**
+   * Gets a stream of the elements of the value, without copying it.
+   *
+   * @return a stream
+   */
+  @NonNull LongStream stream();
+
+  /**
+   * Gets a read-only view of the value, without copying it.
+   *
+   * @return a read-only buffer
+   */
+  @NonNull LongBuffer buffer();
+
+  /**
+   * Copies the value into {@code destination}, starting at {@code offset}.
+   *
+   * @param destination the array to copy into
+   * @param offset the index in {@code destination} to copy the first element to
+   * @throws IndexOutOfBoundsException if the value does not fit in {@code destination} at {@code offset}
+   */
+  void copyInto(final long@NonNull[] destination, final int offset);
 }
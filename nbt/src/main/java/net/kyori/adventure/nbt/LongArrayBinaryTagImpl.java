@@ -23,7 +23,10 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.nio.LongBuffer;
 import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import net.kyori.examination.ExaminableProperty;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -36,11 +39,50 @@ import org.checkerframework.checker.nullness.qual.Nullable;
     this.value = Arrays.copyOf(value, value.length);
   }
 
+  private LongArrayBinaryTagImpl(final long[] value, final boolean copy) {
+    this.value = copy ? Arrays.copyOf(value, value.length) : value;
+  }
+
+  // the array must not be changed afterwards
+  /* package */ static LongArrayBinaryTag wrap(final long[] value) {
+    return new LongArrayBinaryTagImpl(value, false);
+  }
+
   @Override
   public long@NonNull[] value() {
     return Arrays.copyOf(this.value, this.value.length);
   }
 
+  @Override
+  public int size() {
+    return this.value.length;
+  }
+
+  @Override
+  public long get(final int index) {
+    return this.value[index];
+  }
+
+  @Override
+  public PrimitiveIterator.@NonNull OfLong iterator() {
+    return Arrays.stream(this.value).iterator();
+  }
+
+  @Override
+  public @NonNull LongStream stream() {
+    return Arrays.stream(this.value);
+  }
+
+  @Override
+  public @NonNull LongBuffer buffer() {
+    return LongBuffer.wrap(this.value).asReadOnlyBuffer();
+  }
+
+  @Override
+  public void copyInto(final long@NonNull[] destination, final int offset) {
+    System.arraycopy(this.value, 0, destination, offset, this.value.length);
+  }
+
   // to avoid copying array internally
   /* package */ static long[] value(final LongArrayBinaryTag tag) {
     return (tag instanceof LongArrayBinaryTagImpl) ? ((LongArrayBinaryTagImpl) tag).value : tag.value();
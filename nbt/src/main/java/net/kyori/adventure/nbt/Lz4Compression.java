@@ -0,0 +1,386 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A compression using the LZ4 block format, in blocks of up to {@link #BLOCK_SIZE} bytes.
+ *
+ * @see Compression#lz4()
+ */
+/* package */ final class Lz4Compression implements Compression {
+  /* package */ static final Lz4Compression INSTANCE = new Lz4Compression();
+  /* package */ static final int BLOCK_SIZE = 1 << 16;
+  private static final int STORED = 0x80000000;
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;
+  private static final int MATCH_FIND_LIMIT = 12;
+  private static final int MAX_OFFSET = 0xffff;
+  private static final int HASH_BITS = 12;
+  private static final int SKIP_TRIGGER = 6;
+
+  private Lz4Compression() {
+  }
+
+  @Override
+  public @NonNull InputStream decompress(final @NonNull InputStream input) {
+    return new BlockInputStream(input);
+  }
+
+  @Override
+  public @NonNull OutputStream compress(final @NonNull OutputStream output) {
+    return new BlockOutputStream(output);
+  }
+
+  @Override
+  public String toString() {
+    return "lz4";
+  }
+
+  /* package */ static int maxCompressedLength(final int length) {
+    return length + length / 255 + 16;
+  }
+
+  /**
+   * Compresses a block.
+   *
+   * @param src the source bytes
+   * @param length the number of source bytes
+   * @param dst the destination, with at least {@link #maxCompressedLength(int)} bytes from {@code dstOffset}
+   * @param dstOffset the offset in {@code dst} to write at
+   * @param table the hash table, of {@code 1 << HASH_BITS} entries
+   * @return the number of bytes written to {@code dst}
+   */
+  /* package */ static int compress(final byte[] src, final int length, final byte[] dst, final int dstOffset, final int[] table) {
+    Arrays.fill(table, -1);
+    int anchor = 0;
+    int dp = dstOffset;
+    if(length > MATCH_FIND_LIMIT) {
+      final int limit = length - MATCH_FIND_LIMIT;
+      final int matchLimit = length - LAST_LITERALS;
+      int sp = 0;
+      int misses = 1 << SKIP_TRIGGER;
+      while(sp < limit) {
+        final int sequence = readInt(src, sp);
+        final int hash = (sequence * -1640531535) >>> (32 - HASH_BITS);
+        final int ref = table[hash];
+        table[hash] = sp;
+        if(ref < 0 || sp - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+          sp += misses++ >>> SKIP_TRIGGER;
+          continue;
+        }
+        misses = 1 << SKIP_TRIGGER;
+        int matchLength = MIN_MATCH;
+        while(sp + matchLength < matchLimit && src[ref + matchLength] == src[sp + matchLength]) {
+          matchLength++;
+        }
+        dp = writeSequence(src, anchor, sp - anchor, dst, dp, sp - ref, matchLength);
+        sp += matchLength;
+        anchor = sp;
+      }
+    }
+    final int literals = length - anchor;
+    final int token = dp++;
+    dst[token] = 0;
+    dp = writeLength(dst, dp, token, literals, 4);
+    System.arraycopy(src, anchor, dst, dp, literals);
+    return dp + literals - dstOffset;
+  }
+
+  private static int writeSequence(final byte[] src, final int anchor, final int literals, final byte[] dst, int dp, final int offset, final int matchLength) {
+    final int token = dp++;
+    dst[token] = 0;
+    dp = writeLength(dst, dp, token, literals, 4);
+    System.arraycopy(src, anchor, dst, dp, literals);
+    dp += literals;
+    dst[dp++] = (byte) offset;
+    dst[dp++] = (byte) (offset >>> 8);
+    return writeLength(dst, dp, token, matchLength - MIN_MATCH, 0);
+  }
+
+  private static int writeLength(final byte[] dst, int dp, final int token, final int length, final int shift) {
+    if(length < 15) {
+      dst[token] |= (byte) (length << shift);
+      return dp;
+    }
+    dst[token] |= (byte) (15 << shift);
+    int remaining = length - 15;
+    for(; remaining >= 255; remaining -= 255) {
+      dst[dp++] = (byte) 255;
+    }
+    dst[dp++] = (byte) remaining;
+    return dp;
+  }
+
+  /**
+   * Decompresses a block.
+   *
+   * @param src the compressed bytes
+   * @param length the number of compressed bytes
+   * @param dst the destination
+   * @param dstLength the expected number of decompressed bytes
+   * @throws IOException if the block is malformed
+   */
+  /* package */ static void decompress(final byte[] src, final int length, final byte[] dst, final int dstLength) throws IOException {
+    int sp = 0;
+    int dp = 0;
+    while(true) {
+      if(sp >= length) throw new IOException("Malformed LZ4 block: unexpected end of block");
+      final int token = src[sp++] & 0xff;
+      int literals = token >>> 4;
+      if(literals == 15) {
+        int b;
+        do {
+          if(sp >= length) throw new IOException("Malformed LZ4 block: unexpected end of block");
+          b = src[sp++] & 0xff;
+          literals += b;
+        } while(b == 255 && literals < length);
+      }
+      if(literals > length - sp || literals > dstLength - dp) {
+        throw new IOException("Malformed LZ4 block: literals out of bounds");
+      }
+      System.arraycopy(src, sp, dst, dp, literals);
+      sp += literals;
+      dp += literals;
+      if(sp == length) break;
+      if(length - sp < 2) throw new IOException("Malformed LZ4 block: unexpected end of block");
+      final int offset = (src[sp] & 0xff) | (src[sp + 1] & 0xff) << 8;
+      sp += 2;
+      if(offset == 0 || offset > dp) {
+        throw new IOException("Malformed LZ4 block: invalid offset " + offset);
+      }
+      int matchLength = token & 0x0f;
+      if(matchLength == 15) {
+        int b;
+        do {
+          if(sp >= length) throw new IOException("Malformed LZ4 block: unexpected end of block");
+          b = src[sp++] & 0xff;
+          matchLength += b;
+        } while(b == 255 && matchLength < dstLength);
+      }
+      matchLength += MIN_MATCH;
+      if(matchLength > dstLength - dp) {
+        throw new IOException("Malformed LZ4 block: match out of bounds");
+      }
+      final int ref = dp - offset;
+      if(offset >= matchLength) {
+        System.arraycopy(dst, ref, dst, dp, matchLength);
+      } else {
+        for(int i = 0; i < matchLength; i++) {
+          dst[dp + i] = dst[ref + i];
+        }
+      }
+      dp += matchLength;
+    }
+    if(dp != dstLength) {
+      throw new IOException("Malformed LZ4 block: expected " + dstLength + " bytes, decompressed " + dp);
+    }
+  }
+
+  private static int readInt(final byte[] bytes, final int offset) {
+    return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff) << 16 | bytes[offset + 3] << 24;
+  }
+
+  private static final class BlockOutputStream extends FilterOutputStream {
+    private final byte[] buffer = new byte[BLOCK_SIZE];
+    private final byte[] compressed = new byte[8 + maxCompressedLength(BLOCK_SIZE)];
+    private final int[] table = new int[1 << HASH_BITS];
+    private int length;
+    private boolean closed;
+
+    /* package */ BlockOutputStream(final OutputStream output) {
+      super(output);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      if(this.length == BLOCK_SIZE) this.writeBlock();
+      this.buffer[this.length++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, int off, int len) throws IOException {
+      while(len > 0) {
+        if(this.length == BLOCK_SIZE) this.writeBlock();
+        final int count = Math.min(len, BLOCK_SIZE - this.length);
+        System.arraycopy(b, off, this.buffer, this.length, count);
+        this.length += count;
+        off += count;
+        len -= count;
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if(this.length > 0) this.writeBlock();
+      this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if(this.closed) return;
+      this.closed = true;
+      try {
+        if(this.length > 0) this.writeBlock();
+        this.writeHeader(0, 0);
+        this.out.write(this.compressed, 0, 4);
+        this.out.flush();
+      } finally {
+        this.out.close();
+      }
+    }
+
+    private void writeBlock() throws IOException {
+      final int size = compress(this.buffer, this.length, this.compressed, 8, this.table);
+      if(size < this.length) {
+        this.writeHeader(this.length, size);
+        this.out.write(this.compressed, 0, 8 + size);
+      } else {
+        this.writeHeader(this.length, this.length | STORED);
+        this.out.write(this.compressed, 0, 8);
+        this.out.write(this.buffer, 0, this.length);
+      }
+      this.length = 0;
+    }
+
+    private void writeHeader(final int length, final int stored) {
+      writeInt(this.compressed, 0, length);
+      writeInt(this.compressed, 4, stored);
+    }
+  }
+
+  private static final class BlockInputStream extends FilterInputStream {
+    private final byte[] buffer = new byte[BLOCK_SIZE];
+    private final byte[] header = new byte[4];
+    private byte[] compressed;
+    private int position;
+    private int length;
+    private boolean eos;
+
+    /* package */ BlockInputStream(final InputStream input) {
+      super(input);
+    }
+
+    @Override
+    public int read() throws IOException {
+      if(this.position == this.length && !this.readBlock()) return -1;
+      return this.buffer[this.position++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if(len == 0) return 0;
+      if(this.position == this.length && !this.readBlock()) return -1;
+      final int count = Math.min(len, this.length - this.position);
+      System.arraycopy(this.buffer, this.position, b, off, count);
+      this.position += count;
+      return count;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      if(n <= 0 || this.position == this.length && !this.readBlock()) return 0;
+      final int count = (int) Math.min(n, this.length - this.position);
+      this.position += count;
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return this.length - this.position;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public synchronized void mark(final int limit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+      throw new IOException("mark/reset not supported");
+    }
+
+    private boolean readBlock() throws IOException {
+      if(this.eos) return false;
+      final int length = this.readInt();
+      if(length == 0) {
+        this.eos = true;
+        return false;
+      }
+      if(length < 0 || length > BLOCK_SIZE) {
+        throw new IOException("Malformed LZ4 stream: invalid block length " + length);
+      }
+      final int stored = this.readInt();
+      if((stored & STORED) != 0) {
+        if((stored & ~STORED) != length) {
+          throw new IOException("Malformed LZ4 stream: stored block of " + (stored & ~STORED) + " bytes, expected " + length);
+        }
+        this.readFully(this.buffer, length);
+      } else {
+        if(stored <= 0 || stored > maxCompressedLength(BLOCK_SIZE)) {
+          throw new IOException("Malformed LZ4 stream: invalid compressed length " + stored);
+        }
+        if(this.compressed == null) this.compressed = new byte[maxCompressedLength(BLOCK_SIZE)];
+        this.readFully(this.compressed, stored);
+        Lz4Compression.decompress(this.compressed, stored, this.buffer, length);
+      }
+      this.position = 0;
+      this.length = length;
+      return true;
+    }
+
+    private int readInt() throws IOException {
+      this.readFully(this.header, 4);
+      return (this.header[0] & 0xff) << 24 | (this.header[1] & 0xff) << 16 | (this.header[2] & 0xff) << 8 | (this.header[3] & 0xff);
+    }
+
+    private void readFully(final byte[] b, final int len) throws IOException {
+      int off = 0;
+      while(off < len) {
+        final int read = this.in.read(b, off, len - off);
+        if(read < 0) throw new EOFException("Unexpected end of LZ4 stream");
+        off += read;
+      }
+    }
+  }
+
+  private static void writeInt(final byte[] bytes, final int offset, final int value) {
+    bytes[offset] = (byte) (value >>> 24);
+    bytes[offset + 1] = (byte) (value >>> 16);
+    bytes[offset + 2] = (byte) (value >>> 8);
+    bytes[offset + 3] = (byte) value;
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Reads and writes strings in the modified UTF-8 format of {@link DataInput#readUTF()}.
+ *
+ * <p>Strings that are entirely ASCII, which nearly all keys and ids are, are created straight from
+ * their bytes. Short ASCII strings are also looked up in a small cache first, so a repeated value
+ * such as an item id is returned as the same instance instead of allocating a new string.</p>
+ */
+/* package */ final class ModifiedUtf8 {
+  private static final int MAX_LENGTH = 0xffff;
+  private static final int SCRATCH_SIZE = 1024;
+  private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[SCRATCH_SIZE]);
+  private static final int CACHE_SIZE = 4096; // must be a power of two
+  private static final int CACHE_MAX_LENGTH = 64;
+  // a lossy cache: a slot holds the last string decoded into it
+  private static final String[] CACHE = new String[CACHE_SIZE];
+
+  private ModifiedUtf8() {
+  }
+
+  /**
+   * Reads a string.
+   *
+   * @param input the input
+   * @return the string
+   * @throws IOException if an exception was encountered while reading
+   */
+  static @NonNull String read(final @NonNull DataInput input) throws IOException {
+    final int length = input.readUnsignedShort();
+    if(length == 0) return "";
+    if(input instanceof ByteBufferDataInput) {
+      final ByteBuffer buffer = ((ByteBufferDataInput) input).require(length);
+      if(buffer.hasArray()) {
+        final int position = buffer.position();
+        buffer.position(position + length);
+        return decode(buffer.array(), buffer.arrayOffset() + position, length);
+      }
+    }
+    final byte[] bytes = scratch(length);
+    input.readFully(bytes, 0, length);
+    return decode(bytes, 0, length);
+  }
+
+  /**
+   * Gets the number of bytes encoding a string takes, excluding its length prefix.
+   *
+   * @param string the string
+   * @return the length in bytes
+   */
+  static int length(final @NonNull String string) {
+    final int length = string.length();
+    int encoded = length;
+    for(int i = 0; i < length; i++) {
+      final char c = string.charAt(i);
+      if(c == 0 || c >= 0x80) {
+        encoded += c >= 0x800 ? 2 : 1;
+      }
+    }
+    return encoded;
+  }
+
+  /**
+   * Writes a string.
+   *
+   * @param output the output
+   * @param string the string
+   * @throws IOException if an exception was encountered while writing
+   */
+  static void write(final @NonNull DataOutput output, final @NonNull String string) throws IOException {
+    if(output instanceof ByteBufferDataOutput) {
+      output.writeUTF(string); // already encodes in place
+      return;
+    }
+    final int length = string.length();
+    if(length > MAX_LENGTH) {
+      // every character takes at least a byte, so there is no need to encode it to know it does not fit
+      throw new UTFDataFormatException("encoded string too long: " + length + " characters");
+    }
+    // sized for the worst case, so the string is encoded in one pass
+    final byte[] bytes = scratch(2 + length * 3);
+    int position = 2;
+    for(int i = 0; i < length; i++) {
+      final char c = string.charAt(i);
+      if(c != 0 && c < 0x80) {
+        bytes[position++] = (byte) c;
+      } else if(c >= 0x800) {
+        bytes[position++] = (byte) (0xe0 | (c >> 12));
+        bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+        bytes[position++] = (byte) (0x80 | (c & 0x3f));
+      } else {
+        bytes[position++] = (byte) (0xc0 | (c >> 6));
+        bytes[position++] = (byte) (0x80 | (c & 0x3f));
+      }
+    }
+    final int encoded = position - 2;
+    if(encoded > MAX_LENGTH) {
+      throw new UTFDataFormatException("encoded string too long: " + encoded + " bytes");
+    }
+    bytes[0] = (byte) (encoded >> 8);
+    bytes[1] = (byte) encoded;
+    output.write(bytes, 0, position);
+  }
+
+  private static @NonNull String decode(final byte[] bytes, final int offset, final int length) throws UTFDataFormatException {
+    int hash = 0;
+    for(int i = 0; i < length; i++) {
+      final byte b = bytes[offset + i];
+      if(b < 0) return decodeSlow(bytes, offset, length, i);
+      hash = 31 * hash + b;
+    }
+    // all ASCII, so hash is the hash code of the string
+    if(length > CACHE_MAX_LENGTH) {
+      return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+    final int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+    final String cached = CACHE[slot];
+    if(cached != null && cached.hashCode() == hash && matches(cached, bytes, offset, length)) {
+      return cached;
+    }
+    final String string = new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    CACHE[slot] = string;
+    return string;
+  }
+
+  private static boolean matches(final String string, final byte[] bytes, final int offset, final int length) {
+    if(string.length() != length) return false;
+    for(int i = 0; i < length; i++) {
+      if(string.charAt(i) != bytes[offset + i]) return false;
+    }
+    return true;
+  }
+
+  private static String decodeSlow(final byte[] bytes, final int offset, final int length, final int ascii) throws UTFDataFormatException {
+    final char[] chars = new char[length];
+    for(int i = 0; i < ascii; i++) {
+      chars[i] = (char) bytes[offset + i];
+    }
+    int count = ascii;
+    int i = ascii;
+    while(i < length) {
+      final int c = bytes[offset + i] & 0xff;
+      if(c < 0x80) {
+        chars[count++] = (char) c;
+        i++;
+      } else if((c & 0xe0) == 0xc0) {
+        if(i + 2 > length) throw new UTFDataFormatException("malformed input: partial character at end");
+        final int b1 = bytes[offset + i + 1];
+        if((b1 & 0xc0) != 0x80) throw new UTFDataFormatException("malformed input around byte " + (i + 1));
+        chars[count++] = (char) (((c & 0x1f) << 6) | (b1 & 0x3f));
+        i += 2;
+      } else if((c & 0xf0) == 0xe0) {
+        if(i + 3 > length) throw new UTFDataFormatException("malformed input: partial character at end");
+        final int b1 = bytes[offset + i + 1];
+        final int b2 = bytes[offset + i + 2];
+        if((b1 & 0xc0) != 0x80 || (b2 & 0xc0) != 0x80) throw new UTFDataFormatException("malformed input around byte " + (i + 2));
+        chars[count++] = (char) (((c & 0x0f) << 12) | ((b1 & 0x3f) << 6) | (b2 & 0x3f));
+        i += 3;
+      } else {
+        throw new UTFDataFormatException("malformed input around byte " + i);
+      }
+    }
+    return new String(chars, 0, count);
+  }
+
+  // a per-thread buffer for short strings, which is only used within a single read or write
+  private static byte[] scratch(final int length) {
+    return length <= SCRATCH_SIZE ? SCRATCH.get() : new byte[length];
+  }
+}
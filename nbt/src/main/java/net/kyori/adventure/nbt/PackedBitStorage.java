@@ -0,0 +1,351 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Fixed-width unsigned values packed into the {@code long}s of a {@link LongArrayBinaryTag}, as used for the block
+ * states and biomes of chunk sections.
+ *
+ * <p>Storage created from a tag shares the tag's array until it is first changed, and {@link #toTag()} shares the
+ * storage's array with the tag it creates, so neither copies unless a shared array is changed.</p>
+ *
+ * <p>Storage is not safe to use from multiple threads at once.</p>
+ */
+public final class PackedBitStorage {
+  private final int bits;
+  private final int size;
+  private final Layout layout;
+  private final long mask;
+  // for PADDED, the values in each long, and index / valuesPerLong as (index * divideMultiplier) >>> divideShift
+  private final int valuesPerLong;
+  private final long divideMultiplier;
+  private final int divideShift;
+  private long[] data;
+  private boolean shared;
+
+  private PackedBitStorage(final int bits, final int size, final Layout layout, final long[] data, final boolean shared) {
+    if(bits < 1 || bits > 32) throw new IllegalArgumentException("bits must be between 1 and 32: " + bits);
+    if(size < 0) throw new IllegalArgumentException("size must not be negative: " + size);
+    this.bits = bits;
+    this.size = size;
+    this.layout = layout;
+    this.mask = (1L << bits) - 1;
+    this.valuesPerLong = 64 / bits;
+    final int log = 32 - Integer.numberOfLeadingZeros(this.valuesPerLong - 1); // ceil(log2(valuesPerLong))
+    this.divideShift = 32 + log;
+    this.divideMultiplier = (1L << this.divideShift) / this.valuesPerLong + 1;
+    final int length = length(bits, size, layout);
+    final long[] array = data != null ? data : new long[length];
+    if(array.length != length) {
+      throw new IllegalArgumentException("Expected " + length + " longs for " + size + " values of " + bits + " bits in the " + layout + " layout, but got " + array.length);
+    }
+    this.data = array;
+    this.shared = shared;
+  }
+
+  /**
+   * Creates storage holding {@code size} zeros.
+   *
+   * @param bits the number of bits in each value, from {@code 1} to {@code 32}
+   * @param size the number of values
+   * @param layout the layout
+   * @return the storage
+   * @throws IllegalArgumentException if {@code bits} or {@code size} are out of range
+   */
+  public static @NonNull PackedBitStorage create(final int bits, final int size, final @NonNull Layout layout) {
+    return new PackedBitStorage(bits, size, layout, null, false);
+  }
+
+  /**
+   * Creates storage reading the values packed into {@code tag}.
+   *
+   * <p>The tag's array is not copied unless the storage is changed.</p>
+   *
+   * @param tag the tag
+   * @param bits the number of bits in each value, from {@code 1} to {@code 32}
+   * @param size the number of values
+   * @param layout the layout
+   * @return the storage
+   * @throws IllegalArgumentException if {@code bits} or {@code size} are out of range, or the tag does not have the
+   *     expected number of {@code long}s
+   */
+  public static @NonNull PackedBitStorage of(final @NonNull LongArrayBinaryTag tag, final int bits, final int size, final @NonNull Layout layout) {
+    return new PackedBitStorage(bits, size, layout, LongArrayBinaryTagImpl.value(tag), true);
+  }
+
+  /**
+   * Creates storage packing values into {@code data}, which is not copied.
+   *
+   * @param data the packed values
+   * @param bits the number of bits in each value, from {@code 1} to {@code 32}
+   * @param size the number of values
+   * @param layout the layout
+   * @return the storage
+   * @throws IllegalArgumentException if {@code bits} or {@code size} are out of range, or {@code data} does not have
+   *     the expected length
+   */
+  public static @NonNull PackedBitStorage wrap(final long@NonNull[] data, final int bits, final int size, final @NonNull Layout layout) {
+    return new PackedBitStorage(bits, size, layout, data, false);
+  }
+
+  /**
+   * Gets the number of {@code long}s needed to pack {@code size} values of {@code bits} bits.
+   *
+   * @param bits the number of bits in each value
+   * @param size the number of values
+   * @param layout the layout
+   * @return the number of {@code long}s
+   */
+  public static int length(final int bits, final int size, final @NonNull Layout layout) {
+    if(layout == Layout.SPANNING) return (int) (((long) size * bits + 63) >>> 6);
+    final int valuesPerLong = 64 / bits;
+    return (size + valuesPerLong - 1) / valuesPerLong;
+  }
+
+  /**
+   * Gets the number of bits in each value.
+   *
+   * @return the number of bits
+   */
+  public int bits() {
+    return this.bits;
+  }
+
+  /**
+   * Gets the number of values.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Gets the layout values are packed in.
+   *
+   * @return the layout
+   */
+  public @NonNull Layout layout() {
+    return this.layout;
+  }
+
+  /**
+   * Gets the value at {@code index}.
+   *
+   * @param index the index
+   * @return the value
+   * @throws IndexOutOfBoundsException if {@code index} is out of bounds
+   */
+  public int get(final int index) {
+    this.checkIndex(index);
+    if(this.layout == Layout.PADDED) {
+      final int word = this.word(index);
+      final int offset = (index - word * this.valuesPerLong) * this.bits;
+      return (int) ((this.data[word] >>> offset) & this.mask);
+    }
+    final long bit = (long) index * this.bits;
+    final int word = (int) (bit >>> 6);
+    final int offset = (int) (bit & 63);
+    long value = this.data[word] >>> offset;
+    if(offset + this.bits > 64) {
+      value |= this.data[word + 1] << (64 - offset);
+    }
+    return (int) (value & this.mask);
+  }
+
+  /**
+   * Sets the value at {@code index}.
+   *
+   * @param index the index
+   * @param value the value
+   * @throws IndexOutOfBoundsException if {@code index} is out of bounds
+   * @throws IllegalArgumentException if {@code value} does not fit in {@link #bits()} bits
+   */
+  public void set(final int index, final int value) {
+    this.checkIndex(index);
+    this.checkValue(value);
+    final long[] data = this.writable();
+    final long bits = value & this.mask;
+    if(this.layout == Layout.PADDED) {
+      final int word = this.word(index);
+      final int offset = (index - word * this.valuesPerLong) * this.bits;
+      data[word] = (data[word] & ~(this.mask << offset)) | (bits << offset);
+      return;
+    }
+    final long bit = (long) index * this.bits;
+    final int word = (int) (bit >>> 6);
+    final int offset = (int) (bit & 63);
+    data[word] = (data[word] & ~(this.mask << offset)) | (bits << offset);
+    if(offset + this.bits > 64) {
+      final int spill = 64 - offset;
+      data[word + 1] = (data[word + 1] & ~(this.mask >>> spill)) | (bits >>> spill);
+    }
+  }
+
+  /**
+   * Unpacks every value into a new array.
+   *
+   * @return the values
+   */
+  public int@NonNull[] unpack() {
+    final int[] values = new int[this.size];
+    this.unpack(values);
+    return values;
+  }
+
+  /**
+   * Unpacks every value into {@code destination}.
+   *
+   * @param destination the array to unpack into
+   * @throws IndexOutOfBoundsException if {@code destination} is shorter than {@link #size()}
+   */
+  public void unpack(final int@NonNull[] destination) {
+    if(destination.length < this.size) {
+      throw new IndexOutOfBoundsException("Cannot unpack " + this.size + " values into an array of length " + destination.length);
+    }
+    final long[] data = this.data;
+    final int bits = this.bits;
+    final long mask = this.mask;
+    if(this.layout == Layout.PADDED) {
+      int index = 0;
+      for(int word = 0; index < this.size; word++) {
+        long packed = data[word];
+        for(int i = 0, count = Math.min(this.valuesPerLong, this.size - index); i < count; i++) {
+          destination[index++] = (int) (packed & mask);
+          packed >>>= bits;
+        }
+      }
+      return;
+    }
+    // a window of up to 64 bits, topped up a long at a time
+    int word = 0;
+    long window = 0;
+    int available = 0;
+    for(int index = 0; index < this.size; index++) {
+      if(available >= bits) {
+        destination[index] = (int) (window & mask);
+        window >>>= bits;
+        available -= bits;
+      } else {
+        final long next = data[word++];
+        destination[index] = (int) ((window | (next << available)) & mask);
+        window = next >>> (bits - available);
+        available += 64 - bits;
+      }
+    }
+  }
+
+  /**
+   * Replaces every value with those in {@code source}.
+   *
+   * @param source the values
+   * @throws IllegalArgumentException if {@code source} is not {@link #size()} long, or a value does not fit in
+   *     {@link #bits()} bits
+   */
+  public void pack(final int@NonNull[] source) {
+    if(source.length != this.size) {
+      throw new IllegalArgumentException("Expected " + this.size + " values, but got " + source.length);
+    }
+    for(final int value : source) {
+      this.checkValue(value);
+    }
+    final long[] data = this.writable();
+    final int bits = this.bits;
+    if(this.layout == Layout.PADDED) {
+      int index = 0;
+      for(int word = 0; word < data.length; word++) {
+        long packed = 0;
+        final int count = Math.min(this.valuesPerLong, this.size - index);
+        for(int i = 0; i < count; i++) {
+          packed |= (source[index++] & this.mask) << (i * bits);
+        }
+        data[word] = packed;
+      }
+      return;
+    }
+    int word = 0;
+    long window = 0;
+    int used = 0;
+    for(int index = 0; index < this.size; index++) {
+      final long value = source[index] & this.mask;
+      window |= value << used;
+      used += bits;
+      if(used >= 64) {
+        data[word++] = window;
+        used -= 64;
+        window = used == 0 ? 0 : value >>> (bits - used);
+      }
+    }
+    if(used > 0) data[word] = window;
+  }
+
+  /**
+   * Creates a tag holding the packed values.
+   *
+   * <p>The tag shares this storage's array, which is copied if the storage is changed afterwards.</p>
+   *
+   * @return a tag
+   */
+  public @NonNull LongArrayBinaryTag toTag() {
+    this.shared = true;
+    return LongArrayBinaryTagImpl.wrap(this.data);
+  }
+
+  private long[] writable() {
+    if(this.shared) {
+      this.data = this.data.clone();
+      this.shared = false;
+    }
+    return this.data;
+  }
+
+  private int word(final int index) {
+    return (int) ((index * this.divideMultiplier) >>> this.divideShift);
+  }
+
+  private void checkIndex(final int index) {
+    if(index < 0 || index >= this.size) throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + this.size + " values");
+  }
+
+  private void checkValue(final int value) {
+    if(this.bits < 32 && (value >>> this.bits) != 0) throw new IllegalArgumentException("Value " + value + " does not fit in " + this.bits + " bits");
+  }
+
+  /**
+   * How values are packed into {@code long}s.
+   */
+  public enum Layout {
+    /**
+     * Values are packed end to end, so a value may be split across two {@code long}s. Used before Minecraft 1.16.
+     */
+    SPANNING,
+    /**
+     * As many whole values as fit are packed into each {@code long}, leaving any remaining bits unused. Used since
+     * Minecraft 1.16.
+     */
+    PADDED;
+  }
+}
@@ -0,0 +1,675 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The elements of a list of numeric tags, stored in a primitive array.
+ *
+ * <p>Elements are only boxed into tags when accessed through {@link #get(int)}. Equality and hash codes
+ * are consistent with any other {@link List} of the same tags.</p>
+ *
+ * <p>A list may use only the first {@link #size()} elements of its array. Appending grows the array with room to
+ * spare, and lists over the same array share a count of how much of it has been claimed, so that appending to the
+ * newest list can fill the next free slot in place. Each list only ever reads its own elements, so this is
+ * invisible from outside, and building a list through repeated appends costs amortized constant time per element.</p>
+ */
+/* package */ abstract class PrimitiveTagList extends AbstractList<BinaryTag> implements RandomAccess {
+  /* package */ final int size;
+  // how much of the array has been claimed by the lists sharing it, or null if it has no room to spare
+  private final @Nullable AtomicInteger claimed;
+
+  /* package */ PrimitiveTagList(final int size, final @Nullable AtomicInteger claimed) {
+    this.size = size;
+    this.claimed = claimed;
+  }
+
+  /**
+   * Stores {@code tags} in a primitive array, if they are all numeric tags of type {@code type}.
+   *
+   * @param type the element type
+   * @param tags the tags
+   * @return the primitive list, or {@code tags}
+   */
+  /* package */ static List<? extends BinaryTag> pack(final BinaryTagType<? extends BinaryTag> type, final List<? extends BinaryTag> tags) {
+    final int size = tags.size();
+    if(size == 0 || !type.numeric() || tags instanceof PrimitiveTagList) return tags;
+    for(int i = 0; i < size; i++) {
+      if(tags.get(i).type() != type) return tags;
+    }
+    switch(type.id()) {
+      case 1: {
+        final byte[] values = new byte[size];
+        for(int i = 0; i < size; i++) values[i] = ((ByteBinaryTag) tags.get(i)).value();
+        return new Bytes(values);
+      }
+      case 2: {
+        final short[] values = new short[size];
+        for(int i = 0; i < size; i++) values[i] = ((ShortBinaryTag) tags.get(i)).value();
+        return new Shorts(values);
+      }
+      case 3: {
+        final int[] values = new int[size];
+        for(int i = 0; i < size; i++) values[i] = ((IntBinaryTag) tags.get(i)).value();
+        return new Ints(values);
+      }
+      case 4: {
+        final long[] values = new long[size];
+        for(int i = 0; i < size; i++) values[i] = ((LongBinaryTag) tags.get(i)).value();
+        return new Longs(values);
+      }
+      case 5: {
+        final float[] values = new float[size];
+        for(int i = 0; i < size; i++) values[i] = ((FloatBinaryTag) tags.get(i)).value();
+        return new Floats(values);
+      }
+      case 6: {
+        final double[] values = new double[size];
+        for(int i = 0; i < size; i++) values[i] = ((DoubleBinaryTag) tags.get(i)).value();
+        return new Doubles(values);
+      }
+      default: return tags;
+    }
+  }
+
+  /**
+   * Reads {@code length} elements of type {@code type} straight into a primitive array.
+   *
+   * @param type the element type
+   * @param length the number of elements
+   * @param input the input
+   * @return the primitive list, or {@code null} if {@code type} is not numeric
+   * @throws IOException if an exception was encountered while reading
+   */
+  /* package */ static @Nullable PrimitiveTagList read(final BinaryTagType<? extends BinaryTag> type, final int length, final DataInput input) throws IOException {
+    switch(type.id()) {
+      case 1: {
+        final byte[] values = new byte[length];
+        input.readFully(values);
+        return new Bytes(values);
+      }
+      case 2: {
+        final short[] values = new short[length];
+        for(int i = 0; i < length; i++) values[i] = input.readShort();
+        return new Shorts(values);
+      }
+      case 3: {
+        final int[] values = new int[length];
+        ByteBufferDataInput.readFully(input, values);
+        return new Ints(values);
+      }
+      case 4: {
+        final long[] values = new long[length];
+        ByteBufferDataInput.readFully(input, values);
+        return new Longs(values);
+      }
+      case 5: {
+        final float[] values = new float[length];
+        for(int i = 0; i < length; i++) values[i] = input.readFloat();
+        return new Floats(values);
+      }
+      case 6: {
+        final double[] values = new double[length];
+        for(int i = 0; i < length; i++) values[i] = input.readDouble();
+        return new Doubles(values);
+      }
+      default: return null;
+    }
+  }
+
+  /**
+   * Writes the elements, without a type or length prefix.
+   *
+   * @param output the output
+   * @throws IOException if an exception was encountered while writing
+   */
+  /* package */ abstract void write(final DataOutput output) throws IOException;
+
+  /**
+   * Gets a list with the element at {@code index} replaced by {@code tag}, which must be of this list's type.
+   *
+   * @param index the index
+   * @param tag the tag
+   * @return a list
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  /* package */ final PrimitiveTagList with(final int index, final BinaryTag tag) {
+    this.check(index);
+    final Object values = this.copy(this.size);
+    this.store(values, index, tag);
+    return this.create(values, this.size, null);
+  }
+
+  /**
+   * Gets a list with {@code tag}, which must be of this list's type, appended.
+   *
+   * @param tag the tag
+   * @return a list
+   */
+  /* package */ final PrimitiveTagList plus(final BinaryTag tag) {
+    final int size = this.size;
+    // the next slot is free unless another list over the same array has already appended into it
+    if(this.claimed != null && size < this.capacity() && this.claimed.compareAndSet(size, size + 1)) {
+      this.store(this.values(), size, tag);
+      return this.create(this.values(), size + 1, this.claimed);
+    }
+    final Object values = this.copy(size + (size >> 1) + 1);
+    this.store(values, size, tag);
+    return this.create(values, size + 1, new AtomicInteger(size + 1));
+  }
+
+  /**
+   * Gets a list with the element at {@code index} removed.
+   *
+   * @param index the index
+   * @return a list
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  /* package */ final PrimitiveTagList minus(final int index) {
+    this.check(index);
+    final int size = this.size;
+    final Object values = this.newArray(size - 1);
+    System.arraycopy(this.values(), 0, values, 0, index);
+    System.arraycopy(this.values(), index + 1, values, index, size - 1 - index);
+    return this.create(values, size - 1, null);
+  }
+
+  @Override
+  public final int size() {
+    return this.size;
+  }
+
+  // the array may be longer than the list
+  /* package */ final int check(final int index) {
+    if(index < 0 || index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    return index;
+  }
+
+  private Object copy(final int length) {
+    final Object values = this.newArray(length);
+    System.arraycopy(this.values(), 0, values, 0, Math.min(length, this.size));
+    return values;
+  }
+
+  /**
+   * Gets the backing array, of which only the first {@link #size()} elements belong to this list.
+   *
+   * @return the array
+   */
+  /* package */ abstract Object values();
+
+  /* package */ abstract int capacity();
+
+  /* package */ abstract Object newArray(final int length);
+
+  /* package */ abstract void store(final Object values, final int index, final BinaryTag tag);
+
+  /* package */ abstract PrimitiveTagList create(final Object values, final int size, final @Nullable AtomicInteger claimed);
+
+  /* package */ static final class Bytes extends PrimitiveTagList {
+    private final byte[] values;
+
+    /* package */ Bytes(final byte[] values) {
+      this(values, values.length, null);
+    }
+
+    private Bytes(final byte[] values, final int size, final @Nullable AtomicInteger claimed) {
+      super(size, claimed);
+      this.values = values;
+    }
+
+    /* package */ byte value(final int index) {
+      return this.values[this.check(index)];
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return ByteBinaryTag.of(this.value(index));
+    }
+
+    @Override
+    /* package */ void write(final DataOutput output) throws IOException {
+      output.write(this.values, 0, this.size);
+    }
+
+    @Override
+    /* package */ Object values() {
+      return this.values;
+    }
+
+    @Override
+    /* package */ int capacity() {
+      return this.values.length;
+    }
+
+    @Override
+    /* package */ Object newArray(final int length) {
+      return new byte[length];
+    }
+
+    @Override
+    /* package */ void store(final Object values, final int index, final BinaryTag tag) {
+      ((byte[]) values)[index] = ((ByteBinaryTag) tag).value();
+    }
+
+    @Override
+    /* package */ PrimitiveTagList create(final Object values, final int size, final @Nullable AtomicInteger claimed) {
+      return new Bytes((byte[]) values, size, claimed);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      if(!(that instanceof Bytes)) return super.equals(that);
+      final Bytes other = (Bytes) that;
+      if(this.size != other.size) return false;
+      for(int i = 0; i < this.size; i++) {
+        if(this.values[i] != other.values[i]) return false;
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      // as Arrays.hashCode, over the elements of this list only
+      int hashCode = 1;
+      for(int i = 0; i < this.size; i++) {
+        hashCode = 31 * hashCode + this.values[i];
+      }
+      return hashCode;
+    }
+  }
+
+  /* package */ static final class Shorts extends PrimitiveTagList {
+    private final short[] values;
+
+    /* package */ Shorts(final short[] values) {
+      this(values, values.length, null);
+    }
+
+    private Shorts(final short[] values, final int size, final @Nullable AtomicInteger claimed) {
+      super(size, claimed);
+      this.values = values;
+    }
+
+    /* package */ short value(final int index) {
+      return this.values[this.check(index)];
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return ShortBinaryTag.of(this.value(index));
+    }
+
+    @Override
+    /* package */ void write(final DataOutput output) throws IOException {
+      for(int i = 0; i < this.size; i++) output.writeShort(this.values[i]);
+    }
+
+    @Override
+    /* package */ Object values() {
+      return this.values;
+    }
+
+    @Override
+    /* package */ int capacity() {
+      return this.values.length;
+    }
+
+    @Override
+    /* package */ Object newArray(final int length) {
+      return new short[length];
+    }
+
+    @Override
+    /* package */ void store(final Object values, final int index, final BinaryTag tag) {
+      ((short[]) values)[index] = ((ShortBinaryTag) tag).value();
+    }
+
+    @Override
+    /* package */ PrimitiveTagList create(final Object values, final int size, final @Nullable AtomicInteger claimed) {
+      return new Shorts((short[]) values, size, claimed);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      if(!(that instanceof Shorts)) return super.equals(that);
+      final Shorts other = (Shorts) that;
+      if(this.size != other.size) return false;
+      for(int i = 0; i < this.size; i++) {
+        if(this.values[i] != other.values[i]) return false;
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      // as Arrays.hashCode, over the elements of this list only
+      int hashCode = 1;
+      for(int i = 0; i < this.size; i++) {
+        hashCode = 31 * hashCode + this.values[i];
+      }
+      return hashCode;
+    }
+  }
+
+  /* package */ static final class Ints extends PrimitiveTagList {
+    private final int[] values;
+
+    /* package */ Ints(final int[] values) {
+      this(values, values.length, null);
+    }
+
+    private Ints(final int[] values, final int size, final @Nullable AtomicInteger claimed) {
+      super(size, claimed);
+      this.values = values;
+    }
+
+    /* package */ int value(final int index) {
+      return this.values[this.check(index)];
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return IntBinaryTag.of(this.value(index));
+    }
+
+    @Override
+    /* package */ void write(final DataOutput output) throws IOException {
+      ByteBufferDataOutput.write(output, this.values, this.size);
+    }
+
+    @Override
+    /* package */ Object values() {
+      return this.values;
+    }
+
+    @Override
+    /* package */ int capacity() {
+      return this.values.length;
+    }
+
+    @Override
+    /* package */ Object newArray(final int length) {
+      return new int[length];
+    }
+
+    @Override
+    /* package */ void store(final Object values, final int index, final BinaryTag tag) {
+      ((int[]) values)[index] = ((IntBinaryTag) tag).value();
+    }
+
+    @Override
+    /* package */ PrimitiveTagList create(final Object values, final int size, final @Nullable AtomicInteger claimed) {
+      return new Ints((int[]) values, size, claimed);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      if(!(that instanceof Ints)) return super.equals(that);
+      final Ints other = (Ints) that;
+      if(this.size != other.size) return false;
+      for(int i = 0; i < this.size; i++) {
+        if(this.values[i] != other.values[i]) return false;
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      // as Arrays.hashCode, over the elements of this list only
+      int hashCode = 1;
+      for(int i = 0; i < this.size; i++) {
+        hashCode = 31 * hashCode + this.values[i];
+      }
+      return hashCode;
+    }
+  }
+
+  /* package */ static final class Longs extends PrimitiveTagList {
+    private final long[] values;
+
+    /* package */ Longs(final long[] values) {
+      this(values, values.length, null);
+    }
+
+    private Longs(final long[] values, final int size, final @Nullable AtomicInteger claimed) {
+      super(size, claimed);
+      this.values = values;
+    }
+
+    /* package */ long value(final int index) {
+      return this.values[this.check(index)];
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return LongBinaryTag.of(this.value(index));
+    }
+
+    @Override
+    /* package */ void write(final DataOutput output) throws IOException {
+      ByteBufferDataOutput.write(output, this.values, this.size);
+    }
+
+    @Override
+    /* package */ Object values() {
+      return this.values;
+    }
+
+    @Override
+    /* package */ int capacity() {
+      return this.values.length;
+    }
+
+    @Override
+    /* package */ Object newArray(final int length) {
+      return new long[length];
+    }
+
+    @Override
+    /* package */ void store(final Object values, final int index, final BinaryTag tag) {
+      ((long[]) values)[index] = ((LongBinaryTag) tag).value();
+    }
+
+    @Override
+    /* package */ PrimitiveTagList create(final Object values, final int size, final @Nullable AtomicInteger claimed) {
+      return new Longs((long[]) values, size, claimed);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      if(!(that instanceof Longs)) return super.equals(that);
+      final Longs other = (Longs) that;
+      if(this.size != other.size) return false;
+      for(int i = 0; i < this.size; i++) {
+        if(this.values[i] != other.values[i]) return false;
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      // as Arrays.hashCode, over the elements of this list only
+      int hashCode = 1;
+      for(int i = 0; i < this.size; i++) {
+        hashCode = 31 * hashCode + Long.hashCode(this.values[i]);
+      }
+      return hashCode;
+    }
+  }
+
+  /* package */ static final class Floats extends PrimitiveTagList {
+    private final float[] values;
+
+    /* package */ Floats(final float[] values) {
+      this(values, values.length, null);
+    }
+
+    private Floats(final float[] values, final int size, final @Nullable AtomicInteger claimed) {
+      super(size, claimed);
+      this.values = values;
+    }
+
+    /* package */ float value(final int index) {
+      return this.values[this.check(index)];
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return FloatBinaryTag.of(this.value(index));
+    }
+
+    @Override
+    /* package */ void write(final DataOutput output) throws IOException {
+      for(int i = 0; i < this.size; i++) output.writeFloat(this.values[i]);
+    }
+
+    @Override
+    /* package */ Object values() {
+      return this.values;
+    }
+
+    @Override
+    /* package */ int capacity() {
+      return this.values.length;
+    }
+
+    @Override
+    /* package */ Object newArray(final int length) {
+      return new float[length];
+    }
+
+    @Override
+    /* package */ void store(final Object values, final int index, final BinaryTag tag) {
+      ((float[]) values)[index] = ((FloatBinaryTag) tag).value();
+    }
+
+    @Override
+    /* package */ PrimitiveTagList create(final Object values, final int size, final @Nullable AtomicInteger claimed) {
+      return new Floats((float[]) values, size, claimed);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      if(!(that instanceof Floats)) return super.equals(that);
+      final Floats other = (Floats) that;
+      if(this.size != other.size) return false;
+      for(int i = 0; i < this.size; i++) {
+        if(Float.floatToIntBits(this.values[i]) != Float.floatToIntBits(other.values[i])) return false;
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      // as Arrays.hashCode, over the elements of this list only
+      int hashCode = 1;
+      for(int i = 0; i < this.size; i++) {
+        hashCode = 31 * hashCode + Float.hashCode(this.values[i]);
+      }
+      return hashCode;
+    }
+  }
+
+  /* package */ static final class Doubles extends PrimitiveTagList {
+    private final double[] values;
+
+    /* package */ Doubles(final double[] values) {
+      this(values, values.length, null);
+    }
+
+    private Doubles(final double[] values, final int size, final @Nullable AtomicInteger claimed) {
+      super(size, claimed);
+      this.values = values;
+    }
+
+    /* package */ double value(final int index) {
+      return this.values[this.check(index)];
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return DoubleBinaryTag.of(this.value(index));
+    }
+
+    @Override
+    /* package */ void write(final DataOutput output) throws IOException {
+      for(int i = 0; i < this.size; i++) output.writeDouble(this.values[i]);
+    }
+
+    @Override
+    /* package */ Object values() {
+      return this.values;
+    }
+
+    @Override
+    /* package */ int capacity() {
+      return this.values.length;
+    }
+
+    @Override
+    /* package */ Object newArray(final int length) {
+      return new double[length];
+    }
+
+    @Override
+    /* package */ void store(final Object values, final int index, final BinaryTag tag) {
+      ((double[]) values)[index] = ((DoubleBinaryTag) tag).value();
+    }
+
+    @Override
+    /* package */ PrimitiveTagList create(final Object values, final int size, final @Nullable AtomicInteger claimed) {
+      return new Doubles((double[]) values, size, claimed);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      if(!(that instanceof Doubles)) return super.equals(that);
+      final Doubles other = (Doubles) that;
+      if(this.size != other.size) return false;
+      for(int i = 0; i < this.size; i++) {
+        if(Double.doubleToLongBits(this.values[i]) != Double.doubleToLongBits(other.values[i])) return false;
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      // as Arrays.hashCode, over the elements of this list only
+      int hashCode = 1;
+      for(int i = 0; i < this.size; i++) {
+        hashCode = 31 * hashCode + Double.hashCode(this.values[i]);
+      }
+      return hashCode;
+    }
+  }
+}
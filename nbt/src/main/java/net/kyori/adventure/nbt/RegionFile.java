@@ -0,0 +1,174 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A read-only view of a region file, as used by the Anvil world format.
+ *
+ * <p>The file is memory-mapped when opened. Chunks are located through the offset table in the
+ * file header and decoded on demand, straight from the mapped region - no chunk is copied into an
+ * intermediate array. Reads may be performed concurrently from multiple threads.</p>
+ *
+ * <p>Chunks are addressed by their coordinates within the region, from {@code 0} to {@code 31} on each
+ * axis. Absolute chunk coordinates are also accepted, and are reduced to region coordinates.</p>
+ */
+public final class RegionFile implements Closeable {
+  /**
+   * The number of chunks along each axis of a region.
+   */
+  public static final int REGION_SIZE = 32;
+  private static final int SECTOR_SIZE = 4096;
+  private static final int CHUNKS = REGION_SIZE * REGION_SIZE;
+  private static final int COMPRESSION_GZIP = 1;
+  private static final int COMPRESSION_ZLIB = 2;
+  private static final int COMPRESSION_NONE = 3;
+  private static final int COMPRESSION_EXTERNAL = 0x80;
+  private final Path path;
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int[] locations = new int[CHUNKS];
+  private final int[] timestamps = new int[CHUNKS];
+
+  static {
+    BinaryTagTypes.COMPOUND.id(); // initialize tag types
+  }
+
+  private RegionFile(final Path path, final FileChannel channel, final ByteBuffer buffer) throws IOException {
+    this.path = path;
+    this.channel = channel;
+    this.buffer = buffer;
+    if(buffer.capacity() < SECTOR_SIZE * 2) {
+      throw new IOException("Region file " + path + " is too small to contain a header");
+    }
+    buffer.asIntBuffer().get(this.locations).get(this.timestamps);
+  }
+
+  /**
+   * Opens a region file.
+   *
+   * @param path the path
+   * @return the region file
+   * @throws IOException if an exception was encountered while opening the region file
+   */
+  public static @NonNull RegionFile open(final @NonNull Path path) throws IOException {
+    final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+      return new RegionFile(path, channel, buffer);
+    } catch(final IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Checks if a chunk is present in this region.
+   *
+   * @param x the chunk x coordinate
+   * @param z the chunk z coordinate
+   * @return {@code true} if the chunk is present
+   */
+  public boolean hasChunk(final int x, final int z) {
+    return this.locations[index(x, z)] != 0;
+  }
+
+  /**
+   * Gets the time a chunk was last saved.
+   *
+   * @param x the chunk x coordinate
+   * @param z the chunk z coordinate
+   * @return the timestamp in seconds since the epoch, or {@code 0} if the chunk is not present
+   */
+  public int timestamp(final int x, final int z) {
+    return this.timestamps[index(x, z)];
+  }
+
+  /**
+   * Reads a chunk.
+   *
+   * @param x the chunk x coordinate
+   * @param z the chunk z coordinate
+   * @return the chunk, or {@code null} if the chunk is not present
+   * @throws IOException if an exception was encountered while reading the chunk
+   */
+  public @Nullable CompoundBinaryTag readChunk(final int x, final int z) throws IOException {
+    final int location = this.locations[index(x, z)];
+    if(location == 0) return null;
+    final long offset = (long) (location >>> 8) * SECTOR_SIZE;
+    if(offset < SECTOR_SIZE * 2 || offset >= this.buffer.capacity()) {
+      throw new IOException(String.format("Chunk %d, %d in %s has an invalid location", x & 31, z & 31, this.path));
+    }
+    final ByteBuffer chunk = this.buffer.duplicate();
+    chunk.position((int) offset);
+    if(chunk.remaining() < 5) {
+      throw new IOException(String.format("Chunk %d, %d in %s is truncated", x & 31, z & 31, this.path));
+    }
+    final int length = chunk.getInt() - 1; // includes the compression byte
+    final int compression = chunk.get() & 0xff;
+    if(length < 0 || length > chunk.remaining()) {
+      throw new IOException(String.format("Chunk %d, %d in %s has an invalid length of %d bytes", x & 31, z & 31, this.path, length));
+    }
+    chunk.limit(chunk.position() + length);
+    if(compression == COMPRESSION_NONE) {
+      return BinaryTagIO.readByteBuffer(chunk);
+    } else if(compression == COMPRESSION_ZLIB || compression == COMPRESSION_GZIP) {
+      final InputStream raw = IOStreamUtil.inputStream(chunk);
+      try(final DataInputStream input = new DataInputStream(new BufferedInputStream((compression == COMPRESSION_GZIP ? Compression.gzip() : Compression.zlib()).decompress(raw)))) {
+        return BinaryTagIO.readDataInput(input);
+      }
+    } else if((compression & COMPRESSION_EXTERNAL) != 0) {
+      throw new IOException(String.format("Chunk %d, %d in %s is stored in an external file, which is not supported", x & 31, z & 31, this.path));
+    }
+    throw new IOException(String.format("Chunk %d, %d in %s has unknown compression type %d", x & 31, z & 31, this.path, compression));
+  }
+
+  /**
+   * Closes the underlying file.
+   *
+   * <p>The mapping of the file is released once this region file is no longer reachable.</p>
+   *
+   * @throws IOException if an exception was encountered while closing the file
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  private static int index(final int x, final int z) {
+    return (x & (REGION_SIZE - 1)) + (z & (REGION_SIZE - 1)) * REGION_SIZE;
+  }
+}
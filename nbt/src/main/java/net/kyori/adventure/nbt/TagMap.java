@@ -0,0 +1,650 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * An immutable map of tags.
+ *
+ * <p>Maps of up to {@link #FLAT_MAX} entries, which most compounds are, are stored as a single array of
+ * alternating keys and values in insertion order, and are searched linearly. Larger maps are stored in a
+ * hash array mapped trie: {@link #with(String, BinaryTag)} and {@link #without(String)} return a new map
+ * which shares all but the path to the changed entry with this map, so modifying a map costs
+ * {@code O(log n)} rather than a copy of every entry.</p>
+ *
+ * <p>The hash code is computed when first requested, so that building a map does not visit every value. In
+ * particular, this leaves compounds read lazily by {@link EncodedCompound} undecoded.</p>
+ */
+/* package */ final class TagMap extends AbstractMap<String, BinaryTag> {
+  /* package */ static final int FLAT_MAX = 8;
+  /* package */ static final TagMap EMPTY = new TagMap(new Object[0], null, 0);
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS + 1;
+  private final Object @Nullable[] entries;
+  private final @Nullable BitmapNode root;
+  private final int size;
+  private int hashCode; // computed lazily
+  private @Nullable Set<Entry<String, BinaryTag>> entrySet;
+
+  // exactly one of entries and root is set
+  private TagMap(final Object @Nullable[] entries, final @Nullable BitmapNode root, final int size) {
+    this.entries = entries;
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Creates a map containing the entries of {@code map}.
+   *
+   * @param map the map
+   * @return a tag map
+   */
+  /* package */ static TagMap copyOf(final Map<String, ? extends BinaryTag> map) {
+    if(map instanceof TagMap) return (TagMap) map;
+    final int size = map.size();
+    final String[] keys = new String[size];
+    final BinaryTag[] values = new BinaryTag[size];
+    int i = 0;
+    for(final Entry<String, ? extends BinaryTag> entry : map.entrySet()) {
+      keys[i] = entry.getKey();
+      values[i] = entry.getValue();
+      i++;
+    }
+    return of(keys, values, size);
+  }
+
+  /**
+   * Creates a map of the first {@code count} keys and values. If a key occurs more than once, the last value is kept.
+   *
+   * <p>The arrays are reordered.</p>
+   *
+   * @param keys the keys
+   * @param values the values
+   * @param count the number of entries
+   * @return a tag map
+   */
+  /* package */ static TagMap of(final String[] keys, final BinaryTag[] values, final int count) {
+    if(count == 0) return EMPTY;
+    if(count <= FLAT_MAX) return flat(keys, values, count);
+    final TrieBuilder builder = new TrieBuilder(keys, values, count);
+    final BitmapNode root = (BitmapNode) builder.build(0, 0, count);
+    if(builder.size <= FLAT_MAX) return flat(new EntryIterator(root.array), builder.size);
+    return new TagMap(null, root, builder.size);
+  }
+
+  private static TagMap flat(final String[] keys, final BinaryTag[] values, final int count) {
+    final Object[] entries = new Object[count << 1];
+    int length = 0;
+    search: for(int i = 0; i < count; i++) {
+      for(int j = 0; j < length; j += 2) {
+        if(keys[i].equals(entries[j])) {
+          entries[j + 1] = values[i];
+          continue search;
+        }
+      }
+      entries[length] = keys[i];
+      entries[length + 1] = values[i];
+      length += 2;
+    }
+    return new TagMap(length == entries.length ? entries : Arrays.copyOf(entries, length), null, length >> 1);
+  }
+
+  private static TagMap flat(final EntryIterator iterator, final int size) {
+    final String[] keys = new String[size];
+    final BinaryTag[] values = new BinaryTag[size];
+    for(int i = 0; i < size; i++, iterator.skip()) {
+      keys[i] = iterator.key();
+      values[i] = iterator.value();
+    }
+    return flat(keys, values, size);
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return this.get(key) != null;
+  }
+
+  @Override
+  public @Nullable BinaryTag get(final Object key) {
+    if(!(key instanceof String)) return null;
+    if(this.entries != null) {
+      final Object[] entries = this.entries;
+      for(int i = 0; i < entries.length; i += 2) {
+        if(key.equals(entries[i])) return (BinaryTag) entries[i + 1];
+      }
+      return null;
+    }
+    final int hash = key.hashCode();
+    Node node = this.root;
+    int shift = 0;
+    while(node instanceof BitmapNode) {
+      final BitmapNode bitmapNode = (BitmapNode) node;
+      final int bit = bit(hash, shift);
+      if((bitmapNode.bitmap & bit) == 0) return null;
+      final int index = bitmapNode.index(bit);
+      final Object k = bitmapNode.array[index];
+      if(k != null) {
+        return key.equals(k) ? (BinaryTag) bitmapNode.array[index + 1] : null;
+      }
+      node = (Node) bitmapNode.array[index + 1];
+      shift += BITS;
+    }
+    final Object[] array = node.array;
+    for(int i = 0; i < array.length; i += 2) {
+      if(key.equals(array[i])) return (BinaryTag) array[i + 1];
+    }
+    return null;
+  }
+
+  /**
+   * Gets a map with {@code key} mapped to {@code value}.
+   *
+   * @param key the key
+   * @param value the value
+   * @return a map, or this map if {@code key} is already mapped to {@code value}
+   */
+  /* package */ TagMap with(final String key, final BinaryTag value) {
+    if(this.entries != null) {
+      return this.withFlat(key, value, this.entries);
+    }
+    final Change change = new Change();
+    final BitmapNode root = (BitmapNode) (this.root).put(0, key.hashCode(), key, value, change);
+    if(root == this.root) return this;
+    return new TagMap(null, root, change.previous == null ? this.size + 1 : this.size);
+  }
+
+  private TagMap withFlat(final String key, final BinaryTag value, final Object[] entries) {
+    for(int i = 0; i < entries.length; i += 2) {
+      if(key.equals(entries[i])) {
+        final BinaryTag previous = (BinaryTag) entries[i + 1];
+        if(previous == value) return this;
+        final Object[] copy = entries.clone();
+        copy[i + 1] = value;
+        return new TagMap(copy, null, this.size);
+      }
+    }
+    if(this.size < FLAT_MAX) {
+      final Object[] copy = Arrays.copyOf(entries, entries.length + 2);
+      copy[entries.length] = key;
+      copy[entries.length + 1] = value;
+      return new TagMap(copy, null, this.size + 1);
+    }
+    // too large to stay flat
+    final String[] keys = new String[this.size + 1];
+    final BinaryTag[] values = new BinaryTag[this.size + 1];
+    for(int i = 0; i < this.size; i++) {
+      keys[i] = (String) entries[i << 1];
+      values[i] = (BinaryTag) entries[(i << 1) + 1];
+    }
+    keys[this.size] = key;
+    values[this.size] = value;
+    return of(keys, values, this.size + 1);
+  }
+
+  /**
+   * Gets a map without a mapping for {@code key}.
+   *
+   * @param key the key
+   * @return a map, or this map if {@code key} is not mapped
+   */
+  /* package */ TagMap without(final String key) {
+    if(this.entries != null) {
+      final Object[] entries = this.entries;
+      for(int i = 0; i < entries.length; i += 2) {
+        if(key.equals(entries[i])) {
+          if(this.size == 1) return EMPTY;
+          final Object[] copy = new Object[entries.length - 2];
+          System.arraycopy(entries, 0, copy, 0, i);
+          System.arraycopy(entries, i + 2, copy, i, copy.length - i);
+          return new TagMap(copy, null, this.size - 1);
+        }
+      }
+      return this;
+    }
+    final Change change = new Change();
+    final Node root = (this.root).remove(0, key.hashCode(), key, change);
+    if(change.previous == null) return this;
+    if(this.size - 1 <= FLAT_MAX) return flat(new EntryIterator(root.array), this.size - 1);
+    return new TagMap(null, (BitmapNode) root, this.size - 1);
+  }
+
+  @Override
+  public Set<Entry<String, BinaryTag>> entrySet() {
+    if(this.entrySet == null) {
+      this.entrySet = new AbstractSet<Entry<String, BinaryTag>>() {
+        @Override
+        public Iterator<Entry<String, BinaryTag>> iterator() {
+          return TagMap.this.entryIterator();
+        }
+
+        @Override
+        public int size() {
+          return TagMap.this.size;
+        }
+      };
+    }
+    return this.entrySet;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if(this == other) return true;
+    if(other instanceof TagMap) {
+      // only compare hashes that are already known, as computing them visits every value
+      final int hashCode = ((TagMap) other).hashCode;
+      if(this.hashCode != 0 && hashCode != 0 && this.hashCode != hashCode) return false;
+    }
+    return super.equals(other);
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = this.hashCode;
+    if(hashCode == 0) {
+      for(final EntryIterator it = this.entryIterator(); it.hasNext(); it.skip()) {
+        hashCode += it.key().hashCode() ^ it.value().hashCode();
+      }
+      this.hashCode = hashCode;
+    }
+    return hashCode;
+  }
+
+  private static int bit(final int hash, final int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  // A pair of entries which share a node
+  private static Node pair(final int shift, final String key0, final BinaryTag value0, final int hash1, final String key1, final BinaryTag value1) {
+    final int hash0 = key0.hashCode();
+    if(hash0 == hash1) {
+      return new CollisionNode(hash0, new Object[]{key0, value0, key1, value1});
+    }
+    final int bit0 = bit(hash0, shift);
+    final int bit1 = bit(hash1, shift);
+    if(bit0 == bit1) {
+      return new BitmapNode(bit0, new Object[]{null, pair(shift + BITS, key0, value0, hash1, key1, value1)});
+    }
+    return new BitmapNode(bit0 | bit1, Integer.compareUnsigned(bit0, bit1) < 0 ? new Object[]{key0, value0, key1, value1} : new Object[]{key1, value1, key0, value0});
+  }
+
+  /* package */ EntryIterator entryIterator() {
+    return new EntryIterator(this.entries != null ? this.entries : this.root.array);
+  }
+
+  /**
+   * Collects entries in order, deferring all hashing until the map is built.
+   */
+  /* package */ static final class Accumulator {
+    private String[] keys = new String[FLAT_MAX];
+    private BinaryTag[] values = new BinaryTag[FLAT_MAX];
+    private int count;
+
+    /* package */ void add(final String key, final BinaryTag value) {
+      if(this.count == this.keys.length) {
+        this.keys = Arrays.copyOf(this.keys, this.count << 1);
+        this.values = Arrays.copyOf(this.values, this.count << 1);
+      }
+      this.keys[this.count] = key;
+      this.values[this.count] = value;
+      this.count++;
+    }
+
+    /* package */ TagMap build() {
+      return of(this.keys, this.values, this.count);
+    }
+  }
+
+  private static final class Change {
+    @Nullable BinaryTag previous;
+  }
+
+  /**
+   * A node, holding pairs of elements in {@link #array}.
+   *
+   * <p>Each pair is either a key and its value, or {@code null} and a child node.</p>
+   */
+  private abstract static class Node {
+    final Object[] array;
+
+    Node(final Object[] array) {
+      this.array = array;
+    }
+
+    abstract Node put(final int shift, final int hash, final String key, final BinaryTag value, final Change change);
+
+    abstract @Nullable Node remove(final int shift, final int hash, final String key, final Change change);
+
+    // Whether this node holds exactly one key and its value, so can be moved into the parent node
+    final boolean single() {
+      return this.array.length == 2 && this.array[0] != null;
+    }
+  }
+
+  private static final class BitmapNode extends Node {
+    final int bitmap;
+
+    BitmapNode(final int bitmap, final Object[] array) {
+      super(array);
+      this.bitmap = bitmap;
+    }
+
+    int index(final int bit) {
+      return Integer.bitCount(this.bitmap & (bit - 1)) << 1;
+    }
+
+    @Override
+    Node put(final int shift, final int hash, final String key, final BinaryTag value, final Change change) {
+      final int bit = bit(hash, shift);
+      final int index = this.index(bit);
+      if((this.bitmap & bit) == 0) {
+        final Object[] array = new Object[this.array.length + 2];
+        System.arraycopy(this.array, 0, array, 0, index);
+        array[index] = key;
+        array[index + 1] = value;
+        System.arraycopy(this.array, index, array, index + 2, this.array.length - index);
+        return new BitmapNode(this.bitmap | bit, array);
+      }
+      final Object k = this.array[index];
+      final Object v = this.array[index + 1];
+      if(k == null) {
+        final Node node = ((Node) v).put(shift + BITS, hash, key, value, change);
+        return node == v ? this : this.replace(index, null, node);
+      } else if(key.equals(k)) {
+        if(v == value) return this;
+        change.previous = (BinaryTag) v;
+        return this.replace(index, k, value);
+      }
+      return this.replace(index, null, pair(shift + BITS, (String) k, (BinaryTag) v, hash, key, value));
+    }
+
+    @Override
+    @Nullable Node remove(final int shift, final int hash, final String key, final Change change) {
+      final int bit = bit(hash, shift);
+      if((this.bitmap & bit) == 0) return this;
+      final int index = this.index(bit);
+      final Object k = this.array[index];
+      final Object v = this.array[index + 1];
+      if(k == null) {
+        final Node node = ((Node) v).remove(shift + BITS, hash, key, change);
+        if(node == v) return this;
+        if(node == null) return this.remove(bit, index);
+        if(node.single()) return this.replace(index, node.array[0], node.array[1]);
+        return this.replace(index, null, node);
+      } else if(key.equals(k)) {
+        change.previous = (BinaryTag) v;
+        return this.remove(bit, index);
+      }
+      return this;
+    }
+
+    private BitmapNode replace(final int index, final @Nullable Object key, final Object value) {
+      final Object[] array = this.array.clone();
+      array[index] = key;
+      array[index + 1] = value;
+      return new BitmapNode(this.bitmap, array);
+    }
+
+    private @Nullable BitmapNode remove(final int bit, final int index) {
+      if(this.bitmap == bit) return null;
+      final Object[] array = new Object[this.array.length - 2];
+      System.arraycopy(this.array, 0, array, 0, index);
+      System.arraycopy(this.array, index + 2, array, index, array.length - index);
+      return new BitmapNode(this.bitmap & ~bit, array);
+    }
+  }
+
+  // Entries whose keys have the same hash code
+  private static final class CollisionNode extends Node {
+    final int hash;
+
+    CollisionNode(final int hash, final Object[] array) {
+      super(array);
+      this.hash = hash;
+    }
+
+    private int indexOf(final String key) {
+      for(int i = 0; i < this.array.length; i += 2) {
+        if(key.equals(this.array[i])) return i;
+      }
+      return -1;
+    }
+
+    @Override
+    Node put(final int shift, final int hash, final String key, final BinaryTag value, final Change change) {
+      if(hash != this.hash) {
+        return new BitmapNode(bit(this.hash, shift), new Object[]{null, this}).put(shift, hash, key, value, change);
+      }
+      final int index = this.indexOf(key);
+      if(index == -1) {
+        final Object[] array = new Object[this.array.length + 2];
+        System.arraycopy(this.array, 0, array, 0, this.array.length);
+        array[this.array.length] = key;
+        array[this.array.length + 1] = value;
+        return new CollisionNode(hash, array);
+      }
+      final Object v = this.array[index + 1];
+      if(v == value) return this;
+      change.previous = (BinaryTag) v;
+      final Object[] array = this.array.clone();
+      array[index + 1] = value;
+      return new CollisionNode(hash, array);
+    }
+
+    @Override
+    @Nullable Node remove(final int shift, final int hash, final String key, final Change change) {
+      final int index = hash == this.hash ? this.indexOf(key) : -1;
+      if(index == -1) return this;
+      change.previous = (BinaryTag) this.array[index + 1];
+      if(this.array.length == 4) {
+        final int other = index ^ 2;
+        return new BitmapNode(bit(hash, shift), new Object[]{this.array[other], this.array[other + 1]});
+      }
+      final Object[] array = new Object[this.array.length - 2];
+      System.arraycopy(this.array, 0, array, 0, index);
+      System.arraycopy(this.array, index + 2, array, index, array.length - index);
+      return new CollisionNode(hash, array);
+    }
+  }
+
+  /**
+   * Builds a trie from arrays of entries, sorting the entries into their nodes level by level.
+   */
+  private static final class TrieBuilder {
+    private final String[] keys;
+    private final BinaryTag[] values;
+    private final int[] hashes;
+    private final String[] sortedKeys;
+    private final BinaryTag[] sortedValues;
+    private final int[] sortedHashes;
+    int size;
+
+    TrieBuilder(final String[] keys, final BinaryTag[] values, final int count) {
+      this.keys = keys;
+      this.values = values;
+      this.hashes = new int[count];
+      for(int i = 0; i < count; i++) {
+        this.hashes[i] = keys[i].hashCode();
+      }
+      this.sortedKeys = new String[count];
+      this.sortedValues = new BinaryTag[count];
+      this.sortedHashes = new int[count];
+    }
+
+    Node build(final int shift, final int from, final int to) {
+      if(shift >= Integer.SIZE) return this.collision(from, to);
+      final int[] starts = new int[MASK + 2];
+      int bitmap = 0;
+      for(int i = from; i < to; i++) {
+        final int chunk = (this.hashes[i] >>> shift) & MASK;
+        starts[chunk + 1]++;
+        bitmap |= 1 << chunk;
+      }
+      for(int chunk = 0; chunk <= MASK; chunk++) {
+        starts[chunk + 1] += starts[chunk];
+      }
+      // a stable sort by chunk, so the last of any duplicate keys stays last
+      final int[] next = starts.clone();
+      for(int i = from; i < to; i++) {
+        final int position = from + next[(this.hashes[i] >>> shift) & MASK]++;
+        this.sortedKeys[position] = this.keys[i];
+        this.sortedValues[position] = this.values[i];
+        this.sortedHashes[position] = this.hashes[i];
+      }
+      System.arraycopy(this.sortedKeys, from, this.keys, from, to - from);
+      System.arraycopy(this.sortedValues, from, this.values, from, to - from);
+      System.arraycopy(this.sortedHashes, from, this.hashes, from, to - from);
+
+      final Object[] array = new Object[Integer.bitCount(bitmap) << 1];
+      int index = 0;
+      for(int chunk = 0; chunk <= MASK; chunk++) {
+        final int start = from + starts[chunk];
+        final int end = from + starts[chunk + 1];
+        if(start == end) continue;
+        if(end - start == 1) {
+          array[index] = this.keys[start];
+          array[index + 1] = this.values[start];
+          this.size++;
+        } else {
+          final Node node = this.build(shift + BITS, start, end);
+          if(node.single()) {
+            array[index] = node.array[0];
+            array[index + 1] = node.array[1];
+          } else {
+            array[index + 1] = node;
+          }
+        }
+        index += 2;
+      }
+      return new BitmapNode(bitmap, array);
+    }
+
+    // every entry has the same hash, but keys may be duplicated
+    private Node collision(final int from, final int to) {
+      final Object[] array = new Object[(to - from) << 1];
+      int length = 0;
+      search: for(int i = to - 1; i >= from; i--) {
+        for(int j = 0; j < length; j += 2) {
+          if(this.keys[i].equals(array[j])) continue search;
+        }
+        array[length] = this.keys[i];
+        array[length + 1] = this.values[i];
+        length += 2;
+        this.size++;
+      }
+      if(length == 2) {
+        return new BitmapNode(bit(this.hashes[from], Integer.SIZE - BITS), new Object[]{array[0], array[1]});
+      }
+      final Object[] trimmed = new Object[length];
+      System.arraycopy(array, 0, trimmed, 0, length);
+      return new CollisionNode(this.hashes[from], trimmed);
+    }
+  }
+
+  /**
+   * Iterates over the entries of a map.
+   *
+   * <p>Besides {@link #next()}, the current entry can be read with {@link #key()} and {@link #value()}
+   * and passed over with {@link #skip()}, which does not allocate an entry.</p>
+   */
+  /* package */ static final class EntryIterator implements Iterator<Entry<String, BinaryTag>> {
+    private final Object[][] arrays = new Object[MAX_DEPTH][];
+    private final int[] positions = new int[MAX_DEPTH];
+    private int depth;
+    private @Nullable String key;
+    private @Nullable BinaryTag value;
+
+    EntryIterator(final Object[] root) {
+      this.arrays[0] = root;
+      this.advance();
+    }
+
+    private void advance() {
+      this.key = null;
+      while(this.depth >= 0) {
+        final Object[] array = this.arrays[this.depth];
+        final int position = this.positions[this.depth];
+        if(position == array.length) {
+          this.depth--;
+          continue;
+        }
+        this.positions[this.depth] = position + 2;
+        if(array[position] == null) {
+          this.depth++;
+          this.arrays[this.depth] = ((Node) array[position + 1]).array;
+          this.positions[this.depth] = 0;
+        } else {
+          this.key = (String) array[position];
+          this.value = (BinaryTag) array[position + 1];
+          return;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.key != null;
+    }
+
+    /* package */ String key() {
+      if(this.key == null) throw new NoSuchElementException();
+      return this.key;
+    }
+
+    /* package */ BinaryTag value() {
+      if(this.key == null) throw new NoSuchElementException();
+      return this.value;
+    }
+
+    /* package */ void skip() {
+      this.advance();
+    }
+
+    @Override
+    public Entry<String, BinaryTag> next() {
+      if(this.key == null) throw new NoSuchElementException();
+      final Entry<String, BinaryTag> entry = new SimpleImmutableEntry<>(this.key, this.value);
+      this.advance();
+      return entry;
+    }
+  }
+}
@@ -23,7 +23,10 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.Writer;
 import java.util.Arrays;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -70,8 +73,39 @@ public final class TagStringIO {
    * @throws IOException on any syntax errors
    */
   public CompoundBinaryTag asCompound(final String input) throws IOException {
+    return this.asCompound(new CharBuffer(input));
+  }
+
+  /**
+   * Read a range of characters into a compound tag structure.
+   *
+   * <p>The array is not copied, and must not be modified while it is being read.</p>
+   *
+   * @param input Input data
+   * @param offset index of the first character to read
+   * @param length number of characters to read
+   * @return this
+   * @throws IOException on any syntax errors
+   */
+  public CompoundBinaryTag asCompound(final char@NonNull[] input, final int offset, final int length) throws IOException {
+    return this.asCompound(new CharBuffer(input, offset, length));
+  }
+
+  /**
+   * Read every remaining character from a reader into a compound tag structure.
+   *
+   * <p>The provided {@link Reader} will remain open after reading a tag.</p>
+   *
+   * @param input Reader to read from
+   * @return this
+   * @throws IOException if any IO or syntax errors occur while parsing
+   */
+  public CompoundBinaryTag asCompound(final @NonNull Reader input) throws IOException {
+    return this.asCompound(CharBuffer.read(input));
+  }
+
+  private CompoundBinaryTag asCompound(final CharBuffer buffer) throws IOException {
     try {
-      final CharBuffer buffer = new CharBuffer(input);
       final TagStringReader parser = new TagStringReader(buffer);
       parser.legacy(this.acceptLegacy);
       final CompoundBinaryTag tag = parser.compound();
@@ -100,6 +134,22 @@ public final class TagStringIO {
     return sb.toString();
   }
 
+  /**
+   * Get the length of the string representation of the provided tag, without building it.
+   *
+   * @param input tag to measure
+   * @return length in characters
+   * @throws IOException if any errors occur writing to string
+   */
+  public long asStringLength(final CompoundBinaryTag input) throws IOException {
+    final Counter counter = new Counter();
+    try(final TagStringWriter emit = new TagStringWriter(counter, this.indent)) {
+      emit.legacy(this.emitLegacy);
+      emit.writeTag(input);
+    }
+    return counter.length;
+  }
+
   /**
    * Writes a tag to in string format.
    * 
@@ -116,6 +166,114 @@ public final class TagStringIO {
     }
   }
 
+  /**
+   * Read a binary compound tag, as written by {@link BinaryTagIO#writeDataOutput(CompoundBinaryTag, DataOutput)},
+   * and get its string representation.
+   *
+   * <p>The tag is converted as it is read, without being built.</p>
+   *
+   * @param input binary input
+   * @return serialized form
+   * @throws IOException if any errors occur reading the binary tag
+   */
+  public String asString(final @NonNull DataInput input) throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    this.toAppendable(input, sb);
+    return sb.toString();
+  }
+
+  /**
+   * Read a binary compound tag, as written by {@link BinaryTagIO#writeDataOutput(CompoundBinaryTag, DataOutput)},
+   * and write it in string format.
+   *
+   * <p>The tag is converted as it is read, without being built. The provided {@link Appendable} will remain open
+   * after writing a tag.</p>
+   *
+   * @param input binary input
+   * @param dest destination to write to
+   * @throws IOException if any errors occur reading the binary tag or writing to the destination
+   */
+  public void toAppendable(final @NonNull DataInput input, final @NonNull Appendable dest) throws IOException {
+    final byte type = input.readByte();
+    if(type != BinaryTagTypes.COMPOUND.id()) {
+      throw new IOException(String.format("Expected root tag to be a %s, was %s", BinaryTagTypes.COMPOUND, BinaryTagType.of(type)));
+    }
+    input.skipBytes(input.readUnsignedShort()); // read empty name
+    try(final TagStringWriter emit = new TagStringWriter(dest, this.indent)) {
+      emit.legacy(this.emitLegacy);
+      emit.writeBinary(type, input);
+    }
+  }
+
+  /**
+   * Read the string as a compound tag, and write it in the format of
+   * {@link BinaryTagIO#writeDataOutput(CompoundBinaryTag, DataOutput)}.
+   *
+   * <p>The tag is converted as it is read, without being built. Nothing is written if the string cannot be read.</p>
+   *
+   * @param input Input data
+   * @param output binary output
+   * @throws IOException on any syntax errors, or if any errors occur writing to the output
+   */
+  public void toDataOutput(final @NonNull String input, final @NonNull DataOutput output) throws IOException {
+    this.toDataOutput(new CharBuffer(input), output);
+  }
+
+  /**
+   * Read every remaining character from a reader as a compound tag, and write it in the format of
+   * {@link BinaryTagIO#writeDataOutput(CompoundBinaryTag, DataOutput)}.
+   *
+   * <p>The tag is converted as it is read, without being built. Nothing is written if the characters cannot be read.
+   * The provided {@link Reader} will remain open after reading a tag.</p>
+   *
+   * @param input Reader to read from
+   * @param output binary output
+   * @throws IOException if any IO or syntax errors occur while parsing, or if any errors occur writing to the output
+   */
+  public void toDataOutput(final @NonNull Reader input, final @NonNull DataOutput output) throws IOException {
+    this.toDataOutput(CharBuffer.read(input), output);
+  }
+
+  private void toDataOutput(final CharBuffer buffer, final DataOutput output) throws IOException {
+    final TagStringReader.Encoder encoder = new TagStringReader.Encoder();
+    encoder.write(BinaryTagTypes.COMPOUND.id());
+    encoder.data.writeUTF(""); // write empty name
+    try {
+      final TagStringReader parser = new TagStringReader(buffer);
+      parser.legacy(this.acceptLegacy);
+      parser.compound(encoder);
+      if(buffer.skipWhitespace().hasMore()) {
+        throw new IOException("Document had trailing content after first CompoundTag");
+      }
+    } catch(final StringTagParseException ex) {
+      throw new IOException(ex);
+    }
+    encoder.writeTo(output);
+  }
+
+  // an Appendable discarding everything but its length
+  private static final class Counter implements Appendable {
+    long length;
+
+    @Override
+    public Appendable append(final CharSequence csq) {
+      this.length += csq.length();
+      return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end) {
+      this.length += end - start;
+      return this;
+    }
+
+    @Override
+    public Appendable append(final char c) {
+      this.length++;
+      return this;
+    }
+  }
+
   /**
    * Builder for a SNBT I/O handler.
    */
@@ -23,14 +23,25 @@
  */
 package net.kyori.adventure.nbt;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.IntStream;
-import java.util.stream.LongStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 
 /* package */ final class TagStringReader {
+  private static final int MAX_FAST_DOUBLE_DIGITS = 15; // any integer of up to 15 digits is exact as a double
+  private static final int MAX_FAST_DOUBLE_EXPONENT = 22; // and so is every power of ten up to 10^22
+  private static final int MAX_FAST_FLOAT_DIGITS = 7;
+  private static final int MAX_FAST_FLOAT_EXPONENT = 10;
+  private static final double[] DOUBLE_POWERS = new double[]{1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+  private static final float[] FLOAT_POWERS = new float[]{1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
   private final CharBuffer buffer;
   private boolean acceptLegacy;
+  // the result of the last successful parseInteger, parseDecimal or scalarType
+  private long integer;
+  private double decimal;
+  private String string;
 
   TagStringReader(final CharBuffer buffer) {
     this.buffer = buffer;
@@ -38,11 +49,14 @@ import java.util.stream.LongStream;
 
   public CompoundBinaryTag compound() throws StringTagParseException {
     this.buffer.expect(Tokens.COMPOUND_BEGIN);
-    final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder();
+    if(this.empty(Tokens.COMPOUND_END)) {
+      return CompoundBinaryTag.empty();
+    }
+    final TagMap.Accumulator tags = new TagMap.Accumulator();
     while(this.buffer.hasMore()) {
-      builder.put(this.key(), this.tag());
+      tags.add(KeyPool.intern(this.key()), this.tag());
       if(this.separatorOrCompleteWith(Tokens.COMPOUND_END)) {
-        return builder.build();
+        return new CompoundBinaryTagImpl(tags.build());
       }
     }
     throw this.buffer.makeError("Unterminated compound tag!");
@@ -51,10 +65,13 @@ import java.util.stream.LongStream;
   public ListBinaryTag list() throws StringTagParseException {
     final ListBinaryTag.Builder<BinaryTag> builder = ListBinaryTag.builder();
     this.buffer.expect(Tokens.ARRAY_BEGIN);
+    if(this.empty(Tokens.ARRAY_END)) {
+      return ListBinaryTag.empty();
+    }
     final boolean prefixedIndex = this.acceptLegacy && this.buffer.peek() == '0' && this.buffer.peek(1) == ':';
     while(this.buffer.hasMore()) {
       if(prefixedIndex) {
-        this.buffer.takeUntil(':');
+        this.buffer.position(this.buffer.find(':') + 1);
       }
 
       final BinaryTag next = this.tag();
@@ -76,7 +93,7 @@ import java.util.stream.LongStream;
     this.buffer.expect(Tokens.ARRAY_BEGIN)
       .expect(elementType)
       .expect(Tokens.ARRAY_SIGNATURE_SEPARATOR);
-    
+
     elementType = Character.toLowerCase(elementType);
     if(elementType == Tokens.TYPE_BYTE) {
       return ByteArrayBinaryTag.of(this.byteArray());
@@ -90,53 +107,76 @@ import java.util.stream.LongStream;
   }
 
   private byte[] byteArray() throws StringTagParseException {
-    final List<Byte> bytes = new ArrayList<>();
+    if(this.empty(Tokens.ARRAY_END)) {
+      return new byte[0];
+    }
+    byte[] bytes = new byte[16];
+    int size = 0;
     while(this.buffer.hasMore()) {
-      final CharSequence value = this.buffer.skipWhitespace().takeUntil(Tokens.TYPE_BYTE);
-      try {
-        bytes.add(Byte.valueOf(value.toString()));
-      } catch(final NumberFormatException ex) {
+      final int start = this.buffer.skipWhitespace().position();
+      final int end = this.buffer.find(Tokens.TYPE_BYTE);
+      if(!this.parseInteger(start, end, Byte.MIN_VALUE, Byte.MAX_VALUE)) {
         throw this.buffer.makeError("All elements of a byte array must be bytes!");
       }
+      this.buffer.position(end + 1);
+      if(size == bytes.length) bytes = Arrays.copyOf(bytes, size << 1);
+      bytes[size++] = (byte) this.integer;
 
       if(this.separatorOrCompleteWith(Tokens.ARRAY_END)) {
-        final byte[] result = new byte[bytes.size()];
-        for(int i = 0; i < bytes.size(); ++i) { // todo yikes, let's do less boxing
-          result[i] = bytes.get(i);
-        }
-        return result;
+        return Arrays.copyOf(bytes, size);
       }
     }
     throw this.buffer.makeError("Reached end of document without array close");
   }
 
   private int[] intArray() throws StringTagParseException {
-    final IntStream.Builder builder = IntStream.builder();
+    if(this.empty(Tokens.ARRAY_END)) {
+      return new int[0];
+    }
+    int[] ints = new int[16];
+    int size = 0;
     while(this.buffer.hasMore()) {
-      final BinaryTag value = this.tag();
-      if(!(value instanceof IntBinaryTag)) {
-        throw this.buffer.makeError("All elements of an int array must be ints!");
+      final int start = this.buffer.skipWhitespace().position();
+      final int end = this.idEnd(start);
+      final int value;
+      if(!this.escaped(end) && this.parseInteger(start, end, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+        this.buffer.position(end);
+        value = (int) this.integer;
+      } else {
+        // not a plain int, but read it as a tag in case it is one anyway
+        final BinaryTag tag = this.tag();
+        if(!(tag instanceof IntBinaryTag)) {
+          throw this.buffer.makeError("All elements of an int array must be ints!");
+        }
+        value = ((IntBinaryTag) tag).intValue();
       }
-      builder.add(((IntBinaryTag) value).intValue());
+      if(size == ints.length) ints = Arrays.copyOf(ints, size << 1);
+      ints[size++] = value;
       if(this.separatorOrCompleteWith(Tokens.ARRAY_END)) {
-        return builder.build().toArray();
+        return Arrays.copyOf(ints, size);
       }
     }
     throw this.buffer.makeError("Reached end of document without array close");
   }
 
   private long[] longArray() throws StringTagParseException {
-    final LongStream.Builder longs = LongStream.builder();
+    if(this.empty(Tokens.ARRAY_END)) {
+      return new long[0];
+    }
+    long[] longs = new long[16];
+    int size = 0;
     while(this.buffer.hasMore()) {
-      final CharSequence value = this.buffer.skipWhitespace().takeUntil(Tokens.TYPE_LONG);
-      try {
-        longs.add(Long.parseLong(value.toString()));
-      } catch(final NumberFormatException ex) {
+      final int start = this.buffer.skipWhitespace().position();
+      final int end = this.buffer.find(Tokens.TYPE_LONG);
+      if(!this.parseInteger(start, end, Long.MIN_VALUE, Long.MAX_VALUE)) {
         throw this.buffer.makeError("All elements of a long array must be longs!");
       }
+      this.buffer.position(end + 1);
+      if(size == longs.length) longs = Arrays.copyOf(longs, size << 1);
+      longs[size++] = this.integer;
 
       if(this.separatorOrCompleteWith(Tokens.ARRAY_END)) {
-        return longs.build().toArray();
+        return Arrays.copyOf(longs, size);
       }
     }
     throw this.buffer.makeError("Reached end of document without array close");
@@ -147,35 +187,46 @@ import java.util.stream.LongStream;
     final char starChar = this.buffer.peek();
     try {
       if(starChar == Tokens.SINGLE_QUOTE || starChar == Tokens.DOUBLE_QUOTE) {
-        return unescape(this.buffer.takeUntil(this.buffer.take()).toString());
+        return this.buffer.takeUntil(this.buffer.take());
       }
 
-      final StringBuilder builder = new StringBuilder();
-      while(this.buffer.hasMore()) {
-        final char peek = this.buffer.peek();
-        if(!Tokens.id(peek)) {
-          if(this.acceptLegacy) {
-            // In legacy format, a key is any non-colon character, with escapes allowed
-            if(peek == Tokens.ESCAPE_MARKER) {
-              this.buffer.take(); // skip
-              continue;
-            } else if(peek != Tokens.COMPOUND_KEY_TERMINATOR) {
-              builder.append(this.buffer.take());
-              continue;
-            }
-          }
-          break;
-        }
-        builder.append(this.buffer.take());
+      final int start = this.buffer.position();
+      final int end = this.idEnd(start);
+      if(this.acceptLegacy && end < this.buffer.limit() && this.buffer.charAt(end) != Tokens.COMPOUND_KEY_TERMINATOR) {
+        return this.legacyKey();
       }
-      return builder.toString();
+      this.buffer.position(end);
+      return this.buffer.substring(start, end);
     } finally {
       this.buffer.expect(Tokens.COMPOUND_KEY_TERMINATOR);
     }
   }
 
+  private String legacyKey() {
+    final StringBuilder builder = new StringBuilder();
+    while(this.buffer.hasMore()) {
+      final char peek = this.buffer.peek();
+      if(!Tokens.id(peek)) {
+        // In legacy format, a key is any non-colon character, with escapes allowed
+        if(peek == Tokens.ESCAPE_MARKER) {
+          this.buffer.take(); // skip
+          continue;
+        } else if(peek != Tokens.COMPOUND_KEY_TERMINATOR) {
+          builder.append(this.buffer.take());
+          continue;
+        }
+        break;
+      }
+      builder.append(this.buffer.take());
+    }
+    return builder.toString();
+  }
+
   public BinaryTag tag() throws StringTagParseException {
     final char startToken = this.buffer.skipWhitespace().peek();
+    if(!this.buffer.hasMore()) {
+      throw this.buffer.makeError("Expected a tag but got EOF");
+    }
     switch(startToken) {
       case Tokens.COMPOUND_BEGIN:
         return this.compound();
@@ -191,7 +242,7 @@ import java.util.stream.LongStream;
       case Tokens.DOUBLE_QUOTE:
         // definitely a string tag
         this.buffer.advance();
-        return StringBinaryTag.of(unescape(this.buffer.takeUntil(startToken).toString()));
+        return StringBinaryTag.of(this.buffer.takeUntil(startToken));
       default: // scalar
         return this.scalar();
     }
@@ -203,44 +254,128 @@ import java.util.stream.LongStream;
    * <p>Does not detect quoted strings, so </p>
    * @return a parsed tag
    */
-  private BinaryTag scalar() {
+  private BinaryTag scalar() throws StringTagParseException {
+    switch(this.scalarType()) {
+      case 1: return ByteBinaryTag.of((byte) this.integer);
+      case 2: return ShortBinaryTag.of((short) this.integer);
+      case 3: return IntBinaryTag.of((int) this.integer);
+      case 4: return LongBinaryTag.of(this.integer);
+      case 5: return FloatBinaryTag.of((float) this.decimal);
+      case 6: return DoubleBinaryTag.of(this.decimal);
+      default: return StringBinaryTag.of(this.string);
+    }
+  }
+
+  /**
+   * Parses a scalar into {@link #integer}, {@link #decimal} or {@link #string}.
+   *
+   * @return the id of the scalar's tag type
+   */
+  private byte scalarType() throws StringTagParseException {
+    final int start = this.buffer.position();
+    final int end = this.idEnd(start);
+    if(this.escaped(end)) {
+      return this.escapedScalarType();
+    }
+    boolean possiblyNumeric = true;
+    // every character that can't be part of a number may be a type suffix, ending the number before it
+    for(int i = start + 1; i < end; i++) {
+      final char current = this.buffer.charAt(i);
+      if(Tokens.numeric(current)) continue;
+      final byte result;
+      switch(Character.toLowerCase(current)) {
+        // case Tokens.TYPE_INTEGER: // handled below, ints are ~special~
+        case Tokens.TYPE_BYTE:
+          result = this.parseInteger(start, i, Byte.MIN_VALUE, Byte.MAX_VALUE) ? BinaryTagTypes.BYTE.id() : BinaryTagTypes.END.id();
+          break;
+        case Tokens.TYPE_SHORT:
+          result = this.parseInteger(start, i, Short.MIN_VALUE, Short.MAX_VALUE) ? BinaryTagTypes.SHORT.id() : BinaryTagTypes.END.id();
+          break;
+        case Tokens.TYPE_LONG:
+          result = this.parseInteger(start, i, Long.MIN_VALUE, Long.MAX_VALUE) ? BinaryTagTypes.LONG.id() : BinaryTagTypes.END.id();
+          break;
+        case Tokens.TYPE_FLOAT:
+          result = this.parseDecimal(start, i, true) ? BinaryTagTypes.FLOAT.id() : BinaryTagTypes.END.id();
+          break;
+        case Tokens.TYPE_DOUBLE:
+          result = this.parseDecimal(start, i, false) ? BinaryTagTypes.DOUBLE.id() : BinaryTagTypes.END.id();
+          break;
+        default:
+          continue;
+      }
+      if(result == BinaryTagTypes.END.id()) {
+        possiblyNumeric = false; // fallback to treating as a String
+        break;
+      }
+      this.buffer.position(i + 1);
+      return result;
+    }
+    this.buffer.position(end);
+    // if we run out of content without an explicit value separator, then we're either an integer or string tag -- all others have a character at the end
+    if(possiblyNumeric) {
+      if(this.parseInteger(start, end, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+        return BinaryTagTypes.INT.id();
+      } else if(this.parseDecimal(start, end, false)) {
+        return BinaryTagTypes.DOUBLE.id();
+      }
+    }
+
+    if(this.isIgnoreCase(start, end, Tokens.LITERAL_TRUE)) {
+      this.integer = 1;
+      return BinaryTagTypes.BYTE.id();
+    } else if(this.isIgnoreCase(start, end, Tokens.LITERAL_FALSE)) {
+      this.integer = 0;
+      return BinaryTagTypes.BYTE.id();
+    }
+    this.string = this.buffer.substring(start, end);
+    return BinaryTagTypes.STRING.id();
+  }
+
+  // an escape within an unquoted value is rare enough to build the value up character by character
+  private byte escapedScalarType() throws StringTagParseException {
     final StringBuilder builder = new StringBuilder();
     boolean possiblyNumeric = true;
     while(this.buffer.hasMore()) {
       final char current = this.buffer.peek();
       if(possiblyNumeric && !Tokens.numeric(current)) {
         if(builder.length() != 0) {
-          BinaryTag result = null;
+          byte result = BinaryTagTypes.END.id();
           try {
             switch(Character.toLowerCase(current)) { // try to read and return as a number
-              // case Tokens.TYPE_INTEGER: // handled below, ints are ~special~
               case Tokens.TYPE_BYTE:
-                result = ByteBinaryTag.of(Byte.parseByte(builder.toString()));
+                this.integer = Byte.parseByte(builder.toString());
+                result = BinaryTagTypes.BYTE.id();
                 break;
               case Tokens.TYPE_SHORT:
-                result = ShortBinaryTag.of(Short.parseShort(builder.toString()));
+                this.integer = Short.parseShort(builder.toString());
+                result = BinaryTagTypes.SHORT.id();
                 break;
               case Tokens.TYPE_LONG:
-                result = LongBinaryTag.of(Long.parseLong(builder.toString()));
+                this.integer = Long.parseLong(builder.toString());
+                result = BinaryTagTypes.LONG.id();
                 break;
               case Tokens.TYPE_FLOAT:
-                result = FloatBinaryTag.of(Float.parseFloat(builder.toString()));
+                this.decimal = Float.parseFloat(builder.toString());
+                result = BinaryTagTypes.FLOAT.id();
                 break;
               case Tokens.TYPE_DOUBLE:
-                result = DoubleBinaryTag.of(Double.parseDouble(builder.toString()));
+                this.decimal = Double.parseDouble(builder.toString());
+                result = BinaryTagTypes.DOUBLE.id();
                 break;
             }
           } catch(final NumberFormatException ex) {
             possiblyNumeric = false; // fallback to treating as a String
           }
-          if(result != null) {
+          if(result != BinaryTagTypes.END.id()) {
             this.buffer.take();
             return result;
           }
         }
       }
       if(current == '\\') { // escape -- we are significantly more lenient than original format at the moment
-        this.buffer.advance();
+        if(!this.buffer.advance()) {
+          throw this.buffer.makeError("Expected an escaped character but got EOF");
+        }
         builder.append(this.buffer.take());
       } else if(Tokens.id(current)) {
         builder.append(this.buffer.take());
@@ -248,14 +383,15 @@ import java.util.stream.LongStream;
         break;
       }
     }
-    // if we run out of content without an explicit value separator, then we're either an integer or string tag -- all others have a character at the end
     final String built = builder.toString();
     if(possiblyNumeric) {
       try {
-        return IntBinaryTag.of(Integer.parseInt(built));
+        this.integer = Integer.parseInt(built);
+        return BinaryTagTypes.INT.id();
       } catch(final NumberFormatException ex) {
         try {
-          return DoubleBinaryTag.of(Double.parseDouble(built));
+          this.decimal = Double.parseDouble(built);
+          return BinaryTagTypes.DOUBLE.id();
         } catch(final NumberFormatException ex2) {
           // ignore
         }
@@ -263,12 +399,157 @@ import java.util.stream.LongStream;
     }
 
     if(built.equalsIgnoreCase(Tokens.LITERAL_TRUE)) {
-      return ByteBinaryTag.ONE;
+      this.integer = 1;
+      return BinaryTagTypes.BYTE.id();
     } else if(built.equalsIgnoreCase(Tokens.LITERAL_FALSE)) {
-      return ByteBinaryTag.ZERO;
+      this.integer = 0;
+      return BinaryTagTypes.BYTE.id();
+    }
+    this.string = built;
+    return BinaryTagTypes.STRING.id();
+  }
+
+  // Transcoding: the same grammar as above, written straight to binary without building tags
+
+  public void compound(final Encoder out) throws IOException {
+    this.buffer.expect(Tokens.COMPOUND_BEGIN);
+    if(this.empty(Tokens.COMPOUND_END)) {
+      out.write(BinaryTagTypes.END.id());
+      return;
+    }
+    while(this.buffer.hasMore()) {
+      final String key = this.key();
+      final int header = out.size();
+      out.write(BinaryTagTypes.END.id()); // the type is only known once the value has been read
+      ModifiedUtf8.write(out.data, key);
+      out.patch(header, this.tag(out));
+      if(this.separatorOrCompleteWith(Tokens.COMPOUND_END)) {
+        out.write(BinaryTagTypes.END.id());
+        return;
+      }
+    }
+    throw this.buffer.makeError("Unterminated compound tag!");
+  }
+
+  private byte list(final Encoder out) throws IOException {
+    this.buffer.expect(Tokens.ARRAY_BEGIN);
+    final int header = out.size();
+    out.write(BinaryTagTypes.END.id()); // empty lists are written with an element type of end
+    out.data.writeInt(0);
+    if(this.empty(Tokens.ARRAY_END)) {
+      return BinaryTagTypes.LIST.id();
+    }
+    final boolean prefixedIndex = this.acceptLegacy && this.buffer.peek() == '0' && this.buffer.peek(1) == ':';
+    byte type = BinaryTagTypes.END.id();
+    int size = 0;
+    while(this.buffer.hasMore()) {
+      if(prefixedIndex) {
+        this.buffer.position(this.buffer.find(':') + 1);
+      }
+
+      final byte next = this.tag(out);
+      if(size == 0) {
+        type = next;
+      } else if(next != type) {
+        throw this.buffer.makeError("Cannot add a " + BinaryTagType.of(next) + " to a list of " + BinaryTagType.of(type));
+      }
+      size++;
+      if(this.separatorOrCompleteWith(Tokens.ARRAY_END)) {
+        out.patch(header, type, size);
+        return BinaryTagTypes.LIST.id();
+      }
+    }
+    throw this.buffer.makeError("Reached end of file without end of list tag!");
+  }
+
+  private byte array(char elementType, final Encoder out) throws IOException {
+    this.buffer.expect(Tokens.ARRAY_BEGIN)
+      .expect(elementType)
+      .expect(Tokens.ARRAY_SIGNATURE_SEPARATOR);
+
+    elementType = Character.toLowerCase(elementType);
+    if(elementType == Tokens.TYPE_BYTE) {
+      final byte[] value = this.byteArray();
+      out.data.writeInt(value.length);
+      out.write(value);
+      return BinaryTagTypes.BYTE_ARRAY.id();
+    } else if(elementType == Tokens.TYPE_INT) {
+      final int[] value = this.intArray();
+      out.data.writeInt(value.length);
+      ByteBufferDataOutput.write(out.data, value);
+      return BinaryTagTypes.INT_ARRAY.id();
+    } else if(elementType == Tokens.TYPE_LONG) {
+      final long[] value = this.longArray();
+      out.data.writeInt(value.length);
+      ByteBufferDataOutput.write(out.data, value);
+      return BinaryTagTypes.LONG_ARRAY.id();
+    } else {
+      throw this.buffer.makeError("Type " + elementType + " is not a valid element type in an array!");
     }
-    return StringBinaryTag.of(built);
+  }
 
+  /**
+   * Writes the value of the next tag.
+   *
+   * @param out the destination
+   * @return the id of the tag's type
+   */
+  private byte tag(final Encoder out) throws IOException {
+    final char startToken = this.buffer.skipWhitespace().peek();
+    if(!this.buffer.hasMore()) {
+      throw this.buffer.makeError("Expected a tag but got EOF");
+    }
+    switch(startToken) {
+      case Tokens.COMPOUND_BEGIN:
+        this.compound(out);
+        return BinaryTagTypes.COMPOUND.id();
+      case Tokens.ARRAY_BEGIN:
+        if(this.buffer.peek(2) == ';') { // we know we're an array tag
+          return this.array(this.buffer.peek(1), out);
+        } else {
+          return this.list(out);
+        }
+      case Tokens.SINGLE_QUOTE:
+      case Tokens.DOUBLE_QUOTE:
+        // definitely a string tag
+        this.buffer.advance();
+        ModifiedUtf8.write(out.data, this.buffer.takeUntil(startToken));
+        return BinaryTagTypes.STRING.id();
+      default: // scalar
+        final byte type = this.scalarType();
+        switch(type) {
+          case 1:
+            out.write((byte) this.integer);
+            break;
+          case 2:
+            out.data.writeShort((short) this.integer);
+            break;
+          case 3:
+            out.data.writeInt((int) this.integer);
+            break;
+          case 4:
+            out.data.writeLong(this.integer);
+            break;
+          case 5:
+            out.data.writeFloat((float) this.decimal);
+            break;
+          case 6:
+            out.data.writeDouble(this.decimal);
+            break;
+          default:
+            ModifiedUtf8.write(out.data, this.string);
+        }
+        return type;
+    }
+  }
+
+  // consumes endCharacter if it closes an empty compound, list or array
+  private boolean empty(final char endCharacter) {
+    if(this.buffer.skipWhitespace().peek() == endCharacter) {
+      this.buffer.take();
+      return true;
+    }
+    return false;
   }
 
   private boolean separatorOrCompleteWith(final char endCharacter) throws StringTagParseException {
@@ -280,28 +561,181 @@ import java.util.stream.LongStream;
     return false;
   }
 
+  // the end of the run of identifier characters starting at start
+  private int idEnd(final int start) {
+    final int limit = this.buffer.limit();
+    int end = start;
+    while(end < limit && Tokens.id(this.buffer.charAt(end))) end++;
+    return end;
+  }
+
+  private boolean escaped(final int index) {
+    return index < this.buffer.limit() && this.buffer.charAt(index) == Tokens.ESCAPE_MARKER;
+  }
+
+  private boolean is(final int start, final int end, final String literal) {
+    if(end - start != literal.length()) return false;
+    for(int i = start; i < end; i++) {
+      if(this.buffer.charAt(i) != literal.charAt(i - start)) return false;
+    }
+    return true;
+  }
+
+  // literal must be lower case
+  private boolean isIgnoreCase(final int start, final int end, final String literal) {
+    if(end - start != literal.length()) return false;
+    for(int i = start; i < end; i++) {
+      final char c = this.buffer.charAt(i);
+      final char l = literal.charAt(i - start);
+      if(c != l && Character.toLowerCase(c) != l) return false;
+    }
+    return true;
+  }
+
   /**
-   * Remove simple escape sequences from a string
+   * Parses the characters from {@code start} to {@code end} as an integer, as {@link Long#parseLong(String)} would, into {@link #integer}.
    *
-   * @param withEscapes input string with escapes
-   * @return string with escapes processed
+   * @return whether the characters are an integer between {@code min} and {@code max}
    */
-  private static String unescape(final String withEscapes) {
-    int escapeIdx = withEscapes.indexOf(Tokens.ESCAPE_MARKER);
-    if(escapeIdx == -1) { // nothing to unescape
-      return withEscapes;
-    }
-    int lastEscape = 0;
-    final StringBuilder output = new StringBuilder(withEscapes.length());
-    do {
-      output.append(withEscapes, lastEscape, escapeIdx);
-      lastEscape = escapeIdx + 1;
-    } while ((escapeIdx = withEscapes.indexOf(Tokens.ESCAPE_MARKER, lastEscape + 1)) != -1); // add one extra character to make sure we don't include escaped backslashes
-    output.append(withEscapes.substring(lastEscape));
-    return output.toString();
+  private boolean parseInteger(final int start, final int end, final long min, final long max) {
+    if(start == end) return false;
+    int i = start;
+    final char first = this.buffer.charAt(i);
+    final boolean negative = first == '-';
+    if(negative || first == '+') {
+      if(++i == end) return false;
+    }
+    // accumulate negatively, so that min can be reached
+    final long limit = negative ? min : -max;
+    final long multiplyLimit = limit / 10;
+    long result = 0;
+    for(; i < end; i++) {
+      final char c = this.buffer.charAt(i);
+      final int digit = c < 0x80 ? c - '0' : Character.digit(c, 10);
+      if(digit < 0 || digit > 9 || result < multiplyLimit) return false;
+      result *= 10;
+      if(result < limit + digit) return false;
+      result -= digit;
+    }
+    this.integer = negative ? result : -result;
+    return true;
+  }
+
+  /**
+   * Parses the characters from {@code start} to {@code end} as a decimal, as {@link Double#parseDouble(String)} or
+   * {@link Float#parseFloat(String)} would, into {@link #decimal}.
+   *
+   * <p>Values with few enough digits are computed exactly in place. Anything else is handed to the JDK.</p>
+   *
+   * @return whether the characters are a decimal
+   */
+  private boolean parseDecimal(final int start, final int end, final boolean isFloat) {
+    int i = start;
+    final boolean negative = i < end && this.buffer.charAt(i) == '-';
+    if(negative || (i < end && this.buffer.charAt(i) == '+')) i++;
+    final int first = i;
+    long mantissa = 0;
+    int digits = 0; // significant digits in the mantissa
+    int exponent = 0;
+    boolean seenDigit = false;
+    boolean seenPoint = false;
+    for(; i < end; i++) {
+      final char c = this.buffer.charAt(i);
+      if(c >= '0' && c <= '9') {
+        seenDigit = true;
+        if(seenPoint) exponent--;
+        if(digits > 0 || c != '0') {
+          if(++digits <= MAX_FAST_DOUBLE_DIGITS) mantissa = mantissa * 10 + (c - '0');
+        }
+      } else if(c == '.' && !seenPoint) {
+        seenPoint = true;
+      } else {
+        break;
+      }
+    }
+    boolean valid = seenDigit;
+    if(valid && i < end) {
+      // an exponent must follow
+      final char e = this.buffer.charAt(i++);
+      valid = (e == 'e' || e == 'E') && i < end;
+      if(valid) {
+        final char sign = this.buffer.charAt(i);
+        final boolean negativeExponent = sign == '-';
+        if(negativeExponent || sign == '+') i++;
+        valid = i < end;
+        int value = 0;
+        for(; valid && i < end; i++) {
+          final char c = this.buffer.charAt(i);
+          if(c < '0' || c > '9') {
+            valid = false;
+          } else if(value < 10000) {
+            value = value * 10 + (c - '0');
+          }
+        }
+        exponent += negativeExponent ? -value : value;
+      }
+    }
+    if(!valid) {
+      // the JDK also accepts the likes of NaN and hexadecimal, which are too rare to handle here
+      final char c = first < end ? this.buffer.charAt(first) : Tokens.EOF;
+      if((c >= '0' && c <= '9') || c == '.' || this.is(first, end, "NaN") || this.is(first, end, "Infinity")) {
+        return this.parseDecimalSlow(start, end, isFloat);
+      }
+      return false;
+    }
+    final double value;
+    if(digits == 0) {
+      value = 0;
+    } else if(isFloat && digits <= MAX_FAST_FLOAT_DIGITS && Math.abs(exponent) <= MAX_FAST_FLOAT_EXPONENT) {
+      value = exponent < 0 ? (float) mantissa / FLOAT_POWERS[-exponent] : (float) mantissa * FLOAT_POWERS[exponent];
+    } else if(!isFloat && digits <= MAX_FAST_DOUBLE_DIGITS && Math.abs(exponent) <= MAX_FAST_DOUBLE_EXPONENT) {
+      value = exponent < 0 ? mantissa / DOUBLE_POWERS[-exponent] : mantissa * DOUBLE_POWERS[exponent];
+    } else {
+      return this.parseDecimalSlow(start, end, isFloat);
+    }
+    this.decimal = negative ? -value : value;
+    return true;
+  }
+
+  private boolean parseDecimalSlow(final int start, final int end, final boolean isFloat) {
+    final String string = this.buffer.substring(start, end);
+    try {
+      this.decimal = isFloat ? Float.parseFloat(string) : Double.parseDouble(string);
+      return true;
+    } catch(final NumberFormatException ex) {
+      return false;
+    }
   }
 
   public void legacy(final boolean acceptLegacy) {
     this.acceptLegacy = acceptLegacy;
   }
+
+  /**
+   * The binary output of a transcoding.
+   *
+   * <p>Output is held in memory until the document is complete, so that the type and length of each list can be
+   * filled in once its elements have been read.</p>
+   */
+  static final class Encoder extends ByteArrayOutputStream {
+    final DataOutput data = new DataOutputStream(this);
+
+    // sets the type of the compound entry starting at header
+    void patch(final int header, final byte type) {
+      this.buf[header] = type;
+    }
+
+    // sets the element type and size of the list starting at header
+    void patch(final int header, final byte type, final int size) {
+      this.buf[header] = type;
+      this.buf[header + 1] = (byte) (size >>> 24);
+      this.buf[header + 2] = (byte) (size >>> 16);
+      this.buf[header + 3] = (byte) (size >>> 8);
+      this.buf[header + 4] = (byte) size;
+    }
+
+    void writeTo(final DataOutput output) throws IOException {
+      output.write(this.buf, 0, this.count);
+    }
+  }
 }
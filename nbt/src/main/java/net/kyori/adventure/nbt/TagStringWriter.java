@@ -23,6 +23,7 @@
  */
 package net.kyori.adventure.nbt;
 
+import java.io.DataInput;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Map;
@@ -30,11 +31,26 @@ import java.util.Map;
 /**
  * An emitter for the SNBT format.
  *
+ * <p>Output is collected in an internal buffer and handed to the destination in blocks, and numbers
+ * are formatted straight into that buffer. The buffer is flushed when the writer is closed.</p>
+ *
  * Details on the format are described in the package documentation.
  */
 /* package */ final class TagStringWriter implements AutoCloseable {
+  private static final int BUFFER_SIZE = 1024;
+  private static final int NEGATIVE_ZERO_FLOAT = Float.floatToRawIntBits(-0f);
+  private static final long NEGATIVE_ZERO_DOUBLE = Double.doubleToRawLongBits(-0d);
+  /**
+   * Integral floating point values below this are printed as plain digits by {@link Float#toString(float)} and {@link Double#toString(double)}.
+   */
+  private static final double PLAIN_DECIMAL_LIMIT = 1e7;
+  private static final String LONG_MIN = Long.toString(Long.MIN_VALUE);
+
   private final Appendable out;
-  private final String indent; // TODO: pretty-printing
+  private final char[] indent;
+  private final char[] newline = Tokens.NEWLINE.toCharArray();
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int position;
   private int level;
   /**
    * Whether a {@link Tokens#VALUE_SEPARATOR} needs to be printed before the beginning of the next object.
@@ -44,7 +60,7 @@ import java.util.Map;
 
   TagStringWriter(final Appendable out, final String indent) {
     this.out = out;
-    this.indent = indent;
+    this.indent = indent.toCharArray();
   }
 
   public TagStringWriter legacy(final boolean legacy) {
@@ -55,42 +71,37 @@ import java.util.Map;
   // NBT-specific
 
   public TagStringWriter writeTag(final BinaryTag tag) throws IOException {
-    final BinaryTagType<?> type = tag.type();
-    if(type == BinaryTagTypes.COMPOUND) {
-      return this.writeCompound((CompoundBinaryTag) tag);
-    } else if(type == BinaryTagTypes.LIST) {
-      return this.writeList((ListBinaryTag) tag);
-    } else if(type == BinaryTagTypes.BYTE_ARRAY) {
-      return this.writeByteArray((ByteArrayBinaryTag) tag);
-    } else if(type == BinaryTagTypes.INT_ARRAY) {
-      return this.writeIntArray((IntArrayBinaryTag) tag);
-    } else if(type == BinaryTagTypes.LONG_ARRAY) {
-      return this.writeLongArray((LongArrayBinaryTag) tag);
-    } else if(type == BinaryTagTypes.STRING) {
-      return this.value(((StringBinaryTag) tag).value(), Tokens.EOF);
-    } else if(type == BinaryTagTypes.BYTE) {
-      return this.value(Byte.toString(((ByteBinaryTag) tag).value()), Tokens.TYPE_BYTE);
-    } else if(type == BinaryTagTypes.SHORT) {
-      return this.value(Short.toString(((ShortBinaryTag) tag).value()), Tokens.TYPE_SHORT);
-    } else if(type == BinaryTagTypes.INT) {
-      return this.value(Integer.toString(((IntBinaryTag) tag).value()), Tokens.TYPE_INT);
-    } else if(type == BinaryTagTypes.LONG) {
-      return this.value(Long.toString(((LongBinaryTag) tag).value()), Character.toUpperCase(Tokens.TYPE_LONG)); // special-case
-    } else if(type == BinaryTagTypes.FLOAT) {
-      return this.value(Float.toString(((FloatBinaryTag) tag).value()), Tokens.TYPE_FLOAT);
-    } else if(type == BinaryTagTypes.DOUBLE) {
-      return this.value(Double.toString(((DoubleBinaryTag) tag).value()), Tokens.TYPE_DOUBLE);
-    } else {
-      throw new IOException("Unknown tag type: " + type);
-      // unknown!
+    final byte id = tag.type().id();
+    switch(id) {
+      case 1: return this.value(((ByteBinaryTag) tag).value(), Tokens.TYPE_BYTE);
+      case 2: return this.value(((ShortBinaryTag) tag).value(), Tokens.TYPE_SHORT);
+      case 3: return this.value(((IntBinaryTag) tag).value(), Tokens.TYPE_INT);
+      case 4: return this.value(((LongBinaryTag) tag).value(), Character.toUpperCase(Tokens.TYPE_LONG)); // special-case
+      case 5: return this.value(((FloatBinaryTag) tag).value());
+      case 6: return this.value(((DoubleBinaryTag) tag).value());
+      case 7: return this.writeByteArray((ByteArrayBinaryTag) tag);
+      case 8: return this.value(((StringBinaryTag) tag).value(), Tokens.EOF);
+      case 9: return this.writeList((ListBinaryTag) tag);
+      case 10: return this.writeCompound((CompoundBinaryTag) tag);
+      case 11: return this.writeIntArray((IntArrayBinaryTag) tag);
+      case 12: return this.writeLongArray((LongArrayBinaryTag) tag);
+      default: throw new IOException("Unknown tag type: " + tag.type());
     }
   }
 
   private TagStringWriter writeCompound(final CompoundBinaryTag tag) throws IOException {
     this.beginCompound();
-    for(final Map.Entry<String, ? extends BinaryTag> entry : tag) {
-      this.key(entry.getKey());
-      this.writeTag(entry.getValue());
+    final TagMap tags = CompoundBinaryTagImpl.tags(tag);
+    if(tags != null) {
+      for(final TagMap.EntryIterator it = tags.entryIterator(); it.hasNext(); it.skip()) {
+        this.key(it.key());
+        this.writeTag(it.value());
+      }
+    } else {
+      for(final Map.Entry<String, ? extends BinaryTag> entry : tag) {
+        this.key(entry.getKey());
+        this.writeTag(entry.getValue());
+      }
     }
     this.endCompound();
     return this;
@@ -98,24 +109,49 @@ import java.util.Map;
 
   private TagStringWriter writeList(final ListBinaryTag tag) throws IOException {
     this.beginList();
-    int idx = 0;
     final boolean lineBreaks = this.prettyPrinting() && this.breakListElement(tag.listType());
-    for(final BinaryTag el : tag) {
-      this.printAndResetSeparator(!lineBreaks);
-      if(lineBreaks) {
-        this.newlineIndent();
+    final PrimitiveTagList primitives = ListBinaryTagImpl.primitives(tag);
+    if(primitives != null) {
+      final byte id = tag.listType().id();
+      final Object values = primitives.values();
+      for(int i = 0, size = primitives.size(); i < size; i++) {
+        this.beginListElement(i, lineBreaks);
+        this.writePrimitive(id, values, i);
       }
-      if(this.legacy) {
-        this.out.append(String.valueOf(idx++));
-        this.appendSeparator(Tokens.COMPOUND_KEY_TERMINATOR);
+    } else {
+      int idx = 0;
+      for(final BinaryTag el : tag) {
+        this.beginListElement(idx++, lineBreaks);
+        this.writeTag(el);
       }
-
-      this.writeTag(el);
     }
     this.endList(lineBreaks);
     return this;
   }
 
+  private void beginListElement(final int index, final boolean lineBreaks) throws IOException {
+    this.printAndResetSeparator(!lineBreaks);
+    if(lineBreaks) {
+      this.newlineIndent();
+    }
+    if(this.legacy) {
+      this.appendNumber(index);
+      this.appendSeparator(Tokens.COMPOUND_KEY_TERMINATOR);
+    }
+  }
+
+  private TagStringWriter writePrimitive(final byte id, final Object values, final int index) throws IOException {
+    switch(id) {
+      case 1: return this.value(((byte[]) values)[index], Tokens.TYPE_BYTE);
+      case 2: return this.value(((short[]) values)[index], Tokens.TYPE_SHORT);
+      case 3: return this.value(((int[]) values)[index], Tokens.TYPE_INT);
+      case 4: return this.value(((long[]) values)[index], Character.toUpperCase(Tokens.TYPE_LONG));
+      case 5: return this.value(((float[]) values)[index]);
+      case 6: return this.value(((double[]) values)[index]);
+      default: throw new IOException("Unknown primitive list type: " + id);
+    }
+  }
+
   private TagStringWriter writeByteArray(final ByteArrayBinaryTag tag) throws IOException {
     if(this.legacy) {
       throw new IOException("Legacy Mojangson only supports integer arrays!");
@@ -126,7 +162,7 @@ import java.util.Map;
     final byte[] value = ByteArrayBinaryTagImpl.value(tag);
     for(int i = 0, length = value.length; i < length; i++) {
       this.printAndResetSeparator(true);
-      this.value(Byte.toString(value[i]), byteArrayType);
+      this.value(value[i], byteArrayType);
     }
     this.endArray();
     return this;
@@ -142,7 +178,7 @@ import java.util.Map;
     final int[] value = IntArrayBinaryTagImpl.value(tag);
     for(int i = 0, length = value.length; i < length; i++) {
       this.printAndResetSeparator(true);
-      this.value(Integer.toString(value[i]), Tokens.TYPE_INT);
+      this.value(value[i], Tokens.TYPE_INT);
     }
     this.endArray();
     return this;
@@ -157,7 +193,99 @@ import java.util.Map;
     final long[] value = LongArrayBinaryTagImpl.value(tag);
     for(int i = 0, length = value.length; i < length; i++) {
       this.printAndResetSeparator(true);
-      this.value(Long.toString(value[i]), Tokens.TYPE_LONG);
+      this.value(value[i], Tokens.TYPE_LONG);
+    }
+    this.endArray();
+    return this;
+  }
+
+  // Transcoding: binary values are read and written one at a time, without building tags
+
+  public TagStringWriter writeBinary(final byte id, final DataInput input) throws IOException {
+    switch(id) {
+      case 1: return this.value(input.readByte(), Tokens.TYPE_BYTE);
+      case 2: return this.value(input.readShort(), Tokens.TYPE_SHORT);
+      case 3: return this.value(input.readInt(), Tokens.TYPE_INT);
+      case 4: return this.value(input.readLong(), Character.toUpperCase(Tokens.TYPE_LONG)); // special-case
+      case 5: return this.value(input.readFloat());
+      case 6: return this.value(input.readDouble());
+      case 7: return this.writeBinaryByteArray(input);
+      case 8: return this.value(ModifiedUtf8.read(input), Tokens.EOF);
+      case 9: return this.writeBinaryList(input);
+      case 10: return this.writeBinaryCompound(input);
+      case 11: return this.writeBinaryIntArray(input);
+      case 12: return this.writeBinaryLongArray(input);
+      default: throw new IOException("Unknown tag type: " + id);
+    }
+  }
+
+  private TagStringWriter writeBinaryCompound(final DataInput input) throws IOException {
+    this.beginCompound();
+    byte id;
+    while((id = input.readByte()) != BinaryTagTypes.END.id()) {
+      this.key(ModifiedUtf8.read(input));
+      this.writeBinary(id, input);
+    }
+    this.endCompound();
+    return this;
+  }
+
+  private TagStringWriter writeBinaryList(final DataInput input) throws IOException {
+    final byte id = input.readByte();
+    final BinaryTagType<?> type = BinaryTagType.of(id);
+    final int length = input.readInt();
+    if(type == BinaryTagTypes.END && length > 0) {
+      throw new IOException(String.format("Cannot read a %s of %d %s elements", BinaryTagTypes.LIST, length, BinaryTagTypes.END));
+    }
+    this.beginList();
+    final boolean lineBreaks = this.prettyPrinting() && this.breakListElement(type);
+    for(int i = 0; i < length; i++) {
+      this.beginListElement(i, lineBreaks);
+      this.writeBinary(id, input);
+    }
+    this.endList(lineBreaks);
+    return this;
+  }
+
+  private TagStringWriter writeBinaryByteArray(final DataInput input) throws IOException {
+    if(this.legacy) {
+      throw new IOException("Legacy Mojangson only supports integer arrays!");
+    }
+    this.beginArray(Tokens.TYPE_BYTE);
+
+    final char byteArrayType = Character.toUpperCase(Tokens.TYPE_BYTE); // special case to match vanilla format
+    for(int i = 0, length = input.readInt(); i < length; i++) {
+      this.printAndResetSeparator(true);
+      this.value(input.readByte(), byteArrayType);
+    }
+    this.endArray();
+    return this;
+  }
+
+  private TagStringWriter writeBinaryIntArray(final DataInput input) throws IOException {
+    if(this.legacy) {
+      this.beginList();
+    } else {
+      this.beginArray(Tokens.TYPE_INT);
+    }
+
+    for(int i = 0, length = input.readInt(); i < length; i++) {
+      this.printAndResetSeparator(true);
+      this.value(input.readInt(), Tokens.TYPE_INT);
+    }
+    this.endArray();
+    return this;
+  }
+
+  private TagStringWriter writeBinaryLongArray(final DataInput input) throws IOException {
+    if(this.legacy) {
+      throw new IOException("Legacy Mojangson only supports integer arrays!");
+    }
+    this.beginArray(Tokens.TYPE_LONG);
+
+    for(int i = 0, length = input.readInt(); i < length; i++) {
+      this.printAndResetSeparator(true);
+      this.value(input.readLong(), Tokens.TYPE_LONG);
     }
     this.endArray();
     return this;
@@ -168,14 +296,14 @@ import java.util.Map;
   public TagStringWriter beginCompound() throws IOException {
     this.printAndResetSeparator(false);
     this.level++;
-    this.out.append(Tokens.COMPOUND_BEGIN);
+    this.append(Tokens.COMPOUND_BEGIN);
     return this;
   }
 
   public TagStringWriter endCompound() throws IOException {
     this.level--;
     this.newlineIndent();
-    this.out.append(Tokens.COMPOUND_END);
+    this.append(Tokens.COMPOUND_END);
     this.needsSeparator = true;
     return this;
   }
@@ -192,19 +320,56 @@ import java.util.Map;
     if(valueType == Tokens.EOF) { // string doesn't have its type
       this.writeMaybeQuoted(value, true);
     } else {
-      this.out.append(value);
-      if(valueType != Tokens.TYPE_INT) {
-        this.out.append(valueType);
-      }
+      this.append(value);
+      this.appendType(valueType);
     }
     this.needsSeparator = true;
     return this;
   }
 
+  private TagStringWriter value(final long value, final char valueType) throws IOException {
+    this.appendNumber(value);
+    this.appendType(valueType);
+    this.needsSeparator = true;
+    return this;
+  }
+
+  private TagStringWriter value(final float value) throws IOException {
+    if(value == (int) value && Math.abs(value) < PLAIN_DECIMAL_LIMIT && Float.floatToRawIntBits(value) != NEGATIVE_ZERO_FLOAT) {
+      this.appendNumber((int) value);
+      this.append('.');
+      this.append('0');
+    } else {
+      this.append(Float.toString(value));
+    }
+    this.append(Tokens.TYPE_FLOAT);
+    this.needsSeparator = true;
+    return this;
+  }
+
+  private TagStringWriter value(final double value) throws IOException {
+    if(value == (long) value && Math.abs(value) < PLAIN_DECIMAL_LIMIT && Double.doubleToRawLongBits(value) != NEGATIVE_ZERO_DOUBLE) {
+      this.appendNumber((long) value);
+      this.append('.');
+      this.append('0');
+    } else {
+      this.append(Double.toString(value));
+    }
+    this.append(Tokens.TYPE_DOUBLE);
+    this.needsSeparator = true;
+    return this;
+  }
+
+  private void appendType(final char valueType) throws IOException {
+    if(valueType != Tokens.TYPE_INT) {
+      this.append(valueType);
+    }
+  }
+
   public TagStringWriter beginList() throws IOException {
     this.printAndResetSeparator(false);
     this.level++;
-    this.out.append(Tokens.ARRAY_BEGIN);
+    this.append(Tokens.ARRAY_BEGIN);
     return this;
   }
 
@@ -213,18 +378,18 @@ import java.util.Map;
     if(lineBreak) {
       this.newlineIndent();
     }
-    this.out.append(Tokens.ARRAY_END);
+    this.append(Tokens.ARRAY_END);
     this.needsSeparator = true;
     return this;
   }
 
   private TagStringWriter beginArray(final char type) throws IOException {
-    this.beginList()
-      .out.append(Character.toUpperCase(type))
-      .append(Tokens.ARRAY_SIGNATURE_SEPARATOR);
+    this.beginList();
+    this.append(Character.toUpperCase(type));
+    this.append(Tokens.ARRAY_SIGNATURE_SEPARATOR);
 
     if(this.prettyPrinting()) {
-      this.out.append(' ');
+      this.append(' ');
     }
 
     return this;
@@ -235,8 +400,9 @@ import java.util.Map;
   }
 
   private void writeMaybeQuoted(final String content, boolean requireQuotes) throws IOException {
+    final int length = content.length();
     if(!requireQuotes) {
-      for(int i = 0; i < content.length(); ++i) {
+      for(int i = 0; i < length; ++i) {
         if(!Tokens.id(content.charAt(i))) {
           requireQuotes = true;
           break;
@@ -244,31 +410,28 @@ import java.util.Map;
       }
     }
     if(requireQuotes) { // TODO: single quotes
-      this.out.append(Tokens.DOUBLE_QUOTE);
-      this.out.append(escape(content, Tokens.DOUBLE_QUOTE));
-      this.out.append(Tokens.DOUBLE_QUOTE);
-    } else {
-      this.out.append(content);
-    }
-  }
-
-  private static String escape(final String content, final char quoteChar) {
-    final StringBuilder output = new StringBuilder(content.length());
-    for(int i = 0; i < content.length(); ++i) {
-      final char c = content.charAt(i);
-      if(c == quoteChar || c == '\\') {
-        output.append(Tokens.ESCAPE_MARKER);
+      this.append(Tokens.DOUBLE_QUOTE);
+      int start = 0;
+      for(int i = 0; i < length; ++i) {
+        final char c = content.charAt(i);
+        if(c == Tokens.DOUBLE_QUOTE || c == Tokens.ESCAPE_MARKER) {
+          this.append(content, start, i);
+          this.append(Tokens.ESCAPE_MARKER);
+          start = i;
+        }
       }
-      output.append(c);
+      this.append(content, start, length);
+      this.append(Tokens.DOUBLE_QUOTE);
+    } else {
+      this.append(content, 0, length);
     }
-    return output.toString();
   }
 
   private void printAndResetSeparator(final boolean pad) throws IOException {
     if(this.needsSeparator) {
-      this.out.append(Tokens.VALUE_SEPARATOR);
+      this.append(Tokens.VALUE_SEPARATOR);
       if(pad && this.prettyPrinting()) {
-        this.out.append(' ');
+        this.append(' ');
       }
       this.needsSeparator = false;
     }
@@ -286,28 +449,112 @@ import java.util.Map;
   }
 
   private boolean prettyPrinting() {
-    return this.indent.length() > 0;
+    return this.indent.length > 0;
   }
 
   private void newlineIndent() throws IOException {
     if(this.prettyPrinting()) {
-      this.out.append(Tokens.NEWLINE);
+      this.append(this.newline);
       for(int i = 0; i < this.level; ++i) {
-        this.out.append(this.indent);
+        this.append(this.indent);
       }
     }
   }
 
-  private Appendable appendSeparator(final char separatorChar) throws IOException {
-    this.out.append(separatorChar);
+  private void appendSeparator(final char separatorChar) throws IOException {
+    this.append(separatorChar);
     if(this.prettyPrinting()) {
-      this.out.append(' ');
+      this.append(' ');
+    }
+  }
+
+  // Buffering
+
+  private void append(final char c) throws IOException {
+    if(this.position == BUFFER_SIZE) {
+      this.flushBuffer();
+    }
+    this.buffer[this.position++] = c;
+  }
+
+  private void append(final char[] chars) throws IOException {
+    final int length = chars.length;
+    if(length > BUFFER_SIZE - this.position) {
+      this.flushBuffer();
+      if(length > BUFFER_SIZE) {
+        this.out.append(java.nio.CharBuffer.wrap(chars));
+        return;
+      }
+    }
+    System.arraycopy(chars, 0, this.buffer, this.position, length);
+    this.position += length;
+  }
+
+  private void append(final String string) throws IOException {
+    this.append(string, 0, string.length());
+  }
+
+  private void append(final String string, final int start, final int end) throws IOException {
+    final int length = end - start;
+    if(length > BUFFER_SIZE - this.position) {
+      this.flushBuffer();
+      if(length > BUFFER_SIZE) {
+        this.out.append(string, start, end);
+        return;
+      }
+    }
+    string.getChars(start, end, this.buffer, this.position);
+    this.position += length;
+  }
+
+  /**
+   * Appends the decimal digits of {@code value}, without going through a string.
+   *
+   * @param value the value
+   * @throws IOException if the buffer could not be flushed
+   */
+  private void appendNumber(long value) throws IOException {
+    if(value == Long.MIN_VALUE) { // cannot be negated
+      this.append(LONG_MIN);
+      return;
+    }
+    if(BUFFER_SIZE - this.position < LONG_MIN.length()) {
+      this.flushBuffer();
+    }
+    final char[] buffer = this.buffer;
+    if(value < 0) {
+      buffer[this.position++] = '-';
+      value = -value;
+    }
+    int digits = 1;
+    for(long remaining = value / 10; remaining != 0; remaining /= 10) {
+      digits++;
+    }
+    this.position += digits;
+    int index = this.position;
+    do {
+      buffer[--index] = (char) ('0' + (value % 10));
+      value /= 10;
+    } while(value != 0);
+  }
+
+  private void flushBuffer() throws IOException {
+    if(this.position == 0) {
+      return;
+    }
+    if(this.out instanceof Writer) {
+      ((Writer) this.out).write(this.buffer, 0, this.position);
+    } else if(this.out instanceof StringBuilder) {
+      ((StringBuilder) this.out).append(this.buffer, 0, this.position);
+    } else {
+      this.out.append(java.nio.CharBuffer.wrap(this.buffer, 0, this.position));
     }
-    return this.out;
+    this.position = 0;
   }
 
   @Override
   public void close() throws IOException {
+    this.flushBuffer();
     if(this.level != 0) {
       throw new IllegalStateException("Document finished with unbalanced start and end objects");
     }
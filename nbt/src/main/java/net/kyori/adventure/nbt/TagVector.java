@@ -0,0 +1,246 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of tags, stored in a 32-way trie with a separate tail.
+ *
+ * <p>{@link #with(int, BinaryTag)} copies only the path to the changed element, and {@link #plus(BinaryTag)}
+ * usually copies only the tail, so both share almost all of their storage with this list.</p>
+ */
+/* package */ final class TagVector extends AbstractList<BinaryTag> implements RandomAccess {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+  /* package */ static final TagVector EMPTY = new TagVector(0, BITS, new Object[WIDTH], new Object[0]);
+  private final int size;
+  private final int shift;
+  private final Object[] root;
+  private final Object[] tail;
+
+  private TagVector(final int size, final int shift, final Object[] root, final Object[] tail) {
+    this.size = size;
+    this.shift = shift;
+    this.root = root;
+    this.tail = tail;
+  }
+
+  /**
+   * Creates a vector containing the elements of {@code tags}.
+   *
+   * @param tags the tags
+   * @return a tag vector
+   */
+  /* package */ static TagVector copyOf(final List<? extends BinaryTag> tags) {
+    if(tags instanceof TagVector) return (TagVector) tags;
+    final int size = tags.size();
+    if(size == 0) return EMPTY;
+    final Object[] elements = tags.toArray();
+    final int tailOffset = tailOffset(size);
+    final Object[] tail = new Object[size - tailOffset];
+    System.arraycopy(elements, tailOffset, tail, 0, tail.length);
+    // the leaves, followed by each level of branches, until one node remains
+    Object[] nodes = new Object[tailOffset >>> BITS];
+    for(int i = 0; i < nodes.length; i++) {
+      final Object[] leaf = new Object[WIDTH];
+      System.arraycopy(elements, i << BITS, leaf, 0, WIDTH);
+      nodes[i] = leaf;
+    }
+    int shift = BITS;
+    while(nodes.length > WIDTH) {
+      final Object[] parents = new Object[(nodes.length + MASK) >>> BITS];
+      for(int i = 0; i < parents.length; i++) {
+        final Object[] parent = new Object[WIDTH];
+        System.arraycopy(nodes, i << BITS, parent, 0, Math.min(WIDTH, nodes.length - (i << BITS)));
+        parents[i] = parent;
+      }
+      nodes = parents;
+      shift += BITS;
+    }
+    final Object[] root = new Object[WIDTH];
+    System.arraycopy(nodes, 0, root, 0, nodes.length);
+    return new TagVector(size, shift, root, tail);
+  }
+
+  private static int tailOffset(final int size) {
+    return size <= WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+  }
+
+  @Override
+  public BinaryTag get(final int index) {
+    if(index < 0 || index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    return (BinaryTag) this.leaf(index)[index & MASK];
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  private Object[] leaf(final int index) {
+    if(index >= tailOffset(this.size)) return this.tail;
+    Object[] node = this.root;
+    for(int level = this.shift; level > 0; level -= BITS) {
+      node = (Object[]) node[(index >>> level) & MASK];
+    }
+    return node;
+  }
+
+  /**
+   * Gets a vector with the element at {@code index} replaced by {@code tag}.
+   *
+   * @param index the index
+   * @param tag the tag
+   * @return a vector
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  /* package */ TagVector with(final int index, final BinaryTag tag) {
+    if(index < 0 || index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    if(index >= tailOffset(this.size)) {
+      final Object[] tail = this.tail.clone();
+      tail[index & MASK] = tag;
+      return new TagVector(this.size, this.shift, this.root, tail);
+    }
+    return new TagVector(this.size, this.shift, with(this.shift, this.root, index, tag), this.tail);
+  }
+
+  private static Object[] with(final int level, final Object[] node, final int index, final BinaryTag tag) {
+    final Object[] copy = node.clone();
+    if(level == 0) {
+      copy[index & MASK] = tag;
+    } else {
+      final int child = (index >>> level) & MASK;
+      copy[child] = with(level - BITS, (Object[]) node[child], index, tag);
+    }
+    return copy;
+  }
+
+  /**
+   * Gets a vector with {@code tag} appended.
+   *
+   * @param tag the tag
+   * @return a vector
+   */
+  /* package */ TagVector plus(final BinaryTag tag) {
+    if(this.size - tailOffset(this.size) < WIDTH) {
+      final Object[] tail = new Object[this.tail.length + 1];
+      System.arraycopy(this.tail, 0, tail, 0, this.tail.length);
+      tail[this.tail.length] = tag;
+      return new TagVector(this.size + 1, this.shift, this.root, tail);
+    }
+    // the tail is full, so it is pushed into the trie
+    final Object[] root;
+    int shift = this.shift;
+    if((this.size >>> BITS) > (1 << this.shift)) {
+      root = new Object[WIDTH];
+      root[0] = this.root;
+      root[1] = path(this.shift, this.tail);
+      shift += BITS;
+    } else {
+      root = push(this.shift, this.root, this.size - 1, this.tail);
+    }
+    return new TagVector(this.size + 1, shift, root, new Object[]{tag});
+  }
+
+  private static Object[] push(final int level, final Object[] node, final int index, final Object[] tail) {
+    final Object[] copy = node.clone();
+    final int child = (index >>> level) & MASK;
+    if(level == BITS) {
+      copy[child] = tail;
+    } else {
+      final Object[] existing = (Object[]) node[child];
+      copy[child] = existing == null ? path(level - BITS, tail) : push(level - BITS, existing, index, tail);
+    }
+    return copy;
+  }
+
+  private static Object[] path(final int level, final Object[] tail) {
+    if(level == 0) return tail;
+    final Object[] node = new Object[WIDTH];
+    node[0] = path(level - BITS, tail);
+    return node;
+  }
+
+  /**
+   * Gets a vector with the element at {@code index} removed.
+   *
+   * <p>Removing the last element only copies the tail, but removing any other element copies the vector.</p>
+   *
+   * @param index the index
+   * @return a vector
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  /* package */ TagVector minus(final int index) {
+    if(index < 0 || index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    if(index == this.size - 1 && this.tail.length > 1) {
+      final Object[] tail = new Object[this.tail.length - 1];
+      System.arraycopy(this.tail, 0, tail, 0, tail.length);
+      return new TagVector(this.size - 1, this.shift, this.root, tail);
+    }
+    final Object[] elements = this.toArray();
+    final Object[] remaining = new Object[this.size - 1];
+    System.arraycopy(elements, 0, remaining, 0, index);
+    System.arraycopy(elements, index + 1, remaining, index, remaining.length - index);
+    return copyOf(new ArrayView(remaining));
+  }
+
+  @Override
+  public Object[] toArray() {
+    final Object[] elements = new Object[this.size];
+    final int tailOffset = tailOffset(this.size);
+    for(int i = 0; i < tailOffset; i += WIDTH) {
+      System.arraycopy(this.leaf(i), 0, elements, i, WIDTH);
+    }
+    System.arraycopy(this.tail, 0, elements, tailOffset, this.size - tailOffset);
+    return elements;
+  }
+
+  // a list over an array, without copying it
+  private static final class ArrayView extends AbstractList<BinaryTag> implements RandomAccess {
+    private final Object[] elements;
+
+    ArrayView(final Object[] elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    public BinaryTag get(final int index) {
+      return (BinaryTag) this.elements[index];
+    }
+
+    @Override
+    public int size() {
+      return this.elements.length;
+    }
+
+    @Override
+    public Object[] toArray() {
+      return this.elements;
+    }
+  }
+}
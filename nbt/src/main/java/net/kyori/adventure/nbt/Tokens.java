@@ -53,6 +53,21 @@ package net.kyori.adventure.nbt;
   static final String NEWLINE = System.getProperty("line.separator", "\n");
   static final char EOF = '\0';
 
+  /**
+   * Identifier characters, indexed by character.
+   */
+  private static final boolean[] ID = new boolean[128];
+
+  static {
+    for(char c = 'a'; c <= 'z'; c++) ID[c] = true;
+    for(char c = 'A'; c <= 'Z'; c++) ID[c] = true;
+    for(char c = '0'; c <= '9'; c++) ID[c] = true;
+    ID['-'] = true;
+    ID['_'] = true;
+    ID['.'] = true;
+    ID['+'] = true;
+  }
+
   private Tokens() {
   }
 
@@ -65,11 +80,7 @@ package net.kyori.adventure.nbt;
    * @return identifier
    */
   /* package */ static boolean id(final char c) {
-    return (c >= 'a' && c <= 'z')
-      || (c >= 'A' && c <= 'Z')
-      || (c >= '0' && c <= '9')
-      || c == '-' || c == '_'
-      || c == '.' || c == '+';
+    return c < ID.length && ID[c];
   }
 
   /**
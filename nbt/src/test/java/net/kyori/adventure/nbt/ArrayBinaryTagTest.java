@@ -0,0 +1,91 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.PrimitiveIterator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArrayBinaryTagTest {
+  @Test
+  void testByteArray() {
+    final ByteArrayBinaryTag tag = ByteArrayBinaryTag.of((byte) 1, (byte) 2, (byte) 3);
+    assertEquals(3, tag.size());
+    assertEquals(2, tag.get(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> tag.get(3));
+    final ByteBuffer buffer = tag.buffer();
+    assertEquals(3, buffer.get(2));
+    assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, (byte) 4));
+    final byte[] destination = new byte[5];
+    tag.copyInto(destination, 1);
+    assertArrayEquals(new byte[]{0, 1, 2, 3, 0}, destination);
+    assertThrows(IndexOutOfBoundsException.class, () -> tag.copyInto(destination, 3));
+  }
+
+  @Test
+  void testIntArray() {
+    final IntArrayBinaryTag tag = IntArrayBinaryTag.of(1, 2, 3);
+    assertEquals(3, tag.size());
+    assertEquals(2, tag.get(1));
+    assertEquals(6, tag.stream().sum());
+    final PrimitiveIterator.OfInt it = tag.iterator();
+    assertEquals(1, it.nextInt());
+    assertEquals(2, it.nextInt());
+    assertEquals(3, it.nextInt());
+    assertFalse(it.hasNext());
+    final IntBuffer buffer = tag.buffer();
+    assertEquals(3, buffer.get(2));
+    assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, 4));
+    final int[] destination = new int[4];
+    tag.copyInto(destination, 1);
+    assertArrayEquals(new int[]{0, 1, 2, 3}, destination);
+  }
+
+  @Test
+  void testLongArray() {
+    final LongArrayBinaryTag tag = LongArrayBinaryTag.of(1, 2, 3);
+    assertEquals(3, tag.size());
+    assertEquals(2, tag.get(1));
+    assertEquals(6, tag.stream().sum());
+    final PrimitiveIterator.OfLong it = tag.iterator();
+    assertEquals(1, it.nextLong());
+    assertEquals(2, it.nextLong());
+    assertEquals(3, it.nextLong());
+    assertFalse(it.hasNext());
+    final LongBuffer buffer = tag.buffer();
+    assertEquals(3, buffer.get(2));
+    assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, 4));
+    final long[] destination = new long[4];
+    tag.copyInto(destination, 1);
+    assertArrayEquals(new long[]{0, 1, 2, 3}, destination);
+  }
+}
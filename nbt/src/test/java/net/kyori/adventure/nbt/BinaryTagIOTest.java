@@ -0,0 +1,175 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryTagIOTest {
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+  @TempDir
+  Path directory;
+
+  @AfterEach
+  void shutdown() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  void testBatchRoundTrip() {
+    final Map<Path, CompoundBinaryTag> tags = this.tags(16);
+    this.join(BinaryTagIO.writePaths(tags, this.executor));
+    this.assertRead(tags, BinaryTagIO.readPaths(tags.keySet(), this.executor));
+  }
+
+  @Test
+  void testCompressedBatchRoundTrip() {
+    final Map<Path, CompoundBinaryTag> tags = this.tags(16);
+    this.join(BinaryTagIO.writeCompressedPaths(tags, this.executor));
+    this.assertRead(tags, BinaryTagIO.readCompressedPaths(tags.keySet(), this.executor));
+  }
+
+  @Test
+  void testBatchFailureIsIsolated() throws IOException {
+    final Map<Path, CompoundBinaryTag> tags = this.tags(2);
+    this.join(BinaryTagIO.writePaths(tags, this.executor));
+    final Path missing = this.directory.resolve("missing.dat");
+    final List<Path> paths = new ArrayList<>(tags.keySet());
+    paths.add(1, missing);
+    final List<CompletableFuture<CompoundBinaryTag>> results = BinaryTagIO.readPaths(paths, this.executor);
+    assertEquals(paths.size(), results.size());
+    final CompletionException thrown = assertThrows(CompletionException.class, () -> results.get(1).join());
+    assertTrue(thrown.getCause() instanceof IOException);
+    results.remove(1);
+    this.assertRead(tags, results);
+  }
+
+  @Test
+  void testBatchDuplicatePaths() {
+    final Map<Path, CompoundBinaryTag> tags = this.tags(2);
+    this.join(BinaryTagIO.writePaths(tags, this.executor));
+    final List<Path> paths = new ArrayList<>(tags.keySet());
+    paths.add(paths.get(0));
+    final List<CompletableFuture<CompoundBinaryTag>> results = BinaryTagIO.readPaths(paths, this.executor);
+    assertEquals(3, results.size());
+    assertEquals(tags.get(paths.get(0)), results.get(2).join());
+    results.remove(2);
+    this.assertRead(tags, results);
+  }
+
+  @Test
+  void testAsyncRoundTrip() throws IOException {
+    final Map<Path, CompoundBinaryTag> tags = this.tags(2);
+    final Iterator<Map.Entry<Path, CompoundBinaryTag>> it = tags.entrySet().iterator();
+    final Map.Entry<Path, CompoundBinaryTag> plain = it.next();
+    final Map.Entry<Path, CompoundBinaryTag> compressed = it.next();
+    BinaryTagIO.writePathAsync(plain.getValue(), plain.getKey(), this.executor).join();
+    BinaryTagIO.writeCompressedPathAsync(compressed.getValue(), compressed.getKey(), this.executor).join();
+    assertEquals(plain.getValue(), BinaryTagIO.readPath(plain.getKey()));
+    assertEquals(compressed.getValue(), BinaryTagIO.readCompressedPath(compressed.getKey()));
+    assertEquals(plain.getValue(), BinaryTagIO.readPathAsync(plain.getKey(), this.executor).join());
+    assertEquals(compressed.getValue(), BinaryTagIO.readCompressedPathAsync(compressed.getKey(), this.executor).join());
+
+    final CompletionException thrown = assertThrows(CompletionException.class, () -> BinaryTagIO.readPathAsync(this.directory.resolve("missing.dat"), this.executor).join());
+    assertTrue(thrown.getCause() instanceof IOException);
+  }
+
+  @Test
+  void testWriterCoalescesAndBounds() throws IOException, InterruptedException {
+    final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+    final BinaryTagFileWriter writer = BinaryTagFileWriter.create(Compression.gzip(), tasks::add, 1);
+    final Map<Path, CompoundBinaryTag> tags = this.tags(3);
+    final Iterator<Map.Entry<Path, CompoundBinaryTag>> it = tags.entrySet().iterator();
+    final Map.Entry<Path, CompoundBinaryTag> a = it.next();
+    final Map.Entry<Path, CompoundBinaryTag> b = it.next();
+    final Map.Entry<Path, CompoundBinaryTag> c = it.next();
+
+    final CompletableFuture<Void> first = writer.write(a.getKey(), a.getValue());
+    final CompletableFuture<Void> second = writer.write(a.getKey(), b.getValue());
+    final CompletableFuture<Void> third = writer.write(a.getKey(), c.getValue());
+    final CompletableFuture<Void> other = writer.write(b.getKey(), b.getValue());
+    assertSame(second, third);
+    assertEquals(1, tasks.size()); // one write in progress, the rest waiting
+
+    final CompletableFuture<Void> flushed = writer.flush();
+    int encoded = 0;
+    while(!flushed.isDone()) {
+      final Runnable task = tasks.poll(10, TimeUnit.MILLISECONDS);
+      if(task != null) {
+        task.run();
+        encoded++;
+      }
+    }
+    assertEquals(3, encoded);
+    first.join();
+    third.join();
+    other.join();
+    assertEquals(c.getValue(), BinaryTagIO.readCompressedPath(a.getKey()));
+    assertEquals(b.getValue(), BinaryTagIO.readCompressedPath(b.getKey()));
+  }
+
+  private Map<Path, CompoundBinaryTag> tags(final int count) {
+    final Map<Path, CompoundBinaryTag> tags = new LinkedHashMap<>();
+    for(int i = 0; i < count; i++) {
+      tags.put(this.directory.resolve(i + ".dat"), CompoundBinaryTag.builder()
+        .putInt("index", i)
+        .putString("name", "tag " + i)
+        .putLongArray("data", new long[]{i, i * 2L, i * 3L})
+        .build());
+    }
+    return tags;
+  }
+
+  private void join(final Map<Path, CompletableFuture<Void>> results) {
+    results.values().forEach(CompletableFuture::join);
+  }
+
+  private void assertRead(final Map<Path, CompoundBinaryTag> expected, final List<CompletableFuture<CompoundBinaryTag>> results) {
+    assertEquals(expected.size(), results.size());
+    final Iterator<CompoundBinaryTag> it = expected.values().iterator();
+    for(final CompletableFuture<CompoundBinaryTag> result : results) {
+      assertEquals(it.next(), result.join());
+    }
+  }
+}
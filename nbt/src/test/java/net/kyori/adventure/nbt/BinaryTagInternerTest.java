@@ -0,0 +1,72 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BinaryTagInternerTest {
+  private static CompoundBinaryTag stack(final String id) {
+    return CompoundBinaryTag.builder()
+      .putString("id", id)
+      .putByte("Count", (byte) 1)
+      .put("tag", CompoundBinaryTag.builder()
+        .put("Enchantments", ListBinaryTag.builder()
+          .add(CompoundBinaryTag.builder().putString("id", "sharpness").putShort("lvl", (short) 5).build())
+          .build())
+        .build())
+      .build();
+  }
+
+  @Test
+  void testEqualTagsAreShared() throws IOException {
+    final BinaryTagInterner interner = BinaryTagInterner.create();
+    final CompoundBinaryTag a = stack("diamond_sword");
+    final CompoundBinaryTag b = BinaryTagIO.readByteBuffer(ByteBuffer.wrap(BinaryTagIO.writeByteArray(a)));
+    assertNotSame(a, b);
+    final CompoundBinaryTag interned = interner.intern(a);
+    assertSame(a, interned);
+    assertSame(interned, interner.intern(b));
+    assertSame(interned, CompoundBinaryTag.builder().put("id", a.get("id")).putByte("Count", (byte) 1).put("tag", a.getCompound("tag")).build(interner));
+  }
+
+  @Test
+  void testNestedTagsAreShared() {
+    final BinaryTagInterner interner = BinaryTagInterner.create();
+    final CompoundBinaryTag sword = interner.intern(stack("diamond_sword"));
+    final CompoundBinaryTag axe = interner.intern(stack("diamond_axe"));
+    assertNotSame(sword, axe);
+    assertSame(sword.getCompound("tag"), axe.getCompound("tag"));
+
+    final ListBinaryTag inventory = ListBinaryTag.builder().add(stack("stone")).add(stack("stone")).build(interner);
+    assertSame(inventory.getCompound(0), inventory.getCompound(1));
+    assertSame(sword.getCompound("tag"), inventory.getCompound(0).getCompound("tag"));
+    assertEquals(stack("stone"), inventory.getCompound(1));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryTagLimitsTest {
+  @Test
+  void testWithinLimits() throws IOException {
+    final CompoundBinaryTag a = CompoundBinaryTag.builder()
+      .putString("AString", "Hello, world!")
+      .putIntArray("AnIntArray", new int[]{1, 2, 3})
+      .putLongArray("ALongArray", new long[]{4, 5})
+      .putByteArray("AByteArray", new byte[]{6})
+      .put("AList", ListBinaryTag.builder().add(CompoundBinaryTag.builder().putInt("AnInt", 7).build()).build())
+      .build();
+    final byte[] bytes = BinaryTagIO.writeByteArray(a);
+    final BinaryTagLimits exact = BinaryTagLimits.builder().maxBytes(bytes.length).maxDepth(3).maxLength(3).build();
+    assertEquals(a, BinaryTagIO.readDataInput(ByteStreams.newDataInput(bytes), exact));
+    assertEquals(a, BinaryTagIO.readInputStream(new ByteArrayInputStream(bytes), exact));
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    assertEquals(a, BinaryTagIO.readByteBuffer(buffer, exact));
+    assertEquals(0, buffer.remaining());
+    assertEquals(a, BinaryTagIO.readByteBuffer(ByteBuffer.wrap(bytes), BinaryTagLimits.unlimited()));
+
+    assertThrows(IOException.class, () -> BinaryTagIO.readByteBuffer(ByteBuffer.wrap(bytes), BinaryTagLimits.builder().maxBytes(bytes.length - 1).build()));
+    assertThrows(IOException.class, () -> BinaryTagIO.readByteBuffer(ByteBuffer.wrap(bytes), BinaryTagLimits.builder().maxDepth(2).build()));
+    assertThrows(IOException.class, () -> BinaryTagIO.readByteBuffer(ByteBuffer.wrap(bytes), BinaryTagLimits.builder().maxLength(2).build()));
+  }
+
+  @Test
+  void testHugeLengthIsRejectedBeforeAllocating() {
+    final BinaryTagLimits limits = BinaryTagLimits.builder().maxBytes(1024).build();
+    for(final byte id : new byte[]{7, 11, 12}) {
+      // a compound holding an array named "a" which claims to be almost 2^31 elements long
+      final byte[] bytes = new byte[]{10, 0, 0, id, 0, 1, 'a', 0x7f, (byte) 0xff, (byte) 0xff, 0};
+      assertThrows(IOException.class, () -> BinaryTagIO.readByteBuffer(ByteBuffer.wrap(bytes), limits));
+    }
+    // the same for a list of compounds, which take at least a byte each
+    final byte[] bytes = new byte[]{10, 0, 0, 9, 0, 1, 'a', 10, 0x7f, (byte) 0xff, (byte) 0xff, 0};
+    assertThrows(IOException.class, () -> BinaryTagIO.readByteBuffer(ByteBuffer.wrap(bytes), limits));
+  }
+
+  @Test
+  void testDeepNesting() throws IOException {
+    final int depth = 100_000;
+    final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+    output.writeByte(10);
+    output.writeShort(0);
+    for(int i = 0; i < depth; i++) {
+      // an entry named "a" holding a list of one list
+      output.write(new byte[]{9, 0, 1, 'a', 10, 0, 0, 0, 1});
+    }
+    final byte[] bytes = output.toByteArray();
+    final IOException exception = assertThrows(IOException.class, () -> BinaryTagIO.readByteBuffer(ByteBuffer.wrap(bytes), BinaryTagLimits.builder().maxDepth(512).build()));
+    assertEquals("Depth 513 is over the limit of 512", exception.getMessage());
+  }
+
+  @Test
+  void testNegativeLength() {
+    final byte[] bytes = new byte[]{10, 0, 0, 7, 0, 1, 'a', (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0};
+    assertThrows(IOException.class, () -> BinaryTagIO.readByteBuffer(ByteBuffer.wrap(bytes)));
+  }
+
+  @Test
+  void testReadLine() throws IOException {
+    final byte[] bytes = "ab\ncd\n".getBytes(StandardCharsets.US_ASCII);
+    final LimitedDataInput input = new LimitedDataInput(ByteStreams.newDataInput(bytes), BinaryTagLimits.builder().maxBytes(bytes.length - 1).build());
+    assertEquals("ab", input.readLine());
+    assertThrows(IOException.class, input::readLine);
+  }
+
+  @Test
+  void testBuilderValidation() {
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagLimits.builder().maxBytes(-1));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagLimits.builder().maxDepth(0));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagLimits.builder().maxLength(-1));
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryTagMapperTest {
+  @Test
+  void testToTag() {
+    final CompoundBinaryTag tag = BinaryTagMapper.of(Entity.class).toTag(entity());
+    assertEquals(7, tag.getInt("id"));
+    assertEquals(1, tag.getByte("alive"));
+    assertEquals(2.5d, tag.getDouble("health"));
+    assertEquals("zombie", tag.getString("name"));
+    assertEquals("HOSTILE", tag.getString("kind"));
+    assertEquals(3, tag.getInt("level"));
+    assertArrayEquals(new long[]{1, 2}, tag.getLongArray("bits"));
+    assertEquals(ListBinaryTag.builder().add(StringBinaryTag.of("a")).add(StringBinaryTag.of("b")).build(), tag.getList("tags"));
+    assertEquals(CompoundBinaryTag.builder().putInt("x", 1).putInt("y", 2).putInt("z", 3).build(), tag.getCompound("position"));
+    assertEquals(2, tag.getList("passengers").size());
+    assertEquals(4, tag.getList("passengers").getCompound(1).getInt("id"));
+    assertEquals(CompoundBinaryTag.builder().putString("a", "b").build(), tag.getCompound("extra"));
+    assertFalse(tag.keySet().contains("owner")); // null
+    assertFalse(tag.keySet().contains("cache")); // transient
+  }
+
+  @Test
+  void testFromTag() {
+    final BinaryTagMapper<Entity> mapper = BinaryTagMapper.of(Entity.class);
+    final Entity entity = entity();
+    assertEntityEquals(entity, mapper.fromTag(mapper.toTag(entity)));
+
+    final Entity partial = mapper.fromTag(CompoundBinaryTag.builder()
+      .putShort("id", (short) 9) // widened
+      .putString("unknown", "ignored")
+      .build());
+    assertEquals(9, partial.id);
+    assertEquals("unnamed", partial.name); // constructor default
+
+    assertThrows(IllegalArgumentException.class, () -> mapper.fromTag(CompoundBinaryTag.builder().putString("id", "nine").build()));
+    assertThrows(IllegalArgumentException.class, () -> mapper.fromTag(CompoundBinaryTag.builder().putString("kind", "TAME").build()));
+  }
+
+  @Test
+  void testWriteRead() throws IOException {
+    final BinaryTagMapper<Entity> mapper = BinaryTagMapper.of(Entity.class);
+    final Entity entity = entity();
+
+    final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+    mapper.write(entity, output);
+    final byte[] bytes = output.toByteArray();
+    assertEquals(mapper.toTag(entity), BinaryTagIO.readDataInput(ByteStreams.newDataInput(bytes)));
+    assertEquals(BinaryTagIO.sizeOf(mapper.toTag(entity)), bytes.length);
+    assertEntityEquals(entity, mapper.read(ByteStreams.newDataInput(bytes)));
+
+    // tags of other types are converted, and unknown keys are skipped
+    final CompoundBinaryTag other = mapper.toTag(entity)
+      .putLong("id", 11)
+      .put("unknown", ListBinaryTag.builder().add(CompoundBinaryTag.builder().putInt("a", 1).build()).build());
+    final ByteArrayDataOutput otherOutput = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(other, otherOutput);
+    final Entity read = mapper.read(ByteStreams.newDataInput(otherOutput.toByteArray()));
+    assertEquals(11, read.id);
+    assertEquals(entity.name, read.name);
+  }
+
+  @Test
+  void testMalformedInput() {
+    final BinaryTagMapper<Entity> mapper = BinaryTagMapper.of(Entity.class);
+    final CompoundBinaryTag wrongString = CompoundBinaryTag.builder().putInt("name", 5).build();
+    final IOException string = assertThrows(IOException.class, () -> mapper.read(ByteStreams.newDataInput(BinaryTagIO.writeByteArray(wrongString))));
+    assertTrue(string.getMessage().contains("name"), string.getMessage());
+    assertFalse(string.getMessage().contains("@"), string.getMessage());
+
+    final CompoundBinaryTag wrongElement = CompoundBinaryTag.builder()
+      .put("passengers", ListBinaryTag.builder().add(CompoundBinaryTag.builder().putString("id", "x").build()).build())
+      .build();
+    final IOException element = assertThrows(IOException.class, () -> mapper.read(ByteStreams.newDataInput(BinaryTagIO.writeByteArray(wrongElement))));
+    assertTrue(element.getMessage().contains("passengers[0].id"), element.getMessage());
+    final IllegalArgumentException fromTag = assertThrows(IllegalArgumentException.class, () -> mapper.fromTag(wrongElement));
+    assertEquals(element.getMessage(), fromTag.getMessage());
+
+    final CompoundBinaryTag wrongType = CompoundBinaryTag.builder().put("tags", ListBinaryTag.builder().add(IntBinaryTag.of(1)).build()).build();
+    assertThrows(IOException.class, () -> mapper.read(ByteStreams.newDataInput(BinaryTagIO.writeByteArray(wrongType))));
+  }
+
+  @Test
+  void testDeeplyNested() {
+    final BinaryTagMapper<Entity> mapper = BinaryTagMapper.of(Entity.class);
+    // owners of owners, and unknown compounds in unknown compounds, nested far deeper than any tag is read
+    for(final String key : new String[]{"owner", "unknown"}) {
+      final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+      output.writeByte(10);
+      output.writeShort(0);
+      for(int i = 0; i < 200_000; i++) {
+        output.writeByte(10);
+        output.writeUTF(key);
+      }
+      final byte[] bytes = output.toByteArray();
+      assertThrows(IOException.class, () -> mapper.read(new DataInputStream(new ByteArrayInputStream(bytes))));
+    }
+  }
+
+  @Test
+  void testNullElement() {
+    final BinaryTagMapper<Entity> mapper = BinaryTagMapper.of(Entity.class);
+    final Entity entity = new Entity();
+    entity.tags = Arrays.asList("a", null);
+    final IllegalArgumentException toTag = assertThrows(IllegalArgumentException.class, () -> mapper.toTag(entity));
+    assertTrue(toTag.getMessage().contains("tags[1]"), toTag.getMessage());
+    assertThrows(IllegalArgumentException.class, () -> mapper.write(entity, ByteStreams.newDataOutput()));
+    entity.tags = Arrays.asList(null, "a");
+    assertThrows(IllegalArgumentException.class, () -> mapper.write(entity, ByteStreams.newDataOutput()));
+  }
+
+  @Test
+  void testEmptyList() throws IOException {
+    final BinaryTagMapper<Entity> mapper = BinaryTagMapper.of(Entity.class);
+    final Entity entity = new Entity();
+    entity.tags = Collections.emptyList();
+    final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+    mapper.write(entity, output);
+    final Entity read = mapper.read(ByteStreams.newDataInput(output.toByteArray()));
+    assertTrue(read.tags.isEmpty());
+    assertEquals(mapper.toTag(entity), BinaryTagIO.readDataInput(ByteStreams.newDataInput(output.toByteArray())));
+  }
+
+  @Test
+  void testSubclass() {
+    final BinaryTagMapper<Player> mapper = BinaryTagMapper.of(Player.class);
+    final Player player = new Player();
+    player.id = 5;
+    player.level = 40;
+    final CompoundBinaryTag tag = mapper.toTag(player);
+    assertEquals(5, tag.getInt("id"));
+    assertEquals(40, tag.getInt("level"));
+    assertEquals(5, mapper.fromTag(tag).id);
+    assertSame(mapper, BinaryTagMapper.of(Player.class));
+  }
+
+  @Test
+  void testUnmappable() {
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagMapper.of(NoConstructor.class));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagMapper.of(UnsupportedField.class));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagMapper.of(Runnable.class));
+  }
+
+  private static Entity entity() {
+    final Entity entity = new Entity();
+    entity.id = 7;
+    entity.alive = true;
+    entity.health = 2.5d;
+    entity.name = "zombie";
+    entity.kind = Kind.HOSTILE;
+    entity.level = 3;
+    entity.bits = new long[]{1, 2};
+    entity.tags = Arrays.asList("a", "b");
+    entity.position = new Position(1, 2, 3);
+    final Entity first = new Entity();
+    first.id = 3;
+    final Entity second = new Entity();
+    second.id = 4;
+    entity.passengers = new ArrayList<>(Arrays.asList(first, second));
+    entity.extra = CompoundBinaryTag.builder().putString("a", "b").build();
+    entity.cache = "cached";
+    return entity;
+  }
+
+  private static void assertEntityEquals(final Entity expected, final Entity actual) {
+    assertEquals(expected.id, actual.id);
+    assertEquals(expected.alive, actual.alive);
+    assertEquals(expected.health, actual.health);
+    assertEquals(expected.name, actual.name);
+    assertEquals(expected.kind, actual.kind);
+    assertEquals(expected.level, actual.level);
+    assertArrayEquals(expected.bits, actual.bits);
+    assertEquals(expected.tags, actual.tags);
+    assertEquals(expected.position.x, actual.position.x);
+    assertEquals(expected.position.z, actual.position.z);
+    assertEquals(expected.passengers.size(), actual.passengers.size());
+    for(int i = 0; i < expected.passengers.size(); i++) {
+      assertEquals(expected.passengers.get(i).id, actual.passengers.get(i).id);
+    }
+    assertEquals(expected.extra, actual.extra);
+    assertNull(actual.owner);
+    assertNull(actual.cache);
+  }
+
+  enum Kind {
+    PASSIVE,
+    HOSTILE;
+  }
+
+  static class Entity {
+    static int ignored = 1;
+    int id;
+    boolean alive;
+    double health;
+    String name = "unnamed";
+    Kind kind;
+    Integer level;
+    long[] bits;
+    List<String> tags;
+    Position position;
+    List<Entity> passengers;
+    CompoundBinaryTag extra;
+    Entity owner;
+    transient String cache;
+  }
+
+  static final class Player extends Entity {
+  }
+
+  static final class Position {
+    final int x;
+    final int y;
+    final int z;
+
+    private Position() {
+      this(0, 0, 0);
+    }
+
+    Position(final int x, final int y, final int z) {
+      this.x = x;
+      this.y = y;
+      this.z = z;
+    }
+  }
+
+  static final class NoConstructor {
+    final int value;
+
+    NoConstructor(final int value) {
+      this.value = value;
+    }
+  }
+
+  static final class UnsupportedField {
+    Map<String, String> values;
+  }
+}
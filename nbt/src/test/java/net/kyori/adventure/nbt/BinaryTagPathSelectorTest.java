@@ -0,0 +1,118 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryTagPathSelectorTest {
+  private static final ListBinaryTag PALETTE = ListBinaryTag.builder(BinaryTagTypes.COMPOUND)
+    .add(CompoundBinaryTag.builder().putString("Name", "minecraft:air").build())
+    .add(CompoundBinaryTag.builder().putString("Name", "minecraft:stone").build())
+    .build();
+  private static final CompoundBinaryTag CHUNK = CompoundBinaryTag.builder()
+    .putInt("DataVersion", 2230)
+    .put("Level", CompoundBinaryTag.builder()
+      .putInt("xPos", 4)
+      .put("Sections", ListBinaryTag.builder(BinaryTagTypes.COMPOUND)
+        .add(CompoundBinaryTag.builder()
+          .putByte("Y", (byte) 0)
+          .put("Palette", PALETTE)
+          .putLongArray("BlockStates", new long[256])
+          .build())
+        .add(CompoundBinaryTag.builder()
+          .putByte("Y", (byte) 1)
+          .putByteArray("BlockLight", new byte[2048])
+          .build())
+        .build())
+      .build())
+    .put("Inventory", ListBinaryTag.builder(BinaryTagTypes.COMPOUND)
+      .add(CompoundBinaryTag.builder().putString("id", "minecraft:stone").putByte("Count", (byte) 64).build())
+      .build())
+    .build();
+
+  @Test
+  void testSelectTopLevel() throws IOException {
+    final CompoundBinaryTag tag = read("Inventory", "DataVersion");
+    assertEquals(CompoundBinaryTag.builder()
+      .putInt("DataVersion", 2230)
+      .put("Inventory", CHUNK.get("Inventory"))
+      .build(), tag);
+  }
+
+  @Test
+  void testSelectEveryElement() throws IOException {
+    final CompoundBinaryTag tag = read("Level.Sections[*].Palette");
+    assertEquals(CompoundBinaryTag.builder()
+      .put("Level", CompoundBinaryTag.builder()
+        .put("Sections", ListBinaryTag.builder(BinaryTagTypes.COMPOUND)
+          .add(CompoundBinaryTag.builder().put("Palette", PALETTE).build())
+          .add(CompoundBinaryTag.empty())
+          .build())
+        .build())
+      .build(), tag);
+  }
+
+  @Test
+  void testSelectIndex() throws IOException {
+    final CompoundBinaryTag tag = read("Level.Sections[1].Y", "Inventory[0].\"id\"");
+    assertEquals((byte) 1, tag.getCompound("Level").getList("Sections").getCompound(0).getByte("Y"));
+    assertEquals(1, tag.getCompound("Level").getList("Sections").size());
+    assertEquals("minecraft:stone", tag.getList("Inventory").getCompound(0).getString("id"));
+  }
+
+  @Test
+  void testSelectEveryAndIndex() throws IOException {
+    final ListBinaryTag sections = read("Level.Sections[*].Y", "Level.Sections[0].Palette").getCompound("Level").getList("Sections");
+    assertEquals(CompoundBinaryTag.builder().putByte("Y", (byte) 0).put("Palette", PALETTE).build(), sections.getCompound(0));
+    assertEquals(CompoundBinaryTag.builder().putByte("Y", (byte) 1).build(), sections.getCompound(1));
+
+    // [*] selects whole elements, which [0] must not narrow, whichever comes first
+    assertEquals(CHUNK.getList("Inventory"), read("Inventory[*]", "Inventory[0].Count").getList("Inventory"));
+    assertEquals(CHUNK.getList("Inventory"), read("Inventory[0].Count", "Inventory[*]").getList("Inventory"));
+  }
+
+  @Test
+  void testSelectMissing() throws IOException {
+    assertEquals(CompoundBinaryTag.empty(), read("Level.Entities[*]", "DataVersion.x", "Nothing"));
+  }
+
+  @Test
+  void testMalformed() {
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPathSelector.of("Level..Sections"));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPathSelector.of("Level.Sections[x]"));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPathSelector.of("Level.Sections[0"));
+  }
+
+  private static CompoundBinaryTag read(final String... paths) throws IOException {
+    final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(CHUNK, output);
+    return BinaryTagPathSelector.of(paths).read(ByteStreams.newDataInput(output.toByteArray()));
+  }
+}
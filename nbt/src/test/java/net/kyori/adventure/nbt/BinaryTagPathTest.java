@@ -0,0 +1,111 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryTagPathTest {
+  private static final CompoundBinaryTag ROOT = parse("{"
+    + "Name: \"Steve\","
+    + "Pos: [1.0d, 2.0d, 3.0d],"
+    + "Inventory: [{id: \"stone\", Count: 64b}, {id: \"dirt\", Count: 1b, tag: {Damage: 3}}, {id: \"stone\", Count: 2b}],"
+    + "Abilities: {flying: 0b, walkSpeed: 0.1f},"
+    + "\"odd.key\": 7"
+    + "}");
+
+  private static CompoundBinaryTag parse(final String snbt) {
+    try {
+      return TagStringIO.get().asCompound(snbt);
+    } catch(final IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Test
+  void testGet() {
+    assertEquals(Collections.singletonList(StringBinaryTag.of("Steve")), BinaryTagPath.compile("Name").get(ROOT));
+    assertEquals(Collections.singletonList(DoubleBinaryTag.of(2)), BinaryTagPath.compile("Pos[1]").get(ROOT));
+    assertEquals(Collections.singletonList(DoubleBinaryTag.of(3)), BinaryTagPath.compile("Pos[-1]").get(ROOT));
+    assertEquals(Collections.emptyList(), BinaryTagPath.compile("Pos[3]").get(ROOT));
+    assertEquals(Arrays.asList(ByteBinaryTag.of((byte) 64), ByteBinaryTag.of((byte) 1), ByteBinaryTag.of((byte) 2)), BinaryTagPath.compile("Inventory[].Count").get(ROOT));
+    assertEquals(Arrays.asList(ByteBinaryTag.of((byte) 64), ByteBinaryTag.of((byte) 2)), BinaryTagPath.compile("Inventory[{id: \"stone\"}].Count").get(ROOT));
+    assertEquals(Collections.singletonList(IntBinaryTag.of(3)), BinaryTagPath.compile("Inventory[].tag.Damage").get(ROOT));
+    assertEquals(Collections.singletonList(FloatBinaryTag.of(0.1f)), BinaryTagPath.compile("Abilities{flying: 0b}.walkSpeed").get(ROOT));
+    assertEquals(Collections.emptyList(), BinaryTagPath.compile("Abilities{flying: 1b}.walkSpeed").get(ROOT));
+    assertEquals(Collections.singletonList(IntBinaryTag.of(7)), BinaryTagPath.compile("\"odd.key\"").get(ROOT));
+    assertEquals(Collections.singletonList(ROOT), BinaryTagPath.compile("{Pos: [2.0d]}").get(ROOT));
+    assertEquals(Collections.emptyList(), BinaryTagPath.compile("{Pos: [4.0d]}.Name").get(ROOT));
+    assertEquals(Collections.emptyList(), BinaryTagPath.compile("Name.first").get(ROOT));
+    assertEquals(ByteBinaryTag.of((byte) 1), BinaryTagPath.compile("Inventory[{id: \"dirt\"}].Count").first(ROOT));
+    assertNull(BinaryTagPath.compile("Missing[0]").first(ROOT));
+  }
+
+  @Test
+  void testSet() {
+    assertEquals(ROOT.putString("Name", "Alex"), BinaryTagPath.compile("Name").set(ROOT, StringBinaryTag.of("Alex")));
+    final CompoundBinaryTag moved = BinaryTagPath.compile("Pos[0]").set(ROOT, DoubleBinaryTag.of(5));
+    assertEquals(Arrays.asList(DoubleBinaryTag.of(5), DoubleBinaryTag.of(2), DoubleBinaryTag.of(3)), BinaryTagPath.compile("Pos[]").get(moved));
+    assertSame(ROOT.get("Inventory"), moved.get("Inventory"));
+
+    final CompoundBinaryTag stacked = BinaryTagPath.compile("Inventory[{id: \"stone\"}].Count").set(ROOT, ByteBinaryTag.of((byte) 32));
+    assertEquals(Arrays.asList(ByteBinaryTag.of((byte) 32), ByteBinaryTag.of((byte) 1), ByteBinaryTag.of((byte) 32)), BinaryTagPath.compile("Inventory[].Count").get(stacked));
+    assertSame(ROOT.getList("Inventory").get(1), stacked.getList("Inventory").get(1));
+
+    final CompoundBinaryTag created = BinaryTagPath.compile("a.b{c: 1}.d").set(ROOT, IntBinaryTag.of(2));
+    assertEquals(parse("{b: {c: 1, d: 2}}"), created.get("a"));
+    assertSame(ROOT, BinaryTagPath.compile("Missing[0].a").set(ROOT, IntBinaryTag.of(2)));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPath.compile("Pos[0]").set(ROOT, IntBinaryTag.of(2)));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPath.compile("{}").set(ROOT, IntBinaryTag.of(2)));
+  }
+
+  @Test
+  void testRemove() {
+    assertEquals(ROOT.remove("Name"), BinaryTagPath.compile("Name").remove(ROOT));
+    assertSame(ROOT, BinaryTagPath.compile("Missing.a").remove(ROOT));
+    final CompoundBinaryTag removed = BinaryTagPath.compile("Inventory[{id: \"stone\"}]").remove(ROOT);
+    assertEquals(Collections.singletonList(StringBinaryTag.of("dirt")), BinaryTagPath.compile("Inventory[].id").get(removed));
+    final CompoundBinaryTag damaged = BinaryTagPath.compile("Inventory[1].tag.Damage").remove(ROOT);
+    assertEquals(CompoundBinaryTag.empty(), BinaryTagPath.compile("Inventory[1].tag").first(damaged));
+  }
+
+  @Test
+  void testMalformed() {
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPath.compile(""));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPath.compile("a..b"));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPath.compile("a[x]"));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPath.compile("a[0"));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPath.compile("a.{b: 1}"));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagPath.compile("a{b: 1"));
+    assertEquals(BinaryTagPath.compile("a.b[0]"), BinaryTagPath.compile("a.b[0]"));
+    assertEquals("a.b[0]", BinaryTagPath.compile("a.b[0]").toString());
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryTagStreamReaderTest {
+  private static final CompoundBinaryTag TAG = CompoundBinaryTag.builder()
+    .putInt("DataVersion", 2230)
+    .putString("id", "minecraft:zombie")
+    .put("Motion", ListBinaryTag.builder(BinaryTagTypes.DOUBLE)
+      .add(DoubleBinaryTag.of(0.5d))
+      .add(DoubleBinaryTag.of(-0.25d))
+      .build())
+    .put("Equipment", CompoundBinaryTag.builder()
+      .putLongArray("Bits", new long[]{1, 2, 3})
+      .putByte("Count", (byte) 3)
+      .build())
+    .build();
+
+  @Test
+  void testEvents() throws IOException {
+    final BinaryTagStreamReader reader = reader(CompoundBinaryTag.builder()
+      .putInt("a", 1)
+      .put("b", ListBinaryTag.builder(BinaryTagTypes.STRING).add(StringBinaryTag.of("x")).build())
+      .put("c", CompoundBinaryTag.empty())
+      .build());
+    final List<BinaryTagStreamReader.Event> events = new ArrayList<>();
+    BinaryTagStreamReader.Event event;
+    while((event = reader.next()) != BinaryTagStreamReader.Event.END) {
+      events.add(event);
+    }
+    assertEquals(ImmutableList.of(
+      BinaryTagStreamReader.Event.BEGIN_COMPOUND,
+      BinaryTagStreamReader.Event.KEY, BinaryTagStreamReader.Event.VALUE,
+      BinaryTagStreamReader.Event.KEY, BinaryTagStreamReader.Event.BEGIN_LIST, BinaryTagStreamReader.Event.VALUE, BinaryTagStreamReader.Event.END_LIST,
+      BinaryTagStreamReader.Event.KEY, BinaryTagStreamReader.Event.BEGIN_COMPOUND, BinaryTagStreamReader.Event.END_COMPOUND,
+      BinaryTagStreamReader.Event.END_COMPOUND
+    ), events);
+    assertEquals(BinaryTagStreamReader.Event.END, reader.next());
+  }
+
+  @Test
+  void testReadValues() throws IOException {
+    final BinaryTagStreamReader reader = reader(TAG);
+    int dataVersion = 0;
+    final List<Double> motion = new ArrayList<>();
+    long[] bits = null;
+    BinaryTagStreamReader.Event event;
+    while((event = reader.next()) != BinaryTagStreamReader.Event.END) {
+      if(event == BinaryTagStreamReader.Event.VALUE) {
+        if("DataVersion".equals(reader.key())) {
+          dataVersion = reader.intValue();
+        } else if("Bits".equals(reader.key())) {
+          bits = reader.longArrayValue();
+        } else if(reader.type() == BinaryTagTypes.DOUBLE) {
+          motion.add(reader.doubleValue());
+        }
+      }
+    }
+    assertEquals(2230, dataVersion);
+    assertEquals(2, motion.size());
+    assertEquals(-0.25d, motion.get(1));
+    assertArrayEquals(new long[]{1, 2, 3}, bits);
+  }
+
+  @Test
+  void testSkipContainers() throws IOException {
+    final BinaryTagStreamReader reader = reader(TAG);
+    assertEquals(BinaryTagStreamReader.Event.BEGIN_COMPOUND, reader.next());
+    final List<String> keys = new ArrayList<>();
+    while(reader.next() == BinaryTagStreamReader.Event.KEY) {
+      keys.add(reader.key());
+      reader.skip();
+    }
+    assertEquals(BinaryTagStreamReader.Event.END_COMPOUND, reader.event());
+    assertEquals(4, keys.size());
+    assertEquals(BinaryTagStreamReader.Event.END, reader.next());
+  }
+
+  @Test
+  void testReadTag() throws IOException {
+    final BinaryTagStreamReader reader = reader(TAG);
+    BinaryTagStreamReader.Event event;
+    while((event = reader.next()) != BinaryTagStreamReader.Event.END) {
+      if(event == BinaryTagStreamReader.Event.KEY && reader.depth() == 1) {
+        assertEquals(TAG.get(reader.key()), reader.readTag());
+      }
+    }
+    final BinaryTagStreamReader root = reader(TAG);
+    root.next();
+    assertEquals(TAG, root.readTag());
+    assertEquals(BinaryTagStreamReader.Event.END, root.next());
+  }
+
+  @Test
+  void testValueTypeMismatch() throws IOException {
+    final BinaryTagStreamReader reader = reader(TAG);
+    reader.next(); // root
+    reader.next(); // DataVersion
+    reader.next();
+    assertThrows(IllegalStateException.class, reader::stringValue);
+  }
+
+  @Test
+  void testMalformed() throws IOException {
+    // a list of -1 end tags
+    final BinaryTagStreamReader list = BinaryTagStreamReader.of(ByteStreams.newDataInput(new byte[]{10, 0, 0, 9, 0, 1, 'x', 0, -1, -1, -1, -1, 0}));
+    list.next();
+    list.next();
+    assertThrows(IOException.class, list::next);
+    // a byte array of -1 bytes, both read and skipped
+    final byte[] array = {10, 0, 0, 7, 0, 1, 'b', -1, -1, -1, -1, 0};
+    final BinaryTagStreamReader read = BinaryTagStreamReader.of(ByteStreams.newDataInput(array));
+    read.next();
+    read.next();
+    read.next();
+    assertThrows(IOException.class, read::byteArrayValue);
+    final BinaryTagStreamReader skip = BinaryTagStreamReader.of(ByteStreams.newDataInput(array));
+    skip.next();
+    skip.next();
+    assertThrows(IOException.class, skip::skip);
+  }
+
+  @Test
+  void testSkipDeeplyNested() throws IOException {
+    // compounds under empty keys, nested far deeper than any tag is read
+    final byte[] data = new byte[3 * 200_000];
+    for(int i = 0; i < data.length; i += 3) {
+      data[i] = 10;
+    }
+    final BinaryTagStreamReader reader = BinaryTagStreamReader.of(new DataInputStream(new ByteArrayInputStream(data)));
+    reader.next();
+    assertThrows(IOException.class, reader::skip);
+  }
+
+  @Test
+  void testBigTest() throws IOException {
+    try(final InputStream is = new GZIPInputStream(BinaryTagStreamReaderTest.class.getResourceAsStream("/bigtest.nbt"))) {
+      final BinaryTagStreamReader reader = BinaryTagStreamReader.of(new DataInputStream(is));
+      int values = 0;
+      while(reader.next() != BinaryTagStreamReader.Event.END) {
+        if(reader.event() == BinaryTagStreamReader.Event.VALUE) values++;
+      }
+      assertEquals(21, values);
+    }
+  }
+
+  private static BinaryTagStreamReader reader(final CompoundBinaryTag tag) throws IOException {
+    final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(tag, output);
+    return BinaryTagStreamReader.of(ByteStreams.newDataInput(output.toByteArray()));
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompoundBinaryTagDeltaTest {
+  private static final CompoundBinaryTag BASE = CompoundBinaryTag.builder()
+    .putString("Name", "Steve")
+    .putInt("Health", 20)
+    .putLongArray("Uuid", new long[]{1, 2})
+    .put("Pos", ListBinaryTag.builder().add(DoubleBinaryTag.of(1)).add(DoubleBinaryTag.of(2)).add(DoubleBinaryTag.of(3)).build())
+    .put("Inventory", ListBinaryTag.builder()
+      .add(CompoundBinaryTag.builder().putString("id", "stone").putByte("Count", (byte) 64).build())
+      .add(CompoundBinaryTag.builder().putString("id", "dirt").putByte("Count", (byte) 1).build())
+      .build())
+    .put("Abilities", CompoundBinaryTag.builder().putByte("flying", (byte) 0).putFloat("walkSpeed", 0.1f).build())
+    .build();
+
+  @Test
+  void testUnchanged() throws IOException {
+    assertSame(CompoundBinaryTagDelta.empty(), CompoundBinaryTagDelta.between(BASE, BASE));
+    final CompoundBinaryTag copy = BinaryTagIO.readByteBuffer(ByteBuffer.wrap(BinaryTagIO.writeByteArray(BASE)));
+    final CompoundBinaryTagDelta delta = CompoundBinaryTagDelta.between(BASE, copy);
+    assertTrue(delta.isEmpty());
+    assertEquals(1, this.writeRead(delta).length);
+  }
+
+  @Test
+  void testChanges() throws IOException {
+    final CompoundBinaryTag target = BASE
+      .remove("Uuid")
+      .putInt("Health", 19)
+      .putString("Team", "red")
+      .put("Pos", ListBinaryTag.builder().add(DoubleBinaryTag.of(1)).add(DoubleBinaryTag.of(2.5)).add(DoubleBinaryTag.of(3)).build())
+      .put("Inventory", BASE.getList("Inventory")
+        .set(1, BASE.getList("Inventory").getCompound(1).putByte("Count", (byte) 2), null)
+        .add(CompoundBinaryTag.builder().putString("id", "sand").build()))
+      .put("Abilities", BASE.getCompound("Abilities").putByte("flying", (byte) 1));
+    this.assertRoundTrip(BASE, target);
+    this.assertRoundTrip(target, BASE);
+  }
+
+  @Test
+  void testTypeChanges() throws IOException {
+    final CompoundBinaryTag target = BASE
+      .putString("Health", "20")
+      .put("Pos", ListBinaryTag.builder().add(IntBinaryTag.of(1)).build())
+      .put("Inventory", ListBinaryTag.empty())
+      .put("Abilities", ListBinaryTag.empty());
+    this.assertRoundTrip(BASE, target);
+    this.assertRoundTrip(target, BASE);
+  }
+
+  @Test
+  void testSmallerThanTarget() throws IOException {
+    final CompoundBinaryTag target = BASE.put("Abilities", BASE.getCompound("Abilities").putFloat("walkSpeed", 0.2f));
+    final byte[] bytes = this.writeRead(CompoundBinaryTagDelta.between(BASE, target));
+    assertTrue(bytes.length * 4 < BinaryTagIO.sizeOf(target));
+  }
+
+  @Test
+  void testApplyToUnrelatedTag() {
+    final CompoundBinaryTag target = BASE.put("Abilities", BASE.getCompound("Abilities").putByte("flying", (byte) 1));
+    final CompoundBinaryTagDelta delta = CompoundBinaryTagDelta.between(BASE, target);
+    assertThrows(IllegalArgumentException.class, () -> delta.apply(CompoundBinaryTag.empty()));
+    assertThrows(IllegalArgumentException.class, () -> delta.apply(BASE.putInt("Abilities", 0)));
+  }
+
+  @Test
+  void testMalformed() {
+    // an unknown operation on key "a"
+    assertThrows(IOException.class, () -> CompoundBinaryTagDelta.read(ByteStreams.newDataInput(new byte[]{9, 0, 1, 'a', 0})));
+    // a list change on key "a" to index 2 of a list of 1 element
+    assertThrows(IOException.class, () -> CompoundBinaryTagDelta.read(ByteStreams.newDataInput(new byte[]{4, 0, 1, 'a', 0, 0, 0, 1, 2, 0, 0, 0, 2, 1, 0, 0})));
+    // a list change on key "a" setting index 1 and then index 0
+    assertThrows(IOException.class, () -> CompoundBinaryTagDelta.read(ByteStreams.newDataInput(new byte[]{4, 0, 1, 'a', 0, 0, 0, 2, 2, 0, 0, 0, 1, 1, 0, 2, 0, 0, 0, 0, 1, 0, 0, 0})));
+    // a truncated list change
+    assertThrows(IOException.class, () -> CompoundBinaryTagDelta.read(new DataInputStream(new ByteArrayInputStream(new byte[]{4, 0, 1, 'a', 0x7f, -1, -1, -1}))));
+  }
+
+  @Test
+  void testOversizedList() throws IOException {
+    // a list change on key "Pos" growing it to Integer.MAX_VALUE elements without giving any of them
+    final CompoundBinaryTagDelta huge = CompoundBinaryTagDelta.read(ByteStreams.newDataInput(new byte[]{4, 0, 3, 'P', 'o', 's', 0x7f, -1, -1, -1, 0, 0}));
+    assertThrows(IllegalArgumentException.class, () -> huge.apply(BASE));
+    // growing it by two elements, but giving only the last
+    final CompoundBinaryTagDelta gap = CompoundBinaryTagDelta.read(ByteStreams.newDataInput(new byte[]{4, 0, 3, 'P', 'o', 's', 0, 0, 0, 5, 2, 0, 0, 0, 4, 6, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}));
+    assertThrows(IllegalArgumentException.class, () -> gap.apply(BASE));
+  }
+
+  @Test
+  void testApplyToListOfOtherType() {
+    final CompoundBinaryTag ints = CompoundBinaryTag.builder().put("list", ListBinaryTag.builder().add(IntBinaryTag.of(1)).add(IntBinaryTag.of(2)).build()).build();
+    final CompoundBinaryTag strings = CompoundBinaryTag.builder().put("list", ListBinaryTag.builder().add(StringBinaryTag.of("a")).add(StringBinaryTag.of("b")).build()).build();
+    final CompoundBinaryTagDelta delta = CompoundBinaryTagDelta.between(ints, ints.put("list", ListBinaryTag.builder().add(IntBinaryTag.of(1)).add(IntBinaryTag.of(3)).build()));
+    assertThrows(IllegalArgumentException.class, () -> delta.apply(strings));
+  }
+
+  @Test
+  void testDeeplyNested() {
+    // compound changes on empty keys, nested far deeper than any tag is read
+    final byte[] data = new byte[3 * 200_000];
+    for(int i = 0; i < data.length; i += 3) {
+      data[i] = 3;
+    }
+    assertThrows(IOException.class, () -> CompoundBinaryTagDelta.read(new DataInputStream(new ByteArrayInputStream(data))));
+  }
+
+  private void assertRoundTrip(final CompoundBinaryTag base, final CompoundBinaryTag target) throws IOException {
+    final CompoundBinaryTagDelta delta = CompoundBinaryTagDelta.between(base, target);
+    assertEquals(target, delta.apply(base));
+    final CompoundBinaryTagDelta read = CompoundBinaryTagDelta.read(ByteStreams.newDataInput(this.writeRead(delta)));
+    assertEquals(delta, read);
+    assertEquals(target, read.apply(base));
+  }
+
+  private byte[] writeRead(final CompoundBinaryTagDelta delta) throws IOException {
+    final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+    delta.write(output);
+    return output.toByteArray();
+  }
+}
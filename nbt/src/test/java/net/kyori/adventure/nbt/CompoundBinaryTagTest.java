@@ -0,0 +1,177 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CompoundBinaryTagTest {
+  @Test
+  void testPutRemove() {
+    final CompoundBinaryTag c0 = CompoundBinaryTag.empty().putInt("a", 1).putString("b", "two");
+    final CompoundBinaryTag c1 = c0.putInt("a", 3);
+    final CompoundBinaryTag c2 = c1.remove("b", removed -> assertEquals(StringBinaryTag.of("two"), removed));
+    assertEquals(1, c0.getInt("a"));
+    assertEquals(3, c1.getInt("a"));
+    assertEquals("two", c1.getString("b"));
+    assertNull(c2.get("b"));
+    assertEquals(CompoundBinaryTag.builder().putInt("a", 3).build(), c2);
+    assertSame(c2, c2.remove("missing"));
+    assertEquals(CompoundBinaryTag.empty(), c2.remove("a"));
+    assertEquals(CompoundBinaryTag.builder().putInt("a", 1).build(), CompoundBinaryTag.builder().putInt("a", 1).putInt("b", 2).remove("b").build());
+  }
+
+  @Test
+  void testHashCollisions() {
+    // "Aa" and "BB" have the same hash code, as do their concatenations
+    final String[] keys = new String[]{"AaAa", "AaBB", "BBAa", "BBBB", "Aa", "BB", "C#"};
+    CompoundBinaryTag tag = CompoundBinaryTag.empty();
+    for(int i = 0; i < keys.length; i++) {
+      tag = tag.putInt(keys[i], i);
+    }
+    for(int i = 0; i < keys.length; i++) {
+      assertEquals(i, tag.getInt(keys[i]));
+    }
+    final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder();
+    for(int i = 0; i < keys.length; i++) {
+      builder.putInt(keys[i], i);
+    }
+    assertEquals(tag, builder.build());
+    assertEquals(tag.hashCode(), builder.build().hashCode());
+    for(int i = 0; i < keys.length; i++) {
+      tag = tag.remove(keys[i]);
+      assertNull(tag.get(keys[i]));
+      for(int j = i + 1; j < keys.length; j++) {
+        assertEquals(j, tag.getInt(keys[j]));
+      }
+    }
+    assertEquals(CompoundBinaryTag.empty(), tag);
+  }
+
+  @Test
+  void testRandomEdits() {
+    final Random random = new Random(1234);
+    final Map<String, BinaryTag> expected = new HashMap<>();
+    final List<CompoundBinaryTag> history = new ArrayList<>();
+    final List<Map<String, BinaryTag>> expectedHistory = new ArrayList<>();
+    CompoundBinaryTag tag = CompoundBinaryTag.empty();
+    for(int i = 0; i < 5000; i++) {
+      final String key = "key" + random.nextInt(800);
+      if(random.nextInt(3) == 0) {
+        expected.remove(key);
+        tag = tag.remove(key);
+      } else {
+        final IntBinaryTag value = IntBinaryTag.of(random.nextInt(4));
+        expected.put(key, value);
+        tag = tag.put(key, value);
+      }
+      if(i % 500 == 0) {
+        history.add(tag);
+        expectedHistory.add(new HashMap<>(expected));
+      }
+    }
+    this.assertContents(expected, tag);
+    // earlier versions are unaffected by later edits
+    for(int i = 0; i < history.size(); i++) {
+      this.assertContents(expectedHistory.get(i), history.get(i));
+    }
+    assertNotEquals(history.get(1), history.get(2));
+  }
+
+  @Test
+  void testSmallRandomEdits() {
+    // keeps the size around the flat limit, so compounds move between layouts
+    final Random random = new Random(4321);
+    final Map<String, BinaryTag> expected = new HashMap<>();
+    CompoundBinaryTag tag = CompoundBinaryTag.empty();
+    for(int i = 0; i < 2000; i++) {
+      final String key = "key" + random.nextInt(TagMap.FLAT_MAX + 4);
+      if(random.nextInt(3) == 0) {
+        expected.remove(key);
+        tag = tag.remove(key);
+      } else {
+        final IntBinaryTag value = IntBinaryTag.of(random.nextInt(4));
+        expected.put(key, value);
+        tag = tag.put(key, value);
+      }
+      this.assertContents(expected, tag);
+    }
+  }
+
+  @Test
+  void testSmallCompoundOrder() throws IOException {
+    final List<String> keys = IntStream.range(0, TagMap.FLAT_MAX).mapToObj(i -> "key" + (TagMap.FLAT_MAX - i)).collect(Collectors.toList());
+    final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder();
+    keys.forEach(key -> builder.putByte(key, (byte) 1));
+    final CompoundBinaryTag tag = builder.build();
+    assertIterableEquals(keys, tag.keySet());
+    assertIterableEquals(keys, TagStringIO.get().asCompound(TagStringIO.get().asString(tag)).keySet());
+  }
+
+  @Test
+  @SuppressWarnings("UnstableApiUsage")
+  void testReadKeysArePooled() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder().putString("id", "minecraft:stone").putByte("Count", (byte) 1).build();
+    final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(tag, output);
+    final CompoundBinaryTag a = BinaryTagIO.readDataInput(ByteStreams.newDataInput(output.toByteArray()));
+    final CompoundBinaryTag b = TagStringIO.get().asCompound(TagStringIO.get().asString(tag));
+    assertEquals(tag, a);
+    assertEquals(tag, b);
+    final List<String> aKeys = new ArrayList<>(a.keySet());
+    final List<String> bKeys = new ArrayList<>(b.keySet());
+    for(int i = 0; i < aKeys.size(); i++) {
+      assertSame(aKeys.get(i), bKeys.get(i));
+    }
+  }
+
+  private void assertContents(final Map<String, BinaryTag> expected, final CompoundBinaryTag tag) {
+    assertEquals(expected.keySet(), tag.keySet());
+    final Map<String, BinaryTag> actual = new HashMap<>();
+    tag.forEach(entry -> actual.put(entry.getKey(), entry.getValue()));
+    assertEquals(expected, actual);
+    assertEquals(new HashSet<>(expected.keySet()).hashCode(), tag.keySet().hashCode());
+    final CompoundBinaryTag.Builder builder = CompoundBinaryTag.builder();
+    expected.forEach(builder::put);
+    final CompoundBinaryTag built = builder.build();
+    assertEquals(built, tag);
+    assertEquals(built.hashCode(), tag.hashCode());
+  }
+}
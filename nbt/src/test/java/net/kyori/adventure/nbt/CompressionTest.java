@@ -0,0 +1,155 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionTest {
+  private static final Compression[] COMPRESSIONS = new Compression[]{Compression.none(), Compression.gzip(), Compression.gzip(9), Compression.zlib(),
+    Compression.zlib(1), Compression.deflate(), Compression.deflate(0), Compression.lz4()};
+
+  @Test
+  void testRoundTrip() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("name", "compressed")
+      .putIntArray("ints", new int[4096])
+      .putLongArray("longs", new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE})
+      .build();
+    for(final Compression compression : COMPRESSIONS) {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      BinaryTagIO.writeCompressedOutputStream(tag, output, compression);
+      assertEquals(tag, BinaryTagIO.readCompressedInputStream(new ByteArrayInputStream(output.toByteArray()), compression), compression.toString());
+    }
+  }
+
+  @Test
+  void testBytes() throws IOException {
+    final Random random = new Random(42);
+    final byte[] noise = new byte[200_000];
+    random.nextBytes(noise);
+    final byte[] text = new byte[200_000];
+    for(int i = 0; i < text.length; i++) {
+      text[i] = (byte) ("abcdefgh".charAt(random.nextInt(8)) + (i % 1000 < 500 ? 0 : 16));
+    }
+    for(final Compression compression : COMPRESSIONS) {
+      for(final byte[] data : new byte[][]{new byte[0], new byte[]{1}, new byte[13], noise, text}) {
+        assertArrayEquals(data, this.decompress(compression, this.compress(compression, data)), compression.toString());
+      }
+    }
+  }
+
+  @Test
+  void testLz4Ratio() throws IOException {
+    final byte[] data = new byte[100_000];
+    for(int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i % 251);
+    }
+    assertTrue(this.compress(Compression.lz4(), data).length < data.length / 10);
+  }
+
+  @Test
+  void testJdkInterop() throws IOException {
+    final byte[] data = "Hello, world! Hello, world! Hello, world!".getBytes("UTF-8");
+
+    final ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+    try(final OutputStream output = new GZIPOutputStream(gzip)) {
+      output.write(data);
+    }
+    assertArrayEquals(data, this.decompress(Compression.gzip(), gzip.toByteArray()));
+    assertArrayEquals(data, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(this.compress(Compression.gzip(), data)))));
+
+    final ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+    try(final OutputStream output = new DeflaterOutputStream(zlib)) {
+      output.write(data);
+    }
+    assertArrayEquals(data, this.decompress(Compression.zlib(), zlib.toByteArray()));
+    assertArrayEquals(data, ByteStreams.toByteArray(new InflaterInputStream(new ByteArrayInputStream(this.compress(Compression.zlib(), data)))));
+  }
+
+  @Test
+  void testNestedStreams() throws IOException {
+    final byte[] a = "first".getBytes("UTF-8");
+    final byte[] b = "second".getBytes("UTF-8");
+    final byte[] compressedA = this.compress(Compression.gzip(), a);
+    final byte[] compressedB = this.compress(Compression.gzip(), b);
+    try(final InputStream first = Compression.gzip().decompress(new ByteArrayInputStream(compressedA));
+        final InputStream second = Compression.gzip().decompress(new ByteArrayInputStream(compressedB))) {
+      assertEquals('f', first.read());
+      assertEquals('s', second.read());
+      assertArrayEquals(Arrays.copyOfRange(a, 1, a.length), ByteStreams.toByteArray(first));
+      assertArrayEquals(Arrays.copyOfRange(b, 1, b.length), ByteStreams.toByteArray(second));
+    }
+  }
+
+  @Test
+  void testCorrupt() throws IOException {
+    final byte[] gzip = this.compress(Compression.gzip(), new byte[64]);
+    gzip[gzip.length - 5] ^= 1;
+    assertThrows(ZipException.class, () -> this.decompress(Compression.gzip(), gzip));
+    assertThrows(ZipException.class, () -> this.decompress(Compression.gzip(), new byte[]{1, 2, 3}));
+
+    final byte[] lz4 = this.compress(Compression.lz4(), new byte[64]);
+    assertThrows(IOException.class, () -> this.decompress(Compression.lz4(), Arrays.copyOf(lz4, lz4.length - 2)));
+    lz4[8] = (byte) 0xff;
+    assertThrows(IOException.class, () -> this.decompress(Compression.lz4(), lz4));
+  }
+
+  @Test
+  void testInvalidLevel() {
+    assertThrows(IllegalArgumentException.class, () -> Compression.gzip(10));
+    assertThrows(IllegalArgumentException.class, () -> Compression.zlib(-2));
+  }
+
+  private byte[] compress(final Compression compression, final byte[] data) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try(final OutputStream stream = compression.compress(output)) {
+      stream.write(data);
+    }
+    return output.toByteArray();
+  }
+
+  private byte[] decompress(final Compression compression, final byte[] data) throws IOException {
+    try(final InputStream stream = compression.decompress(new ByteArrayInputStream(data))) {
+      return ByteStreams.toByteArray(stream);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EncodedCompoundTest {
+  private static final CompoundBinaryTag TAG = CompoundBinaryTag.builder()
+    .putString("name", "stone")
+    .putInt("count", 64)
+    .put("display", CompoundBinaryTag.builder()
+      .putString("Name", "Rock")
+      .put("Lore", ListBinaryTag.builder().add(StringBinaryTag.of("a")).add(StringBinaryTag.of("b")).build())
+      .build())
+    .put("items", ListBinaryTag.builder()
+      .add(CompoundBinaryTag.builder().putByte("Slot", (byte) 0).build())
+      .add(CompoundBinaryTag.builder().putByte("Slot", (byte) 1).putLongArray("data", new long[]{1, 2, 3}).build())
+      .build())
+    .put("empty", ListBinaryTag.empty())
+    .putIntArray("ints", new int[]{1, 2, 3})
+    .putByteArray("bytes", new byte[]{4, 5})
+    .build();
+
+  @Test
+  void testReadMatchesEager() throws IOException {
+    final byte[] bytes = write(TAG);
+    final CompoundBinaryTag lazy = BinaryTagIO.readLazyByteArray(bytes);
+    assertEquals(TAG, lazy);
+    assertEquals(lazy, TAG);
+    assertEquals(TAG.hashCode(), lazy.hashCode());
+    assertEquals("Rock", lazy.getCompound("display").getString("Name"));
+    assertEquals(TAG.getList("items"), lazy.getList("items"));
+  }
+
+  @Test
+  void testBigTest() throws IOException {
+    final byte[] bytes;
+    try(final InputStream is = this.getClass().getResourceAsStream("/bigtest.nbt")) {
+      bytes = IOStreamUtil.readAllBytes(Compression.gzip().decompress(is));
+    }
+    final CompoundBinaryTag eager = BinaryTagIO.readInputStream(new ByteArrayInputStream(bytes));
+    final CompoundBinaryTag lazy = BinaryTagIO.readLazyByteArray(bytes);
+    // the entries are copied as they were read, but the root name is not kept
+    final int nameLength = ((bytes[1] & 0xff) << 8) | (bytes[2] & 0xff);
+    final byte[] unnamed = Arrays.copyOfRange(bytes, nameLength, bytes.length);
+    unnamed[0] = 10;
+    unnamed[1] = 0;
+    unnamed[2] = 0;
+    assertArrayEquals(unnamed, write(lazy));
+    assertEquals(eager, lazy);
+    try(final InputStream is = this.getClass().getResourceAsStream("/bigtest.nbt")) {
+      assertEquals(lazy, BinaryTagIO.readLazyCompressedInputStream(is));
+    }
+  }
+
+  @Test
+  void testNestedCompoundsStayEncoded() throws IOException {
+    final CompoundBinaryTag lazy = BinaryTagIO.readLazyByteArray(write(TAG));
+    assertNotNull(CompoundBinaryTagImpl.encoded(lazy));
+    final CompoundBinaryTag changed = lazy.putInt("count", 32);
+    assertNull(CompoundBinaryTagImpl.encoded(changed));
+    assertNotNull(CompoundBinaryTagImpl.encoded(changed.getCompound("display")));
+    for(final BinaryTag item : changed.getList("items")) {
+      assertNotNull(CompoundBinaryTagImpl.encoded((CompoundBinaryTag) item));
+    }
+    assertEquals(TAG.putInt("count", 32), BinaryTagIO.readInputStream(new ByteArrayInputStream(write(changed))));
+  }
+
+  @Test
+  void testMalformed() throws IOException {
+    final byte[] bytes = write(TAG);
+    for(int length = 0; length < bytes.length; length++) {
+      final byte[] truncated = Arrays.copyOf(bytes, length);
+      assertThrows(EOFException.class, () -> BinaryTagIO.readLazyByteArray(truncated));
+    }
+    assertThrows(IOException.class, () -> BinaryTagIO.readLazyByteArray(new byte[]{9, 0, 0, 0, 0, 0, 0, 0}));
+    assertThrows(IOException.class, () -> BinaryTagIO.readLazyByteArray(new byte[]{10, 0, 0, 13, 0, 1, 'a', 0}));
+    assertThrows(IOException.class, () -> BinaryTagIO.readLazyByteArray(new byte[]{10, 0, 0, 11, 0, 1, 'a', -1, -1, -1, -1, 0}));
+  }
+
+  @Test
+  void testDeeplyNested() {
+    // compounds under empty keys, nested far deeper than any tag is read
+    final byte[] bytes = new byte[3 * 200_000];
+    for(int i = 0; i < bytes.length; i += 3) {
+      bytes[i] = 10;
+    }
+    assertThrows(IOException.class, () -> BinaryTagIO.readLazyByteArray(bytes));
+  }
+
+  private static byte[] write(final CompoundBinaryTag tag) throws IOException {
+    final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(tag, output);
+    return output.toByteArray();
+  }
+}
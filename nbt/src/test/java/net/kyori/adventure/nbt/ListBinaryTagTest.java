@@ -24,10 +24,16 @@
 package net.kyori.adventure.nbt;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ListBinaryTagTest {
   @Test
@@ -94,4 +100,113 @@ class ListBinaryTagTest {
     assertEquals(i1, l3.get(1));
     assertEquals(i2, l3.get(2));
   }
+
+  @Test
+  void testNumericListsArePrimitive() throws IOException {
+    final List<List<BinaryTag>> lists = ImmutableList.of(
+      ImmutableList.of(ByteBinaryTag.of((byte) -1), ByteBinaryTag.of((byte) 2)),
+      ImmutableList.of(ShortBinaryTag.of((short) -1), ShortBinaryTag.of((short) 2)),
+      ImmutableList.of(IntBinaryTag.of(-1), IntBinaryTag.of(2)),
+      ImmutableList.of(LongBinaryTag.of(-1), LongBinaryTag.of(2)),
+      ImmutableList.of(FloatBinaryTag.of(-1f), FloatBinaryTag.of(Float.NaN)),
+      ImmutableList.of(DoubleBinaryTag.of(-1d), DoubleBinaryTag.of(Double.NaN))
+    );
+    for(final List<BinaryTag> tags : lists) {
+      final BinaryTagType<? extends BinaryTag> type = tags.get(0).type();
+      final ListBinaryTag built = ListBinaryTag.builder().add(tags.get(0)).add(tags.get(1)).build();
+      assertTrue(ListBinaryTagImpl.primitives(built) != null, type.toString());
+      final List<? extends BinaryTag> packed = PrimitiveTagList.pack(type, tags);
+      assertTrue(packed instanceof PrimitiveTagList, type.toString());
+      assertEquals(tags, packed);
+      assertEquals(packed, tags);
+      assertEquals(tags.hashCode(), packed.hashCode());
+      assertEquals(tags, ImmutableList.copyOf(built));
+
+      final ListBinaryTag read = this.writeRead(built);
+      assertTrue(ListBinaryTagImpl.primitives(read) != null, type.toString());
+      assertEquals(built, read);
+      assertEquals(type, read.listType());
+      assertEquals(((NumberBinaryTag) tags.get(0)).doubleValue(), read.getDouble(0, 0d));
+      assertEquals(((NumberBinaryTag) tags.get(1)).intValue(), read.getInt(1, 0));
+    }
+  }
+
+  @Test
+  void testPrimitiveListEdit() {
+    final ListBinaryTag l0 = ListBinaryTag.builder(BinaryTagTypes.DOUBLE).add(DoubleBinaryTag.of(1d)).add(DoubleBinaryTag.of(2d)).build();
+    final ListBinaryTag l1 = l0.add(DoubleBinaryTag.of(3d)).set(0, DoubleBinaryTag.of(4d), null).remove(1, null);
+    assertTrue(ListBinaryTagImpl.primitives(l1) != null);
+    assertEquals(ImmutableList.of(DoubleBinaryTag.of(4d), DoubleBinaryTag.of(3d)), ImmutableList.copyOf(l1));
+    assertEquals(2d, l0.getDouble(1));
+  }
+
+  @Test
+  void testPrimitiveListAppends() throws IOException {
+    ListBinaryTag list = ListBinaryTag.empty().add(IntBinaryTag.of(0));
+    final int[] expected = new int[10_000];
+    for(int i = 1; i < expected.length; i++) {
+      list = list.add(IntBinaryTag.of(i));
+      expected[i] = i;
+    }
+    assertTrue(ListBinaryTagImpl.primitives(list) != null);
+    assertEquals(expected.length, list.size());
+    assertEquals(9_999, list.getInt(9_999));
+    assertThrows(IndexOutOfBoundsException.class, () -> ListBinaryTagImpl.primitives(ListBinaryTag.empty().add(IntBinaryTag.of(0))).get(1));
+    assertEquals(list, this.writeRead(list));
+    assertEquals(this.writeRead(list).hashCode(), list.hashCode());
+
+    // lists sharing an array do not see each other's appends
+    final ListBinaryTag base = ListBinaryTag.empty().add(IntBinaryTag.of(1)).add(IntBinaryTag.of(2));
+    final ListBinaryTag a = base.add(IntBinaryTag.of(3));
+    final ListBinaryTag b = base.add(IntBinaryTag.of(4));
+    final ListBinaryTag c = a.add(IntBinaryTag.of(5));
+    assertEquals(2, base.size());
+    assertThrows(IndexOutOfBoundsException.class, () -> base.getInt(2));
+    assertEquals(ImmutableList.of(IntBinaryTag.of(1), IntBinaryTag.of(2), IntBinaryTag.of(3)), ImmutableList.copyOf(a));
+    assertEquals(ImmutableList.of(IntBinaryTag.of(1), IntBinaryTag.of(2), IntBinaryTag.of(4)), ImmutableList.copyOf(b));
+    assertEquals(ImmutableList.of(IntBinaryTag.of(1), IntBinaryTag.of(2), IntBinaryTag.of(3), IntBinaryTag.of(5)), ImmutableList.copyOf(c));
+    assertEquals(ListBinaryTag.builder().add(IntBinaryTag.of(1)).add(IntBinaryTag.of(2)).add(IntBinaryTag.of(4)).build(), b);
+  }
+
+  @Test
+  void testReadEmptyEndList() throws IOException {
+    final ListBinaryTag read = this.writeRead(ListBinaryTag.empty());
+    assertEquals(ListBinaryTag.empty(), read);
+    assertEquals(BinaryTagTypes.END, read.listType());
+  }
+
+  @SuppressWarnings("UnstableApiUsage")
+  private ListBinaryTag writeRead(final ListBinaryTag tag) throws IOException {
+    final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+    BinaryTagTypes.LIST.write(tag, output);
+    return BinaryTagTypes.LIST.read(ByteStreams.newDataInput(output.toByteArray()));
+  }
+
+  @Test
+  void testLargeListEdits() {
+    final List<BinaryTag> expected = new ArrayList<>();
+    ListBinaryTag list = ListBinaryTag.empty();
+    for(int i = 0; i < 1100; i++) {
+      final StringBinaryTag tag = StringBinaryTag.of("s" + i);
+      expected.add(tag);
+      list = list.add(tag);
+    }
+    final ListBinaryTag snapshot = list;
+    assertEquals(expected, ImmutableList.copyOf(list));
+    for(int i = 0; i < expected.size(); i += 7) {
+      final StringBinaryTag tag = StringBinaryTag.of("t" + i);
+      expected.set(i, tag);
+      list = list.set(i, tag, null);
+    }
+    list = list.remove(1099, null).remove(512, null).remove(0, null);
+    expected.remove(1099);
+    expected.remove(512);
+    expected.remove(0);
+    assertEquals(expected, ImmutableList.copyOf(list));
+    assertEquals(ListBinaryTag.of(BinaryTagTypes.STRING, expected), list);
+    assertEquals(ListBinaryTag.of(BinaryTagTypes.STRING, expected).hashCode(), list.hashCode());
+    assertEquals(1100, snapshot.size());
+    assertEquals(StringBinaryTag.of("s7"), snapshot.get(7));
+    assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(1100));
+  }
 }
@@ -0,0 +1,92 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import com.google.common.base.Strings;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ModifiedUtf8Test {
+  private static final String[] STRINGS = new String[]{"", "id", "minecraft:diamond_sword", "ÅÄÖ", "a\0b", "ÿĀ߿ࠀ", String.valueOf(Character.MAX_VALUE), "😀 smile", "日本語", Strings.repeat("abc", 1000), Strings.repeat("一", 21845)};
+
+  @Test
+  void testMatchesDataOutput() throws IOException {
+    for(final String string : STRINGS) {
+      final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      new DataOutputStream(expected).writeUTF(string);
+      final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+      ModifiedUtf8.write(new DataOutputStream(actual), string);
+      assertArrayEquals(expected.toByteArray(), actual.toByteArray(), string);
+
+      assertEquals(string, ModifiedUtf8.read(new DataInputStream(new ByteArrayInputStream(expected.toByteArray()))));
+      assertEquals(string, ModifiedUtf8.read(new ByteBufferDataInput(ByteBuffer.wrap(expected.toByteArray()))));
+      final ByteBuffer direct = ByteBuffer.allocateDirect(expected.size());
+      direct.put(expected.toByteArray()).flip();
+      assertEquals(string, ModifiedUtf8.read(new ByteBufferDataInput(direct)));
+    }
+  }
+
+  @Test
+  void testRepeatedStringsAreShared() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final DataOutputStream data = new DataOutputStream(output);
+    ModifiedUtf8.write(data, "minecraft:stone");
+    ModifiedUtf8.write(data, "minecraft:stone");
+    final DataInputStream input = new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+    assertSame(ModifiedUtf8.read(input), ModifiedUtf8.read(input));
+  }
+
+  @Test
+  void testTooLong() {
+    assertThrows(UTFDataFormatException.class, () -> ModifiedUtf8.write(new DataOutputStream(new ByteArrayOutputStream()), Strings.repeat("é", 40000)));
+    assertThrows(UTFDataFormatException.class, () -> ModifiedUtf8.write(new DataOutputStream(new ByteArrayOutputStream()), Strings.repeat("a", 0x10000)));
+  }
+
+  @Test
+  void testMalformed() {
+    assertThrows(UTFDataFormatException.class, () -> this.read(0, 2, 'a', 0xc3));
+    assertThrows(UTFDataFormatException.class, () -> this.read(0, 2, 0xc3, 'a'));
+    assertThrows(UTFDataFormatException.class, () -> this.read(0, 3, 0xe6, 0x97, 'a'));
+    assertThrows(UTFDataFormatException.class, () -> this.read(0, 1, 0xff));
+  }
+
+  private String read(final int... bytes) throws IOException {
+    final byte[] data = new byte[bytes.length];
+    for(int i = 0; i < bytes.length; i++) {
+      data[i] = (byte) bytes[i];
+    }
+    return ModifiedUtf8.read(new DataInputStream(new ByteArrayInputStream(data)));
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PackedBitStorageTest {
+  @Test
+  void testLayouts() {
+    // 5 bit values: 12 fit in each long when padded, leaving 4 bits unused
+    final int[] values = new int[13];
+    for(int i = 0; i < values.length; i++) values[i] = i + 1;
+    final PackedBitStorage padded = PackedBitStorage.create(5, 13, PackedBitStorage.Layout.PADDED);
+    padded.pack(values);
+    final long[] paddedData = padded.toTag().value();
+    assertEquals(2, paddedData.length);
+    assertEquals(13, paddedData[1]);
+    assertEquals(12, paddedData[0] >>> 55);
+
+    final PackedBitStorage spanning = PackedBitStorage.create(5, 13, PackedBitStorage.Layout.SPANNING);
+    spanning.pack(values);
+    final long[] spanningData = spanning.toTag().value();
+    assertEquals(2, spanningData.length);
+    // the 13th value starts at bit 60, so its lowest 4 bits end the first long
+    assertEquals(13 & 0xf, spanningData[0] >>> 60);
+    assertEquals(13 >>> 4, spanningData[1]);
+  }
+
+  @Test
+  void testMatchesNaive() {
+    final Random random = new Random(42);
+    for(final PackedBitStorage.Layout layout : PackedBitStorage.Layout.values()) {
+      for(int bits = 1; bits <= 32; bits++) {
+        final int size = 4096 + random.nextInt(64);
+        final long[] data = new long[PackedBitStorage.length(bits, size, layout)];
+        for(int i = 0; i < data.length; i++) data[i] = random.nextLong();
+        final PackedBitStorage storage = PackedBitStorage.wrap(data.clone(), bits, size, layout);
+        final int[] unpacked = storage.unpack();
+        for(int i = 0; i < size; i++) {
+          assertEquals(naive(data, bits, layout, i), unpacked[i], layout + " " + bits + " bits at " + i);
+          assertEquals(unpacked[i], storage.get(i));
+        }
+
+        final int[] values = new int[size];
+        for(int i = 0; i < size; i++) values[i] = random.nextInt() >>> (32 - bits);
+        final PackedBitStorage set = PackedBitStorage.create(bits, size, layout);
+        for(int i = 0; i < size; i++) set.set(i, values[i]);
+        final PackedBitStorage packed = PackedBitStorage.create(bits, size, layout);
+        packed.pack(values);
+        assertEquals(set.toTag(), packed.toTag());
+        assertArrayEquals(values, packed.unpack());
+      }
+    }
+  }
+
+  @Test
+  void testSharing() {
+    final LongArrayBinaryTag tag = LongArrayBinaryTag.of(0x21);
+    final PackedBitStorage storage = PackedBitStorage.of(tag, 4, 16, PackedBitStorage.Layout.PADDED);
+    assertEquals(1, storage.get(0));
+    assertEquals(2, storage.get(1));
+    storage.set(0, 3);
+    assertEquals(1, tag.get(0) & 0xf);
+    final LongArrayBinaryTag changed = storage.toTag();
+    storage.set(0, 4);
+    assertEquals(0x23, changed.get(0));
+    assertEquals(0x24, storage.toTag().get(0));
+  }
+
+  @Test
+  void testBounds() {
+    final PackedBitStorage storage = PackedBitStorage.create(4, 16, PackedBitStorage.Layout.SPANNING);
+    assertThrows(IndexOutOfBoundsException.class, () -> storage.get(16));
+    assertThrows(IndexOutOfBoundsException.class, () -> storage.set(-1, 0));
+    assertThrows(IllegalArgumentException.class, () -> storage.set(0, 16));
+    assertThrows(IllegalArgumentException.class, () -> storage.pack(new int[15]));
+    assertThrows(IllegalArgumentException.class, () -> PackedBitStorage.create(33, 16, PackedBitStorage.Layout.PADDED));
+    assertThrows(IllegalArgumentException.class, () -> PackedBitStorage.of(LongArrayBinaryTag.of(1, 2), 4, 16, PackedBitStorage.Layout.PADDED));
+    final PackedBitStorage wide = PackedBitStorage.create(32, 3, PackedBitStorage.Layout.PADDED);
+    wide.set(2, -1);
+    assertEquals(-1, wide.get(2));
+  }
+
+  private static int naive(final long[] data, final int bits, final PackedBitStorage.Layout layout, final int index) {
+    int value = 0;
+    for(int b = 0; b < bits; b++) {
+      final long bit;
+      if(layout == PackedBitStorage.Layout.PADDED) {
+        final int perLong = 64 / bits;
+        bit = (long) (index / perLong) * 64 + (index % perLong) * bits + b;
+      } else {
+        bit = (long) index * bits + b;
+      }
+      if((data[(int) (bit / 64)] >>> (bit % 64) & 1) != 0) value |= 1 << b;
+    }
+    return value;
+  }
+}
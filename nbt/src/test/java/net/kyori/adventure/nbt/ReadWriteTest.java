@@ -26,10 +26,18 @@ package net.kyori.adventure.nbt;
 import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ReadWriteTest {
   @Test
@@ -107,6 +115,89 @@ class ReadWriteTest {
     this.testWriteRead(StringBinaryTag.of("Hello, world!"), BinaryTagTypes.STRING);
   }
 
+  @Test
+  void testByteBuffer() throws IOException {
+    final CompoundBinaryTag a = CompoundBinaryTag.builder()
+      .putString("AString", "HELLO WORLD THIS IS A TEST STRING ÅÄÖ! \u0000 \ud83d\ude00") // NUL and a surrogate pair
+      .putIntArray("AnIntArray", new int[]{Integer.MIN_VALUE, -100, 0, 100, Integer.MAX_VALUE})
+      .putLongArray("ALongArray", new long[]{Long.MIN_VALUE, -100, 0, 100, Long.MAX_VALUE})
+      .putByteArray("AByteArray", new byte[]{1, 2, 3})
+      .put("AList", ListBinaryTag.builder().add(DoubleBinaryTag.of(32d)).build())
+      .build();
+    final ByteArrayDataOutput expected = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(a, expected);
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(1024).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.position(3);
+    BinaryTagIO.writeByteBuffer(a, buffer);
+    assertEquals(3 + expected.toByteArray().length, buffer.position());
+    buffer.flip().position(3);
+    final byte[] written = new byte[buffer.remaining()];
+    buffer.duplicate().get(written);
+    assertArrayEquals(expected.toByteArray(), written);
+
+    assertEquals(a, BinaryTagIO.readByteBuffer(buffer));
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  void testByteBufferBounds() throws IOException {
+    final CompoundBinaryTag a = CompoundBinaryTag.builder().putLongArray("ALongArray", new long[64]).build();
+    assertThrows(BufferOverflowException.class, () -> BinaryTagIO.writeByteBuffer(a, ByteBuffer.allocate(16)));
+    assertThrows(BufferOverflowException.class, () -> new ByteBufferDataOutput(ByteBuffer.allocate(1)).writeUTF(""));
+    assertThrows(BufferOverflowException.class, () -> new ByteBufferDataOutput(ByteBuffer.allocate(3)).writeUTF("ab"));
+    final ByteBuffer buffer = ByteBuffer.allocate(1024);
+    BinaryTagIO.writeByteBuffer(a, buffer);
+    buffer.flip().limit(32);
+    assertThrows(EOFException.class, () -> BinaryTagIO.readByteBuffer(buffer));
+  }
+
+  @Test
+  void testByteBufferReadLine() {
+    final byte[] bytes = "a\nb\r\nc\r\rdé".getBytes(StandardCharsets.ISO_8859_1);
+    final ByteBufferDataInput input = new ByteBufferDataInput(ByteBuffer.wrap(bytes));
+    // lines end as they do for DataInputStream, with each byte read as a character
+    for(final String line : new String[]{"a", "b", "c", "", "dé"}) {
+      assertEquals(line, input.readLine());
+    }
+    assertNull(input.readLine());
+  }
+
+  @Test
+  void testSizeOf() throws IOException {
+    final CompoundBinaryTag a = CompoundBinaryTag.builder()
+      .putString("AString", "ÅÄÖ \u0000 \ud83d\ude00 \u07ff\u0800") // NUL, a surrogate pair and the widest two byte character
+      .putString("ÅKey", "")
+      .putIntArray("AnIntArray", new int[]{1, 2, 3})
+      .putLongArray("ALongArray", new long[]{4, 5})
+      .putByteArray("AByteArray", new byte[]{6})
+      .put("AList", ListBinaryTag.builder().add(DoubleBinaryTag.of(32d)).add(DoubleBinaryTag.of(64d)).build())
+      .put("AStringList", ListBinaryTag.builder().add(StringBinaryTag.of("a")).add(StringBinaryTag.of("bc")).build())
+      .put("AnEmptyList", ListBinaryTag.empty())
+      .put("ACompound", CompoundBinaryTag.builder().putShort("AShort", (short) 1).putFloat("AFloat", 2f).build())
+      .build();
+    final ByteArrayDataOutput expected = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(a, expected);
+    assertEquals(expected.toByteArray().length, BinaryTagIO.sizeOf(a));
+    assertArrayEquals(expected.toByteArray(), BinaryTagIO.writeByteArray(a));
+
+    final CompoundBinaryTag b = a.putString("AString", "changed");
+    final ByteArrayDataOutput changed = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(b, changed);
+    assertEquals(changed.toByteArray().length, BinaryTagIO.sizeOf(b));
+    assertEquals(changed.toByteArray().length, BinaryTagIO.sizeOf(BinaryTagIO.readLazyByteArray(changed.toByteArray())));
+    assertEquals(3 + 1, BinaryTagIO.sizeOf(CompoundBinaryTag.empty()));
+  }
+
+  @Test
+  void testUnknownType() {
+    // a compound holding one entry of type 13, named "a"
+    final byte[] bytes = new byte[]{10, 0, 0, 13, 0, 1, 'a', 0};
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagIO.readDataInput(ByteStreams.newDataInput(bytes)));
+    assertThrows(IllegalArgumentException.class, () -> BinaryTagType.of((byte) -1));
+    assertEquals(BinaryTagTypes.LONG_ARRAY, BinaryTagType.of((byte) 12));
+  }
+
   private <T extends BinaryTag> T testWriteRead(final T a, final BinaryTagType<T> type) throws IOException {
     final T b = this.writeRead(a, type);
     assertEquals(a, b);
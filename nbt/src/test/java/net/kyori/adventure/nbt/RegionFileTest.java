@@ -0,0 +1,125 @@
+/*
+ * This file is part of adventure, licensed under the MIT License.
+ *
+ * Copyright (c) 2017-2020 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.adventure.nbt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegionFileTest {
+  private static final int SECTOR = 4096;
+
+  @Test
+  void testReadChunks(final @TempDir Path dir) throws IOException {
+    final CompoundBinaryTag zlib = chunk(0, 0);
+    final CompoundBinaryTag gzip = chunk(5, 7);
+    final CompoundBinaryTag none = chunk(31, 31);
+    final byte[][] data = new byte[][]{encode(zlib, 2), encode(gzip, 1), encode(none, 3)};
+    final int[][] positions = {{0, 0}, {5, 7}, {31, 31}};
+    final Path path = dir.resolve("r.0.0.mca");
+    write(path, positions, data);
+
+    try(final RegionFile region = RegionFile.open(path)) {
+      assertTrue(region.hasChunk(0, 0));
+      assertFalse(region.hasChunk(1, 0));
+      assertNull(region.readChunk(1, 0));
+      assertEquals(1234, region.timestamp(5, 7));
+      assertEquals(zlib, region.readChunk(0, 0));
+      assertEquals(gzip, region.readChunk(5, 7));
+      assertEquals(gzip, region.readChunk(32 + 5, -32 + 7)); // absolute coordinates
+      assertEquals(none, region.readChunk(31, 31));
+    }
+  }
+
+  @Test
+  void testUnsupportedCompression(final @TempDir Path dir) throws IOException {
+    final Path path = dir.resolve("r.0.0.mca");
+    write(path, new int[][]{{0, 0}}, new byte[][]{encode(chunk(0, 0), 0x82)});
+    try(final RegionFile region = RegionFile.open(path)) {
+      assertThrows(IOException.class, () -> region.readChunk(0, 0));
+    }
+  }
+
+  @Test
+  void testTooSmall(final @TempDir Path dir) throws IOException {
+    final Path path = dir.resolve("r.0.0.mca");
+    Files.write(path, new byte[SECTOR]);
+    assertThrows(IOException.class, () -> RegionFile.open(path));
+  }
+
+  private static CompoundBinaryTag chunk(final int x, final int z) {
+    return CompoundBinaryTag.builder()
+      .putInt("DataVersion", 2230)
+      .put("Level", CompoundBinaryTag.builder()
+        .putInt("xPos", x)
+        .putInt("zPos", z)
+        .putLongArray("Heightmap", new long[37])
+        .build())
+      .build();
+  }
+
+  private static byte[] encode(final CompoundBinaryTag tag, final int compression) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final int type = compression & 0x7f;
+    try(final OutputStream os = type == 1 ? new GZIPOutputStream(bytes) : type == 2 ? new DeflaterOutputStream(bytes) : bytes) {
+      BinaryTagIO.writeOutputStream(tag, os);
+    }
+    final byte[] payload = bytes.toByteArray();
+    final ByteBuffer buffer = ByteBuffer.allocate(5 + payload.length);
+    buffer.putInt(payload.length + 1).put((byte) compression).put(payload);
+    return buffer.array();
+  }
+
+  private static void write(final Path path, final int[][] positions, final byte[][] data) throws IOException {
+    int sector = 2;
+    final ByteBuffer header = ByteBuffer.allocate(SECTOR * 2);
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    for(int i = 0; i < positions.length; i++) {
+      final int index = positions[i][0] + positions[i][1] * 32;
+      final int sectors = (data[i].length + SECTOR - 1) / SECTOR;
+      header.putInt(index * 4, sector << 8 | sectors);
+      header.putInt(SECTOR + index * 4, 1234);
+      body.write(data[i]);
+      body.write(new byte[sectors * SECTOR - data[i].length]);
+      sector += sectors;
+    }
+    final ByteArrayOutputStream file = new ByteArrayOutputStream();
+    file.write(header.array());
+    file.write(body.toByteArray());
+    Files.write(path, file.toByteArray());
+  }
+}
@@ -23,15 +23,19 @@
  */
 package net.kyori.adventure.nbt;
 
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Resources;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -88,6 +92,17 @@ class StringIOTest {
     assertEquals(bigTest, parsedSnbt);
   }
 
+  @Test
+  public void testAsStringLength() throws IOException {
+    final CompoundBinaryTag bigTest;
+    try(final InputStream is = this.getClass().getResourceAsStream("/bigtest.nbt")) {
+      bigTest = BinaryTagIO.readCompressedInputStream(is);
+    }
+    assertEquals(TagStringIO.get().asString(bigTest).length(), TagStringIO.get().asStringLength(bigTest));
+    final TagStringIO pretty = TagStringIO.builder().indent(4).build();
+    assertEquals(pretty.asString(bigTest).length(), pretty.asStringLength(bigTest));
+  }
+
   @Test
   public void testBigTestPrettyPrinting() throws IOException {
     final CompoundBinaryTag bigTest;
@@ -199,6 +214,29 @@ class StringIOTest {
     assertEquals(DoubleBinaryTag.of(-9.5), this.stringToTag("-9.5"));
   }
 
+  @Test
+  public void testDecimalFormatting() throws IOException {
+    assertEquals("-0.0f", this.tagToString(FloatBinaryTag.of(-0f)));
+    assertEquals("9999999.0f", this.tagToString(FloatBinaryTag.of(9999999f)));
+    assertEquals("1.0E7f", this.tagToString(FloatBinaryTag.of(1e7f)));
+    assertEquals("NaNf", this.tagToString(FloatBinaryTag.of(Float.NaN)));
+    assertEquals("-0.0d", this.tagToString(DoubleBinaryTag.of(-0d)));
+    assertEquals("-42.0d", this.tagToString(DoubleBinaryTag.of(-42d)));
+    assertEquals("9.223372036854776E18d", this.tagToString(DoubleBinaryTag.of(Long.MAX_VALUE)));
+    assertEquals("[-9223372036854775808L,0L]", this.tagToString(ListBinaryTag.builder().add(LongBinaryTag.of(Long.MIN_VALUE)).add(LongBinaryTag.of(0)).build()));
+  }
+
+  @Test
+  public void testLongQuotedString() throws IOException {
+    final StringBuilder value = new StringBuilder();
+    for(int i = 0; i < 1000; i++) {
+      value.append("a\\\"b");
+    }
+    final String written = this.tagToString(StringBinaryTag.of(value.toString()));
+    assertEquals('"' + value.toString().replace("\\", "\\\\").replace("\"", "\\\"") + '"', written);
+    assertEquals(StringBinaryTag.of(value.toString()), this.stringToTag(written));
+  }
+
   @Test
   public void testByteArrayTag() throws IOException {
     assertEquals("[B;1B,2B,3B]", this.tagToString(ByteArrayBinaryTag.of((byte) 1, (byte) 2, (byte) 3)));
@@ -242,6 +280,115 @@ class StringIOTest {
     assertEquals(LongArrayBinaryTag.of(2, 4, 6, -8, 10, 12), this.stringToTag("[L; 2l, 4l, 6l, -8l, 10l, 12l]"));
   }
 
+  @Test
+  public void testEmptyContainers() throws IOException {
+    assertEquals(CompoundBinaryTag.empty(), this.stringToTag("{}"));
+    assertEquals(CompoundBinaryTag.empty(), this.stringToTag("{ }"));
+    assertEquals(ListBinaryTag.empty(), this.stringToTag("[]"));
+    assertEquals(ByteArrayBinaryTag.of(), this.stringToTag("[B;]"));
+    assertEquals(IntArrayBinaryTag.of(), this.stringToTag("[I; ]"));
+    assertEquals(LongArrayBinaryTag.of(), this.stringToTag("[L;]"));
+  }
+
+  @Test
+  public void testNumberBounds() throws IOException {
+    assertEquals(ByteBinaryTag.of(Byte.MIN_VALUE), this.stringToTag("-128b"));
+    assertEquals(StringBinaryTag.of("128b"), this.stringToTag("128b"));
+    assertEquals(IntBinaryTag.of(Integer.MIN_VALUE), this.stringToTag("-2147483648"));
+    assertEquals(DoubleBinaryTag.of(2147483648d), this.stringToTag("2147483648"));
+    assertEquals(LongBinaryTag.of(Long.MAX_VALUE), this.stringToTag("9223372036854775807L"));
+    assertEquals(StringBinaryTag.of("9223372036854775808L"), this.stringToTag("9223372036854775808L"));
+  }
+
+  @Test
+  public void testDecimalPrecision() throws IOException {
+    for(final String value : new String[]{"0.1", "1.7976931348623157e308", "4.9e-324", "2.2250738585072014E-308", "0.30000000000000004", "123456789012345678901234567890"}) {
+      assertEquals(DoubleBinaryTag.of(Double.parseDouble(value)), this.stringToTag(value + "d"));
+      assertEquals(FloatBinaryTag.of(Float.parseFloat(value)), this.stringToTag(value + "f"));
+    }
+    assertEquals(DoubleBinaryTag.of(Double.NaN), this.stringToTag("NaNd"));
+    assertEquals(StringBinaryTag.of("-Infinityf"), this.stringToTag("-Infinityf"));
+  }
+
+  @Test
+  public void testReadFromReaderAndChars() throws IOException {
+    final CompoundBinaryTag expected = CompoundBinaryTag.builder()
+      .putString("name", "stone")
+      .putIntArray("values", new int[]{1, 2, 3})
+      .build();
+    final String input = "{name: stone, values: [I; 1, 2, 3]}";
+    assertEquals(expected, TagStringIO.get().asCompound(new StringReader(input)));
+    final char[] chars = ("xx" + input + "yy").toCharArray();
+    assertEquals(expected, TagStringIO.get().asCompound(chars, 2, input.length()));
+    assertThrows(IOException.class, () -> TagStringIO.get().asCompound(chars, 0, chars.length));
+  }
+
+  @Test
+  public void testTranscodeBigTest() throws IOException {
+    final CompoundBinaryTag bigTest;
+    try(final InputStream is = this.getClass().getResourceAsStream("/bigtest.nbt")) {
+      bigTest = BinaryTagIO.readCompressedInputStream(is);
+    }
+    final ByteArrayDataOutput binary = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(bigTest, binary);
+
+    for(final TagStringIO io : new TagStringIO[]{TagStringIO.get(), TagStringIO.builder().indent(4).build()}) {
+      final String expected = io.asString(bigTest);
+      assertEquals(expected, io.asString(ByteStreams.newDataInput(binary.toByteArray())));
+
+      final ByteArrayDataOutput transcoded = ByteStreams.newDataOutput();
+      io.toDataOutput(expected, transcoded);
+      assertEquals(bigTest, BinaryTagIO.readDataInput(ByteStreams.newDataInput(transcoded.toByteArray())));
+    }
+  }
+
+  @Test
+  public void testTranscodeToBinary() throws IOException {
+    final String input = "{a: 1b, b: true, c: 2s, d: 3, e: 4L, f: 5.5f, g: 6.5, h: \"quoted\", i: unquoted, j: [], k: [[1, 2], []],"
+      + " l: [{x: {}}, {}], m: [B; 1B, 2B], n: [I; 3, 4], o: [L; 5L], p: esc\\,aped}";
+    final ByteArrayDataOutput transcoded = ByteStreams.newDataOutput();
+    TagStringIO.get().toDataOutput(new StringReader(input), transcoded);
+    final CompoundBinaryTag expected = TagStringIO.get().asCompound(input);
+    final ByteArrayDataOutput written = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(expected, written);
+    assertArrayEquals(written.toByteArray(), transcoded.toByteArray());
+
+    // legacy lists with indices
+    final ByteArrayDataOutput legacy = ByteStreams.newDataOutput();
+    TagStringIO.get().toDataOutput("{a: [0: 1, 1: 2]}", legacy);
+    assertEquals(TagStringIO.get().asCompound("{a: [1, 2]}"), BinaryTagIO.readDataInput(ByteStreams.newDataInput(legacy.toByteArray())));
+
+    final ByteArrayDataOutput invalid = ByteStreams.newDataOutput();
+    assertThrows(IOException.class, () -> TagStringIO.get().toDataOutput("{a: [1, 2b]}", invalid));
+    assertThrows(IOException.class, () -> TagStringIO.get().toDataOutput("{a: 1} b", invalid));
+    assertEquals(0, invalid.toByteArray().length);
+  }
+
+  @Test
+  public void testTranscodeToString() throws IOException {
+    final CompoundBinaryTag tag = CompoundBinaryTag.builder()
+      .putString("comp:lex \"key", "let's go")
+      .putLong("long", Long.MIN_VALUE)
+      .putDouble("double", -0d)
+      .put("list", ListBinaryTag.builder().add(IntArrayBinaryTag.of(1, 2)).add(IntArrayBinaryTag.of()).build())
+      .put("empty", ListBinaryTag.empty())
+      .put("nested", CompoundBinaryTag.builder().putByteArray("bytes", new byte[]{1, -1}).build())
+      .build();
+    final ByteArrayDataOutput binary = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(tag, binary);
+
+    final StringWriter writer = new StringWriter();
+    TagStringIO.get().toAppendable(ByteStreams.newDataInput(binary.toByteArray()), writer);
+    assertEquals(TagStringIO.get().asString(tag), writer.toString());
+
+    final TagStringIO legacy = TagStringIO.builder().emitLegacy(true).build();
+    final CompoundBinaryTag ints = CompoundBinaryTag.builder().putIntArray("a", new int[]{1, 2}).build();
+    final ByteArrayDataOutput intsBinary = ByteStreams.newDataOutput();
+    BinaryTagIO.writeDataOutput(ints, intsBinary);
+    assertEquals(legacy.asString(ints), legacy.asString(ByteStreams.newDataInput(intsBinary.toByteArray())));
+    assertThrows(IOException.class, () -> legacy.asString(ByteStreams.newDataInput(binary.toByteArray())));
+  }
+
   private String tagToString(final BinaryTag tag) throws IOException {
     final StringWriter writer = new StringWriter();
     try(final TagStringWriter emitter = new TagStringWriter(writer, "")) {